@@ -0,0 +1,171 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import org.djutils.draw.point.OrientedPoint2d;
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.actor.SupplyChainActor;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.message.Message;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicy;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiverDirect;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStoreInterface;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryActor;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryRole;
+
+/**
+ * BenchActor is an actor for the micro benchmarks, with an inventory role that does not restock, and a role that counts the
+ * received BenchMessages.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class BenchActor extends SupplyChainActor implements InventoryActor
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the inventory role. */
+    private InventoryRole inventoryRole;
+
+    /** the policy that counts the received messages. */
+    private final CountingPolicy countingPolicy;
+
+    /**
+     * Create an actor for the benchmarks.
+     * @param id String; the unique id of the actor
+     * @param model SupplyChainModelInterface; the model
+     * @param location OrientedPoint2d; the location of the actor
+     * @param messageStore TradeMessageStoreInterface; the message store of the actor
+     * @throws ActorAlreadyDefinedException when an actor with the id already exists
+     */
+    public BenchActor(final String id, final SupplyChainModelInterface model, final OrientedPoint2d location,
+            final TradeMessageStoreInterface messageStore) throws ActorAlreadyDefinedException
+    {
+        super(id, id, model, location, id, messageStore);
+        setInventoryRole(new BenchInventoryRole(this));
+        this.countingPolicy = new CountingPolicy(new MessageRole(this));
+    }
+
+    /**
+     * Return the number of BenchMessages that the actor received.
+     * @return long; the number of received BenchMessages
+     */
+    public long getReceivedCount()
+    {
+        return this.countingPolicy.count;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InventoryRole getInventoryRole()
+    {
+        return this.inventoryRole;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setInventoryRole(final InventoryRole inventoryRole)
+    {
+        Throw.whenNull(inventoryRole, "inventoryRole cannot be null");
+        this.inventoryRole = inventoryRole;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void checkNecessaryRoles()
+    {
+        // the roles are created in the constructor
+    }
+
+    /** Message for the delivery benchmarks. */
+    public static class BenchMessage extends Message
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** constructor for the checkpoint. */
+        BenchMessage()
+        {
+            super();
+        }
+
+        /**
+         * @param sender BenchActor; the sender
+         * @param receiver BenchActor; the receiver
+         */
+        public BenchMessage(final BenchActor sender, final BenchActor receiver)
+        {
+            super(sender, receiver);
+        }
+    }
+
+    /** Inventory role without restocking. */
+    static class BenchInventoryRole extends InventoryRole
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /**
+         * @param owner BenchActor; the owner of the role
+         */
+        BenchInventoryRole(final BenchActor owner)
+        {
+            super(owner);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void checkInventory(final Product product)
+        {
+            // no restocking in the benchmarks
+        }
+    }
+
+    /** Role that receives the BenchMessages directly. */
+    static class MessageRole extends Role
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /**
+         * @param owner BenchActor; the owner of the role
+         */
+        MessageRole(final BenchActor owner)
+        {
+            super("messages", owner, new MessageReceiverDirect());
+        }
+    }
+
+    /** Policy that counts the received BenchMessages. */
+    static class CountingPolicy extends MessagePolicy<BenchMessage>
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the number of handled messages. */
+        private long count = 0;
+
+        /**
+         * @param role Role; the role of the policy
+         */
+        CountingPolicy(final Role role)
+        {
+            super("CountingPolicy", role, BenchMessage.class);
+            role.setMessagePolicy(this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean handleMessage(final BenchMessage message)
+        {
+            this.count++;
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Length;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.Point;
+
+import nl.tudelft.simulation.dsol.SimRuntimeException;
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModel;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+
+/**
+ * BenchModel is an empty model with Euclidean distances, in which the micro benchmarks create their actors. The simulator is
+ * not started; the benchmarks execute the events they schedule themselves.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class BenchModel extends SupplyChainModel
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /**
+     * Create an empty benchmark model.
+     * @param simulator SupplyChainSimulatorInterface; the simulator
+     */
+    public BenchModel(final SupplyChainSimulatorInterface simulator)
+    {
+        super(simulator);
+    }
+
+    /**
+     * Create a simulator with an initialized, empty BenchModel. The events of the replication itself are removed from the
+     * event list, so the benchmarks only execute their own events.
+     * @return BenchModel; the initialized model
+     */
+    public static BenchModel create()
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("bench", Time.ZERO);
+        BenchModel model = new BenchModel(simulator);
+        SingleReplication<Duration> replication = new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO,
+                new Duration(1000.0, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        simulator.getEventList().clear();
+        return model;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Length calculateDistance(final Point<?> loc1, final Point<?> loc2)
+    {
+        double dx = loc2.getX() - loc1.getX();
+        double dy = loc2.getY() - loc1.getY();
+        return Length.instantiateSI(Math.sqrt(dx * dx + dy * dy));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void constructModel() throws SimRuntimeException
+    {
+        // the benchmarks create their own actors
+    }
+
+}
@@ -0,0 +1,150 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.bench.BenchActor.BenchMessage;
+import nl.tudelft.simulation.supplychain.checkpoint.ModelCheckpoint;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+
+/**
+ * CheckpointBenchmark measures saving a model to a ModelCheckpoint and restoring it into a model with the same structure, for
+ * a growing number of actors. Each actor has a product in its inventory, a number of internal demands with a request for quote
+ * in its message store, and a pending message to its neighbor.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckpointBenchmark
+{
+    /** the number of internal demands in the message store of each actor. */
+    private static final int DEMANDS_PER_ACTOR = 10;
+
+    /** the number of actors in the model. */
+    @Param({"10", "100", "1000"})
+    private int numberOfActors;
+
+    /** the checkpoint of the model to save. */
+    private ModelCheckpoint saveCheckpoint;
+
+    /** the checkpoint of the model to restore into. */
+    private ModelCheckpoint restoreCheckpoint;
+
+    /** the stream to save to, which is reused. */
+    private ByteArrayOutputStream out;
+
+    /** the saved checkpoint. */
+    private byte[] bytes;
+
+    /**
+     * Create the model to save and the model to restore into, and save the checkpoint to restore.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws IOException on checkpoint error
+     */
+    @Setup
+    public void setup() throws ActorAlreadyDefinedException, IOException
+    {
+        this.saveCheckpoint = new ModelCheckpoint(createModel(true));
+        this.restoreCheckpoint = new ModelCheckpoint(createModel(false));
+        this.out = new ByteArrayOutputStream();
+        this.saveCheckpoint.save(this.out);
+        this.bytes = this.out.toByteArray();
+    }
+
+    /**
+     * Create a model with the actors and a product. The state of the actors is only filled for the model to save.
+     * @param fill boolean; whether to fill the inventories and message stores, and to schedule the messages
+     * @return BenchModel; the model
+     * @throws ActorAlreadyDefinedException on error
+     */
+    private BenchModel createModel(final boolean fill) throws ActorAlreadyDefinedException
+    {
+        BenchModel model = BenchModel.create();
+        Money price = new Money(10.0, MoneyUnit.USD);
+        Product product = new Product(model, "product", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+        BenchActor[] actors = new BenchActor[this.numberOfActors];
+        for (int i = 0; i < this.numberOfActors; i++)
+        {
+            actors[i] = new BenchActor("actor" + i, model, new OrientedPoint2d(i, i), new TradeMessageStore());
+        }
+        if (fill)
+        {
+            for (int i = 0; i < this.numberOfActors; i++)
+            {
+                BenchActor actor = actors[i];
+                BenchActor neighbor = actors[(i + 1) % this.numberOfActors];
+                actor.getInventoryRole().getInventory().addToInventory(product, 100.0, price.multiplyBy(100.0));
+                for (int d = 0; d < DEMANDS_PER_ACTOR; d++)
+                {
+                    InternalDemand demand = new InternalDemand(actor, product, 1.0, Time.ZERO, Time.ZERO);
+                    actor.getMessageStore().addMessage(demand, true);
+                    actor.getMessageStore().addMessage(new RequestForQuote(actor, neighbor, demand, null, Duration.ZERO),
+                            true);
+                }
+                actor.sendMessage(new BenchMessage(actor, neighbor), new Duration(1.0, DurationUnit.HOUR));
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Save the model to a checkpoint in memory.
+     * @return int; the size of the checkpoint, to prevent dead code elimination
+     * @throws IOException on checkpoint error
+     */
+    @Benchmark
+    public int save() throws IOException
+    {
+        this.out.reset();
+        this.saveCheckpoint.save(this.out);
+        return this.out.size();
+    }
+
+    /**
+     * Restore the checkpoint into the second model.
+     * @return int; the number of restored events, to prevent dead code elimination
+     * @throws IOException on checkpoint error
+     */
+    @Benchmark
+    public int restore() throws IOException
+    {
+        this.restoreCheckpoint.restore(new ByteArrayInputStream(this.bytes));
+        return this.restoreCheckpoint.getNumberOfEvents();
+    }
+
+}
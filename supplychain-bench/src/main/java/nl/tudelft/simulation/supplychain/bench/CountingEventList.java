@@ -0,0 +1,46 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import org.djunits.value.vdouble.scalar.Duration;
+
+import nl.tudelft.simulation.dsol.eventlists.RedBlackTree;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEventInterface;
+
+/**
+ * CountingEventList is the default event list of DSOL that counts the events that the simulator takes from the list, so the
+ * number of executed events per second of a model run can be reported.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class CountingEventList extends RedBlackTree<Duration>
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the number of events that have been taken from the list. */
+    private long count = 0;
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized SimEventInterface<Duration> removeFirst()
+    {
+        SimEventInterface<Duration> event = super.removeFirst();
+        if (event != null)
+        {
+            this.count++;
+        }
+        return event;
+    }
+
+    /**
+     * Return the number of events that have been taken from the list.
+     * @return long; the number of events that have been taken from the list
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+
+}
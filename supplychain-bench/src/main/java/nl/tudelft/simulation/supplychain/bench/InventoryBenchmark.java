@@ -0,0 +1,140 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.inventory.Inventory;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStore;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+
+/**
+ * InventoryBenchmark measures the updates of an inventory with a number of products: adding and removing products, and
+ * changing the claimed and ordered amounts, as done by the policies of the actors for each order.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryBenchmark
+{
+    /** the number of products in the inventory. */
+    @Param({"1", "10", "100"})
+    private int numberOfProducts;
+
+    /** the inventory under test. */
+    private Inventory inventory;
+
+    /** the products in the inventory. */
+    private Product[] products;
+
+    /** the price of one product. */
+    private Money price;
+
+    /** the index of the next product to update. */
+    private int next = 0;
+
+    /**
+     * Create an actor with an inventory that contains the products.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Setup
+    public void setup() throws ActorAlreadyDefinedException
+    {
+        BenchModel model = BenchModel.create();
+        BenchActor actor = new BenchActor("actor", model, new OrientedPoint2d(0, 0), new TradeMessageStore());
+        this.inventory = actor.getInventoryRole().getInventory();
+        this.price = new Money(10.0, MoneyUnit.USD);
+        this.products = new Product[this.numberOfProducts];
+        for (int i = 0; i < this.numberOfProducts; i++)
+        {
+            this.products[i] = new Product(model, "product" + i, Sku.PIECE, this.price, Mass.ONE, Volume.ONE, 0.0);
+            this.inventory.addToInventory(this.products[i], 1000.0, this.price.multiplyBy(1000.0));
+        }
+    }
+
+    /**
+     * Return the next product to update, cycling through the products.
+     * @return Product; the next product
+     */
+    private Product nextProduct()
+    {
+        Product product = this.products[this.next];
+        this.next = (this.next + 1) % this.numberOfProducts;
+        return product;
+    }
+
+    /**
+     * Add one product to the inventory and remove it again.
+     * @return double; the actual amount, to prevent dead code elimination
+     */
+    @Benchmark
+    public double addRemove()
+    {
+        Product product = nextProduct();
+        this.inventory.addToInventory(product, 1.0, this.price);
+        this.inventory.removeFromInventory(product, 1.0);
+        return this.inventory.getActualAmount(product);
+    }
+
+    /**
+     * Claim one product and release the claim again.
+     * @return double; the claimed amount, to prevent dead code elimination
+     */
+    @Benchmark
+    public double changeClaimedAmount()
+    {
+        Product product = nextProduct();
+        this.inventory.changeClaimedAmount(product, 1.0);
+        this.inventory.changeClaimedAmount(product, -1.0);
+        return this.inventory.getClaimedAmount(product);
+    }
+
+    /**
+     * Order one product and cancel the order again.
+     * @return double; the ordered amount, to prevent dead code elimination
+     */
+    @Benchmark
+    public double changeOrderedAmount()
+    {
+        Product product = nextProduct();
+        this.inventory.changeOrderedAmount(product, 1.0);
+        this.inventory.changeOrderedAmount(product, -1.0);
+        return this.inventory.getOrderedAmount(product);
+    }
+
+    /**
+     * Read the actual amount of a product.
+     * @return double; the actual amount, to prevent dead code elimination
+     */
+    @Benchmark
+    public double getActualAmount()
+    {
+        return this.inventory.getActualAmount(nextProduct());
+    }
+
+}
@@ -0,0 +1,132 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.json.JsonActorFactory;
+import nl.tudelft.simulation.supplychain.json.JsonMessageWriter;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+
+/**
+ * JsonExportBenchmark measures the export of a quote as a line of JSON, with the streaming JsonMessageWriter, and by building
+ * a JsonElement tree for the message and pretty printing it, which is the way messages were exported before the
+ * JsonMessageWriter. Both write to a Writer that discards the characters, so only the conversion is measured.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonExportBenchmark
+{
+    /** the quote to export. */
+    private Quote quote;
+
+    /** the Gson that converts the fields of a message, with the actors and products as references. */
+    private Gson fieldGson;
+
+    /** the Gson that pretty prints the tree. */
+    private Gson prettyGson;
+
+    /** the Writer for the tree export. */
+    private Writer treeOut;
+
+    /** the streaming writer. */
+    private JsonMessageWriter writer;
+
+    /**
+     * Create the model with a buyer and a supplier, the quote to export, and the writers.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Setup
+    public void setup() throws ActorAlreadyDefinedException
+    {
+        BenchModel model = BenchModel.create();
+        BenchActor buyer = new BenchActor("buyer", model, new OrientedPoint2d(0, 0), new TradeMessageStore());
+        BenchActor supplier = new BenchActor("supplier", model, new OrientedPoint2d(100, 100), new TradeMessageStore());
+        Product product = new Product(model, "product", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        InternalDemand demand = new InternalDemand(buyer, product, 5.0, Time.ZERO, Time.ZERO);
+        RequestForQuote rfq = new RequestForQuote(buyer, supplier, demand, null, Duration.ZERO);
+        this.quote = new Quote(supplier, buyer, rfq, product, 5.0, new Money(50.0, MoneyUnit.EUR), Time.ZERO, null, Time.ZERO);
+        this.fieldGson = JsonActorFactory.instance(model);
+        this.prettyGson = new GsonBuilder().setPrettyPrinting().create();
+        this.treeOut = Writer.nullWriter();
+        this.writer = new JsonMessageWriter(model, Writer.nullWriter());
+    }
+
+    /**
+     * Close the streaming writer.
+     * @throws IOException on write error
+     */
+    @TearDown
+    public void close() throws IOException
+    {
+        this.writer.close();
+    }
+
+    /**
+     * Build a JsonElement tree for the quote, and pretty print it.
+     * @return int; the length of the text, to prevent dead code elimination
+     * @throws IOException on write error
+     */
+    @Benchmark
+    public int tree() throws IOException
+    {
+        JsonObject wrapper = new JsonObject();
+        wrapper.addProperty("messageType", this.quote.getClass().getName());
+        wrapper.add("content", this.fieldGson.toJsonTree(this.quote));
+        String text = this.prettyGson.toJson(wrapper);
+        this.treeOut.write(text);
+        this.treeOut.write('\n');
+        return text.length();
+    }
+
+    /**
+     * Write the quote as a line of JSON with the JsonMessageWriter.
+     * @return long; the number of written lines, to prevent dead code elimination
+     * @throws IOException on write error
+     */
+    @Benchmark
+    public long streaming() throws IOException
+    {
+        this.writer.write(this.quote);
+        return this.writer.getNumberOfLines();
+    }
+
+}
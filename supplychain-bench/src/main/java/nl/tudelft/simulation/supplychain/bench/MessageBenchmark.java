@@ -0,0 +1,108 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.bench.BenchActor.BenchMessage;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStore;
+
+/**
+ * MessageBenchmark measures the delivery of a message from one actor to another: a sendMessage that schedules the delivery
+ * event, followed by the execution of the event, a reflective delivery event that calls receiveMessage by method name for
+ * comparison, and a direct receiveMessage that dispatches the message to the policy.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark
+{
+    /** the simulator of the model. */
+    private SupplyChainSimulatorInterface simulator;
+
+    /** the sender. */
+    private BenchActor sender;
+
+    /** the receiver. */
+    private BenchActor receiver;
+
+    /** the message to send. */
+    private BenchMessage message;
+
+    /** the delay of the message. */
+    private Duration delay;
+
+    /**
+     * Create the model with two actors.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Setup
+    public void setup() throws ActorAlreadyDefinedException
+    {
+        BenchModel model = BenchModel.create();
+        this.simulator = model.getSimulator();
+        this.sender = new BenchActor("sender", model, new OrientedPoint2d(0, 0), new TradeMessageStore());
+        this.receiver = new BenchActor("receiver", model, new OrientedPoint2d(100, 100), new TradeMessageStore());
+        this.message = new BenchMessage(this.sender, this.receiver);
+        this.delay = new Duration(1.0, DurationUnit.SECOND);
+    }
+
+    /**
+     * Send a message and execute its delivery event.
+     * @return long; the number of received messages, to prevent dead code elimination
+     */
+    @Benchmark
+    public long sendReceiveRoundTrip()
+    {
+        this.sender.sendMessage(this.message, this.delay);
+        this.simulator.getEventList().removeFirst().execute();
+        return this.receiver.getReceivedCount();
+    }
+
+    /**
+     * Schedule a reflective event that calls receiveMessage on the receiver by method name, and execute it. This is the way
+     * messages were delivered before the typed MessageDeliveryEvent.
+     * @return long; the number of received messages, to prevent dead code elimination
+     */
+    @Benchmark
+    public long reflectiveRoundTrip()
+    {
+        this.simulator.scheduleEventRel(this.delay, this.receiver, "receiveMessage", new Object[] {this.message});
+        this.simulator.getEventList().removeFirst().execute();
+        return this.receiver.getReceivedCount();
+    }
+
+    /**
+     * Hand a message directly to the receiver, which dispatches it to the policy.
+     * @return long; the number of received messages, to prevent dead code elimination
+     */
+    @Benchmark
+    public long receiveMessage()
+    {
+        this.receiver.receiveMessage(this.message);
+        return this.receiver.getReceivedCount();
+    }
+
+}
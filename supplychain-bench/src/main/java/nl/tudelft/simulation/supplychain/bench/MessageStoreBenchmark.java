@@ -0,0 +1,103 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.store.trade.IndexedTradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStoreInterface;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+
+/**
+ * MessageStoreBenchmark measures adding and removing a message in a message store that already contains the messages of a
+ * number of internal demands, for the TradeMessageStore and the IndexedTradeMessageStore.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageStoreBenchmark
+{
+    /** the number of internal demands in the store. */
+    @Param({"100", "1000", "10000", "100000"})
+    private int storeSize;
+
+    /** the type of store. */
+    @Param({"TradeMessageStore", "IndexedTradeMessageStore"})
+    private String storeType;
+
+    /** the store under test. */
+    private TradeMessageStoreInterface store;
+
+    /** a request for quote for each internal demand in the store. */
+    private RequestForQuote[] rfqs;
+
+    /** the index of the next request for quote to add. */
+    private int next = 0;
+
+    /**
+     * Fill the store with an internal demand and a request for quote per demand.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Setup
+    public void setup() throws ActorAlreadyDefinedException
+    {
+        BenchModel model = BenchModel.create();
+        this.store = "TradeMessageStore".equals(this.storeType) ? new TradeMessageStore() : new IndexedTradeMessageStore();
+        BenchActor buyer = new BenchActor("buyer", model, new OrientedPoint2d(0, 0), this.store);
+        BenchActor supplier = new BenchActor("supplier", model, new OrientedPoint2d(100, 100), new TradeMessageStore());
+        Product product = new Product(model, "product", Sku.PIECE, new Money(100.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        this.rfqs = new RequestForQuote[this.storeSize];
+        for (int i = 0; i < this.storeSize; i++)
+        {
+            InternalDemand demand = new InternalDemand(buyer, product, 1.0, Time.ZERO, Time.ZERO);
+            this.store.addMessage(demand, true);
+            this.rfqs[i] = new RequestForQuote(buyer, supplier, demand, null, Duration.ZERO);
+            this.store.addMessage(new RequestForQuote(buyer, supplier, demand, null, Duration.ZERO), true);
+        }
+    }
+
+    /**
+     * Add a request for quote for one of the demands, and remove it again, so the size of the store stays the same.
+     * @return int; the index of the demand, to prevent dead code elimination
+     */
+    @Benchmark
+    public int addRemoveMessage()
+    {
+        int index = this.next;
+        this.next = (this.next + 1) % this.storeSize;
+        this.store.addMessage(this.rfqs[index], true);
+        this.store.removeMessage(this.rfqs[index], true);
+        return index;
+    }
+
+}
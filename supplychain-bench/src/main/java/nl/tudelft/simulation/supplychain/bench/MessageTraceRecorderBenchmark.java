@@ -0,0 +1,214 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicy;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiverDirect;
+import nl.tudelft.simulation.supplychain.message.store.trade.EmptyTradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
+
+/**
+ * MessageTraceRecorderBenchmark measures sending and delivering a quote with and without a MessageTraceRecorder, where each
+ * quote leads to a record of the sender and a record of the receiver. The actors do not store their messages, so the
+ * difference is the cost of the recording. Every iteration writes a new trace in a temporary directory, which is deleted at the
+ * end of the iteration.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageTraceRecorderBenchmark
+{
+    /** whether the messages are recorded. */
+    @Param({"false", "true"})
+    private boolean recording;
+
+    /** the model. */
+    private BenchModel model;
+
+    /** the simulator of the model. */
+    private SupplyChainSimulatorInterface simulator;
+
+    /** the supplier that sends the quote. */
+    private BenchActor supplier;
+
+    /** the quote to send. */
+    private Quote quote;
+
+    /** the delay of the delivery. */
+    private Duration delay;
+
+    /** the policy of the buyer that counts the quotes. */
+    private QuoteCountingPolicy quotePolicy;
+
+    /** the directory of the trace of the current iteration. */
+    private Path dir;
+
+    /** the recorder of the current iteration, or null when the messages are not recorded. */
+    private MessageTraceRecorder recorder;
+
+    /**
+     * Create the model with a buyer and a supplier, and the quote that the supplier sends.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Setup
+    public void setup() throws ActorAlreadyDefinedException
+    {
+        this.model = BenchModel.create();
+        this.simulator = this.model.getSimulator();
+        BenchActor buyer = new BenchActor("buyer", this.model, new OrientedPoint2d(0, 0), new EmptyTradeMessageStore());
+        this.supplier = new BenchActor("supplier", this.model, new OrientedPoint2d(100, 100), new EmptyTradeMessageStore());
+        this.quotePolicy = new QuoteCountingPolicy(new QuoteRole(buyer));
+        Product product = new Product(this.model, "product", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE,
+                0.0);
+        InternalDemand demand = new InternalDemand(buyer, product, 1.0, Time.ZERO, Time.ZERO);
+        RequestForQuote rfq = new RequestForQuote(buyer, this.supplier, demand, null, Duration.ZERO);
+        this.quote = new Quote(this.supplier, buyer, rfq, product, 1.0, new Money(10.0, MoneyUnit.USD), Time.ZERO, null,
+                Time.ZERO);
+        this.delay = new Duration(1.0, DurationUnit.MINUTE);
+    }
+
+    /**
+     * Install a new recorder for the iteration when the messages are recorded.
+     * @throws IOException on trace error
+     */
+    @Setup(Level.Iteration)
+    public void startTrace() throws IOException
+    {
+        if (this.recording)
+        {
+            this.dir = Files.createTempDirectory("trace");
+            this.recorder = new MessageTraceRecorder(this.model, this.dir.resolve("run"));
+            this.model.setMessageTraceRecorder(this.recorder);
+        }
+    }
+
+    /**
+     * Close the recorder of the iteration, and delete its trace.
+     * @throws IOException on trace error
+     */
+    @TearDown(Level.Iteration)
+    public void endTrace() throws IOException
+    {
+        if (this.recorder != null)
+        {
+            this.model.setMessageTraceRecorder(null);
+            this.recorder.close();
+            this.recorder = null;
+            delete(this.dir);
+        }
+    }
+
+    /**
+     * Delete a directory with the files of a trace.
+     * @param dir Path; the directory
+     * @throws IOException on delete error
+     */
+    static void delete(final Path dir) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(dir))
+        {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Send the quote and execute its delivery event.
+     * @return long; the number of received quotes, to prevent dead code elimination
+     */
+    @Benchmark
+    public long sendReceiveQuote()
+    {
+        this.supplier.sendMessage(this.quote, this.delay);
+        this.simulator.getEventList().removeFirst().execute();
+        return this.quotePolicy.count;
+    }
+
+    /** Role of the buyer that receives the quotes directly. */
+    static class QuoteRole extends Role
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /**
+         * @param owner BenchActor; the owner of the role
+         */
+        QuoteRole(final BenchActor owner)
+        {
+            super("quotes", owner, new MessageReceiverDirect());
+        }
+    }
+
+    /** Policy that counts the received quotes. */
+    static class QuoteCountingPolicy extends MessagePolicy<Quote>
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the number of handled quotes. */
+        private long count = 0;
+
+        /**
+         * @param role Role; the role of the policy
+         */
+        QuoteCountingPolicy(final Role role)
+        {
+            super("QuoteCountingPolicy", role, Quote.class);
+            role.setMessagePolicy(this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean handleMessage(final Quote message)
+        {
+            this.count++;
+            return true;
+        }
+    }
+
+}
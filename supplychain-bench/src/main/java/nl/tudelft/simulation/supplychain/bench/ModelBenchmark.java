@@ -0,0 +1,109 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.dsol.simulators.ReplicationState;
+import nl.tudelft.simulation.supplychain.demo.bullwhip.BullwhipModel;
+import nl.tudelft.simulation.supplychain.demo.mtsmto.MTSMTOModel;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModel;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+
+/**
+ * ModelBenchmark measures complete headless runs of the demo models. Each invocation builds the model, and runs one
+ * replication to its end time. Next to the time per run, the number of executed events is reported as an auxiliary counter,
+ * from which JMH derives the number of events per second.
+ * The benchmark depends on supplychain-demo, and is only compiled in the <code>models</code> profile.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelBenchmark
+{
+    /** The run length and model to run, and the simulator that is created for each invocation. */
+    @State(Scope.Thread)
+    public static class ModelState
+    {
+        /** the model to run. */
+        @Param({"BullwhipModel", "MTSMTOModel"})
+        private String modelName;
+
+        /** the run length of the replication in days. */
+        @Param({"100"})
+        private double runLengthDays;
+
+        /** the simulator for the next run. */
+        private SupplyChainSimulator simulator;
+
+        /** the model for the next run. */
+        private SupplyChainModel model;
+
+        /** the event list that counts the executed events. */
+        private CountingEventList eventList;
+
+        /** Create a fresh simulator and model for each run, outside of the measurement. */
+        @Setup(Level.Invocation)
+        public void setup()
+        {
+            this.simulator = new SupplyChainSimulator("bench", Time.ZERO);
+            this.eventList = new CountingEventList();
+            this.simulator.setEventList(this.eventList);
+            this.model = "BullwhipModel".equals(this.modelName) ? new BullwhipModel(this.simulator)
+                    : new MTSMTOModel(this.simulator);
+        }
+    }
+
+    /** The number of events of a run, reported by JMH next to the time per run. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EventCounter
+    {
+        /** the number of executed events; a public field, so JMH can report it. */
+        public long events;
+    }
+
+    /**
+     * Build the model and run one replication to its end.
+     * @param state ModelState; the simulator and model to run
+     * @param counter EventCounter; the counter for the executed events
+     * @throws InterruptedException when the thread is interrupted while waiting for the end of the run
+     */
+    @Benchmark
+    public void runModel(final ModelState state, final EventCounter counter) throws InterruptedException
+    {
+        SingleReplication<Duration> replication = new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO,
+                new Duration(state.runLengthDays, DurationUnit.DAY));
+        state.simulator.initialize(state.model, replication);
+        state.simulator.start();
+        while (state.simulator.getReplicationState() != ReplicationState.ENDED)
+        {
+            Thread.sleep(1);
+        }
+        counter.events += state.eventList.getCount();
+    }
+
+}
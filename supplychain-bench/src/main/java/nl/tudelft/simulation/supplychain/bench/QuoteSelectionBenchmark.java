@@ -0,0 +1,150 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.unit.SpeedUnit;
+import org.djunits.unit.TimeUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Speed;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.jstats.distributions.DistConstant;
+import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.policy.quote.QuoteComparatorEnum;
+import nl.tudelft.simulation.supplychain.policy.quote.QuotePolicyAll;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.transport.TransportMode;
+import nl.tudelft.simulation.supplychain.transport.TransportOption;
+import nl.tudelft.simulation.supplychain.transport.TransportOptionStep;
+
+/**
+ * QuoteSelectionBenchmark measures the selection of the best quote from a list of N valid quotes of suppliers at different
+ * distances, with different prices and delivery dates.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteSelectionBenchmark
+{
+    /** the number of quotes to select from. */
+    @Param({"1", "10", "100", "1000"})
+    private int numberOfQuotes;
+
+    /** the comparator to sort the quotes. */
+    @Param({"SORT_PRICE_DATE_DISTANCE", "SORT_DISTANCE_PRICE_DATE"})
+    private QuoteComparatorEnum comparatorType;
+
+    /** the policy that selects the quote. */
+    private SelectingQuotePolicy policy;
+
+    /** the quotes. */
+    private List<Quote> quotes;
+
+    /**
+     * Create a buyer, N suppliers, and a quote of each supplier.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Setup
+    public void setup() throws ActorAlreadyDefinedException
+    {
+        BenchModel model = BenchModel.create();
+        MersenneTwister stream = new MersenneTwister(10L);
+        BenchActor buyer = new BenchActor("buyer", model, new OrientedPoint2d(0, 0), new TradeMessageStore());
+        Role buyingRole = new BenchActor.MessageRole(buyer);
+        this.policy = new SelectingQuotePolicy(buyingRole, this.comparatorType);
+        Product product = new Product(model, "product", Sku.PIECE, new Money(100.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        TransportMode truck = new TransportMode("truck", new Speed(80.0, SpeedUnit.KM_PER_HOUR));
+        InternalDemand demand = new InternalDemand(buyer, product, 10.0, Time.ZERO, new Time(1000.0, TimeUnit.BASE_DAY));
+        Time validity = new Time(100.0, TimeUnit.BASE_DAY);
+        this.quotes = new ArrayList<>();
+        for (int i = 0; i < this.numberOfQuotes; i++)
+        {
+            BenchActor supplier = new BenchActor("supplier" + i, model,
+                    new OrientedPoint2d(1000.0 * stream.nextDouble(), 1000.0 * stream.nextDouble()), new TradeMessageStore());
+            TransportOption transportOption = new TransportOption("option" + i);
+            TransportOptionStep step = new TransportOptionStep("step" + i, supplier, buyer, truck);
+            step.setEstimatedLoadingTime(Sku.PIECE, new Duration(2.0, DurationUnit.HOUR));
+            step.setEstimatedUnloadingTime(Sku.PIECE, new Duration(2.0, DurationUnit.HOUR));
+            step.setEstimatedLoadingCost(Sku.PIECE, new Money(10.0, MoneyUnit.USD));
+            step.setEstimatedUnloadingCost(Sku.PIECE, new Money(10.0, MoneyUnit.USD));
+            step.setEstimatedTransportCostPerKm(Sku.PIECE, new Money(1.0, MoneyUnit.USD));
+            transportOption.addTransportStep(step);
+            RequestForQuote rfq = new RequestForQuote(buyer, supplier, demand, transportOption, Duration.ZERO);
+            Money price = new Money(10.0 * (90.0 + 20.0 * stream.nextDouble()), MoneyUnit.USD);
+            Time shippingDate = new Time(stream.nextInt(1, 10), TimeUnit.BASE_DAY);
+            this.quotes.add(new Quote(supplier, buyer, rfq, product, 10.0, price, shippingDate, transportOption, validity));
+        }
+    }
+
+    /**
+     * Select the best quote.
+     * @return Quote; the best quote, to prevent dead code elimination
+     */
+    @Benchmark
+    public Quote selectBestQuote()
+    {
+        return this.policy.selectBest(this.quotes);
+    }
+
+    /** Quote policy that makes the selection of the best quote available to the benchmark. */
+    static class SelectingQuotePolicy extends QuotePolicyAll
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /**
+         * @param owner Role; the role of the buyer
+         * @param comparatorType QuoteComparatorEnum; the comparator to sort the quotes
+         */
+        SelectingQuotePolicy(final Role owner, final QuoteComparatorEnum comparatorType)
+        {
+            super(owner, comparatorType, new DistContinuousDuration(new DistConstant(new MersenneTwister(1L), 0.0),
+                    DurationUnit.HOUR), 0.2, 0.1);
+        }
+
+        /**
+         * Select the best quote from the list.
+         * @param quotes List&lt;Quote&gt;; the quotes to select from
+         * @return Quote; the best quote, or null when no quote is valid
+         */
+        Quote selectBest(final List<Quote> quotes)
+        {
+            return selectBestQuote(quotes);
+        }
+    }
+
+}
@@ -0,0 +1,226 @@
+package nl.tudelft.simulation.supplychain.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.djutils.event.Event;
+import org.djutils.event.EventListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.dsol.simulators.ReplicationState;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.ActorNotFoundException;
+import nl.tudelft.simulation.supplychain.actor.SupplyChainActor;
+import nl.tudelft.simulation.supplychain.bench.MessageTraceRecorderBenchmark.QuoteCountingPolicy;
+import nl.tudelft.simulation.supplychain.bench.MessageTraceRecorderBenchmark.QuoteRole;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.inventory.Inventory;
+import nl.tudelft.simulation.supplychain.message.store.trade.EmptyTradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
+import nl.tudelft.simulation.supplychain.trace.TraceReader;
+import nl.tudelft.simulation.supplychain.trace.TraceReplay;
+
+/**
+ * TraceReplayBenchmark measures the replay of a recorded trace in a fresh model, with mapped and with streamed segments. The
+ * trace is recorded once, from a run in which a supplier sends a quote to a buyer every hour, and the buyer adds a product to
+ * its inventory and removes it again. Each invocation replays the complete trace on the simulator thread, to listeners that
+ * count the events, and runs the replication to its end, in the same way as the ModelBenchmark.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TraceReplayBenchmark
+{
+    /** the number of hourly ticks in the recorded run. */
+    private static final int NR_TICKS = 10_000;
+
+    /** whether the segments are mapped or streamed. */
+    @Param({"true", "false"})
+    private boolean mapped;
+
+    /** the directory of the trace. */
+    private Path dir;
+
+    /** the path of the trace. */
+    private Path path;
+
+    /** the model for the next replay. */
+    private BenchModel model;
+
+    /** the listener of the model for the next replay. */
+    private CountingListener listener;
+
+    /**
+     * Record the trace of a run.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws ActorNotFoundException on error
+     * @throws IOException on trace error
+     * @throws InterruptedException when the thread is interrupted while waiting for the end of the run
+     */
+    @Setup(Level.Trial)
+    public void record() throws ActorAlreadyDefinedException, ActorNotFoundException, IOException, InterruptedException
+    {
+        this.dir = Files.createTempDirectory("trace");
+        this.path = this.dir.resolve("run");
+        BenchModel recorded = createModel();
+        BenchActor buyer = (BenchActor) recorded.getActor("buyer");
+        BenchActor supplier = (BenchActor) recorded.getActor("supplier");
+        Product product = recorded.getProducts().get(0);
+        InternalDemand demand = new InternalDemand(buyer, product, 1.0, Time.ZERO, Time.ZERO);
+        RequestForQuote rfq = new RequestForQuote(buyer, supplier, demand, null, Duration.ZERO);
+        Quote quote = new Quote(supplier, buyer, rfq, product, 1.0, new Money(10.0, MoneyUnit.USD), Time.ZERO, null, Time.ZERO);
+        Inventory inventory = buyer.getInventoryRole().getInventory();
+        Money price = new Money(10.0, MoneyUnit.USD);
+        Duration delay = new Duration(1.0, DurationUnit.MINUTE);
+        for (int tick = 1; tick <= NR_TICKS; tick++)
+        {
+            recorded.getSimulator().scheduleEventAbs(new Duration(tick, DurationUnit.HOUR), () ->
+            {
+                supplier.sendMessage(quote, delay);
+                inventory.addToInventory(product, 1.0, price);
+                inventory.removeFromInventory(product, 1.0);
+            });
+        }
+        MessageTraceRecorder recorder = new MessageTraceRecorder(recorded, this.path);
+        recorded.setMessageTraceRecorder(recorder);
+        run(recorded);
+        recorded.setMessageTraceRecorder(null);
+        recorder.close();
+    }
+
+    /**
+     * Delete the trace.
+     * @throws IOException on delete error
+     */
+    @TearDown(Level.Trial)
+    public void deleteTrace() throws IOException
+    {
+        MessageTraceRecorderBenchmark.delete(this.dir);
+    }
+
+    /**
+     * Create a fresh model with listeners for the next replay, outside of the measurement.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws ActorNotFoundException on error
+     * @throws RemoteException on listener error
+     */
+    @Setup(Level.Invocation)
+    public void setup() throws ActorAlreadyDefinedException, ActorNotFoundException, RemoteException
+    {
+        this.model = createModel();
+        this.listener = new CountingListener();
+        for (String id : new String[] {"buyer", "supplier"})
+        {
+            BenchActor actor = (BenchActor) this.model.getActor(id);
+            actor.addListener(this.listener, SupplyChainActor.SEND_MESSAGE_EVENT);
+            actor.getInventoryRole().getInventory().addListener(this.listener, Inventory.INVENTORY_CHANGE_EVENT);
+        }
+    }
+
+    /**
+     * Create and initialize a model with a buyer and a supplier that do not store their messages, and a product. The
+     * replication ends after the last tick.
+     * @return BenchModel; the model
+     * @throws ActorAlreadyDefinedException on error
+     */
+    private BenchModel createModel() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("bench", Time.ZERO);
+        BenchModel benchModel = new BenchModel(simulator);
+        SingleReplication<Duration> replication = new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO,
+                new Duration(NR_TICKS + 1, DurationUnit.HOUR));
+        simulator.initialize(benchModel, replication);
+        BenchActor buyer = new BenchActor("buyer", benchModel, new OrientedPoint2d(0, 0), new EmptyTradeMessageStore());
+        new BenchActor("supplier", benchModel, new OrientedPoint2d(100, 100), new EmptyTradeMessageStore());
+        new QuoteCountingPolicy(new QuoteRole(buyer));
+        new Product(benchModel, "product", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        return benchModel;
+    }
+
+    /**
+     * Run a model to the end of its replication.
+     * @param runModel BenchModel; the model to run
+     * @throws InterruptedException when the thread is interrupted while waiting for the end of the run
+     */
+    private static void run(final BenchModel runModel) throws InterruptedException
+    {
+        runModel.getSimulator().start();
+        while (runModel.getSimulator().getReplicationState() != ReplicationState.ENDED)
+        {
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Replay the complete trace in the fresh model.
+     * @return long; the number of events that the listener received, to prevent dead code elimination
+     * @throws ActorNotFoundException when an actor of the trace is not in the model
+     * @throws IOException on trace error
+     * @throws InterruptedException when the thread is interrupted while waiting for the end of the replay
+     */
+    @Benchmark
+    public long replay() throws ActorNotFoundException, IOException, InterruptedException
+    {
+        try (TraceReader reader = new TraceReader(this.path, this.mapped))
+        {
+            new TraceReplay(this.model, reader).start();
+            run(this.model);
+        }
+        return this.listener.count;
+    }
+
+    /** Listener that counts the events of the replay. */
+    static class CountingListener implements EventListener
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the number of received events. */
+        private long count = 0;
+
+        /** {@inheritDoc} */
+        @Override
+        public void notify(final Event event)
+        {
+            this.count++;
+        }
+    }
+
+}
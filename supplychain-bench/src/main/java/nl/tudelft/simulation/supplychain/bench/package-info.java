@@ -0,0 +1,13 @@
+/**
+ * JMH benchmarks for the hot paths of the supply chain simulation library: message delivery, message stores, quote selection,
+ * inventory updates, checkpoints, the recording and replay of message traces, the JSON export of messages, and complete runs of
+ * the demo models. Build the module with <code>mvn package</code> and run the benchmarks with
+ * <code>java -jar target/benchmarks.jar</code>. The model benchmarks depend on supplychain-demo, and are only compiled with
+ * <code>mvn -P models package</code>.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+package nl.tudelft.simulation.supplychain.bench;
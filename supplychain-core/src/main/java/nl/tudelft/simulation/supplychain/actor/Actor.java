@@ -56,6 +56,35 @@ public interface Actor extends EventProducer, Locatable, Identifiable, Serializa
 	 */
 	void checkNecessaryRoles();
 
+	/**
+	 * Freeze the actor: validate the roles once with checkNecessaryRoles(), and
+	 * build the table that maps each message class to the roles and policies that
+	 * handle it. After freezing, a received message is dispatched with a single
+	 * lookup instead of asking every role. Freezing takes place automatically when
+	 * the first message is received, but a model can call this method after
+	 * construction to detect missing roles early. Adding a role or changing a
+	 * message policy unfreezes the actor, and the table will be rebuilt when the
+	 * next message arrives.
+	 * 
+	 * @throws IllegalStateException when some of the roles are not set
+	 */
+	void freeze();
+
+	/**
+	 * Discard the dispatch table of the actor, e.g., because a role or a message
+	 * policy was added or removed. The table is rebuilt when the next message is
+	 * received, or when freeze() is called.
+	 */
+	void unfreeze();
+
+	/**
+	 * Return whether the roles of the actor have been validated and the dispatch
+	 * table has been built.
+	 * 
+	 * @return boolean; whether the actor is frozen
+	 */
+	boolean isFrozen();
+
 	/**
 	 * Receive a message from another actor, and handle it (storing or handling,
 	 * depending on the MessageReceiver). When the message is not intended for this
@@ -7,6 +7,9 @@ import java.util.Objects;
 
 import org.djutils.base.Identifiable;
 import org.djutils.exceptions.Throw;
+import org.djutils.immutablecollections.Immutable;
+import org.djutils.immutablecollections.ImmutableLinkedHashMap;
+import org.djutils.immutablecollections.ImmutableMap;
 
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
 import nl.tudelft.simulation.supplychain.message.Message;
@@ -73,6 +76,7 @@ public abstract class Role implements Identifiable, Serializable {
 	public <M extends Message> void setMessagePolicy(final MessagePolicy<M> policy) {
 		Throw.whenNull(policy, "policy cannot be null");
 		this.messagePolicies.put(policy.getMessageClass(), policy);
+		this.actor.unfreeze();
 	}
 
 	/**
@@ -84,6 +88,7 @@ public abstract class Role implements Identifiable, Serializable {
 	public <M extends Message> void removeMessagePolicy(final Class<M> messageClass) {
 		Throw.whenNull(messageClass, "messageClass cannot be null");
 		this.messagePolicies.remove(messageClass);
+		this.actor.unfreeze();
 	}
 
 	/**
@@ -103,6 +108,37 @@ public abstract class Role implements Identifiable, Serializable {
 		return true;
 	}
 
+	/**
+	 * Return the message handling policies of this role, keyed by message class.
+	 * The map is not copied, and is only meant for building the dispatch table of
+	 * the actor.
+	 * 
+	 * @return Map&lt;Class, MessagePolicy&gt;; the message handling policies
+	 */
+	Map<Class<? extends Message>, MessagePolicy<? extends Message>> getMessagePolicies() {
+		return this.messagePolicies;
+	}
+
+	/**
+	 * Return the message handling policies of this role, keyed by message class,
+	 * as an immutable view.
+	 * 
+	 * @return ImmutableMap&lt;Class, MessagePolicy&gt;; the message handling
+	 *         policies of this role
+	 */
+	public ImmutableMap<Class<? extends Message>, MessagePolicy<? extends Message>> getMessagePolicyMap() {
+		return new ImmutableLinkedHashMap<>(this.messagePolicies, Immutable.WRAP);
+	}
+
+	/**
+	 * Return the message receiver that processes the messages for this role.
+	 * 
+	 * @return MessageReceiver; the message receiver of this role
+	 */
+	public MessageReceiver getMessageReceiver() {
+		return this.messageReceiver;
+	}
+
 	/**
 	 * Return the actor to which this role belongs.
 	 * 
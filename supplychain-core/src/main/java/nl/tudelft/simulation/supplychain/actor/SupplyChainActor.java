@@ -2,7 +2,11 @@ package nl.tudelft.simulation.supplychain.actor;
 
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -24,8 +28,12 @@ import org.pmw.tinylog.Logger;
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
 import nl.tudelft.simulation.supplychain.finance.BankAccount;
 import nl.tudelft.simulation.supplychain.message.Message;
+import nl.tudelft.simulation.supplychain.message.MessageDeliveryEvent;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicy;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiver;
 import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStoreInterface;
 import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
 
 /**
  * SupplyChainActor is the abstract class for an Actor that implements the
@@ -72,6 +80,12 @@ public abstract class SupplyChainActor implements Actor {
 	/** the store for the content to use. */
 	private final TradeMessageStoreInterface messageStore;
 
+	/**
+	 * the dispatch table from message class to the handlers of the roles, or null
+	 * when the actor is not frozen.
+	 */
+	private Map<Class<? extends Message>, MessageHandler[]> dispatchTable = null;
+
 	/**
 	 * the event to indicate that information has been sent. E.g., for animation.
 	 */
@@ -146,6 +160,7 @@ public abstract class SupplyChainActor implements Actor {
 		Set<Role> newRoles = this.roles.toSet();
 		newRoles.add(role);
 		this.roles = new ImmutableLinkedHashSet<>(newRoles);
+		unfreeze();
 	}
 
 	/** {@inheritDoc} */
@@ -157,21 +172,58 @@ public abstract class SupplyChainActor implements Actor {
 	/** {@inheritDoc} */
 	@Override
 	public void receiveMessage(final Message message) {
-		checkNecessaryRoles();
+		if (this.dispatchTable == null) {
+			freeze();
+		}
 		if (!message.getReceiver().equals(this)) {
 			CategoryLogger.always().warn("Message " + message + " not meant for receiver " + toString());
 		} else {
-			boolean processed = false;
-			for (Role role : getRoles()) {
-				processed |= role.handleMessage(message);
-			}
-			if (!processed) {
+			MessageHandler[] handlers = this.dispatchTable.get(message.getClass());
+			if (handlers == null) {
 				Logger.warn(this.toString() + " does not have a handler for " + message.getClass().getSimpleName());
+			} else {
+				for (MessageHandler handler : handlers) {
+					handler.handle(message);
+				}
 			}
 		}
 		if (message instanceof TradeMessage) {
 			this.messageStore.addMessage((TradeMessage) message, false);
+			MessageTraceRecorder recorder = this.model.getMessageTraceRecorder();
+			if (recorder != null) {
+				recorder.recordReceived((TradeMessage) message);
+			}
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void freeze() {
+		checkNecessaryRoles();
+		Map<Class<? extends Message>, List<MessageHandler>> handlerMap = new IdentityHashMap<>();
+		for (Role role : getRoles()) {
+			for (MessagePolicy<? extends Message> policy : role.getMessagePolicies().values()) {
+				handlerMap.computeIfAbsent(policy.getMessageClass(), c -> new ArrayList<>())
+						.add(new MessageHandler(role.getMessageReceiver(), policy));
+			}
 		}
+		Map<Class<? extends Message>, MessageHandler[]> table = new IdentityHashMap<>();
+		for (Map.Entry<Class<? extends Message>, List<MessageHandler>> entry : handlerMap.entrySet()) {
+			table.put(entry.getKey(), entry.getValue().toArray(new MessageHandler[entry.getValue().size()]));
+		}
+		this.dispatchTable = table;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void unfreeze() {
+		this.dispatchTable = null;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean isFrozen() {
+		return this.dispatchTable != null;
 	}
 
 	/** {@inheritDoc} */
@@ -180,9 +232,13 @@ public abstract class SupplyChainActor implements Actor {
 		if (!message.getSender().equals(this)) {
 			CategoryLogger.always().warn("Message " + message + " not originating from sender " + toString());
 		}
-		getSimulator().scheduleEventRel(delay, message.getReceiver(), "receiveMessage", new Object[] { message });
+		getSimulator().scheduleEvent(new MessageDeliveryEvent(getSimulator().getSimulatorTime().plus(delay), message));
 		if (message instanceof TradeMessage) {
 			this.messageStore.addMessage((TradeMessage) message, true);
+			MessageTraceRecorder recorder = this.model.getMessageTraceRecorder();
+			if (recorder != null) {
+				recorder.recordSent((TradeMessage) message);
+			}
 		}
 		fireEvent(SEND_MESSAGE_EVENT, new Object[] { message });
 	}
@@ -301,4 +357,44 @@ public abstract class SupplyChainActor implements Actor {
 		}
 	}
 
+	/**
+	 * MessageHandler is an entry in the dispatch table, combining the message
+	 * receiver of a role with the policy of that role for a message class.
+	 */
+	private static final class MessageHandler implements Serializable {
+		/** */
+		private static final long serialVersionUID = 20231017L;
+
+		/** the message receiver of the role. */
+		private final MessageReceiver messageReceiver;
+
+		/** the policy that handles the message. */
+		private final MessagePolicy<? extends Message> messagePolicy;
+
+		/**
+		 * Create an entry for the dispatch table.
+		 * 
+		 * @param messageReceiver MessageReceiver; the message receiver of the role
+		 * @param messagePolicy   MessagePolicy&lt;?&gt;; the policy that handles the
+		 *                        message
+		 */
+		MessageHandler(final MessageReceiver messageReceiver, final MessagePolicy<? extends Message> messagePolicy) {
+			this.messageReceiver = messageReceiver;
+			this.messagePolicy = messagePolicy;
+		}
+
+		/**
+		 * Hand the message to the message receiver of the role, which passes it on to
+		 * the policy. The message class was used as the key to find this handler, so
+		 * the message and the policy align.
+		 * 
+		 * @param message M; the message to handle
+		 * @param <M>     the message type
+		 */
+		@SuppressWarnings("unchecked")
+		<M extends Message> void handle(final M message) {
+			this.messageReceiver.receiveMessage(message, (MessagePolicy<M>) this.messagePolicy);
+		}
+	}
+
 }
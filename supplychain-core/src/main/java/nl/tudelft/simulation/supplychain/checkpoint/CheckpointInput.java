@@ -0,0 +1,511 @@
+package nl.tudelft.simulation.supplychain.checkpoint;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.djunits.quantity.Quantity;
+import org.djunits.unit.Unit;
+import org.djunits.value.vdouble.scalar.base.DoubleScalar;
+import org.djutils.exceptions.Throw;
+import org.djutils.immutablecollections.ImmutableCollection;
+import org.djutils.immutablecollections.ImmutableMap;
+
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.product.Product;
+
+/**
+ * CheckpointInput reads the values of a checkpoint that has been written by a CheckpointOutput, see there for the format. The
+ * anchors are looked up by name in the new model, and the objects that were written field by field are created with their
+ * constructor without arguments, after which their fields are set. Before an object, a collection, or another value is created
+ * from a class that is named in the checkpoint, the class is checked in the same way as when it is written, so a corrupt or
+ * hostile checkpoint cannot create objects of arbitrary classes.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class CheckpointInput
+{
+    /** the stream to read from. */
+    private final DataInputStream in;
+
+    /** the anchors of the new model by name. */
+    private final Map<String, Object> anchors;
+
+    /** the products of the new model by index. */
+    private final List<Product> products;
+
+    /** the values that have been read, by their number. */
+    private final List<Object> references = new ArrayList<>();
+
+    /** the classes that have been read, by their number. */
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    /** the units that have been read, by class and id. */
+    private final Map<String, Unit<?>> units = new HashMap<>();
+
+    /**
+     * Create a checkpoint input on a stream.
+     * @param in InputStream; the stream to read from
+     * @param anchors Map&lt;String, Object&gt;; the anchors of the new model by name
+     * @param products List&lt;Product&gt;; the products of the new model by index
+     */
+    CheckpointInput(final InputStream in, final Map<String, Object> anchors, final List<Product> products)
+    {
+        Throw.whenNull(in, "in cannot be null");
+        Throw.whenNull(anchors, "anchors cannot be null");
+        Throw.whenNull(products, "products cannot be null");
+        this.in = in instanceof DataInputStream ? (DataInputStream) in : new DataInputStream(in);
+        this.anchors = anchors;
+        this.products = products;
+    }
+
+    /**
+     * Read a boolean.
+     * @return boolean; the value
+     * @throws IOException on read error
+     */
+    public boolean readBoolean() throws IOException
+    {
+        return this.in.readBoolean();
+    }
+
+    /**
+     * Read a double.
+     * @return double; the value
+     * @throws IOException on read error
+     */
+    public double readDouble() throws IOException
+    {
+        return this.in.readDouble();
+    }
+
+    /**
+     * Read a variable-length long.
+     * @return long; the value
+     * @throws IOException on read error
+     */
+    public long readLong() throws IOException
+    {
+        long v = 0L;
+        int shift = 0;
+        while (true)
+        {
+            int b = this.in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                break;
+            }
+            shift += 7;
+            if (shift > 63)
+            {
+                throw new StreamCorruptedException("variable-length integer too long");
+            }
+        }
+        return (v >>> 1) ^ -(v & 1L);
+    }
+
+    /**
+     * Read a variable-length int.
+     * @return int; the value
+     * @throws IOException on read error
+     */
+    public int readInt() throws IOException
+    {
+        return (int) readLong();
+    }
+
+    /**
+     * Read a String, which can be null.
+     * @return String; the value
+     * @throws IOException on read error
+     */
+    public String readString() throws IOException
+    {
+        return this.in.readBoolean() ? this.in.readUTF() : null;
+    }
+
+    /**
+     * Read an array of doubles that was written with writeDoubles.
+     * @return double[]; the values
+     * @throws IOException on read error
+     */
+    public double[] readDoubles() throws IOException
+    {
+        double[] values = new double[readInt()];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = this.in.readDouble();
+        }
+        return values;
+    }
+
+    /**
+     * Read a byte array that was written with writeBytes.
+     * @return byte[]; the bytes
+     * @throws IOException on read error
+     */
+    public byte[] readBytes() throws IOException
+    {
+        byte[] values = new byte[readInt()];
+        this.in.readFully(values);
+        return values;
+    }
+
+    /**
+     * Read a class that was written with writeClass.
+     * @return Class&lt;?&gt;; the class
+     * @throws IOException on read error, or when the class cannot be found
+     */
+    public Class<?> readClass() throws IOException
+    {
+        int number = readInt();
+        if (number > 0)
+        {
+            return this.classes.get(number - 1);
+        }
+        String name = this.in.readUTF();
+        Class<?> type;
+        switch (name)
+        {
+            case "boolean":
+                type = boolean.class;
+                break;
+            case "int":
+                type = int.class;
+                break;
+            case "long":
+                type = long.class;
+                break;
+            case "double":
+                type = double.class;
+                break;
+            case "float":
+                type = float.class;
+                break;
+            case "short":
+                type = short.class;
+                break;
+            case "byte":
+                type = byte.class;
+                break;
+            case "char":
+                type = char.class;
+                break;
+            default:
+                try
+                {
+                    type = Class.forName(name, false, getClass().getClassLoader());
+                }
+                catch (ClassNotFoundException exception)
+                {
+                    throw new InvalidClassException(name, "class not found");
+                }
+        }
+        this.classes.add(type);
+        return type;
+    }
+
+    /**
+     * Read a class from which a value with a tag is created, and check that the class could have been written with that tag.
+     * @param tag byte; the tag of the value
+     * @return Class&lt;?&gt;; the class
+     * @throws IOException on read error, or when the class cannot be found
+     * @throws InvalidClassException when a value with the tag cannot be created from the class
+     */
+    private Class<?> readClass(final byte tag) throws IOException
+    {
+        Class<?> type = readClass();
+        boolean allowed;
+        switch (tag)
+        {
+            case CheckpointOutput.ENUM:
+                allowed = type.isEnum();
+                break;
+            case CheckpointOutput.SCALAR:
+                allowed = Unit.class.isAssignableFrom(type);
+                break;
+            case CheckpointOutput.IMMUTABLE:
+                allowed = ImmutableCollection.class.isAssignableFrom(type) || ImmutableMap.class.isAssignableFrom(type);
+                break;
+            case CheckpointOutput.COLLECTION:
+                allowed = Collection.class.isAssignableFrom(type) && CheckpointOutput.isJdkContainer(type);
+                break;
+            case CheckpointOutput.MAP:
+                allowed = Map.class.isAssignableFrom(type) && CheckpointOutput.isJdkContainer(type);
+                break;
+            case CheckpointOutput.OBJECT:
+                allowed = CheckpointOutput.isFieldByField(type);
+                break;
+            default:
+                allowed = false;
+        }
+        if (!allowed)
+        {
+            throw new InvalidClassException(type.getName(), "not allowed for tag " + tag + " in a checkpoint");
+        }
+        return type;
+    }
+
+    /**
+     * Look up an anchor of the new model.
+     * @param name String; the name of the anchor
+     * @return Object; the anchor
+     * @throws InvalidObjectException when the new model does not have the anchor
+     */
+    Object getAnchor(final String name) throws InvalidObjectException
+    {
+        Object anchor = this.anchors.get(name);
+        if (anchor == null)
+        {
+            throw new InvalidObjectException("anchor " + name + " not found in the model");
+        }
+        return anchor;
+    }
+
+    /**
+     * Read a value that was written with writeValue.
+     * @return Object; the value, which can be null
+     * @throws IOException on read error, or when the checkpoint does not match the model
+     */
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    public Object readValue() throws IOException
+    {
+        byte tag = this.in.readByte();
+        switch (tag)
+        {
+            case CheckpointOutput.NULL:
+                return null;
+            case CheckpointOutput.REF:
+                return this.references.get(readInt());
+            case CheckpointOutput.ANCHOR:
+                return getAnchor(this.in.readUTF());
+            case CheckpointOutput.TRUE:
+                return Boolean.TRUE;
+            case CheckpointOutput.FALSE:
+                return Boolean.FALSE;
+            case CheckpointOutput.INT:
+                return readInt();
+            case CheckpointOutput.LONG:
+                return readLong();
+            case CheckpointOutput.DOUBLE:
+                return this.in.readDouble();
+            case CheckpointOutput.STRING:
+                return this.in.readUTF();
+            case CheckpointOutput.FLOAT:
+                return this.in.readFloat();
+            case CheckpointOutput.SHORT:
+                return (short) readInt();
+            case CheckpointOutput.BYTE:
+                return this.in.readByte();
+            case CheckpointOutput.CHAR:
+                return this.in.readChar();
+            case CheckpointOutput.ENUM:
+                return readClass(tag).getEnumConstants()[readInt()];
+            case CheckpointOutput.SCALAR:
+                return readScalar();
+            case CheckpointOutput.PRODUCT:
+                return readProduct();
+            case CheckpointOutput.CLASS:
+                return readClass();
+            default:
+                return readCompoundValue(tag);
+        }
+    }
+
+    /**
+     * Read a djunits scalar.
+     * @return DoubleScalar&lt;?, ?&gt;; the scalar, with the same display unit as the scalar that was written
+     * @throws IOException on read error, or when the unit cannot be found
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private DoubleScalar<?, ?> readScalar() throws IOException
+    {
+        Class<?> unitClass = readClass(CheckpointOutput.SCALAR);
+        String id = this.in.readUTF();
+        double si = this.in.readDouble();
+        String key = unitClass.getName() + "#" + id;
+        Unit unit = this.units.get(key);
+        if (unit == null)
+        {
+            try
+            {
+                unit = ((Quantity<?>) unitClass.getField("BASE").get(null)).getUnitById(id);
+            }
+            catch (ReflectiveOperationException exception)
+            {
+                throw new InvalidClassException(unitClass.getName(), exception.getMessage());
+            }
+            if (unit == null)
+            {
+                throw new InvalidObjectException("unit " + key + " not found");
+            }
+            this.units.put(key, unit);
+        }
+        return DoubleScalar.instantiateSI(si, unit);
+    }
+
+    /**
+     * Read a product by its index.
+     * @return Product; the product of the new model
+     * @throws IOException on read error, or when the new model does not have the product
+     */
+    private Product readProduct() throws IOException
+    {
+        int index = readInt();
+        if (index < 0 || index >= this.products.size())
+        {
+            throw new InvalidObjectException("product " + index + " not found in the model");
+        }
+        return this.products.get(index);
+    }
+
+    /**
+     * Read a value that has a number, so it can be referenced afterwards.
+     * @param tag byte; the tag of the value
+     * @return Object; the value
+     * @throws IOException on read error, or when the checkpoint does not match the model
+     */
+    @SuppressWarnings({"unchecked", "checkstyle:methodlength"})
+    private Object readCompoundValue(final byte tag) throws IOException
+    {
+        int number = this.references.size();
+        this.references.add(null);
+        switch (tag)
+        {
+            case CheckpointOutput.MONEY_UNIT:
+            {
+                String name = this.in.readUTF();
+                String symbol = this.in.readUTF();
+                MoneyUnit moneyUnit = name.equals(MoneyUnit.USD.getName()) ? MoneyUnit.USD
+                        : name.equals(MoneyUnit.EUR.getName()) ? MoneyUnit.EUR
+                                : name.equals(MoneyUnit.GBP.getName()) ? MoneyUnit.GBP : new MoneyUnit(name, symbol);
+                this.references.set(number, moneyUnit);
+                return moneyUnit;
+            }
+
+            case CheckpointOutput.ARRAY:
+            {
+                Class<?> componentType = readClass();
+                Object array = Array.newInstance(componentType, readInt());
+                this.references.set(number, array);
+                for (int i = 0; i < Array.getLength(array); i++)
+                {
+                    Array.set(array, i, readValue());
+                }
+                return array;
+            }
+
+            case CheckpointOutput.IMMUTABLE:
+            {
+                Class<?> type = readClass(tag);
+                Object content = readValue();
+                Object immutable;
+                try
+                {
+                    Class<?> contentType = content instanceof Map ? Map.class : Collection.class;
+                    immutable = type.getConstructor(contentType).newInstance(content);
+                }
+                catch (ReflectiveOperationException exception)
+                {
+                    throw new InvalidClassException(type.getName(), exception.getMessage());
+                }
+                this.references.set(number, immutable);
+                return immutable;
+            }
+
+            case CheckpointOutput.COLLECTION:
+            {
+                Collection<Object> collection = (Collection<Object>) newJdkInstance(readClass(tag));
+                this.references.set(number, collection);
+                int size = readInt();
+                for (int i = 0; i < size; i++)
+                {
+                    collection.add(readValue());
+                }
+                return collection;
+            }
+
+            case CheckpointOutput.MAP:
+            {
+                Map<Object, Object> map = (Map<Object, Object>) newJdkInstance(readClass(tag));
+                this.references.set(number, map);
+                int size = readInt();
+                for (int i = 0; i < size; i++)
+                {
+                    Object key = readValue();
+                    map.put(key, readValue());
+                }
+                return map;
+            }
+
+            case CheckpointOutput.OBJECT:
+            {
+                Class<?> type = readClass(tag);
+                Constructor<?> constructor = CheckpointOutput.constructor(type);
+                if (constructor == null)
+                {
+                    throw new InvalidClassException(type.getName(), "no constructor without arguments");
+                }
+                try
+                {
+                    Object object = constructor.newInstance();
+                    this.references.set(number, object);
+                    for (Field field : CheckpointOutput.fields(type))
+                    {
+                        field.set(object, readValue());
+                    }
+                    return object;
+                }
+                catch (ReflectiveOperationException | IllegalArgumentException exception)
+                {
+                    throw new InvalidClassException(type.getName(), exception.getMessage());
+                }
+            }
+
+            default:
+                throw new StreamCorruptedException("unknown tag " + tag);
+        }
+    }
+
+    /**
+     * Create an empty collection or map of the JDK with its no-argument constructor.
+     * @param type Class&lt;?&gt;; the class of the collection or map
+     * @return Object; the new, empty collection or map
+     * @throws InvalidClassException when the class does not have a public no-argument constructor
+     */
+    private Object newJdkInstance(final Class<?> type) throws InvalidClassException
+    {
+        try
+        {
+            return type.getConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException exception)
+        {
+            throw new InvalidClassException(type.getName(), "no public no-argument constructor");
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "CheckpointInput [anchors=" + this.anchors.size() + ", references=" + this.references.size() + ", classes="
+                + this.classes.size() + "]";
+    }
+
+}
@@ -0,0 +1,583 @@
+package nl.tudelft.simulation.supplychain.checkpoint;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.djunits.value.vdouble.scalar.base.DoubleScalar;
+import org.djutils.exceptions.Throw;
+import org.djutils.immutablecollections.ImmutableCollection;
+import org.djutils.immutablecollections.ImmutableMap;
+
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.product.Product;
+
+/**
+ * CheckpointOutput writes the values of a checkpoint in a compact binary format. Sizes and references are written as
+ * variable-length integers, classes are written by name the first time they occur and by number afterwards, and objects that
+ * occur more than once, such as a message that is stored by two actors and is also part of a pending event, are written once
+ * and referenced afterwards. Anchors, i.e., the actors, roles, policies and other objects that the new model constructs
+ * itself, are written by their name, so the restored values refer to the objects of the new model.<br>
+ * <br>
+ * Other objects are written field by field, when their class is Serializable, has a constructor without arguments, which can
+ * be private, and does not belong to the JDK or to the DSOL, djunits or djutils libraries. Values of these libraries that
+ * occur in the messages, such as the djunits scalars, the collections of the JDK and the immutable collections of djutils,
+ * have their own compact encoding. A value that cannot be written leads to a NotSerializableException, e.g., a lambda
+ * expression or an actor that is not part of the model.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class CheckpointOutput
+{
+    /** tag for null. */
+    static final byte NULL = 0;
+
+    /** tag for a reference to a value that has been written before. */
+    static final byte REF = 1;
+
+    /** tag for an anchor, written by name. */
+    static final byte ANCHOR = 2;
+
+    /** tag for Boolean.TRUE. */
+    static final byte TRUE = 3;
+
+    /** tag for Boolean.FALSE. */
+    static final byte FALSE = 4;
+
+    /** tag for an Integer. */
+    static final byte INT = 5;
+
+    /** tag for a Long. */
+    static final byte LONG = 6;
+
+    /** tag for a Double. */
+    static final byte DOUBLE = 7;
+
+    /** tag for a String. */
+    static final byte STRING = 8;
+
+    /** tag for an enum constant. */
+    static final byte ENUM = 9;
+
+    /** tag for a djunits scalar. */
+    static final byte SCALAR = 10;
+
+    /** tag for a MoneyUnit. */
+    static final byte MONEY_UNIT = 11;
+
+    /** tag for a Product, written by its index in the model. */
+    static final byte PRODUCT = 12;
+
+    /** tag for an array. */
+    static final byte ARRAY = 13;
+
+    /** tag for a collection of the JDK. */
+    static final byte COLLECTION = 14;
+
+    /** tag for a map of the JDK. */
+    static final byte MAP = 15;
+
+    /** tag for an immutable collection or map of djutils. */
+    static final byte IMMUTABLE = 16;
+
+    /** tag for an object that is written field by field. */
+    static final byte OBJECT = 17;
+
+    /** tag for a Class. */
+    static final byte CLASS = 18;
+
+    /** tag for a Float. */
+    static final byte FLOAT = 19;
+
+    /** tag for a Short. */
+    static final byte SHORT = 20;
+
+    /** tag for a Byte. */
+    static final byte BYTE = 21;
+
+    /** tag for a Character. */
+    static final byte CHAR = 22;
+
+    /** the package prefixes of the classes that are not written field by field. */
+    private static final String[] FOREIGN_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun.", "org.djutils.",
+            "org.djunits.", "nl.tudelft.simulation.dsol.", "nl.tudelft.simulation.jstats.", "nl.tudelft.simulation.naming."};
+
+    /** the fields that are written for each class that is written field by field. */
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<Field[]>()
+    {
+        @Override
+        protected Field[] computeValue(final Class<?> type)
+        {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && !isForeign(c); c = c.getSuperclass())
+            {
+                for (Field field : c.getDeclaredFields())
+                {
+                    if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) == 0)
+                    {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields.toArray(new Field[fields.size()]);
+        }
+    };
+
+    /** the constructors without arguments of the classes that are written field by field, or null when there is none. */
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>()
+    {
+        @Override
+        protected Constructor<?> computeValue(final Class<?> type)
+        {
+            try
+            {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return constructor;
+            }
+            catch (NoSuchMethodException | RuntimeException exception)
+            {
+                return null;
+            }
+        }
+    };
+
+    /** the stream to write to. */
+    private final DataOutputStream out;
+
+    /** the anchors with their names. */
+    private final Map<Object, String> anchors;
+
+    /** the numbers of the values that have been written, to write them as a reference when they occur again. */
+    private final Map<Object, Integer> references = new IdentityHashMap<>();
+
+    /** the numbers of the classes that have been written. */
+    private final Map<Class<?>, Integer> classes = new IdentityHashMap<>();
+
+    /**
+     * Create a checkpoint output on a stream.
+     * @param out OutputStream; the stream to write to
+     * @param anchors Map&lt;Object, String&gt;; the anchors with their names, in an identity map
+     */
+    CheckpointOutput(final OutputStream out, final Map<Object, String> anchors)
+    {
+        Throw.whenNull(out, "out cannot be null");
+        Throw.whenNull(anchors, "anchors cannot be null");
+        this.out = out instanceof DataOutputStream ? (DataOutputStream) out : new DataOutputStream(out);
+        this.anchors = anchors;
+    }
+
+    /**
+     * Return whether a class belongs to the JDK or to one of the libraries, and cannot be written field by field.
+     * @param type Class&lt;?&gt;; the class
+     * @return boolean; whether the class belongs to the JDK or to one of the libraries
+     */
+    static boolean isForeign(final Class<?> type)
+    {
+        String name = type.getName();
+        for (String prefix : FOREIGN_PACKAGES)
+        {
+            if (name.startsWith(prefix))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the fields of a class that are written field by field, including the fields of its superclasses.
+     * @param type Class&lt;?&gt;; the class
+     * @return Field[]; the accessible fields of the class, without the static and transient fields
+     */
+    static Field[] fields(final Class<?> type)
+    {
+        return FIELDS.get(type);
+    }
+
+    /**
+     * Return the accessible constructor without arguments of a class that is written field by field.
+     * @param type Class&lt;?&gt;; the class
+     * @return Constructor&lt;?&gt;; the constructor without arguments, or null when the class does not have one
+     */
+    static Constructor<?> constructor(final Class<?> type)
+    {
+        return CONSTRUCTORS.get(type);
+    }
+
+    /**
+     * Write a boolean.
+     * @param value boolean; the value to write
+     * @throws IOException on write error
+     */
+    public void writeBoolean(final boolean value) throws IOException
+    {
+        this.out.writeBoolean(value);
+    }
+
+    /**
+     * Write a double in 8 bytes.
+     * @param value double; the value to write
+     * @throws IOException on write error
+     */
+    public void writeDouble(final double value) throws IOException
+    {
+        this.out.writeDouble(value);
+    }
+
+    /**
+     * Write a long as a variable-length integer, which takes one byte for small values.
+     * @param value long; the value to write
+     * @throws IOException on write error
+     */
+    public void writeLong(final long value) throws IOException
+    {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0L)
+        {
+            this.out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        this.out.writeByte((int) v);
+    }
+
+    /**
+     * Write an int as a variable-length integer, which takes one byte for small values.
+     * @param value int; the value to write
+     * @throws IOException on write error
+     */
+    public void writeInt(final int value) throws IOException
+    {
+        writeLong(value);
+    }
+
+    /**
+     * Write a String; null is allowed.
+     * @param value String; the value to write
+     * @throws IOException on write error
+     */
+    public void writeString(final String value) throws IOException
+    {
+        if (value == null)
+        {
+            this.out.writeBoolean(false);
+            return;
+        }
+        this.out.writeBoolean(true);
+        this.out.writeUTF(value);
+    }
+
+    /**
+     * Write the first values of an array of doubles, preceded by their number.
+     * @param values double[]; the array with the values to write
+     * @param length int; the number of values to write
+     * @throws IOException on write error
+     */
+    public void writeDoubles(final double[] values, final int length) throws IOException
+    {
+        writeInt(length);
+        for (int i = 0; i < length; i++)
+        {
+            this.out.writeDouble(values[i]);
+        }
+    }
+
+    /**
+     * Write a byte array, preceded by its length.
+     * @param values byte[]; the bytes to write
+     * @throws IOException on write error
+     */
+    public void writeBytes(final byte[] values) throws IOException
+    {
+        writeInt(values.length);
+        this.out.write(values);
+    }
+
+    /**
+     * Write a class, by name the first time it is written, and by number afterwards.
+     * @param type Class&lt;?&gt;; the class to write
+     * @throws IOException on write error
+     */
+    public void writeClass(final Class<?> type) throws IOException
+    {
+        Integer number = this.classes.get(type);
+        if (number != null)
+        {
+            writeInt(number + 1);
+            return;
+        }
+        this.classes.put(type, this.classes.size());
+        writeInt(0);
+        this.out.writeUTF(type.getName());
+    }
+
+    /**
+     * Write a value of any of the supported types; see the class description.
+     * @param value Object; the value to write; null is allowed
+     * @throws IOException on write error
+     * @throws NotSerializableException when the value, or one of its fields, cannot be written
+     */
+    public void writeValue(final Object value) throws IOException
+    {
+        if (value == null)
+        {
+            this.out.writeByte(NULL);
+            return;
+        }
+        String anchor = this.anchors.get(value);
+        if (anchor != null)
+        {
+            this.out.writeByte(ANCHOR);
+            this.out.writeUTF(anchor);
+            return;
+        }
+        Integer reference = this.references.get(value);
+        if (reference != null)
+        {
+            this.out.writeByte(REF);
+            writeInt(reference);
+            return;
+        }
+        if (!writeSimpleValue(value))
+        {
+            writeCompoundValue(value);
+        }
+    }
+
+    /**
+     * Write a value that is not shared, such as a number, a String, or a scalar.
+     * @param value Object; the value to write, not null
+     * @return boolean; whether the value is a simple value that has been written
+     * @throws IOException on write error
+     */
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private boolean writeSimpleValue(final Object value) throws IOException
+    {
+        if (value instanceof Boolean)
+        {
+            this.out.writeByte((Boolean) value ? TRUE : FALSE);
+        }
+        else if (value instanceof Integer)
+        {
+            this.out.writeByte(INT);
+            writeInt((Integer) value);
+        }
+        else if (value instanceof Long)
+        {
+            this.out.writeByte(LONG);
+            writeLong((Long) value);
+        }
+        else if (value instanceof Double)
+        {
+            this.out.writeByte(DOUBLE);
+            this.out.writeDouble((Double) value);
+        }
+        else if (value instanceof String)
+        {
+            this.out.writeByte(STRING);
+            this.out.writeUTF((String) value);
+        }
+        else if (value instanceof Float)
+        {
+            this.out.writeByte(FLOAT);
+            this.out.writeFloat((Float) value);
+        }
+        else if (value instanceof Short)
+        {
+            this.out.writeByte(SHORT);
+            writeInt((Short) value);
+        }
+        else if (value instanceof Byte)
+        {
+            this.out.writeByte(BYTE);
+            this.out.writeByte((Byte) value);
+        }
+        else if (value instanceof Character)
+        {
+            this.out.writeByte(CHAR);
+            this.out.writeChar((Character) value);
+        }
+        else if (value instanceof Enum)
+        {
+            this.out.writeByte(ENUM);
+            writeClass(((Enum<?>) value).getDeclaringClass());
+            writeInt(((Enum<?>) value).ordinal());
+        }
+        else if (value instanceof DoubleScalar)
+        {
+            DoubleScalar<?, ?> scalar = (DoubleScalar<?, ?>) value;
+            this.out.writeByte(SCALAR);
+            writeClass(scalar.getDisplayUnit().getClass());
+            this.out.writeUTF(scalar.getDisplayUnit().getId());
+            this.out.writeDouble(scalar.si);
+        }
+        else if (value instanceof Product)
+        {
+            this.out.writeByte(PRODUCT);
+            writeInt(((Product) value).getIndex());
+        }
+        else if (value instanceof Class)
+        {
+            this.out.writeByte(CLASS);
+            writeClass((Class<?>) value);
+        }
+        else
+        {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write a value that can be shared, such as a message, a collection or an array. The value gets a number, so it is written
+     * as a reference when it occurs again.
+     * @param value Object; the value to write, not null
+     * @throws IOException on write error
+     * @throws NotSerializableException when the value, or one of its fields, cannot be written
+     */
+    private void writeCompoundValue(final Object value) throws IOException
+    {
+        Class<?> type = value.getClass();
+        this.references.put(value, this.references.size());
+        if (value instanceof MoneyUnit)
+        {
+            this.out.writeByte(MONEY_UNIT);
+            this.out.writeUTF(((MoneyUnit) value).getName());
+            this.out.writeUTF(((MoneyUnit) value).getSymbol());
+        }
+        else if (type.isArray())
+        {
+            this.out.writeByte(ARRAY);
+            writeClass(type.getComponentType());
+            int length = Array.getLength(value);
+            writeInt(length);
+            for (int i = 0; i < length; i++)
+            {
+                writeValue(Array.get(value, i));
+            }
+        }
+        else if (value instanceof ImmutableCollection || value instanceof ImmutableMap)
+        {
+            this.out.writeByte(IMMUTABLE);
+            writeClass(type);
+            writeValue(value instanceof ImmutableMap ? ((ImmutableMap<?, ?>) value).toMap()
+                    : ((ImmutableCollection<?>) value).toCollection());
+        }
+        else if (value instanceof Collection && isJdkContainer(type))
+        {
+            this.out.writeByte(COLLECTION);
+            writeClass(type);
+            Collection<?> collection = (Collection<?>) value;
+            writeInt(collection.size());
+            for (Object element : collection)
+            {
+                writeValue(element);
+            }
+        }
+        else if (value instanceof Map && isJdkContainer(type))
+        {
+            this.out.writeByte(MAP);
+            writeClass(type);
+            Map<?, ?> map = (Map<?, ?>) value;
+            writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet())
+            {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        }
+        else if (isFieldByField(type))
+        {
+            if (constructor(type) == null)
+            {
+                throw new NotSerializableException(type.getName() + ": no constructor without arguments");
+            }
+            this.out.writeByte(OBJECT);
+            writeClass(type);
+            try
+            {
+                for (Field field : fields(type))
+                {
+                    writeValue(field.get(value));
+                }
+            }
+            catch (IllegalAccessException exception)
+            {
+                throw new NotSerializableException(type.getName() + ": " + exception.getMessage());
+            }
+        }
+        else
+        {
+            throw new NotSerializableException(type.getName());
+        }
+    }
+
+    /**
+     * Return whether a class can be written field by field: it is Serializable, it does not belong to the JDK or to one of the
+     * libraries, and it is not a synthetic or anonymous class or a lambda expression. The CheckpointInput uses the same check
+     * before it creates an object of a class that is named in a checkpoint.
+     * @param type Class&lt;?&gt;; the class
+     * @return boolean; whether objects of the class can be written field by field
+     */
+    static boolean isFieldByField(final Class<?> type)
+    {
+        return Serializable.class.isAssignableFrom(type) && !isForeign(type) && !type.isSynthetic() && !type.isAnonymousClass()
+                && !type.getName().contains("$$Lambda");
+    }
+
+    /**
+     * Return whether a class is a collection or map of java.util that can be made empty with a public no-argument constructor,
+     * such as an ArrayList or a LinkedHashMap. The unmodifiable and synchronized views cannot be read back.
+     * @param type Class&lt;?&gt;; the class of the collection or map
+     * @return boolean; whether the collection or map can be written
+     */
+    static boolean isJdkContainer(final Class<?> type)
+    {
+        if (!type.getName().startsWith("java.util.") || !Modifier.isPublic(type.getModifiers()))
+        {
+            return false;
+        }
+        try
+        {
+            type.getConstructor();
+            return true;
+        }
+        catch (NoSuchMethodException exception)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Flush the underlying stream.
+     * @throws IOException on write error
+     */
+    public void flush() throws IOException
+    {
+        this.out.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "CheckpointOutput [anchors=" + this.anchors.size() + ", references=" + this.references.size() + ", classes="
+                + this.classes.size() + "]";
+    }
+
+}
@@ -0,0 +1,32 @@
+package nl.tudelft.simulation.supplychain.checkpoint;
+
+import java.io.IOException;
+
+/**
+ * Checkpointable is implemented by the objects of a model that can write their state to a checkpoint, and read it back into a
+ * freshly constructed object of the same model. The ModelCheckpoint calls the methods for every anchor, i.e., every object
+ * that it can find again in the new model, that implements this interface. An anchor schedules its events as a method of
+ * itself rather than with a lambda expression, since the checkpoint can store the first, but not the second.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public interface Checkpointable
+{
+    /**
+     * Write the state of this object to the checkpoint.
+     * @param out CheckpointOutput; the checkpoint to write to
+     * @throws IOException when writing fails, or when the state contains a value that cannot be stored
+     */
+    void writeCheckpoint(CheckpointOutput out) throws IOException;
+
+    /**
+     * Replace the state of this object by the state that was written to the checkpoint. The simulator time has already been
+     * restored when this method is called.
+     * @param in CheckpointInput; the checkpoint to read from
+     * @throws IOException when reading fails, or when the checkpoint does not match the model
+     */
+    void readCheckpoint(CheckpointInput in) throws IOException;
+}
@@ -0,0 +1,473 @@
+package nl.tudelft.simulation.supplychain.checkpoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEvent;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEventInterface;
+import nl.tudelft.simulation.jstats.streams.StreamException;
+import nl.tudelft.simulation.jstats.streams.StreamInterface;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.dsol.PartitionedSimulator;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModel;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.message.Message;
+import nl.tudelft.simulation.supplychain.message.MessageDeliveryEvent;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicy;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicyEvent;
+import nl.tudelft.simulation.supplychain.message.store.trade.LeanTradeMessageStore;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryRole;
+import nl.tudelft.simulation.supplychain.role.inventory.RestockingServiceInterface;
+
+/**
+ * ModelCheckpoint saves the state of a running model to a stream in a compact binary format, and restores it into a freshly
+ * constructed and initialized instance of the same model, e.g., in a new JVM, so a series of runs can start after the warm-up
+ * period without simulating it again. The new model constructs its own actors, roles, policies and other objects; the checkpoint
+ * does not contain these objects, but refers to them as anchors by name, and restores their state. The checkpoint contains:
+ * <ul>
+ * <li>the simulator time, the unique message id counter and the state of the random streams of the model;</li>
+ * <li>the ids of the actors and the names of the products, to check that the new model has the same structure;</li>
+ * <li>the state of every anchor that implements Checkpointable, such as the message stores with their trade messages, the
+ * inventories and the bank accounts;</li>
+ * <li>the pending events: the delivery of messages to actors and policies, and the SimEvents with an anchor as target and
+ * arguments that can be written, such as the replication events of the simulator and the events of the policies.</li>
+ * </ul>
+ * The anchors are the simulator, the model, the actors with their message store, bank account and roles, the policies of the
+ * roles, the inventory of an inventory role and the restocking services that have been added to the inventory role. Other
+ * objects that are the target of events, such as a restocking service in the periodic review mode, can be added with
+ * addAnchor before the save and before the restore. Events with a lambda expression and events with a target that is not an
+ * anchor cannot be written, and make the save fail, since the restored model would silently miss these events. The state of
+ * the policies themselves is only restored when they implement Checkpointable. A checkpoint of a PartitionedSimulator is not
+ * supported, since its events are not in the event list of the simulator, and neither is a model with a
+ * LeanTradeMessageStore, since the time-outs of its messages are lambda events of the shared TimeoutWheel.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ModelCheckpoint
+{
+    /** the magic number at the start of a checkpoint, "SCCP". */
+    public static final int MAGIC = 0x53434350;
+
+    /** the version of the format. */
+    public static final int VERSION = 1;
+
+    /** event kind for a MessageDeliveryEvent. */
+    private static final byte DELIVERY_EVENT = 1;
+
+    /** event kind for a MessagePolicyEvent. */
+    private static final byte POLICY_EVENT = 2;
+
+    /** event kind for a SimEvent. */
+    private static final byte SIM_EVENT = 3;
+
+    /** the model to save or to restore. */
+    private final SupplyChainModel model;
+
+    /** the simulator of the model. */
+    private final SupplyChainSimulator simulator;
+
+    /** the anchors that have been added by the user. */
+    private final Map<String, Object> extraAnchors = new LinkedHashMap<>();
+
+    /** the number of events that have been written or read in the last save or restore. */
+    private int numberOfEvents = 0;
+
+    /**
+     * Create a checkpoint for a model, to save its state, or to restore a state into it.
+     * @param model SupplyChainModel; the model, which has a SupplyChainSimulator
+     * @throws IllegalArgumentException when the simulator of the model is not a SupplyChainSimulator, or when it is a
+     *             PartitionedSimulator
+     */
+    public ModelCheckpoint(final SupplyChainModel model)
+    {
+        Throw.whenNull(model, "model cannot be null");
+        Throw.when(!(model.getSimulator() instanceof SupplyChainSimulator), IllegalArgumentException.class,
+                "ModelCheckpoint needs a model with a SupplyChainSimulator");
+        Throw.when(model.getSimulator() instanceof PartitionedSimulator, IllegalArgumentException.class,
+                "ModelCheckpoint does not support the PartitionedSimulator");
+        this.model = model;
+        this.simulator = (SupplyChainSimulator) model.getSimulator();
+    }
+
+    /**
+     * Add an anchor, i.e., an object that the model constructs itself, and that can be found in the model under the same name
+     * when the checkpoint is restored. The anchor has to be added before the save and before the restore.
+     * @param name String; the unique name of the anchor
+     * @param anchor Object; the anchor
+     */
+    public void addAnchor(final String name, final Object anchor)
+    {
+        Throw.whenNull(name, "name cannot be null");
+        Throw.whenNull(anchor, "anchor cannot be null");
+        Throw.when(this.extraAnchors.containsKey(name), IllegalArgumentException.class, "anchor %s already added", name);
+        this.extraAnchors.put(name, anchor);
+    }
+
+    /**
+     * Collect the anchors of the model by name.
+     * @return Map&lt;String, Object&gt;; the anchors of the model by name, in a fixed order
+     * @throws IllegalArgumentException when an actor of the model has a LeanTradeMessageStore
+     */
+    protected Map<String, Object> collectAnchors()
+    {
+        Map<String, Object> anchors = new LinkedHashMap<>();
+        anchors.put("@simulator", this.simulator);
+        anchors.put("@model", this.model);
+        for (Actor actor : this.model.getActors())
+        {
+            String id = actor.getId();
+            Throw.when(actor.getMessageStore() instanceof LeanTradeMessageStore, IllegalArgumentException.class,
+                    "ModelCheckpoint does not support the LeanTradeMessageStore of actor %s", id);
+            anchors.put(id, actor);
+            anchors.put(id + "/store", actor.getMessageStore());
+            if (actor.getBankAccount() != null)
+            {
+                anchors.put(id + "/bank", actor.getBankAccount());
+            }
+            for (Role role : actor.getRoles())
+            {
+                String roleName = id + "/role:" + role.getId();
+                anchors.putIfAbsent(roleName, role);
+                for (MessagePolicy<? extends Message> policy : role.getMessagePolicyMap().values())
+                {
+                    anchors.putIfAbsent(roleName + "/policy:" + policy.getMessageClass().getName(), policy);
+                }
+                if (role instanceof InventoryRole)
+                {
+                    InventoryRole inventoryRole = (InventoryRole) role;
+                    anchors.putIfAbsent(id + "/inventory", inventoryRole.getInventory());
+                    for (Product product : this.model.getProducts())
+                    {
+                        RestockingServiceInterface service = inventoryRole.getRestockingService(product);
+                        if (service != null)
+                        {
+                            anchors.putIfAbsent(id + "/restocking:" + product.getName(), service);
+                        }
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, Object> entry : this.extraAnchors.entrySet())
+        {
+            Throw.when(anchors.containsKey(entry.getKey()), IllegalArgumentException.class,
+                    "anchor %s is already an anchor of the model", entry.getKey());
+            anchors.put(entry.getKey(), entry.getValue());
+        }
+        return anchors;
+    }
+
+    /**
+     * Save the state of the model to a stream. The simulator should not be running.
+     * @param out OutputStream; the stream to write to; the stream is flushed, but not closed
+     * @throws IOException on write error, or when the state contains a value that cannot be written
+     * @throws NotSerializableException when a pending event has a lambda expression or a target that is not an anchor
+     */
+    public void save(final OutputStream out) throws IOException
+    {
+        Throw.whenNull(out, "out cannot be null");
+        Throw.when(this.simulator.isStartingOrRunning(), IllegalStateException.class, "cannot save a running model");
+        Map<String, Object> anchors = collectAnchors();
+        Map<Object, String> anchorNames = new IdentityHashMap<>();
+        for (Map.Entry<String, Object> entry : anchors.entrySet())
+        {
+            anchorNames.putIfAbsent(entry.getValue(), entry.getKey());
+        }
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        CheckpointOutput cp = new CheckpointOutput(data, anchorNames);
+
+        // header with the structure of the model, to check it at the restore
+        cp.writeString(this.model.getClass().getName());
+        cp.writeDouble(this.simulator.getAbsStartTime().si);
+        cp.writeDouble(this.simulator.getSimulatorTime().si);
+        cp.writeLong(this.model.getNextUniqueMessageId());
+        cp.writeInt(this.model.getActors().size());
+        for (Actor actor : this.model.getActors())
+        {
+            cp.writeString(actor.getId());
+        }
+        cp.writeInt(this.model.getProducts().size());
+        for (Product product : this.model.getProducts())
+        {
+            cp.writeString(product.getName());
+        }
+        Map<String, StreamInterface> streams = this.model.getStreams();
+        cp.writeInt(streams.size());
+        for (Map.Entry<String, StreamInterface> entry : streams.entrySet())
+        {
+            cp.writeString(entry.getKey());
+            try
+            {
+                cp.writeBytes(entry.getValue().saveState());
+            }
+            catch (StreamException exception)
+            {
+                throw new IOException("state of stream " + entry.getKey() + " cannot be saved", exception);
+            }
+        }
+
+        // the state of the anchors
+        List<String> checkpointables = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : anchors.entrySet())
+        {
+            if (entry.getValue() instanceof Checkpointable && anchorNames.get(entry.getValue()).equals(entry.getKey()))
+            {
+                checkpointables.add(entry.getKey());
+            }
+        }
+        cp.writeInt(checkpointables.size());
+        for (String name : checkpointables)
+        {
+            cp.writeString(name);
+            ((Checkpointable) anchors.get(name)).writeCheckpoint(cp);
+        }
+
+        // the pending events in the order of execution
+        List<SimEventInterface<Duration>> events = new ArrayList<>();
+        for (SimEventInterface<Duration> event : this.simulator.getEventList())
+        {
+            if (!isWritable(event, anchorNames))
+            {
+                throw new NotSerializableException("event at t=" + event.getAbsoluteExecutionTime() + " cannot be written: "
+                        + describe(event) + "; add its target with addAnchor, or schedule it as a method of an anchor");
+            }
+            events.add(event);
+        }
+        Collections.sort(events);
+        this.numberOfEvents = events.size();
+        cp.writeInt(events.size());
+        for (SimEventInterface<Duration> event : events)
+        {
+            writeEvent(cp, event);
+        }
+        cp.flush();
+    }
+
+    /**
+     * Return whether an event can be written to the checkpoint.
+     * @param event SimEventInterface&lt;Duration&gt;; the event
+     * @param anchorNames Map&lt;Object, String&gt;; the names of the anchors
+     * @return boolean; whether the event can be written
+     */
+    private boolean isWritable(final SimEventInterface<Duration> event, final Map<Object, String> anchorNames)
+    {
+        if (event instanceof MessageDeliveryEvent)
+        {
+            return true;
+        }
+        if (event instanceof MessagePolicyEvent)
+        {
+            return anchorNames.containsKey(((MessagePolicyEvent<?>) event).getMessagePolicy());
+        }
+        return event instanceof SimEvent && anchorNames.containsKey(((SimEvent<Duration>) event).getTarget());
+    }
+
+    /**
+     * Describe an event that cannot be written, for the message of the exception.
+     * @param event SimEventInterface&lt;Duration&gt;; the event
+     * @return String; the description of the event
+     */
+    private String describe(final SimEventInterface<Duration> event)
+    {
+        if (event instanceof MessagePolicyEvent)
+        {
+            return "policy " + ((MessagePolicyEvent<?>) event).getMessagePolicy() + " is not an anchor";
+        }
+        if (event instanceof SimEvent)
+        {
+            SimEvent<Duration> simEvent = (SimEvent<Duration>) event;
+            return "method " + simEvent.getMethod() + " of " + simEvent.getTarget() + ", which is not an anchor";
+        }
+        return event.getClass().getName() + ", e.g., a lambda expression";
+    }
+
+    /**
+     * Write an event.
+     * @param cp CheckpointOutput; the checkpoint to write to
+     * @param event SimEventInterface&lt;Duration&gt;; the event, which is writable
+     * @throws IOException on write error, or when an argument of the event cannot be written
+     */
+    private void writeEvent(final CheckpointOutput cp, final SimEventInterface<Duration> event) throws IOException
+    {
+        if (event instanceof MessageDeliveryEvent)
+        {
+            cp.writeInt(DELIVERY_EVENT);
+            cp.writeDouble(event.getAbsoluteExecutionTime().si);
+            cp.writeValue(((MessageDeliveryEvent) event).getMessage());
+        }
+        else if (event instanceof MessagePolicyEvent)
+        {
+            cp.writeInt(POLICY_EVENT);
+            cp.writeDouble(event.getAbsoluteExecutionTime().si);
+            cp.writeValue(((MessagePolicyEvent<?>) event).getMessagePolicy());
+            cp.writeValue(((MessagePolicyEvent<?>) event).getMessage());
+        }
+        else
+        {
+            SimEvent<Duration> simEvent = (SimEvent<Duration>) event;
+            cp.writeInt(SIM_EVENT);
+            cp.writeDouble(event.getAbsoluteExecutionTime().si);
+            cp.writeInt(event.getPriority());
+            cp.writeValue(simEvent.getTarget());
+            cp.writeString(simEvent.getMethod());
+            cp.writeValue(simEvent.getArgs());
+        }
+    }
+
+    /**
+     * Restore the state of a checkpoint into the model. The model should have been constructed and initialized in the same way
+     * as the model of which the checkpoint was saved, and its simulator should not be running. The pending events of the model
+     * are replaced by the events of the checkpoint.
+     * @param in InputStream; the stream to read from; the stream is not closed
+     * @throws IOException on read error, or when the checkpoint does not match the model
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void restore(final InputStream in) throws IOException
+    {
+        Throw.whenNull(in, "in cannot be null");
+        Throw.when(this.simulator.isStartingOrRunning(), IllegalStateException.class, "cannot restore a running model");
+        Map<String, Object> anchors = collectAnchors();
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (data.readInt() != MAGIC)
+        {
+            throw new StreamCorruptedException("not a model checkpoint");
+        }
+        int version = data.readInt();
+        if (version != VERSION)
+        {
+            throw new InvalidClassException("checkpoint version " + version + " not supported");
+        }
+        CheckpointInput cp = new CheckpointInput(data, anchors, new ArrayList<>(this.model.getProducts().toCollection()));
+
+        // check the structure of the model
+        String modelClass = cp.readString();
+        check(this.model.getClass().getName().equals(modelClass), "checkpoint of model " + modelClass);
+        check(this.simulator.getAbsStartTime().si == cp.readDouble(), "different absolute start time");
+        Duration time = Duration.instantiateSI(cp.readDouble());
+        long nextUniqueMessageId = cp.readLong();
+        int numberOfActors = cp.readInt();
+        check(numberOfActors == this.model.getActors().size(), "different number of actors");
+        for (int i = 0; i < numberOfActors; i++)
+        {
+            String id = cp.readString();
+            check(anchors.get(id) instanceof Actor, "actor " + id + " not found in the model");
+        }
+        int numberOfProducts = cp.readInt();
+        check(numberOfProducts == this.model.getProducts().size(), "different number of products");
+        for (int i = 0; i < numberOfProducts; i++)
+        {
+            check(this.model.getProducts().get(i).getName().equals(cp.readString()), "different product at index " + i);
+        }
+        int numberOfStreams = cp.readInt();
+        for (int i = 0; i < numberOfStreams; i++)
+        {
+            String name = cp.readString();
+            StreamInterface stream = this.model.getStream(name);
+            check(stream != null, "stream " + name + " not found in the model");
+            try
+            {
+                stream.restoreState(cp.readBytes());
+            }
+            catch (StreamException exception)
+            {
+                throw new IOException("state of stream " + name + " cannot be restored", exception);
+            }
+        }
+
+        // the clock and the state of the anchors
+        this.simulator.getEventList().clear();
+        this.simulator.restoreSimulatorTime(time);
+        this.model.setNextUniqueMessageId(nextUniqueMessageId);
+        int numberOfCheckpointables = cp.readInt();
+        for (int i = 0; i < numberOfCheckpointables; i++)
+        {
+            String name = cp.readString();
+            Object anchor = cp.getAnchor(name);
+            check(anchor instanceof Checkpointable, "anchor " + name + " is not Checkpointable");
+            ((Checkpointable) anchor).readCheckpoint(cp);
+        }
+
+        // the pending events
+        this.numberOfEvents = cp.readInt();
+        for (int i = 0; i < this.numberOfEvents; i++)
+        {
+            int kind = cp.readInt();
+            Duration eventTime = Duration.instantiateSI(cp.readDouble());
+            switch (kind)
+            {
+                case DELIVERY_EVENT:
+                    this.simulator.scheduleEvent(new MessageDeliveryEvent(eventTime, (Message) cp.readValue()));
+                    break;
+                case POLICY_EVENT:
+                    MessagePolicy policy = (MessagePolicy) cp.readValue();
+                    this.simulator.scheduleEvent(new MessagePolicyEvent(eventTime, policy, (Message) cp.readValue()));
+                    break;
+                case SIM_EVENT:
+                    short priority = (short) cp.readInt();
+                    Object target = cp.readValue();
+                    String method = cp.readString();
+                    Object[] args = (Object[]) cp.readValue();
+                    this.simulator.scheduleEvent(new SimEvent<Duration>(eventTime, priority, target, method, args));
+                    break;
+                default:
+                    throw new StreamCorruptedException("unknown event kind " + kind);
+            }
+        }
+    }
+
+    /**
+     * Check a condition on the checkpoint.
+     * @param condition boolean; the condition that should hold
+     * @param message String; the message when the condition does not hold
+     * @throws InvalidObjectException when the condition does not hold
+     */
+    private static void check(final boolean condition, final String message) throws InvalidObjectException
+    {
+        if (!condition)
+        {
+            throw new InvalidObjectException("checkpoint does not match the model: " + message);
+        }
+    }
+
+    /**
+     * Return the number of events that have been written in the last save, or read in the last restore.
+     * @return int; the number of events that have been written or read
+     */
+    public int getNumberOfEvents()
+    {
+        return this.numberOfEvents;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "ModelCheckpoint [model=" + this.model.getClass().getSimpleName() + ", anchors=" + this.extraAnchors.size()
+                + " added, events=" + this.numberOfEvents + "]";
+    }
+
+}
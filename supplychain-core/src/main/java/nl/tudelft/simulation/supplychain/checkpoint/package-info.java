@@ -0,0 +1,12 @@
+/**
+ * Checkpoints of a running supply chain model in a compact binary format. A checkpoint stores the state of a model, such as
+ * the simulator clock, the pending events, the message stores, the inventories and the bank accounts, and restores it into a
+ * freshly constructed instance of the same model, e.g., in a new JVM, to continue a run after the warm-up period without
+ * simulating the warm-up again.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+package nl.tudelft.simulation.supplychain.checkpoint;
@@ -0,0 +1,293 @@
+package nl.tudelft.simulation.supplychain.dsol;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.djunits.value.vdouble.scalar.Length;
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.actor.Actor;
+
+/**
+ * DistanceMatrix caches the distances between pairs of actors, as calculated by
+ * the calculateDistance method of the model. Actors do not move, so a distance
+ * only has to be calculated once, and the callers do not have to allocate a
+ * Length for each lookup. The distance from a to b is cached separately from
+ * the distance from b to a, since the model can calculate asymmetric distances,
+ * e.g., over a road network.<br>
+ * <br>
+ * The actors get an index on their first lookup. As long as the number of
+ * actors is at most maxDenseActors, the distances are stored in a dense
+ * primitive matrix that grows with the number of actors. For larger models, the
+ * matrix is replaced by a bounded concurrent cache with at most maxCacheSize
+ * distances; when the cache is full, it is emptied, and the distances are
+ * calculated again when they are used. When the location of an actor changes,
+ * invalidate(actor) removes its cached distances.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the
+ * Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * 
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class DistanceMatrix implements Serializable {
+	/** */
+	private static final long serialVersionUID = 20231017L;
+
+	/** the model that calculates the distances. */
+	private final SupplyChainModelInterface model;
+
+	/** the maximum number of actors for the dense matrix. */
+	private final int maxDenseActors;
+
+	/** the maximum number of distances in the bounded cache. */
+	private final int maxCacheSize;
+
+	/** the index of the actors, assigned on their first lookup. */
+	private final Map<Actor, Integer> actorIndex = new ConcurrentHashMap<>();
+
+	/**
+	 * the dense matrix of distances in meters, row-major with capacity columns; NaN
+	 * when not calculated yet. Null when the bounded cache is used.
+	 */
+	private double[] matrix;
+
+	/** the number of rows and columns of the dense matrix. */
+	private int capacity;
+
+	/** the bounded cache of distances in meters, keyed on the pair of indexes. */
+	private final Map<Long, Double> cache = new ConcurrentHashMap<>();
+
+	/** the number of distances that were calculated by the model. */
+	private long calculations = 0;
+
+	/** the version of the cached distances, incremented when distances are removed. */
+	private volatile long version = 0;
+
+	/**
+	 * Create a distance matrix with a dense matrix for at most 1024 actors, and a
+	 * bounded cache of at most one million distances for larger models.
+	 * 
+	 * @param model SupplyChainModelInterface; the model that calculates the
+	 *              distances
+	 */
+	public DistanceMatrix(final SupplyChainModelInterface model) {
+		this(model, 1024, 1_000_000);
+	}
+
+	/**
+	 * Create a distance matrix.
+	 * 
+	 * @param model          SupplyChainModelInterface; the model that calculates
+	 *                       the distances
+	 * @param maxDenseActors int; the maximum number of actors for the dense matrix
+	 * @param maxCacheSize   int; the maximum number of distances in the bounded
+	 *                       cache for larger models
+	 */
+	public DistanceMatrix(final SupplyChainModelInterface model, final int maxDenseActors, final int maxCacheSize) {
+		Throw.whenNull(model, "model cannot be null");
+		Throw.when(maxDenseActors < 0, IllegalArgumentException.class, "maxDenseActors cannot be negative");
+		Throw.when(maxCacheSize < 1, IllegalArgumentException.class, "maxCacheSize should be at least 1");
+		this.model = model;
+		this.maxDenseActors = maxDenseActors;
+		this.maxCacheSize = maxCacheSize;
+		this.capacity = Math.min(16, maxDenseActors);
+		this.matrix = this.capacity == 0 ? null : newMatrix(this.capacity);
+	}
+
+	/**
+	 * Return the distance between two actors in meters.
+	 * 
+	 * @param from Actor; the actor to calculate the distance from
+	 * @param to   Actor; the actor to calculate the distance to
+	 * @return double; the distance between the actors in meters
+	 */
+	public double getDistanceSi(final Actor from, final Actor to) {
+		int i = index(from);
+		int j = index(to);
+		if (this.matrix != null) {
+			int cell = i * this.capacity + j;
+			double distance = this.matrix[cell];
+			if (Double.isNaN(distance)) {
+				distance = calculate(from, to);
+				this.matrix[cell] = distance;
+			}
+			return distance;
+		}
+		Long key = (((long) i) << 32) | j;
+		Double distance = this.cache.get(key);
+		if (distance == null) {
+			if (this.cache.size() >= this.maxCacheSize) {
+				this.cache.clear();
+			}
+			distance = calculate(from, to);
+			this.cache.put(key, distance);
+		}
+		return distance;
+	}
+
+	/**
+	 * Return the distance between two actors in km.
+	 * 
+	 * @param from Actor; the actor to calculate the distance from
+	 * @param to   Actor; the actor to calculate the distance to
+	 * @return double; the distance between the actors in km
+	 */
+	public double getDistanceKm(final Actor from, final Actor to) {
+		return getDistanceSi(from, to) / 1000.0;
+	}
+
+	/**
+	 * Return the distance between two actors as a Length.
+	 * 
+	 * @param from Actor; the actor to calculate the distance from
+	 * @param to   Actor; the actor to calculate the distance to
+	 * @return Length; the distance between the actors
+	 */
+	public Length getDistance(final Actor from, final Actor to) {
+		return Length.instantiateSI(getDistanceSi(from, to));
+	}
+
+	/**
+	 * Remove the cached distances from and to an actor, e.g., when its location
+	 * has changed.
+	 * 
+	 * @param actor Actor; the actor for which to remove the cached distances
+	 */
+	public synchronized void invalidate(final Actor actor) {
+		Integer index = this.actorIndex.get(actor);
+		if (index == null) {
+			return;
+		}
+		int k = index;
+		if (this.matrix != null) {
+			Arrays.fill(this.matrix, k * this.capacity, (k + 1) * this.capacity, Double.NaN);
+			for (int i = 0; i < this.capacity; i++) {
+				this.matrix[i * this.capacity + k] = Double.NaN;
+			}
+		}
+		this.cache.keySet().removeIf(key -> (int) (key >>> 32) == k || (int) (key & 0xFFFFFFFFL) == k);
+		this.version++;
+	}
+
+	/**
+	 * Remove all cached distances.
+	 */
+	public synchronized void clear() {
+		if (this.matrix != null) {
+			Arrays.fill(this.matrix, Double.NaN);
+		}
+		this.cache.clear();
+		this.version++;
+	}
+
+	/**
+	 * Return the version of the cached distances. The version is incremented when
+	 * distances are invalidated or cleared, so users that derive values from the
+	 * distances, such as a TransportOption, can see whether their values are still
+	 * valid.
+	 * 
+	 * @return long; the version of the cached distances
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Return whether the distances are stored in the dense matrix.
+	 * 
+	 * @return boolean; true when the dense matrix is used, false when the bounded
+	 *         cache is used
+	 */
+	public boolean isDense() {
+		return this.matrix != null;
+	}
+
+	/**
+	 * Return the number of distances that were calculated by the model, e.g., to
+	 * check the effectiveness of the cache.
+	 * 
+	 * @return long; the number of distances that were calculated by the model
+	 */
+	public long getNumberOfCalculations() {
+		return this.calculations;
+	}
+
+	/**
+	 * Calculate the distance between two actors with the model.
+	 * 
+	 * @param from Actor; the actor to calculate the distance from
+	 * @param to   Actor; the actor to calculate the distance to
+	 * @return double; the distance between the actors in meters
+	 */
+	private double calculate(final Actor from, final Actor to) {
+		this.calculations++;
+		return this.model.calculateDistance(from.getLocation(), to.getLocation()).si;
+	}
+
+	/**
+	 * Return the index of an actor, and assign an index when the actor has none
+	 * yet.
+	 * 
+	 * @param actor Actor; the actor
+	 * @return int; the index of the actor
+	 */
+	private int index(final Actor actor) {
+		Integer index = this.actorIndex.get(actor);
+		return index != null ? index : assignIndex(actor);
+	}
+
+	/**
+	 * Assign an index to an actor, and grow the dense matrix, or switch to the
+	 * bounded cache, when needed.
+	 * 
+	 * @param actor Actor; the actor
+	 * @return int; the index of the actor
+	 */
+	private synchronized int assignIndex(final Actor actor) {
+		Throw.whenNull(actor, "actor cannot be null");
+		Integer existing = this.actorIndex.get(actor);
+		if (existing != null) {
+			return existing;
+		}
+		int index = this.actorIndex.size();
+		if (this.matrix != null && index >= this.capacity) {
+			if (index >= this.maxDenseActors) {
+				this.matrix = null;
+			} else {
+				int newCapacity = Math.min(2 * this.capacity, this.maxDenseActors);
+				double[] newMatrix = newMatrix(newCapacity);
+				for (int i = 0; i < this.capacity; i++) {
+					System.arraycopy(this.matrix, i * this.capacity, newMatrix, i * newCapacity, this.capacity);
+				}
+				this.matrix = newMatrix;
+				this.capacity = newCapacity;
+			}
+		}
+		this.actorIndex.put(actor, index);
+		return index;
+	}
+
+	/**
+	 * Create a square matrix without calculated distances.
+	 * 
+	 * @param size int; the number of rows and columns
+	 * @return double[]; a matrix of size * size values, all NaN
+	 */
+	private static double[] newMatrix(final int size) {
+		double[] newMatrix = new double[size * size];
+		Arrays.fill(newMatrix, Double.NaN);
+		return newMatrix;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return "DistanceMatrix [actors=" + this.actorIndex.size() + ", dense=" + isDense() + ", calculations="
+				+ this.calculations + "]";
+	}
+
+}
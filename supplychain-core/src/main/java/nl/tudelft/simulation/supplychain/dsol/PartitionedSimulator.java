@@ -0,0 +1,955 @@
+package nl.tudelft.simulation.supplychain.dsol;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToIntFunction;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.dsol.SimRuntimeException;
+import nl.tudelft.simulation.dsol.experiment.Replication;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.Executable;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.LambdaSimEvent;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEvent;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEventInterface;
+import nl.tudelft.simulation.dsol.model.DsolModel;
+import nl.tudelft.simulation.dsol.simulators.RunState;
+import nl.tudelft.simulation.dsol.simulators.SimulatorInterface;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.message.MessageDeliveryEvent;
+import nl.tudelft.simulation.supplychain.message.store.trade.TimeoutWheel;
+
+/**
+ * PartitionedSimulator distributes the actors of the model over a number of logical processes, each with an event list and a
+ * simulation time of its own, and executes the logical processes in parallel with a conservative time window protocol. The
+ * lookahead is the minimum delay of a message between actors in different partitions, e.g., the smallest administrative
+ * delay or transport duration between the partitions. In a window that starts at the earliest pending event time t, all
+ * logical processes execute their events before t + lookahead in parallel; a message to another partition cannot arrive
+ * before the end of the window, and is handed over to the other logical process at the end of the window. A message that
+ * arrives earlier than the lookahead allows is refused with a SimRuntimeException.<br>
+ * <br>
+ * Events are routed as follows. A MessageDeliveryEvent goes to the logical process of the receiver. Other events that are
+ * scheduled while a logical process executes its events stay in that logical process. Events that are scheduled outside the
+ * windows, e.g., while the model is constructed, go to the logical process of the actor that was registered last, which is
+ * the actor whose roles and policies are being built, or to the logical process of the actor that is set with
+ * setSetupActor. Events of the simulator itself, such as the end of the replication, are kept in the event list of the
+ * simulator, and are executed between the windows.<br>
+ * <br>
+ * Events with the same time are executed in the order of their priority, and then in the order in which they were created:
+ * by the time at which they were scheduled, by the window in which they were scheduled, by the partition that scheduled them,
+ * and by the order in which that partition scheduled them. Events that are scheduled outside the windows come before the
+ * events of the partitions that are scheduled at the same time in the next window. The key is given to an event when it is
+ * scheduled, so a message from another partition that is handed over at the end of a window keeps its place among the
+ * events of the receiving partition, and a run gives the same results for any number of threads. With one partition, this
+ * is the order of the sequential simulator; with more partitions, only events that are scheduled at the same time by
+ * different partitions can be ordered differently. In a window, every partition assigns its own unique message ids, with
+ * the partition as the remainder of the id divided by the number of partitions, so the ids do not depend on the threads
+ * either. This holds as long as the partitions do not share random streams or other mutable state, such as listeners that
+ * collect statistics from several partitions.<br>
+ * <br>
+ * The following components of the library can be used by actors in different partitions on several threads:
+ * <ul>
+ * <li>the TradeMessageStore and the IndexedTradeMessageStore, in both modes, since the store of an actor is only used by the
+ * events of its partition; in the SINGLE_THREADED mode, the assertions check that the store is not used by the events of
+ * another partition, instead of checking the thread;</li>
+ * <li>the LeanTradeMessageStore, which registers its time-outs with the TimeoutWheel of the partition of its owner instead of
+ * the wheel of the model; the wheels of the partitions have the bucket width of the wheel of the model, and a wheel that is
+ * given to the store cannot be shared between partitions;</li>
+ * <li>the estimates of a TransportOption, the distance matrix of the model, whose distances are calculated before the
+ * partitions run in parallel, the MessageTraceRecorder, and the unique message ids of the SupplyChainModel.</li>
+ * </ul>
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class PartitionedSimulator extends SupplyChainSimulator
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the number of partitions. */
+    private final int numberOfPartitions;
+
+    /** the function that assigns a partition to an actor. */
+    private final ToIntFunction<Actor> partitioner;
+
+    /** the minimum delay of a message between actors in different partitions. */
+    private final Duration lookahead;
+
+    /** the number of threads that execute the logical processes. */
+    private final int numberOfThreads;
+
+    /** the logical processes, one per partition. */
+    private transient LogicalProcess[] processes;
+
+    /** the logical process of each actor. */
+    private final transient Map<Actor, LogicalProcess> actorProcesses = new ConcurrentHashMap<>();
+
+    /** the logical process for events that are scheduled outside the windows, or null for the simulator itself. */
+    private transient LogicalProcess setupProcess = null;
+
+    /** the logical process that the current thread executes, if any. */
+    private final transient ThreadLocal<LogicalProcess> currentProcess = new ThreadLocal<>();
+
+    /** the threads that execute the logical processes, created when first needed. */
+    private transient ExecutorService executor = null;
+
+    /** the end of the current window in seconds, exclusive. */
+    private double windowEndSi = Double.NEGATIVE_INFINITY;
+
+    /** the number of executed windows. */
+    private long numberOfWindows = 0;
+
+    /** the number of actors for which the distances have been calculated before a run. */
+    private int numberOfPreparedActors = 0;
+
+    /** the sequence number for the next event that is scheduled outside the windows. */
+    private long sequence = 0;
+
+    /** the first unique message id of the current window. */
+    private long messageIdBase = 0;
+
+    /**
+     * Construct a simulator that executes the partitions of the actors in parallel.
+     * @param id the simulator id
+     * @param absStartTime Time; the start time of the simulator
+     * @param numberOfPartitions int; the number of partitions
+     * @param partitioner ToIntFunction&lt;Actor&gt;; the function that assigns a partition between 0 and numberOfPartitions - 1
+     *            to an actor; the function is called when the actor is registered, so it can use the id, name and location
+     * @param lookahead Duration; the minimum delay of a message between actors in different partitions
+     * @param numberOfThreads int; the number of threads that execute the logical processes; 1 for a sequential execution
+     */
+    public PartitionedSimulator(final Serializable id, final Time absStartTime, final int numberOfPartitions,
+            final ToIntFunction<Actor> partitioner, final Duration lookahead, final int numberOfThreads)
+    {
+        super(id, absStartTime);
+        Throw.when(numberOfPartitions < 1, IllegalArgumentException.class, "numberOfPartitions should be at least 1");
+        Throw.whenNull(partitioner, "partitioner cannot be null");
+        Throw.whenNull(lookahead, "lookahead cannot be null");
+        Throw.when(lookahead.si <= 0.0, IllegalArgumentException.class, "lookahead should be positive");
+        Throw.when(numberOfThreads < 1, IllegalArgumentException.class, "numberOfThreads should be at least 1");
+        this.numberOfPartitions = numberOfPartitions;
+        this.partitioner = partitioner;
+        this.lookahead = lookahead;
+        this.numberOfThreads = numberOfThreads;
+        this.processes = makeProcesses(Duration.ZERO);
+    }
+
+    /**
+     * Create empty logical processes for all partitions.
+     * @param startTime Duration; the start time of the logical processes
+     * @return LogicalProcess[]; the logical processes
+     */
+    private LogicalProcess[] makeProcesses(final Duration startTime)
+    {
+        LogicalProcess[] result = new LogicalProcess[this.numberOfPartitions];
+        for (int i = 0; i < this.numberOfPartitions; i++)
+        {
+            result[i] = new LogicalProcess(i, startTime);
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void initialize(final DsolModel<Duration, ? extends SimulatorInterface<Duration>> model,
+            final Replication<Duration> replication) throws SimRuntimeException
+    {
+        this.processes = makeProcesses(replication.getStartTime());
+        this.actorProcesses.clear();
+        this.setupProcess = null;
+        this.windowEndSi = Double.NEGATIVE_INFINITY;
+        this.numberOfWindows = 0;
+        this.numberOfPreparedActors = 0;
+        this.sequence = 0;
+        super.initialize(model, replication);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void actorRegistered(final Actor actor)
+    {
+        LogicalProcess process = getProcess(actor);
+        if (this.currentProcess.get() == null)
+        {
+            this.setupProcess = process;
+        }
+    }
+
+    /**
+     * Set the actor to whose logical process the events go that are scheduled outside the windows, e.g., when the roles and
+     * policies of an actor are built after other actors have been registered.
+     * @param actor Actor; the actor for the events that are scheduled outside the windows, or null to keep these events in
+     *            the event list of the simulator
+     */
+    public void setSetupActor(final Actor actor)
+    {
+        this.setupProcess = actor == null ? null : getProcess(actor);
+    }
+
+    /**
+     * Return the logical process of an actor, and assign the actor to a partition when it has not been assigned yet.
+     * @param actor Actor; the actor
+     * @return LogicalProcess; the logical process of the actor
+     */
+    private LogicalProcess getProcess(final Actor actor)
+    {
+        return this.actorProcesses.computeIfAbsent(actor, a ->
+        {
+            int partition = this.partitioner.applyAsInt(a);
+            Throw.when(partition < 0 || partition >= this.numberOfPartitions, IllegalArgumentException.class,
+                    "partition %d of actor %s is not between 0 and %d", partition, a.getId(), this.numberOfPartitions - 1);
+            return this.processes[partition];
+        });
+    }
+
+    /**
+     * Return the partition of an actor.
+     * @param actor Actor; the actor
+     * @return int; the partition of the actor
+     */
+    public int getPartition(final Actor actor)
+    {
+        return getProcess(actor).index;
+    }
+
+    /**
+     * Return the partition that the current thread executes.
+     * @return int; the partition that the current thread executes, or -1 when the current thread does not execute the events
+     *         of a partition, e.g., while the model is constructed, or between the windows
+     */
+    public int getExecutingPartition()
+    {
+        LogicalProcess process = this.currentProcess.get();
+        return process == null ? -1 : process.index;
+    }
+
+    /**
+     * Return a unique message id for a message that is created by the events of a partition. The partitions assign the ids
+     * of a window from the first id of the window: partition i gives ids first + i, first + i + n, first + i + 2n, etc., for
+     * n partitions, and the model continues after the highest id of the window at the end of the window.
+     * @return long; a unique message id, or -1 when the current thread does not execute the events of a partition, in which
+     *         case the model assigns the id itself
+     */
+    public long getPartitionMessageId()
+    {
+        LogicalProcess process = this.currentProcess.get();
+        return process == null ? -1 : this.messageIdBase + process.messageIds++ * this.numberOfPartitions + process.index;
+    }
+
+    /**
+     * Return the timeout wheel of the partition of an actor, for the time-outs of the messages in the LeanTradeMessageStore of
+     * the actor. The wheel is created when it is first used, with the bucket width of the timeout wheel of the model. Its
+     * sweep events are executed by the partition, also when a time-out is registered outside the windows.
+     * @param actor Actor; the actor
+     * @return TimeoutWheel; the timeout wheel of the partition of the actor
+     */
+    public TimeoutWheel getTimeoutWheel(final Actor actor)
+    {
+        LogicalProcess process = getProcess(actor);
+        if (process.timeoutWheel == null)
+        {
+            process.timeoutWheel = new PartitionTimeoutWheel(process, getModel().getTimeoutWheel().getBucketWidth());
+        }
+        return process.timeoutWheel;
+    }
+
+    /**
+     * Return the number of partitions.
+     * @return int; the number of partitions
+     */
+    public int getNumberOfPartitions()
+    {
+        return this.numberOfPartitions;
+    }
+
+    /**
+     * Return the minimum delay of a message between actors in different partitions.
+     * @return Duration; the lookahead
+     */
+    public Duration getLookahead()
+    {
+        return this.lookahead;
+    }
+
+    /**
+     * Return the number of threads that execute the logical processes.
+     * @return int; the number of threads
+     */
+    public int getNumberOfThreads()
+    {
+        return this.numberOfThreads;
+    }
+
+    /**
+     * Return the number of windows that have been executed in this replication.
+     * @return long; the number of executed windows
+     */
+    public long getNumberOfWindows()
+    {
+        return this.numberOfWindows;
+    }
+
+    /**
+     * Return the number of events that a partition has executed in this replication.
+     * @param partition int; the partition
+     * @return long; the number of events that the partition has executed
+     */
+    public long getNumberOfExecutedEvents(final int partition)
+    {
+        return this.processes[partition].executed;
+    }
+
+    /**
+     * Return the number of events that are pending in a partition.
+     * @param partition int; the partition
+     * @return int; the number of pending events of the partition
+     */
+    public int getNumberOfPendingEvents(final int partition)
+    {
+        return this.processes[partition].events.size();
+    }
+
+    /**
+     * {@inheritDoc} When called from an event of a logical process, the time of that logical process is returned.
+     */
+    @Override
+    public Duration getSimulatorTime()
+    {
+        LogicalProcess process = this.currentProcess.get();
+        return process != null ? process.time : super.getSimulatorTime();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEvent(final SimEventInterface<Duration> event) throws SimRuntimeException
+    {
+        LogicalProcess current = this.currentProcess.get();
+        LogicalProcess target = route(event, current);
+        if (target == null)
+        {
+            return super.scheduleEvent(event);
+        }
+        double timeSi = event.getAbsoluteExecutionTime().si;
+        if (current == null)
+        {
+            Throw.when(timeSi < this.simulatorTime.si, SimRuntimeException.class,
+                    "cannot schedule event %s in the past (%s)", event, this.simulatorTime);
+            target.add(makeScheduledEvent(event, null));
+        }
+        else
+        {
+            Throw.when(timeSi < current.time.si, SimRuntimeException.class, "cannot schedule event %s in the past (%s)",
+                    event, current.time);
+            if (target == current)
+            {
+                current.add(makeScheduledEvent(event, current));
+            }
+            else
+            {
+                Throw.when(timeSi < this.windowEndSi, SimRuntimeException.class,
+                        "event %s for partition %d arrives before the end of the window at %fs; the lookahead of %s is too large",
+                        event, target.index, this.windowEndSi, this.lookahead);
+                current.outbox.add(makeScheduledEvent(event, current));
+                current.outboxTargets.add(target);
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Give an event the key that orders it among the events with the same time and priority.
+     * @param event SimEventInterface&lt;Duration&gt;; the event
+     * @param current LogicalProcess; the logical process that schedules the event, or null outside the windows
+     * @return ScheduledEvent; the event with its key
+     */
+    private ScheduledEvent makeScheduledEvent(final SimEventInterface<Duration> event, final LogicalProcess current)
+    {
+        if (current == null)
+        {
+            return new ScheduledEvent(event, this.simulatorTime.si, this.numberOfWindows, -1, this.sequence++);
+        }
+        return new ScheduledEvent(event, current.time.si, this.numberOfWindows, current.index, current.sequence++);
+    }
+
+    /**
+     * Determine the logical process of an event.
+     * @param event SimEventInterface&lt;Duration&gt;; the event
+     * @param current LogicalProcess; the logical process that the current thread executes, or null
+     * @return LogicalProcess; the logical process of the event, or null when the simulator executes the event itself
+     */
+    private LogicalProcess route(final SimEventInterface<Duration> event, final LogicalProcess current)
+    {
+        if (event instanceof MessageDeliveryEvent)
+        {
+            return getProcess(((MessageDeliveryEvent) event).getReceiver());
+        }
+        if (current != null)
+        {
+            return current;
+        }
+        if (event instanceof SimEvent && ((SimEvent<Duration>) event).getTarget() == this)
+        {
+            return null;
+        }
+        return this.setupProcess;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean cancelEvent(final SimEventInterface<Duration> event)
+    {
+        LogicalProcess current = this.currentProcess.get();
+        if (current != null)
+        {
+            return current.events.removeIf(e -> e.event == event);
+        }
+        for (LogicalProcess process : this.processes)
+        {
+            if (process.events.removeIf(e -> e.event == event))
+            {
+                return true;
+            }
+        }
+        return super.cancelEvent(event);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventRel(final Duration relativeDelay, final short priority,
+            final Object target, final String method, final Object[] args) throws SimRuntimeException
+    {
+        return scheduleEvent(new SimEvent<Duration>(getSimulatorTime().plus(relativeDelay), priority, target, method, args));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventRel(final Duration relativeDelay, final Object target,
+            final String method, final Object[] args) throws SimRuntimeException
+    {
+        return scheduleEventRel(relativeDelay, SimEventInterface.NORMAL_PRIORITY, target, method, args);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventAbs(final Duration absoluteTime, final short priority,
+            final Object target, final String method, final Object[] args) throws SimRuntimeException
+    {
+        return scheduleEvent(new SimEvent<Duration>(absoluteTime, priority, target, method, args));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventAbs(final Duration absoluteTime, final Object target,
+            final String method, final Object[] args) throws SimRuntimeException
+    {
+        return scheduleEventAbs(absoluteTime, SimEventInterface.NORMAL_PRIORITY, target, method, args);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventNow(final short priority, final Object target, final String method,
+            final Object[] args) throws SimRuntimeException
+    {
+        return scheduleEventRel(Duration.ZERO, priority, target, method, args);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventNow(final Object target, final String method, final Object[] args)
+            throws SimRuntimeException
+    {
+        return scheduleEventRel(Duration.ZERO, SimEventInterface.NORMAL_PRIORITY, target, method, args);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventRel(final Duration relativeDelay, final short priority,
+            final Executable executable) throws SimRuntimeException
+    {
+        return scheduleEvent(new LambdaSimEvent<Duration>(getSimulatorTime().plus(relativeDelay), priority, executable));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventRel(final Duration relativeDelay, final Executable executable)
+            throws SimRuntimeException
+    {
+        return scheduleEventRel(relativeDelay, SimEventInterface.NORMAL_PRIORITY, executable);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventAbs(final Duration absoluteTime, final short priority,
+            final Executable executable) throws SimRuntimeException
+    {
+        return scheduleEvent(new LambdaSimEvent<Duration>(absoluteTime, priority, executable));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventAbs(final Duration absoluteTime, final Executable executable)
+            throws SimRuntimeException
+    {
+        return scheduleEventAbs(absoluteTime, SimEventInterface.NORMAL_PRIORITY, executable);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventNow(final short priority, final Executable executable)
+            throws SimRuntimeException
+    {
+        return scheduleEventRel(Duration.ZERO, priority, executable);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SimEventInterface<Duration> scheduleEventNow(final Executable executable) throws SimRuntimeException
+    {
+        return scheduleEventRel(Duration.ZERO, SimEventInterface.NORMAL_PRIORITY, executable);
+    }
+
+    /**
+     * {@inheritDoc} The run executes the events of the simulator itself one by one, and the events of the logical processes
+     * in windows, until the run is stopped or the run-until time is reached. The events of the simulator itself are executed
+     * before the events of the logical processes with the same time.
+     */
+    @Override
+    public void run()
+    {
+        this.runflag = true;
+        synchronized (this.semaphore)
+        {
+            this.setupProcess = null;
+            prepareDistances();
+        }
+        while (!isStoppingOrStopped())
+        {
+            double windowEnd;
+            synchronized (this.semaphore)
+            {
+                double nextLocalSi = Double.POSITIVE_INFINITY;
+                for (LogicalProcess process : this.processes)
+                {
+                    nextLocalSi = Math.min(nextLocalSi, process.nextTimeSi());
+                }
+                double nextGlobalSi = this.eventList.isEmpty() ? Double.POSITIVE_INFINITY
+                        : this.eventList.first().getAbsoluteExecutionTime().si;
+                double nextSi = Math.min(nextLocalSi, nextGlobalSi);
+                double untilSi = this.runUntilTime.si;
+                if (nextSi == Double.POSITIVE_INFINITY || nextSi > untilSi || (nextSi == untilSi && !this.runUntilIncluding))
+                {
+                    this.simulatorTime = this.runUntilTime;
+                    this.runState = RunState.STOPPING;
+                    break;
+                }
+                if (nextGlobalSi <= nextLocalSi)
+                {
+                    executeGlobalEvent();
+                    continue;
+                }
+                windowEnd = Math.min(nextLocalSi + this.lookahead.si, nextGlobalSi);
+            }
+            // the semaphore is not held during the window, since events may call methods of the simulator that use it
+            executeWindow(windowEnd);
+        }
+    }
+
+    /**
+     * Calculate the distances between all registered actors before the logical processes run in parallel, so the dense
+     * distance matrix is only read during the run.
+     */
+    private void prepareDistances()
+    {
+        int numberOfActors = getModel().getActors().size();
+        if (this.numberOfThreads == 1 || numberOfActors == this.numberOfPreparedActors)
+        {
+            return;
+        }
+        DistanceMatrix distanceMatrix = getModel().getDistanceMatrix();
+        if (distanceMatrix.isDense())
+        {
+            for (Actor from : getModel().getActors())
+            {
+                for (Actor to : getModel().getActors())
+                {
+                    distanceMatrix.getDistanceSi(from, to);
+                }
+            }
+        }
+        this.numberOfPreparedActors = numberOfActors;
+    }
+
+    /**
+     * Execute the first event of the simulator itself, in the same way as the DevsSimulator does.
+     */
+    private void executeGlobalEvent()
+    {
+        SimEventInterface<Duration> event = this.eventList.removeFirst();
+        if (event.getAbsoluteExecutionTime().compareTo(this.simulatorTime) != 0)
+        {
+            fireUnverifiedTimedEvent(SimulatorInterface.TIME_CHANGED_EVENT, null, event.getAbsoluteExecutionTime());
+        }
+        this.simulatorTime = event.getAbsoluteExecutionTime();
+        try
+        {
+            event.execute();
+        }
+        catch (Exception exception)
+        {
+            handleSimulationException(exception);
+        }
+    }
+
+    /**
+     * Let the logical processes execute their events before the end of the window, and hand over the events for other
+     * partitions. The model continues the unique message ids after the highest id that the partitions assigned.
+     * @param endSi double; the end of the window in seconds, exclusive
+     */
+    private void executeWindow(final double endSi)
+    {
+        this.windowEndSi = endSi;
+        SupplyChainModel model = getModel() instanceof SupplyChainModel ? (SupplyChainModel) getModel() : null;
+        this.messageIdBase = model == null ? 0 : model.getNextUniqueMessageId();
+        double untilSi = this.runUntilTime.si;
+        boolean including = this.runUntilIncluding;
+        List<LogicalProcess> active = new ArrayList<>();
+        for (LogicalProcess process : this.processes)
+        {
+            if (process.nextTimeSi() < endSi)
+            {
+                active.add(process);
+            }
+        }
+        if (this.numberOfThreads == 1 || active.size() == 1)
+        {
+            for (LogicalProcess process : active)
+            {
+                process.execute(endSi, untilSi, including);
+            }
+        }
+        else
+        {
+            List<Callable<Void>> tasks = new ArrayList<>(active.size());
+            for (LogicalProcess process : active)
+            {
+                tasks.add(() ->
+                {
+                    process.execute(endSi, untilSi, including);
+                    return null;
+                });
+            }
+            try
+            {
+                getExecutor().invokeAll(tasks);
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                this.runState = RunState.STOPPING;
+            }
+        }
+        Duration lastTime = this.simulatorTime;
+        long messageIds = 0;
+        for (LogicalProcess process : this.processes)
+        {
+            for (int i = 0; i < process.outbox.size(); i++)
+            {
+                process.outboxTargets.get(i).add(process.outbox.get(i));
+            }
+            process.outbox.clear();
+            process.outboxTargets.clear();
+            if (process.time.gt(lastTime))
+            {
+                lastTime = process.time;
+            }
+            messageIds = Math.max(messageIds, process.messageIds);
+            process.messageIds = 0;
+        }
+        if (model != null && messageIds > 0)
+        {
+            model.setNextUniqueMessageId(this.messageIdBase + messageIds * this.numberOfPartitions);
+        }
+        this.windowEndSi = Double.NEGATIVE_INFINITY;
+        this.numberOfWindows++;
+        if (lastTime.compareTo(this.simulatorTime) != 0)
+        {
+            fireUnverifiedTimedEvent(SimulatorInterface.TIME_CHANGED_EVENT, null, lastTime);
+            this.simulatorTime = lastTime;
+        }
+        for (LogicalProcess process : active)
+        {
+            if (process.exception != null)
+            {
+                Exception exception = process.exception;
+                process.exception = null;
+                handleSimulationException(exception);
+            }
+        }
+    }
+
+    /**
+     * Return the threads that execute the logical processes, and create them when needed.
+     * @return ExecutorService; the threads that execute the logical processes
+     */
+    private ExecutorService getExecutor()
+    {
+        if (this.executor == null)
+        {
+            this.executor = Executors.newFixedThreadPool(this.numberOfThreads, runnable ->
+            {
+                Thread thread = new Thread(runnable, "PartitionedSimulator");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.executor;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void cleanUp()
+    {
+        if (this.executor != null)
+        {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+        super.cleanUp();
+    }
+
+    /**
+     * A logical process with the event list and the simulation time of one partition.
+     */
+    private final class LogicalProcess
+    {
+        /** the index of the partition. */
+        private final int index;
+
+        /** the pending events, in the order of time, priority and the order in which they were created. */
+        private final PriorityQueue<ScheduledEvent> events = new PriorityQueue<>();
+
+        /** the events for other partitions that were scheduled in the current window. */
+        private final List<ScheduledEvent> outbox = new ArrayList<>();
+
+        /** the logical processes of the events in the outbox. */
+        private final List<LogicalProcess> outboxTargets = new ArrayList<>();
+
+        /** the sequence number for the next event that the logical process schedules. */
+        private long sequence = 0;
+
+        /** the number of unique message ids that the logical process has assigned in the current window. */
+        private long messageIds = 0;
+
+        /** the simulation time of the logical process. */
+        private Duration time;
+
+        /** the number of executed events. */
+        private long executed = 0;
+
+        /** the exception of the last window, if any. */
+        private Exception exception = null;
+
+        /** the timeout wheel of the partition, created when it is first used. */
+        private TimeoutWheel timeoutWheel = null;
+
+        /**
+         * @param index int; the index of the partition
+         * @param startTime Duration; the start time of the logical process
+         */
+        LogicalProcess(final int index, final Duration startTime)
+        {
+            this.index = index;
+            this.time = startTime;
+        }
+
+        /**
+         * Add an event to the event list of the logical process.
+         * @param event ScheduledEvent; the event to add, with its key
+         */
+        void add(final ScheduledEvent event)
+        {
+            this.events.add(event);
+        }
+
+        /**
+         * Return the time of the next event in seconds.
+         * @return double; the time of the next event in seconds, or positive infinity when there are no events
+         */
+        double nextTimeSi()
+        {
+            ScheduledEvent first = this.events.peek();
+            return first == null ? Double.POSITIVE_INFINITY : first.timeSi;
+        }
+
+        /**
+         * Execute the events before the end of the window, and not after the run-until time.
+         * @param endSi double; the end of the window in seconds, exclusive
+         * @param untilSi double; the run-until time in seconds
+         * @param including boolean; whether events at the run-until time are executed
+         */
+        void execute(final double endSi, final double untilSi, final boolean including)
+        {
+            PartitionedSimulator.this.currentProcess.set(this);
+            try
+            {
+                while (!this.events.isEmpty())
+                {
+                    double timeSi = this.events.peek().timeSi;
+                    if (timeSi >= endSi || timeSi > untilSi || (timeSi == untilSi && !including))
+                    {
+                        return;
+                    }
+                    SimEventInterface<Duration> event = this.events.poll().event;
+                    this.time = event.getAbsoluteExecutionTime();
+                    this.executed++;
+                    try
+                    {
+                        event.execute();
+                    }
+                    catch (Exception e)
+                    {
+                        this.exception = e;
+                        return;
+                    }
+                }
+            }
+            finally
+            {
+                PartitionedSimulator.this.currentProcess.remove();
+            }
+        }
+    }
+
+    /**
+     * A timeout wheel of one logical process, which adds its sweep events to the logical process, also when a time-out is
+     * registered outside the windows.
+     */
+    private final class PartitionTimeoutWheel extends TimeoutWheel
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the logical process of the wheel. */
+        private final transient LogicalProcess process;
+
+        /**
+         * @param process LogicalProcess; the logical process of the wheel
+         * @param bucketWidth Duration; the width of a bucket
+         */
+        PartitionTimeoutWheel(final LogicalProcess process, final Duration bucketWidth)
+        {
+            super(PartitionedSimulator.this, bucketWidth);
+            this.process = process;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void scheduleSweep(final Duration time, final Executable sweep)
+        {
+            LogicalProcess current = PartitionedSimulator.this.currentProcess.get();
+            Throw.when(current != null && current != this.process, SimRuntimeException.class,
+                    "timeout wheel of partition %d used by partition %d", this.process.index,
+                    current == null ? -1 : current.index);
+            LambdaSimEvent<Duration> event = new LambdaSimEvent<Duration>(time, SimEventInterface.NORMAL_PRIORITY, sweep);
+            if (current == null)
+            {
+                Throw.when(time.si < PartitionedSimulator.this.simulatorTime.si, SimRuntimeException.class,
+                        "cannot schedule event %s in the past (%s)", event, PartitionedSimulator.this.simulatorTime);
+                this.process.add(makeScheduledEvent(event, null));
+            }
+            else
+            {
+                scheduleEvent(event);
+            }
+        }
+    }
+
+    /**
+     * An event in the event list of a logical process, with the key that replaces the global event id to order events with
+     * the same time and priority: the time at which the event was scheduled, the window in which it was scheduled, the
+     * partition that scheduled it, or -1 outside the windows, and the sequence number of the event in that partition. The
+     * global event id follows the order in which the threads created the events; the key does not depend on the threads.
+     */
+    private static final class ScheduledEvent implements Comparable<ScheduledEvent>
+    {
+        /** the event. */
+        private final SimEventInterface<Duration> event;
+
+        /** the time of the event in seconds. */
+        private final double timeSi;
+
+        /** the priority of the event. */
+        private final short priority;
+
+        /** the time at which the event was scheduled in seconds. */
+        private final double creationSi;
+
+        /** the number of the window in which the event was scheduled, or of the next window outside the windows. */
+        private final long window;
+
+        /** the partition that scheduled the event, or -1 when it was scheduled outside the windows. */
+        private final int creator;
+
+        /** the sequence number of the event in the partition that scheduled it, or outside the windows. */
+        private final long sequence;
+
+        /**
+         * @param event SimEventInterface&lt;Duration&gt;; the event
+         * @param creationSi double; the time at which the event was scheduled in seconds
+         * @param window long; the number of the window in which the event was scheduled, or of the next window
+         * @param creator int; the partition that scheduled the event, or -1 when it was scheduled outside the windows
+         * @param sequence long; the sequence number of the event in the partition that scheduled it, or outside the windows
+         */
+        ScheduledEvent(final SimEventInterface<Duration> event, final double creationSi, final long window, final int creator,
+                final long sequence)
+        {
+            this.event = event;
+            this.timeSi = event.getAbsoluteExecutionTime().si;
+            this.priority = event.getPriority();
+            this.creationSi = creationSi;
+            this.window = window;
+            this.creator = creator;
+            this.sequence = sequence;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int compareTo(final ScheduledEvent other)
+        {
+            if (this.timeSi != other.timeSi)
+            {
+                return this.timeSi < other.timeSi ? -1 : 1;
+            }
+            if (this.priority != other.priority)
+            {
+                return this.priority > other.priority ? -1 : 1;
+            }
+            if (this.creationSi != other.creationSi)
+            {
+                return this.creationSi < other.creationSi ? -1 : 1;
+            }
+            if (this.window != other.window)
+            {
+                return this.window < other.window ? -1 : 1;
+            }
+            if (this.creator != other.creator)
+            {
+                return this.creator < other.creator ? -1 : 1;
+            }
+            return Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+}
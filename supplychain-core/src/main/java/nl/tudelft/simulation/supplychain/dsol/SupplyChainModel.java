@@ -4,14 +4,23 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.djunits.unit.DurationUnit;
 import org.djunits.value.vdouble.scalar.Duration;
 import org.djutils.exceptions.Throw;
+import org.djutils.immutablecollections.ImmutableArrayList;
+import org.djutils.immutablecollections.ImmutableLinkedHashSet;
+import org.djutils.immutablecollections.ImmutableList;
+import org.djutils.immutablecollections.ImmutableSet;
 
 import nl.tudelft.simulation.dsol.experiment.StreamInformation;
 import nl.tudelft.simulation.dsol.model.AbstractDsolModel;
 import nl.tudelft.simulation.supplychain.actor.Actor;
 import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
 import nl.tudelft.simulation.supplychain.actor.ActorNotFoundException;
+import nl.tudelft.simulation.supplychain.message.store.MessageStoreMode;
+import nl.tudelft.simulation.supplychain.message.store.trade.TimeoutWheel;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
 
 /**
  * SupplyChainModel is the default model implementation from which model
@@ -36,6 +45,21 @@ public abstract class SupplyChainModel extends AbstractDsolModel<Duration, Suppl
 	/** the map of actors based on their id. */
 	private Map<String, Actor> actorMap = new LinkedHashMap<>();
 
+	/** the default mode for the message stores of the actors. */
+	private MessageStoreMode messageStoreMode = MessageStoreMode.SYNCHRONIZED;
+
+	/** the shared timeout wheel, created when it is first used. */
+	private TimeoutWheel timeoutWheel = null;
+
+	/** the cache of the distances between the actors, created when it is first used. */
+	private DistanceMatrix distanceMatrix = null;
+
+	/** the dense index of the registered products. */
+	private Map<Product, Integer> productIndexMap = new LinkedHashMap<>();
+
+	/** the recorder of the trade messages, or null when they are not recorded. */
+	private transient MessageTraceRecorder messageTraceRecorder = null;
+
 	/**
 	 * Create a supply chain model with a specific set of random streams for this
 	 * replication.
@@ -58,9 +82,19 @@ public abstract class SupplyChainModel extends AbstractDsolModel<Duration, Suppl
 		super(simulator);
 	}
 
-	/** {@inheritDoc} */
+	/**
+	 * {@inheritDoc} In a window of the PartitionedSimulator, the partition that
+	 * creates the message assigns the id, so the ids do not depend on the order in
+	 * which the threads create the messages.
+	 */
 	@Override
 	public long getUniqueMessageId() {
+		if (getSimulator() instanceof PartitionedSimulator) {
+			long id = ((PartitionedSimulator) getSimulator()).getPartitionMessageId();
+			if (id >= 0) {
+				return id;
+			}
+		}
 		return this.uniqueMessageId.getAndIncrement();
 	}
 
@@ -71,6 +105,7 @@ public abstract class SupplyChainModel extends AbstractDsolModel<Duration, Suppl
 		Throw.when(this.actorMap.containsKey(actor.getId()), ActorAlreadyDefinedException.class,
 				"Actor with id " + actor.getId() + " already defined in model");
 		this.actorMap.put(actor.getId(), actor);
+		getSimulator().actorRegistered(actor);
 	}
 
 	/** {@inheritDoc} */
@@ -81,4 +116,130 @@ public abstract class SupplyChainModel extends AbstractDsolModel<Duration, Suppl
 		return this.actorMap.get(id);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public ImmutableSet<Actor> getActors() {
+		return new ImmutableLinkedHashSet<>(this.actorMap.values());
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public MessageStoreMode getMessageStoreMode() {
+		return this.messageStoreMode;
+	}
+
+	/**
+	 * Set the default mode for the message stores of the actors in this model. The
+	 * mode is applied to stores without an explicit mode when their owner is set,
+	 * so it should be set before the actors are constructed.
+	 * 
+	 * @param messageStoreMode MessageStoreMode; the default mode for the message
+	 *                         stores
+	 */
+	public void setMessageStoreMode(final MessageStoreMode messageStoreMode) {
+		Throw.whenNull(messageStoreMode, "messageStoreMode cannot be null");
+		this.messageStoreMode = messageStoreMode;
+	}
+
+	/**
+	 * {@inheritDoc} When no timeout wheel has been set, a wheel with buckets of one
+	 * hour is created.
+	 */
+	@Override
+	public TimeoutWheel getTimeoutWheel() {
+		if (this.timeoutWheel == null) {
+			this.timeoutWheel = new TimeoutWheel(getSimulator(), new Duration(1.0, DurationUnit.HOUR));
+		}
+		return this.timeoutWheel;
+	}
+
+	/**
+	 * Set the timeout wheel to share between the message stores, e.g., to use a
+	 * different bucket width. It should be set before the actors are constructed.
+	 * 
+	 * @param timeoutWheel TimeoutWheel; the timeout wheel to share
+	 */
+	public void setTimeoutWheel(final TimeoutWheel timeoutWheel) {
+		Throw.whenNull(timeoutWheel, "timeoutWheel cannot be null");
+		this.timeoutWheel = timeoutWheel;
+	}
+
+	/**
+	 * {@inheritDoc} When no distance matrix has been set, a matrix with the default
+	 * sizes is created.
+	 */
+	@Override
+	public DistanceMatrix getDistanceMatrix() {
+		if (this.distanceMatrix == null) {
+			this.distanceMatrix = new DistanceMatrix(this);
+		}
+		return this.distanceMatrix;
+	}
+
+	/**
+	 * Set the distance matrix of the model, e.g., to use other limits for the dense
+	 * matrix and the bounded cache. It should be set before the model is run.
+	 * 
+	 * @param distanceMatrix DistanceMatrix; the distance matrix of the model
+	 */
+	public void setDistanceMatrix(final DistanceMatrix distanceMatrix) {
+		Throw.whenNull(distanceMatrix, "distanceMatrix cannot be null");
+		this.distanceMatrix = distanceMatrix;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int registerProduct(final Product product) {
+		Throw.whenNull(product, "product cannot be null");
+		return this.productIndexMap.computeIfAbsent(product, p -> this.productIndexMap.size());
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int getNumberOfProducts() {
+		return this.productIndexMap.size();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public ImmutableList<Product> getProducts() {
+		return new ImmutableArrayList<>(this.productIndexMap.keySet());
+	}
+
+	/**
+	 * Return the unique message id that the next message will get, without using
+	 * it, e.g., to store it in a checkpoint.
+	 * 
+	 * @return long; the unique message id of the next message
+	 */
+	public long getNextUniqueMessageId() {
+		return this.uniqueMessageId.get();
+	}
+
+	/**
+	 * Set the unique message id that the next message will get, e.g., when the
+	 * state of the model is restored from a checkpoint.
+	 * 
+	 * @param nextUniqueMessageId long; the unique message id of the next message
+	 */
+	public void setNextUniqueMessageId(final long nextUniqueMessageId) {
+		this.uniqueMessageId.set(nextUniqueMessageId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public MessageTraceRecorder getMessageTraceRecorder() {
+		return this.messageTraceRecorder;
+	}
+
+	/**
+	 * Set the recorder to which the actors append the trade messages they send and
+	 * receive, or null to stop recording. The recorder is not closed by the model.
+	 * 
+	 * @param messageTraceRecorder MessageTraceRecorder; the trace recorder, or null
+	 */
+	public void setMessageTraceRecorder(final MessageTraceRecorder messageTraceRecorder) {
+		this.messageTraceRecorder = messageTraceRecorder;
+	}
+
 }
@@ -3,11 +3,17 @@ package nl.tudelft.simulation.supplychain.dsol;
 import org.djunits.value.vdouble.scalar.Duration;
 import org.djunits.value.vdouble.scalar.Length;
 import org.djutils.draw.point.Point;
+import org.djutils.immutablecollections.ImmutableList;
+import org.djutils.immutablecollections.ImmutableSet;
 
 import nl.tudelft.simulation.dsol.model.DsolModel;
 import nl.tudelft.simulation.supplychain.actor.Actor;
 import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
 import nl.tudelft.simulation.supplychain.actor.ActorNotFoundException;
+import nl.tudelft.simulation.supplychain.message.store.MessageStoreMode;
+import nl.tudelft.simulation.supplychain.message.store.trade.TimeoutWheel;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
 
 /**
  * SupplyChainModelInterface defines the specific methods of a supply chain
@@ -68,4 +74,80 @@ public interface SupplyChainModelInterface extends DsolModel<Duration, SupplyCha
 	 *                                map
 	 */
 	Actor getActor(String id) throws ActorNotFoundException;
+
+	/**
+	 * Return the actors of the model, e.g., to collect their results at the end of
+	 * a replication.
+	 * 
+	 * @return ImmutableSet&lt;Actor&gt;; the registered actors, in the order of
+	 *         registration
+	 */
+	ImmutableSet<Actor> getActors();
+
+	/**
+	 * Return the default mode for the message stores of the actors in this model.
+	 * A message store that is not given an explicit mode uses this mode when its
+	 * owner is set.
+	 * 
+	 * @return MessageStoreMode; the default mode for the message stores
+	 */
+	default MessageStoreMode getMessageStoreMode() {
+		return MessageStoreMode.SYNCHRONIZED;
+	}
+
+	/**
+	 * Return the timeout wheel that the message stores of the actors in this model
+	 * share to register the deadlines of unanswered messages.
+	 * 
+	 * @return TimeoutWheel; the shared timeout wheel of the model
+	 */
+	TimeoutWheel getTimeoutWheel();
+
+	/**
+	 * Return the matrix that caches the distances between the actors in this
+	 * model, as calculated by calculateDistance. Code that needs the distance
+	 * between two actors should use this matrix instead of calculating the
+	 * distance between their locations over and over again.
+	 * 
+	 * @return DistanceMatrix; the distance matrix of the model
+	 */
+	DistanceMatrix getDistanceMatrix();
+
+	/**
+	 * Register a product in the model, and return its dense index. Products that
+	 * are equal get the same index, so the index can be used to store product
+	 * information in arrays instead of hash maps.
+	 * 
+	 * @param product Product; the product to register
+	 * @return int; the dense index of the product, between 0 and the number of
+	 *         registered products - 1
+	 */
+	int registerProduct(Product product);
+
+	/**
+	 * Return the number of different products that have been registered in the
+	 * model.
+	 * 
+	 * @return int; the number of registered products
+	 */
+	int getNumberOfProducts();
+
+	/**
+	 * Return the products that have been registered in the model, in the order of
+	 * their index.
+	 * 
+	 * @return ImmutableList&lt;Product&gt;; the registered products, where the
+	 *         product at position i has index i
+	 */
+	ImmutableList<Product> getProducts();
+
+	/**
+	 * Return the recorder to which the actors in this model append the trade
+	 * messages they send and receive, or null when the messages are not recorded.
+	 * 
+	 * @return MessageTraceRecorder; the trace recorder of the model, or null
+	 */
+	default MessageTraceRecorder getMessageTraceRecorder() {
+		return null;
+	}
 }
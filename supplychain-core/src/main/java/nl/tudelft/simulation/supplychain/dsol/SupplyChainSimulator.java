@@ -4,7 +4,9 @@ import java.io.Serializable;
 
 import org.djunits.value.vdouble.scalar.Duration;
 import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.exceptions.Throw;
 
+import nl.tudelft.simulation.dsol.SimRuntimeException;
 import nl.tudelft.simulation.dsol.simulators.DevsSimulator;
 import nl.tudelft.simulation.naming.context.ContextInterface;
 
@@ -58,4 +60,17 @@ public class SupplyChainSimulator extends DevsSimulator<Duration> implements Sup
         return (SupplyChainModelInterface) super.getModel();
     }
 
+    /**
+     * Set the simulator time of a simulator that is not running, e.g., to continue a run from a checkpoint. The caller is
+     * responsible for an event list without events before the new time.
+     * @param simulatorTime Duration; the new simulator time
+     * @throws SimRuntimeException when the simulator is running
+     */
+    public void restoreSimulatorTime(final Duration simulatorTime)
+    {
+        Throw.whenNull(simulatorTime, "simulatorTime cannot be null");
+        Throw.when(isStartingOrRunning(), SimRuntimeException.class, "cannot restore the time of a running simulator");
+        this.simulatorTime = simulatorTime;
+    }
+
 }
@@ -8,6 +8,7 @@ import nl.tudelft.simulation.dsol.formalisms.eventscheduling.Executable;
 import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEventInterface;
 import nl.tudelft.simulation.dsol.simulators.DevsSimulatorInterface;
 import nl.tudelft.simulation.naming.context.Contextualized;
+import nl.tudelft.simulation.supplychain.actor.Actor;
 
 /**
  * SupplyChainSimulatorInterface adds a start time to the simulator, so the current simulator time can be printed as a date,
@@ -93,6 +94,16 @@ public interface SupplyChainSimulatorInterface extends DevsSimulatorInterface<Du
         return getAbsStartTime().plus(getSimulatorTime());
     }
 
+    /**
+     * Notify the simulator that an actor has been registered in the model. A simulator that distributes the actors over
+     * logical processes uses the notification to assign the actor to its process. The default implementation does nothing.
+     * @param actor Actor; the actor that has been registered
+     */
+    default void actorRegistered(final Actor actor)
+    {
+        // the default simulator has one event list for all actors
+    }
+
     /** {@inheritDoc} */
     @Override
     SupplyChainModelInterface getModel();
@@ -0,0 +1,59 @@
+package nl.tudelft.simulation.supplychain.experiment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryActor;
+
+/**
+ * ActorKpis collects the generic key performance indicators of the actors of a model at the end of a replication: the balance
+ * of the bank account of each actor, and the actual inventory of each product of the actors with an inventory. The method can
+ * be used as the KPI collector of an ExperimentRunner, as <code>ActorKpis::collect</code>.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public final class ActorKpis
+{
+    /** */
+    private ActorKpis()
+    {
+        // utility class
+    }
+
+    /**
+     * Collect the balance of the bank account of each actor as <code>actorId.balance</code>, and the actual inventory of
+     * each product of the actors with an inventory as <code>actorId.inventory.productName</code>.
+     * @param model SupplyChainModelInterface; the model at the end of the replication
+     * @return Map&lt;String, Double&gt;; the key performance indicators by name, in the order of the actors
+     */
+    public static Map<String, Double> collect(final SupplyChainModelInterface model)
+    {
+        Throw.whenNull(model, "model cannot be null");
+        Map<String, Double> kpis = new LinkedHashMap<>();
+        for (Actor actor : model.getActors())
+        {
+            if (actor.getBankAccount() != null)
+            {
+                kpis.put(actor.getId() + ".balance", actor.getBankAccount().getBalance().getAmount());
+            }
+            if (actor instanceof InventoryActor && ((InventoryActor) actor).getInventoryRole() != null)
+            {
+                for (Product product : ((InventoryActor) actor).getInventoryRole().getInventory().getProducts())
+                {
+                    kpis.put(actor.getId() + ".inventory." + product.getName(),
+                            ((InventoryActor) actor).getInventoryRole().getInventory().getActualAmount(product));
+                }
+            }
+        }
+        return kpis;
+    }
+
+}
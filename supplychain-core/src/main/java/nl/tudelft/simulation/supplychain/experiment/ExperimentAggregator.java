@@ -0,0 +1,144 @@
+package nl.tudelft.simulation.supplychain.experiment;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.djutils.exceptions.Throw;
+import org.djutils.stats.summarizers.Tally;
+
+/**
+ * ExperimentAggregator collects the results of the replications of an experiment. Replications that run in parallel register
+ * their result as soon as they finish, so the aggregator is thread-safe: the tallies per key performance indicator are kept in
+ * a concurrent map, and a Tally synchronizes its own registration. Only the results of completed replications are tallied.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ExperimentAggregator
+{
+    /** the tallies of the key performance indicators, sorted by name. */
+    private final NavigableMap<String, Tally> tallies = new ConcurrentSkipListMap<>();
+
+    /** the results of all replications, in the order in which they finished. */
+    private final List<ReplicationResult> results = new ArrayList<>();
+
+    /**
+     * Register the result of a replication.
+     * @param result ReplicationResult; the result of the replication
+     */
+    public void register(final ReplicationResult result)
+    {
+        Throw.whenNull(result, "result cannot be null");
+        synchronized (this.results)
+        {
+            this.results.add(result);
+        }
+        if (result.isCompleted())
+        {
+            for (Map.Entry<String, Double> entry : result.getKpis().entrySet())
+            {
+                this.tallies.computeIfAbsent(entry.getKey(), k -> new Tally(k)).register(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Return the tally of a key performance indicator over the completed replications.
+     * @param kpi String; the name of the key performance indicator
+     * @return Tally; the tally of the key performance indicator, or null when no replication reported it
+     */
+    public Tally getTally(final String kpi)
+    {
+        return this.tallies.get(kpi);
+    }
+
+    /**
+     * Return the names of the key performance indicators that were reported.
+     * @return SortedSet&lt;String&gt;; a sorted copy of the names of the key performance indicators
+     */
+    public SortedSet<String> getKpiNames()
+    {
+        return new TreeSet<>(this.tallies.keySet());
+    }
+
+    /**
+     * Return the results of the replications.
+     * @return List&lt;ReplicationResult&gt;; a copy of the results, sorted by replication number
+     */
+    public List<ReplicationResult> getResults()
+    {
+        List<ReplicationResult> copy;
+        synchronized (this.results)
+        {
+            copy = new ArrayList<>(this.results);
+        }
+        copy.sort(Comparator.comparingInt(ReplicationResult::getReplicationNumber));
+        return copy;
+    }
+
+    /**
+     * Return the number of replications that registered a result.
+     * @return int; the number of replications that registered a result
+     */
+    public int getNumberOfReplications()
+    {
+        synchronized (this.results)
+        {
+            return this.results.size();
+        }
+    }
+
+    /**
+     * Return the number of replications that failed.
+     * @return int; the number of replications that did not complete
+     */
+    public int getNumberOfFailedReplications()
+    {
+        synchronized (this.results)
+        {
+            return (int) this.results.stream().filter(r -> !r.isCompleted()).count();
+        }
+    }
+
+    /**
+     * Write the summary of the key performance indicators as CSV, with the number of completed replications, the mean,
+     * standard deviation, minimum, maximum, and the 95% confidence interval of the mean per indicator. The standard deviation
+     * and the confidence interval are NaN when fewer than two replications reported the indicator.
+     * @param writer Writer; the writer for the CSV lines
+     * @throws IOException when writing fails
+     */
+    public void writeCsvSummary(final Writer writer) throws IOException
+    {
+        Throw.whenNull(writer, "writer cannot be null");
+        writer.write(String.format("kpi,n,mean,stdev,min,max,ci95low,ci95high%n"));
+        for (Map.Entry<String, Tally> entry : this.tallies.entrySet())
+        {
+            Tally tally = entry.getValue();
+            boolean spread = tally.getN() >= 2;
+            double[] ci = spread ? tally.getConfidenceInterval(0.05) : new double[] {Double.NaN, Double.NaN};
+            writer.write(String.format(Locale.US, "%s,%d,%.6g,%.6g,%.6g,%.6g,%.6g,%.6g%n", entry.getKey(), tally.getN(),
+                    tally.getSampleMean(), spread ? tally.getSampleStDev() : Double.NaN, tally.getMin(), tally.getMax(),
+                    ci[0], ci[1]));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "ExperimentAggregator [replications=" + getNumberOfReplications() + ", failed="
+                + getNumberOfFailedReplications() + ", kpis=" + getKpiNames() + "]";
+    }
+
+}
@@ -0,0 +1,381 @@
+package nl.tudelft.simulation.supplychain.experiment;
+
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.event.Event;
+import org.djutils.event.EventListener;
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.dsol.experiment.Replication;
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.dsol.simulators.ErrorStrategy;
+import nl.tudelft.simulation.dsol.simulators.ReplicationState;
+import nl.tudelft.simulation.dsol.simulators.SimulatorInterface;
+import nl.tudelft.simulation.jstats.streams.StreamInterface;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModel;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.json.JsonActorFactory;
+import nl.tudelft.simulation.supplychain.json.JsonMessageFactory;
+
+/**
+ * ExperimentRunner runs a number of independent replications of a model on a bounded thread pool. Each replication gets its own
+ * simulator, its own model instance from the ReplicationModelFactory, and its own seed. When a replication has ended, the key
+ * performance indicators are collected from the model, and registered in a thread-safe ExperimentAggregator.<br>
+ * <br>
+ * The replications run in the worker thread of their own simulator; the threads of the pool start the replications and wait
+ * for their end, so the number of threads of the pool bounds the number of replications that run at the same time. The ids of
+ * the replications are made unique in the JVM, since DSOL registers replications in a JVM-wide naming context. At the end of a
+ * replication, the simulator is cleaned up, and the replication and the model are removed from the shared registries.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ * @param <M> the model type
+ */
+public class ExperimentRunner<M extends SupplyChainModel>
+{
+    /** the counter that makes the replication ids unique in the JVM. */
+    private static final AtomicLong REPLICATION_COUNTER = new AtomicLong(0L);
+
+    /** the increment of the SplitMix64 generator, 2^64 divided by the golden ratio. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** the id of the experiment, used as the prefix of the replication ids. */
+    private final String id;
+
+    /** the factory that creates a model for each replication. */
+    private final ReplicationModelFactory<M> modelFactory;
+
+    /** the function that collects the key performance indicators from a model at the end of the replication. */
+    private final Function<M, Map<String, Double>> kpiCollector;
+
+    /** the warmup period of each replication. */
+    private final Duration warmupPeriod;
+
+    /** the run length of each replication, including the warmup period. */
+    private final Duration runLength;
+
+    /** the maximum number of replications that run at the same time. */
+    private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Create a runner for an experiment.
+     * @param id String; the id of the experiment, used as the prefix of the replication ids
+     * @param modelFactory ReplicationModelFactory&lt;M&gt;; the factory that creates a model for each replication
+     * @param kpiCollector Function&lt;M, Map&lt;String, Double&gt;&gt;; the function that collects the key performance
+     *            indicators from a model at the end of its replication
+     * @param warmupPeriod Duration; the warmup period of each replication
+     * @param runLength Duration; the run length of each replication, including the warmup period
+     */
+    public ExperimentRunner(final String id, final ReplicationModelFactory<M> modelFactory,
+            final Function<M, Map<String, Double>> kpiCollector, final Duration warmupPeriod, final Duration runLength)
+    {
+        Throw.whenNull(id, "id cannot be null");
+        Throw.whenNull(modelFactory, "modelFactory cannot be null");
+        Throw.whenNull(kpiCollector, "kpiCollector cannot be null");
+        Throw.whenNull(warmupPeriod, "warmupPeriod cannot be null");
+        Throw.whenNull(runLength, "runLength cannot be null");
+        Throw.when(warmupPeriod.si < 0.0 || warmupPeriod.gt(runLength), IllegalArgumentException.class,
+                "warmupPeriod should be between 0 and the runLength");
+        this.id = id;
+        this.modelFactory = modelFactory;
+        this.kpiCollector = kpiCollector;
+        this.warmupPeriod = warmupPeriod;
+        this.runLength = runLength;
+    }
+
+    /**
+     * Return the maximum number of replications that run at the same time.
+     * @return int; the maximum number of replications that run at the same time
+     */
+    public int getNumberOfThreads()
+    {
+        return this.numberOfThreads;
+    }
+
+    /**
+     * Set the maximum number of replications that run at the same time. The default is the number of available processors.
+     * @param numberOfThreads int; the maximum number of replications that run at the same time
+     */
+    public void setNumberOfThreads(final int numberOfThreads)
+    {
+        Throw.when(numberOfThreads < 1, IllegalArgumentException.class, "numberOfThreads should be at least 1");
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Run a number of replications with consecutive seeds, starting at the base seed.
+     * @param numberOfReplications int; the number of replications
+     * @param baseSeed long; the seed of the first replication
+     * @return ExperimentAggregator; the aggregated results of the replications
+     * @throws InterruptedException when the thread is interrupted while waiting for the replications
+     */
+    public ExperimentAggregator run(final int numberOfReplications, final long baseSeed) throws InterruptedException
+    {
+        Throw.when(numberOfReplications < 1, IllegalArgumentException.class, "numberOfReplications should be at least 1");
+        long[] seeds = new long[numberOfReplications];
+        for (int i = 0; i < numberOfReplications; i++)
+        {
+            seeds[i] = baseSeed + i;
+        }
+        return run(seeds);
+    }
+
+    /**
+     * Run one replication per seed, and wait until all replications have ended.
+     * @param seeds long[]; the seeds of the replications
+     * @return ExperimentAggregator; the aggregated results of the replications
+     * @throws InterruptedException when the thread is interrupted while waiting for the replications
+     */
+    public ExperimentAggregator run(final long[] seeds) throws InterruptedException
+    {
+        Throw.whenNull(seeds, "seeds cannot be null");
+        ExperimentAggregator aggregator = new ExperimentAggregator();
+        if (seeds.length == 0)
+        {
+            return aggregator;
+        }
+        ExecutorService pool =
+                Executors.newFixedThreadPool(Math.min(this.numberOfThreads, seeds.length), new RunnerThreadFactory(this.id));
+        for (int i = 0; i < seeds.length; i++)
+        {
+            final int replicationNumber = i;
+            pool.execute(() -> aggregator.register(runReplication(replicationNumber, seeds[replicationNumber])));
+        }
+        pool.shutdown();
+        try
+        {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+        catch (InterruptedException exception)
+        {
+            pool.shutdownNow();
+            throw exception;
+        }
+        return aggregator;
+    }
+
+    /**
+     * Run one replication in the calling thread, and wait until it has ended. Errors in the model do not propagate; they are
+     * reported in the result of the replication.
+     * @param replicationNumber int; the number of the replication in the experiment
+     * @param seed long; the seed of the replication
+     * @return ReplicationResult; the result of the replication
+     */
+    public ReplicationResult runReplication(final int replicationNumber, final long seed)
+    {
+        long startNanos = System.nanoTime();
+        String replicationId = this.id + "." + replicationNumber + "#" + REPLICATION_COUNTER.incrementAndGet();
+        SupplyChainSimulator simulator = new SupplyChainSimulator(replicationId, Time.ZERO);
+        SingleReplication<Duration> replication = null;
+        M model = null;
+        try
+        {
+            model = this.modelFactory.createModel(simulator, seed);
+            seedStreams(model, seed);
+            replication = new SingleReplication<Duration>(replicationId, Duration.ZERO, this.warmupPeriod, this.runLength);
+            ReplicationEndListener endListener = new ReplicationEndListener(simulator);
+            simulator.addListener(endListener, Replication.END_REPLICATION_EVENT);
+            simulator.addListener(endListener, SimulatorInterface.STOP_EVENT);
+            simulator.setErrorStrategy(ErrorStrategy.WARN_AND_PAUSE);
+            simulator.initialize(model, replication);
+            simulator.start();
+            if (!endListener.awaitEnd())
+            {
+                return new ReplicationResult(replicationNumber, seed, elapsedMillis(startNanos), Map.of(),
+                        "simulator stopped at " + simulator.getSimulatorTime() + " before the end of the replication");
+            }
+            Map<String, Double> kpis = this.kpiCollector.apply(model);
+            return new ReplicationResult(replicationNumber, seed, elapsedMillis(startNanos), kpis, null);
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            return new ReplicationResult(replicationNumber, seed, elapsedMillis(startNanos), Map.of(), "interrupted");
+        }
+        catch (Exception exception)
+        {
+            return new ReplicationResult(replicationNumber, seed, elapsedMillis(startNanos), Map.of(), exception.toString());
+        }
+        finally
+        {
+            cleanUp(simulator, replication, model);
+        }
+    }
+
+    /**
+     * Seed the random streams of the model, so each replication draws its own numbers. Each stream gets the seed that
+     * streamSeed derives from the seed of the replication and the index of the stream. Override to seed the streams in another
+     * way.
+     * @param model M; the model of the replication
+     * @param seed long; the seed of the replication
+     */
+    protected void seedStreams(final M model, final long seed)
+    {
+        int streamIndex = 0;
+        for (StreamInterface stream : model.getStreams().values())
+        {
+            stream.setSeed(streamSeed(seed, streamIndex++));
+        }
+    }
+
+    /**
+     * Derive the seed of a random stream from the seed of the replication and the index of the stream. Consecutive seeds would
+     * make stream 1 of replication n draw the same numbers as stream 0 of replication n + 1, so both values are mixed with the
+     * SplitMix64 function instead. Since the mix function is a bijection, the streams of one replication always get different
+     * seeds; the seeds of streams of different replications only coincide by chance.
+     * @param replicationSeed long; the seed of the replication
+     * @param streamIndex int; the index of the stream in the model
+     * @return long; the seed of the stream
+     */
+    public static long streamSeed(final long replicationSeed, final int streamIndex)
+    {
+        return mix64(mix64(replicationSeed) + GOLDEN_GAMMA * (streamIndex + 1L));
+    }
+
+    /**
+     * The SplitMix64 mix function (Steele, Lea and Flood, 2014), a bijection on 64-bit values.
+     * @param value long; the value to mix
+     * @return long; the mixed value
+     */
+    private static long mix64(final long value)
+    {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Release the resources of a replication: the worker thread of the simulator, the naming context of the replication, and
+     * the (de)serializers of the model.
+     * @param simulator SupplyChainSimulator; the simulator of the replication
+     * @param replication SingleReplication&lt;Duration&gt;; the replication, or null when it was not created
+     * @param model M; the model of the replication, or null when it was not created
+     */
+    private void cleanUp(final SupplyChainSimulator simulator, final SingleReplication<Duration> replication, final M model)
+    {
+        try
+        {
+            simulator.cleanUp();
+            if (replication != null)
+            {
+                replication.removeFromContext();
+            }
+        }
+        catch (Exception exception)
+        {
+            // the results of the replication are complete; a failing clean up does not change them
+        }
+        if (model != null)
+        {
+            JsonMessageFactory.release(model);
+            JsonActorFactory.release(model);
+        }
+    }
+
+    /**
+     * Return the number of milliseconds since a start time.
+     * @param startNanos long; the start time from System.nanoTime()
+     * @return long; the number of milliseconds since the start time
+     */
+    private static long elapsedMillis(final long startNanos)
+    {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    /**
+     * Listener that lets a thread wait for the end of a replication. When an event of the model throws an exception, the
+     * simulator pauses without ending the replication; a stop of the simulator before the replication is ending is therefore
+     * reported as a failure.
+     */
+    static class ReplicationEndListener implements EventListener
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the simulator of the replication. */
+        private final SupplyChainSimulator simulator;
+
+        /** the latch that is released when the replication ends or the simulator stops. */
+        private final transient CountDownLatch ended = new CountDownLatch(1);
+
+        /** whether the replication reached its end. */
+        private volatile boolean completed = false;
+
+        /**
+         * @param simulator SupplyChainSimulator; the simulator of the replication
+         */
+        ReplicationEndListener(final SupplyChainSimulator simulator)
+        {
+            this.simulator = simulator;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void notify(final Event event) throws RemoteException
+        {
+            if (event.getType().equals(Replication.END_REPLICATION_EVENT))
+            {
+                this.completed = true;
+                this.ended.countDown();
+            }
+            else if (this.simulator.getReplicationState() != ReplicationState.ENDING
+                    && this.simulator.getReplicationState() != ReplicationState.ENDED)
+            {
+                this.ended.countDown();
+            }
+        }
+
+        /**
+         * Wait until the replication has ended, or the simulator has stopped before the end of the replication.
+         * @return boolean; whether the replication reached its end
+         * @throws InterruptedException when the thread is interrupted while waiting
+         */
+        boolean awaitEnd() throws InterruptedException
+        {
+            this.ended.await();
+            return this.completed;
+        }
+    }
+
+    /** Thread factory that names the threads of the pool after the experiment. */
+    static class RunnerThreadFactory implements ThreadFactory
+    {
+        /** the prefix of the thread names. */
+        private final String prefix;
+
+        /** the number of the next thread. */
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        /**
+         * @param id String; the id of the experiment
+         */
+        RunnerThreadFactory(final String id)
+        {
+            this.prefix = id + "-runner-";
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Thread newThread(final Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, this.prefix + this.threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package nl.tudelft.simulation.supplychain.experiment;
+
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModel;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+
+/**
+ * ReplicationModelFactory creates a new, independent model instance for each replication of an experiment. The model should
+ * only use the simulator that is passed, and should not share mutable objects with other model instances, since replications
+ * run in parallel.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ * @param <M> the model type
+ */
+@FunctionalInterface
+public interface ReplicationModelFactory<M extends SupplyChainModel>
+{
+    /**
+     * Create a new model for one replication. The model is not constructed yet; the runner initializes the simulator with the
+     * model, which calls constructModel().
+     * @param simulator SupplyChainSimulatorInterface; the simulator of the replication
+     * @param seed long; the seed of the replication, e.g., for streams that the model creates itself
+     * @return M; a new model instance for the replication
+     */
+    M createModel(SupplyChainSimulatorInterface simulator, long seed);
+
+}
@@ -0,0 +1,121 @@
+package nl.tudelft.simulation.supplychain.experiment;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.djutils.exceptions.Throw;
+
+/**
+ * ReplicationResult contains the outcome of one replication of an experiment: the key performance indicators that were
+ * collected at the end of the replication, or the reason why the replication failed.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ReplicationResult implements Serializable
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the number of the replication in the experiment. */
+    private final int replicationNumber;
+
+    /** the seed of the replication. */
+    private final long seed;
+
+    /** the wall clock time of the replication in milliseconds. */
+    private final long wallClockMillis;
+
+    /** the key performance indicators by name; empty when the replication failed. */
+    private final Map<String, Double> kpis;
+
+    /** the reason why the replication failed, or null when the replication completed. */
+    private final String failure;
+
+    /**
+     * Create a result for a replication.
+     * @param replicationNumber int; the number of the replication in the experiment
+     * @param seed long; the seed of the replication
+     * @param wallClockMillis long; the wall clock time of the replication in milliseconds
+     * @param kpis Map&lt;String, Double&gt;; the key performance indicators by name
+     * @param failure String; the reason why the replication failed, or null when the replication completed
+     */
+    public ReplicationResult(final int replicationNumber, final long seed, final long wallClockMillis,
+            final Map<String, Double> kpis, final String failure)
+    {
+        Throw.whenNull(kpis, "kpis cannot be null");
+        this.replicationNumber = replicationNumber;
+        this.seed = seed;
+        this.wallClockMillis = wallClockMillis;
+        this.kpis = Collections.unmodifiableMap(new LinkedHashMap<>(kpis));
+        this.failure = failure;
+    }
+
+    /**
+     * Return the number of the replication in the experiment.
+     * @return int; the number of the replication in the experiment
+     */
+    public int getReplicationNumber()
+    {
+        return this.replicationNumber;
+    }
+
+    /**
+     * Return the seed of the replication.
+     * @return long; the seed of the replication
+     */
+    public long getSeed()
+    {
+        return this.seed;
+    }
+
+    /**
+     * Return the wall clock time of the replication.
+     * @return long; the wall clock time of the replication in milliseconds
+     */
+    public long getWallClockMillis()
+    {
+        return this.wallClockMillis;
+    }
+
+    /**
+     * Return the key performance indicators of the replication.
+     * @return Map&lt;String, Double&gt;; an unmodifiable map of the key performance indicators by name
+     */
+    public Map<String, Double> getKpis()
+    {
+        return this.kpis;
+    }
+
+    /**
+     * Return whether the replication ran to its end time without errors.
+     * @return boolean; whether the replication completed
+     */
+    public boolean isCompleted()
+    {
+        return this.failure == null;
+    }
+
+    /**
+     * Return the reason why the replication failed.
+     * @return String; the reason why the replication failed, or null when the replication completed
+     */
+    public String getFailure()
+    {
+        return this.failure;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "ReplicationResult [replicationNumber=" + this.replicationNumber + ", seed=" + this.seed + ", wallClockMillis="
+                + this.wallClockMillis + ", kpis=" + this.kpis + (this.failure == null ? "" : ", failure=" + this.failure)
+                + "]";
+    }
+
+}
@@ -1,6 +1,7 @@
 package nl.tudelft.simulation.supplychain.finance;
 
-import org.djunits.unit.DurationUnit;
+import java.io.IOException;
+
 import org.djunits.value.vdouble.scalar.Duration;
 import org.djutils.event.EventType;
 import org.djutils.event.LocalEventProducer;
@@ -8,14 +9,23 @@ import org.djutils.exceptions.Throw;
 import org.djutils.metadata.MetaData;
 import org.djutils.metadata.ObjectDescriptor;
 
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
 import nl.tudelft.simulation.supplychain.role.banking.BankingActor;
 import nl.tudelft.simulation.supplychain.role.financing.FinancingActor;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
 
 /**
  * The BackAccount keeps track of the balance of a Actor. This simple
  * implementation just has one number as the account. No investments or loans
  * are possible through this implementation. The BankAccount itself does not
- * contain logic to prevent it from going negative.
+ * contain logic to prevent it from going negative. Interest is not booked by a
+ * daily event, but accrued in closed form over the whole days that passed since
+ * the last settlement, which gives the same result as daily compounding. The
+ * interest is settled when the balance changes or is read, when
+ * settleInterest() is called, e.g., on a statement date, and at the end of the
+ * replication.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the
  * Netherlands. All rights reserved. <br>
@@ -24,22 +34,34 @@ import nl.tudelft.simulation.supplychain.role.financing.FinancingActor;
  * 
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class BankAccount extends LocalEventProducer {
+public class BankAccount extends LocalEventProducer implements Checkpointable {
 	/** the serial version uid. */
 	private static final long serialVersionUID = 20221201L;
 
+	/** the number of seconds in a day. */
+	private static final double DAY_SI = 86400.0;
+
 	/** the owner of the bank account, which has a FinancingRole. */
 	private FinancingActor owner;
 
 	/** the bank actor, which has a BankingRole. */
 	private BankingActor bank;
 
-	/** the balance of the actor. */
-	private Money balance;
+	/** the balance of the actor, which is changed in place by the bookkeeping. */
+	private final MoneyAccumulator balance;
+
+	/** the balance as a Money object, made when it is asked for; null when the balance changed. */
+	private Money balanceMoney = null;
+
+	/** the absolute simulation time in seconds from which the interest days are counted. */
+	private double interestStartSi;
+
+	/** the number of days for which the interest has been settled. */
+	private long interestDays = 0;
 
 	/** for who is interested, the BankAccount can send updates of changes. */
 	public static final EventType BANK_ACCOUNT_CHANGED_EVENT = new EventType("BANK_ACCOUNT_CHANGED_EVENT",
-			new MetaData("account", "bank account", new ObjectDescriptor("balance", "bank balance", double.class)));
+			new MetaData("account", "bank account", new ObjectDescriptor("balance", "bank balance", Money.class)));
 
 	/**
 	 * Constructor for BankAccount.
@@ -56,20 +78,46 @@ public class BankAccount extends LocalEventProducer {
 		Throw.whenNull(initialBalance, "initialBalance cannot be null");
 		this.owner = owner;
 		this.bank = bank;
-		this.balance = initialBalance;
+		this.balance = new MoneyAccumulator(initialBalance);
+		this.interestStartSi = owner.getSimulator().getAbsSimulatorTime().si;
 		this.roundBalance();
 		sendBalanceUpdateEvent();
-		// start the interest process...
-		this.owner.getSimulator().scheduleEventNow(this, "interest", null);
+		scheduleFinalSettlement();
+	}
+
+	/**
+	 * Schedule the settlement of the interest at the end of the replication.
+	 */
+	private void scheduleFinalSettlement() {
+		if (this.owner.getSimulator().getReplication() != null) {
+			Duration endTime = this.owner.getSimulator().getReplication().getEndTime();
+			if (endTime.gt(this.owner.getSimulator().getSimulatorTime())) {
+				this.owner.getSimulator().scheduleEventAbs(endTime, this, "settleInterest", null);
+			}
+		}
 	}
 
 	/**
-	 * Return the bank balance.
+	 * Return the bank balance, including the interest until now.
 	 * 
 	 * @return Money; the bank balance
 	 */
 	public Money getBalance() {
-		return this.balance;
+		settleInterest();
+		return balanceMoney();
+	}
+
+	/**
+	 * Return the current balance as a Money object, without settling the interest.
+	 * The Money object is only made once for each new value of the balance.
+	 * 
+	 * @return Money; the current balance
+	 */
+	private Money balanceMoney() {
+		if (this.balanceMoney == null) {
+			this.balanceMoney = this.balance.toMoney();
+		}
+		return this.balanceMoney;
 	}
 
 	/**
@@ -78,7 +126,8 @@ public class BankAccount extends LocalEventProducer {
 	 * @param amount Money; the amount of money to add
 	 */
 	public synchronized void addToBalance(final Money amount) {
-		this.balance = this.balance.plus(amount);
+		accrueInterest();
+		this.balance.add(amount);
 		this.roundBalance();
 		sendBalanceUpdateEvent();
 	}
@@ -89,36 +138,96 @@ public class BankAccount extends LocalEventProducer {
 	 * @param amount Money; the amount of money to withdraw
 	 */
 	public synchronized void withdrawFromBalance(final Money amount) {
-		this.balance = this.balance.minus(amount);
+		accrueInterest();
+		this.balance.subtract(amount);
 		this.roundBalance();
 		sendBalanceUpdateEvent();
 	}
 
 	/**
 	 * Send a BANK_ACCOUNT_CHANGED_EVENT to signal an update of the bank balance.
+	 * When nobody listens, no event and no Money object are made. The new
+	 * balance is also recorded in the trace of the model, when a trace is
+	 * recorded.
 	 */
 	protected void sendBalanceUpdateEvent() {
-		this.fireTimedEvent(BANK_ACCOUNT_CHANGED_EVENT, this.balance, this.owner.getSimulatorTime());
+		MessageTraceRecorder recorder = this.owner.getModel().getMessageTraceRecorder();
+		if (recorder != null) {
+			recorder.recordBankAccount(this.owner, this.balance.getAmount(), this.balance.getMoneyUnit());
+		}
+		if (numberOfListeners(BANK_ACCOUNT_CHANGED_EVENT) > 0) {
+			this.fireTimedEvent(BANK_ACCOUNT_CHANGED_EVENT, balanceMoney(), this.owner.getSimulatorTime());
+		}
 	}
 
 	/**
 	 * Round the balance.
 	 */
 	protected void roundBalance() {
-		this.balance = new Money(0.01 * Math.round(100.0 * this.balance.getAmount()), this.balance.getMoneyUnit());
+		this.balance.roundToCents();
+		this.balanceMoney = null;
+	}
+
+	/**
+	 * Settle the interest until now, e.g., on a statement date, and send a
+	 * BANK_ACCOUNT_CHANGED_EVENT when the balance changed.
+	 */
+	public synchronized void settleInterest() {
+		if (accrueInterest()) {
+			sendBalanceUpdateEvent();
+		}
 	}
 
 	/**
-	 * receive or pay interest according to the current rates.
+	 * Receive or pay interest according to the current rates for the whole days
+	 * since the last settlement. The balance is compounded with the daily rate
+	 * (the annual rate / 365) in closed form, so no event per day is needed. The
+	 * sign of the balance does not change by interest, so the positive or negative
+	 * rate applies to all days.
+	 * 
+	 * @return boolean; whether the balance changed
 	 */
-	protected void interest() {
-		if (this.balance.getAmount() < 0) {
-			addToBalance(this.balance.multiplyBy(this.bank.getBankingRole().getAnnualInterestRateNeg() / 365.0));
-		} else {
-			addToBalance(this.balance.multiplyBy(this.bank.getBankingRole().getAnnualInterestRatePos() / 365.0));
+	protected boolean accrueInterest() {
+		long days = (long) Math.floor((this.owner.getSimulator().getAbsSimulatorTime().si - this.interestStartSi) / DAY_SI);
+		long newDays = days - this.interestDays;
+		if (newDays <= 0) {
+			return false;
 		}
+		this.interestDays = days;
+		double amount = this.balance.getAmount();
+		if (amount == 0.0) {
+			return false;
+		}
+		double rate = amount < 0.0 ? this.bank.getBankingRole().getAnnualInterestRateNeg()
+				: this.bank.getBankingRole().getAnnualInterestRatePos();
+		if (rate == 0.0) {
+			return false;
+		}
+		this.balance.multiplyBy(Math.pow(1.0 + rate / 365.0, newDays));
 		this.roundBalance();
-		this.owner.getSimulator().scheduleEventRel(new Duration(1.0, DurationUnit.DAY), this, "interest", null);
+		return true;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void writeCheckpoint(final CheckpointOutput out) throws IOException {
+		out.writeDouble(this.balance.getAmount());
+		out.writeValue(this.balance.getMoneyUnit());
+		out.writeDouble(this.interestStartSi);
+		out.writeLong(this.interestDays);
+	}
+
+	/**
+	 * {@inheritDoc} The settlement of the interest at the end of the replication
+	 * is one of the events of the checkpoint.
+	 */
+	@Override
+	public void readCheckpoint(final CheckpointInput in) throws IOException {
+		double amount = in.readDouble();
+		this.balance.set(new Money(amount, (MoneyUnit) in.readValue()));
+		this.balanceMoney = null;
+		this.interestStartSi = in.readDouble();
+		this.interestDays = in.readLong();
 	}
 
 }
@@ -25,6 +25,15 @@ public class Money extends Number implements Serializable {
 	/** the money unit for this monetary value. */
 	private final MoneyUnit moneyUnit;
 
+	/**
+	 * Create an empty monetary value for the ModelCheckpoint, which sets the fields when it reads a message with a price
+	 * from a checkpoint.
+	 */
+	protected Money() {
+		this.amount = 0.0;
+		this.moneyUnit = null;
+	}
+
 	/**
 	 * Create a monetary value.
 	 * 
@@ -0,0 +1,236 @@
+package nl.tudelft.simulation.supplychain.finance;
+
+import java.io.Serializable;
+
+import org.djutils.exceptions.Throw;
+
+/**
+ * MoneyAccumulator is a mutable monetary value for the internal bookkeeping of,
+ * e.g., a BankAccount or an InventoryRecord. Contrary to Money, the arithmetic
+ * changes the accumulator itself, so a chain of operations does not create a new
+ * Money object for each step. A Money object is only made when the value is
+ * asked for with toMoney(). The accumulator takes its money unit from the first
+ * Money that is added or set, and checks the units of all further operations.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the
+ * Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * 
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class MoneyAccumulator implements Serializable {
+	/** */
+	private static final long serialVersionUID = 20231017L;
+
+	/** the monetary value in the money unit. */
+	private double amount;
+
+	/** the money unit for this monetary value; null until it is known. */
+	private MoneyUnit moneyUnit;
+
+	/**
+	 * Create an accumulator with a value of zero, that takes the money unit of the
+	 * first Money that is added or set.
+	 */
+	public MoneyAccumulator() {
+		this.amount = 0.0;
+		this.moneyUnit = null;
+	}
+
+	/**
+	 * Create an accumulator with an initial value.
+	 * 
+	 * @param initialValue Money; the initial value of the accumulator
+	 */
+	public MoneyAccumulator(final Money initialValue) {
+		Throw.whenNull(initialValue, "initialValue cannot be null");
+		this.amount = initialValue.getAmount();
+		this.moneyUnit = initialValue.getMoneyUnit();
+	}
+
+	/**
+	 * Check that the money unit is the same as the unit of this accumulator, or
+	 * adopt the unit when the accumulator does not have a unit yet.
+	 * 
+	 * @param unit MoneyUnit; the money unit to check
+	 */
+	private void checkUnit(final MoneyUnit unit) {
+		if (this.moneyUnit != unit) {
+			if (this.moneyUnit == null) {
+				this.moneyUnit = unit;
+			} else {
+				Throw.when(!this.moneyUnit.equals(unit), IllegalArgumentException.class, "unequal money units");
+			}
+		}
+	}
+
+	/**
+	 * Reset the accumulator to zero, without a money unit.
+	 * 
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator clear() {
+		this.amount = 0.0;
+		this.moneyUnit = null;
+		return this;
+	}
+
+	/**
+	 * Set the value of the accumulator.
+	 * 
+	 * @param value Money; the new value
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator set(final Money value) {
+		this.amount = value.getAmount();
+		this.moneyUnit = value.getMoneyUnit();
+		return this;
+	}
+
+	/**
+	 * Set the value of the accumulator to the unit price times the amount.
+	 * 
+	 * @param unitPrice Money; the price per unit
+	 * @param factor    double; the number of units
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator setProduct(final Money unitPrice, final double factor) {
+		this.amount = unitPrice.getAmount() * factor;
+		this.moneyUnit = unitPrice.getMoneyUnit();
+		return this;
+	}
+
+	/**
+	 * Add a monetary value to the accumulator.
+	 * 
+	 * @param inc Money; the amount of money to add
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator add(final Money inc) {
+		checkUnit(inc.getMoneyUnit());
+		this.amount += inc.getAmount();
+		return this;
+	}
+
+	/**
+	 * Add the unit price times the factor to the accumulator.
+	 * 
+	 * @param unitPrice Money; the price per unit
+	 * @param factor    double; the number of units
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator addProduct(final Money unitPrice, final double factor) {
+		checkUnit(unitPrice.getMoneyUnit());
+		this.amount += unitPrice.getAmount() * factor;
+		return this;
+	}
+
+	/**
+	 * Add an amount in the money unit of the accumulator.
+	 * 
+	 * @param inc double; the amount to add in the money unit of the accumulator
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator add(final double inc) {
+		this.amount += inc;
+		return this;
+	}
+
+	/**
+	 * Add an amount in the given money unit to the accumulator.
+	 * 
+	 * @param inc  double; the amount to add
+	 * @param unit MoneyUnit; the money unit of the amount
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator add(final double inc, final MoneyUnit unit) {
+		Throw.whenNull(unit, "unit cannot be null");
+		checkUnit(unit);
+		this.amount += inc;
+		return this;
+	}
+
+	/**
+	 * Subtract a monetary value from the accumulator.
+	 * 
+	 * @param dec Money; the amount of money to subtract
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator subtract(final Money dec) {
+		checkUnit(dec.getMoneyUnit());
+		this.amount -= dec.getAmount();
+		return this;
+	}
+
+	/**
+	 * Subtract an amount in the money unit of the accumulator.
+	 * 
+	 * @param dec double; the amount to subtract in the money unit of the
+	 *            accumulator
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator subtract(final double dec) {
+		this.amount -= dec;
+		return this;
+	}
+
+	/**
+	 * Multiply the value of the accumulator by a factor.
+	 * 
+	 * @param factor double; the multiplication factor
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator multiplyBy(final double factor) {
+		this.amount *= factor;
+		return this;
+	}
+
+	/**
+	 * Round the value of the accumulator to cents.
+	 * 
+	 * @return MoneyAccumulator; this accumulator for method chaining
+	 */
+	public MoneyAccumulator roundToCents() {
+		this.amount = 0.01 * Math.round(100.0 * this.amount);
+		return this;
+	}
+
+	/**
+	 * Return the monetary value in the money unit.
+	 * 
+	 * @return double; the monetary value in the money unit
+	 */
+	public double getAmount() {
+		return this.amount;
+	}
+
+	/**
+	 * Return the money unit of the accumulator.
+	 * 
+	 * @return MoneyUnit; the money unit, or null when no money has been added or
+	 *         set yet
+	 */
+	public MoneyUnit getMoneyUnit() {
+		return this.moneyUnit;
+	}
+
+	/**
+	 * Return the value of the accumulator as a Money object.
+	 * 
+	 * @return Money; the value of the accumulator
+	 * @throws IllegalStateException when the accumulator does not have a money unit
+	 *                               yet
+	 */
+	public Money toMoney() {
+		Throw.when(this.moneyUnit == null, IllegalStateException.class, "accumulator has no money unit");
+		return new Money(this.amount, this.moneyUnit);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return "MoneyAccumulator [amount=" + this.amount + ", moneyUnit=" + this.moneyUnit + "]";
+	}
+
+}
@@ -0,0 +1,423 @@
+package nl.tudelft.simulation.supplychain.inventory;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.event.LocalEventProducer;
+import org.djutils.event.TimedEvent;
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.product.Product;
+
+/**
+ * ForecastLedger keeps the future changes of the inventory per product, such as claimed amounts that will leave the
+ * inventory and ordered amounts that will arrive at a certain time. The changes are added up in time buckets of a fixed
+ * width. The buckets of a product are stored in a ring buffer of doubles that starts at the bucket of the current simulation
+ * time; buckets that lie in the past are discarded automatically, and the ring grows when a change lies beyond its end. A
+ * Fenwick tree over the ring gives the total change up to a time in O(log n), where n is the number of buckets in the
+ * ring.<br>
+ * <br>
+ * Every change fires a STOCK_FORECAST_UPDATE_EVENT on the event producer of the ledger, usually the Inventory, when there
+ * are listeners for the event.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ForecastLedger implements Serializable, Checkpointable
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the maximum number of buckets in the ring of a product. */
+    public static final int MAX_BUCKETS = 1 << 22;
+
+    /** the producer that fires the STOCK_FORECAST_UPDATE_EVENT. */
+    private final LocalEventProducer eventProducer;
+
+    /** the simulator to determine the current time. */
+    private final SupplyChainSimulatorInterface simulator;
+
+    /** the width of a time bucket in seconds. */
+    private final double bucketWidth;
+
+    /** the ledgers of the products, indexed by product index; null when a product has no future changes. */
+    private ProductLedger[] ledgers = new ProductLedger[0];
+
+    /**
+     * Create an empty forecast ledger.
+     * @param eventProducer LocalEventProducer; the producer that fires the STOCK_FORECAST_UPDATE_EVENT, usually the Inventory
+     * @param simulator SupplyChainSimulatorInterface; the simulator to determine the current time
+     * @param bucketWidth Duration; the width of a time bucket
+     */
+    public ForecastLedger(final LocalEventProducer eventProducer, final SupplyChainSimulatorInterface simulator,
+            final Duration bucketWidth)
+    {
+        Throw.whenNull(eventProducer, "eventProducer cannot be null");
+        Throw.whenNull(simulator, "simulator cannot be null");
+        Throw.whenNull(bucketWidth, "bucketWidth cannot be null");
+        Throw.when(bucketWidth.si <= 0.0, IllegalArgumentException.class, "bucketWidth should be positive");
+        this.eventProducer = eventProducer;
+        this.simulator = simulator;
+        this.bucketWidth = bucketWidth.si;
+    }
+
+    /**
+     * Return the width of a time bucket.
+     * @return Duration; the width of a time bucket
+     */
+    public Duration getBucketWidth()
+    {
+        return Duration.instantiateSI(this.bucketWidth);
+    }
+
+    /**
+     * Return whether a change at the given time can be stored, i.e., whether the time is not in the past and its bucket is
+     * within MAX_BUCKETS buckets from the bucket of the current time.
+     * @param time Time; the time of the change
+     * @return boolean; whether a change at the given time can be stored
+     */
+    public boolean isWithinHorizon(final Time time)
+    {
+        long now = bucket(this.simulator.getAbsSimulatorTime());
+        long bucket = bucket(time);
+        return bucket >= now && bucket - now < MAX_BUCKETS;
+    }
+
+    /**
+     * Add a future change for a product.
+     * @param product Product; the product
+     * @param delta double; the change of the inventory; positive for amounts that come in, negative for amounts that go out
+     * @param time Time; the time at which the change will take place
+     * @throws IllegalArgumentException when the time lies in the past, or too far in the future for the horizon of the ledger
+     */
+    public void addChange(final Product product, final double delta, final Time time)
+    {
+        Throw.whenNull(product, "product cannot be null");
+        Throw.whenNull(time, "time cannot be null");
+        Time now = this.simulator.getAbsSimulatorTime();
+        Throw.when(time.lt(now), IllegalArgumentException.class, "time %s of the change lies before the current time %s", time,
+                now);
+        Throw.when(!isWithinHorizon(time), IllegalArgumentException.class,
+                "time %s of the change is too far in the future for the horizon of %d buckets", time, MAX_BUCKETS);
+        ProductLedger ledger = getLedger(product, true);
+        ledger.prune(bucket(this.simulator.getAbsSimulatorTime()));
+        ledger.add(bucket(time), delta);
+        if (this.eventProducer.numberOfListeners(Inventory.STOCK_FORECAST_UPDATE_EVENT) > 0)
+        {
+            ForecastUpdateData data = new ForecastUpdateData(product.getName(), time, delta, ledger.total());
+            this.eventProducer.fireEvent(new TimedEvent<Time>(Inventory.STOCK_FORECAST_UPDATE_EVENT, data,
+                    this.simulator.getAbsSimulatorTime()));
+        }
+    }
+
+    /**
+     * Return the total of the future changes of a product from the current time up to and including the bucket of a given
+     * time.
+     * @param product Product; the product
+     * @param time Time; the time up to which to add the changes
+     * @return double; the total of the changes up to the given time, or 0.0 when the time lies in the past
+     */
+    public double getProjectedChange(final Product product, final Time time)
+    {
+        Throw.whenNull(time, "time cannot be null");
+        ProductLedger ledger = getLedger(product, false);
+        if (ledger == null)
+        {
+            return 0.0;
+        }
+        ledger.prune(bucket(this.simulator.getAbsSimulatorTime()));
+        return ledger.sumUpTo(bucket(time));
+    }
+
+    /**
+     * Return the total of all future changes of a product.
+     * @param product Product; the product
+     * @return double; the total of all future changes of the product
+     */
+    public double getTotalChange(final Product product)
+    {
+        ProductLedger ledger = getLedger(product, false);
+        if (ledger == null)
+        {
+            return 0.0;
+        }
+        ledger.prune(bucket(this.simulator.getAbsSimulatorTime()));
+        return ledger.total();
+    }
+
+    /**
+     * Return the number of buckets from the current time up to the last bucket with a change for a product.
+     * @param product Product; the product
+     * @return int; the number of buckets in use for the product
+     */
+    public int getNumberOfBuckets(final Product product)
+    {
+        ProductLedger ledger = getLedger(product, false);
+        if (ledger == null)
+        {
+            return 0;
+        }
+        ledger.prune(bucket(this.simulator.getAbsSimulatorTime()));
+        return ledger.span;
+    }
+
+    /**
+     * Return the bucket of a time.
+     * @param time Time; the time
+     * @return long; the bucket number of the time
+     */
+    private long bucket(final Time time)
+    {
+        return (long) Math.floor(time.si / this.bucketWidth);
+    }
+
+    /**
+     * Return the ledger of a product.
+     * @param product Product; the product
+     * @param create boolean; whether to create the ledger when it does not exist
+     * @return ProductLedger; the ledger of the product, or null when it does not exist and create is false
+     */
+    private ProductLedger getLedger(final Product product, final boolean create)
+    {
+        Throw.whenNull(product, "product cannot be null");
+        int index = product.getIndex();
+        if (index >= this.ledgers.length)
+        {
+            if (!create)
+            {
+                return null;
+            }
+            this.ledgers = Arrays.copyOf(this.ledgers, Math.max(index + 1, 2 * this.ledgers.length));
+        }
+        if (this.ledgers[index] == null && create)
+        {
+            this.ledgers[index] = new ProductLedger(bucket(this.simulator.getAbsSimulatorTime()));
+        }
+        return this.ledgers[index];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeCheckpoint(final CheckpointOutput out) throws IOException
+    {
+        out.writeInt(this.ledgers.length);
+        for (ProductLedger ledger : this.ledgers)
+        {
+            out.writeBoolean(ledger != null);
+            if (ledger != null)
+            {
+                out.writeLong(ledger.baseBucket);
+                out.writeInt(ledger.head);
+                out.writeInt(ledger.span);
+                out.writeDoubles(ledger.deltas, ledger.deltas.length);
+                out.writeDoubles(ledger.tree, ledger.tree.length);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void readCheckpoint(final CheckpointInput in) throws IOException
+    {
+        this.ledgers = new ProductLedger[in.readInt()];
+        for (int i = 0; i < this.ledgers.length; i++)
+        {
+            if (in.readBoolean())
+            {
+                ProductLedger ledger = new ProductLedger(in.readLong());
+                ledger.head = in.readInt();
+                ledger.span = in.readInt();
+                ledger.deltas = in.readDoubles();
+                ledger.tree = in.readDoubles();
+                this.ledgers[i] = ledger;
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "ForecastLedger [bucketWidth=" + getBucketWidth() + "]";
+    }
+
+    /**
+     * The ring of time buckets of one product, with a Fenwick tree over the physical positions in the ring.
+     */
+    private static class ProductLedger implements Serializable
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the summed changes per bucket, at their physical position in the ring. */
+        private double[] deltas;
+
+        /** the Fenwick tree over the physical positions, with 1-based indexes. */
+        private double[] tree;
+
+        /** the bucket number of the first bucket in the ring. */
+        private long baseBucket;
+
+        /** the physical position of the first bucket in the ring. */
+        private int head = 0;
+
+        /** the number of buckets in use, from the first bucket up to the last bucket with a change. */
+        private int span = 0;
+
+        /**
+         * @param baseBucket long; the bucket of the current time
+         */
+        ProductLedger(final long baseBucket)
+        {
+            this.baseBucket = baseBucket;
+            this.deltas = new double[16];
+            this.tree = new double[17];
+        }
+
+        /**
+         * Discard the buckets before the bucket of the current time.
+         * @param nowBucket long; the bucket of the current time
+         */
+        void prune(final long nowBucket)
+        {
+            if (nowBucket <= this.baseBucket)
+            {
+                return;
+            }
+            int discard = (int) Math.min(nowBucket - this.baseBucket, this.span);
+            int mask = this.deltas.length - 1;
+            for (int i = 0; i < discard; i++)
+            {
+                int pos = (this.head + i) & mask;
+                if (this.deltas[pos] != 0.0)
+                {
+                    treeAdd(pos, -this.deltas[pos]);
+                    this.deltas[pos] = 0.0;
+                }
+            }
+            this.head = (this.head + discard) & mask;
+            this.span -= discard;
+            this.baseBucket = nowBucket;
+            if (this.span == 0)
+            {
+                // no changes left; reset the tree, so rounding errors do not accumulate
+                Arrays.fill(this.tree, 0.0);
+            }
+        }
+
+        /**
+         * Add a change to a bucket that is not before the first bucket.
+         * @param bucket long; the bucket of the change
+         * @param delta double; the change
+         */
+        void add(final long bucket, final double delta)
+        {
+            int offset = (int) (bucket - this.baseBucket);
+            if (offset >= this.deltas.length)
+            {
+                grow(offset + 1);
+            }
+            int pos = (this.head + offset) & (this.deltas.length - 1);
+            this.deltas[pos] += delta;
+            treeAdd(pos, delta);
+            this.span = Math.max(this.span, offset + 1);
+        }
+
+        /**
+         * Return the total of the changes up to and including a bucket.
+         * @param bucket long; the last bucket to include
+         * @return double; the total of the changes up to and including the bucket
+         */
+        double sumUpTo(final long bucket)
+        {
+            if (bucket < this.baseBucket || this.span == 0)
+            {
+                return 0.0;
+            }
+            int length = (int) Math.min(bucket - this.baseBucket + 1, this.span);
+            int end = this.head + length;
+            int capacity = this.deltas.length;
+            if (end <= capacity)
+            {
+                return prefix(end) - prefix(this.head);
+            }
+            return prefix(capacity) - prefix(this.head) + prefix(end - capacity);
+        }
+
+        /**
+         * Return the total of all changes.
+         * @return double; the total of all changes
+         */
+        double total()
+        {
+            return this.span == 0 ? 0.0 : prefix(this.deltas.length);
+        }
+
+        /**
+         * Grow the ring to a power of two that can hold the given number of buckets, and rebuild the tree.
+         * @param minimumCapacity int; the number of buckets the ring should be able to hold
+         */
+        private void grow(final int minimumCapacity)
+        {
+            int capacity = this.deltas.length;
+            while (capacity < minimumCapacity)
+            {
+                capacity *= 2;
+            }
+            double[] newDeltas = new double[capacity];
+            int mask = this.deltas.length - 1;
+            for (int i = 0; i < this.span; i++)
+            {
+                newDeltas[i] = this.deltas[(this.head + i) & mask];
+            }
+            this.deltas = newDeltas;
+            this.head = 0;
+            this.tree = new double[capacity + 1];
+            for (int i = 0; i < capacity; i++)
+            {
+                if (newDeltas[i] != 0.0)
+                {
+                    treeAdd(i, newDeltas[i]);
+                }
+            }
+        }
+
+        /**
+         * Add a value to a physical position in the Fenwick tree.
+         * @param pos int; the 0-based physical position
+         * @param value double; the value to add
+         */
+        private void treeAdd(final int pos, final double value)
+        {
+            for (int i = pos + 1; i < this.tree.length; i += i & -i)
+            {
+                this.tree[i] += value;
+            }
+        }
+
+        /**
+         * Return the sum of the first n physical positions.
+         * @param n int; the number of positions
+         * @return double; the sum of the positions 0 to n - 1
+         */
+        private double prefix(final int n)
+        {
+            double sum = 0.0;
+            for (int i = n; i > 0; i -= i & -i)
+            {
+                sum += this.tree[i];
+            }
+            return sum;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package nl.tudelft.simulation.supplychain.inventory;
+
+import java.io.Serializable;
+
+import org.djunits.value.vdouble.scalar.Time;
+
+/**
+ * ForecastUpdateData is the payload of the STOCK_FORECAST_UPDATE_EVENT of the Inventory, with the change that was added to
+ * the forecast of a product.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ForecastUpdateData implements Serializable
+{
+    /** the serial version uid. */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the product name. */
+    private final String productName;
+
+    /** the time at which the change will take place. */
+    private final Time changeTime;
+
+    /** the change of the inventory. */
+    private final double delta;
+
+    /** the total of all future changes of the product. */
+    private final double totalChange;
+
+    /**
+     * @param productName the product name
+     * @param changeTime the time at which the change will take place
+     * @param delta the change of the inventory; positive for amounts that come in, negative for amounts that go out
+     * @param totalChange the total of all future changes of the product, including this change
+     */
+    public ForecastUpdateData(final String productName, final Time changeTime, final double delta, final double totalChange)
+    {
+        this.productName = productName;
+        this.changeTime = changeTime;
+        this.delta = delta;
+        this.totalChange = totalChange;
+    }
+
+    /**
+     * @return the productName.
+     */
+    public String getProductName()
+    {
+        return this.productName;
+    }
+
+    /**
+     * @return the time at which the change will take place.
+     */
+    public Time getChangeTime()
+    {
+        return this.changeTime;
+    }
+
+    /**
+     * @return the change of the inventory.
+     */
+    public double getDelta()
+    {
+        return this.delta;
+    }
+
+    /**
+     * @return the total of all future changes of the product.
+     */
+    public double getTotalChange()
+    {
+        return this.totalChange;
+    }
+}
@@ -1,13 +1,14 @@
 package nl.tudelft.simulation.supplychain.inventory;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
 import org.djunits.value.vdouble.scalar.Time;
 import org.djutils.event.EventProducer;
 import org.djutils.event.EventType;
@@ -17,15 +18,25 @@ import org.djutils.exceptions.Throw;
 import org.pmw.tinylog.Logger;
 
 import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
 import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyAccumulator;
 import nl.tudelft.simulation.supplychain.message.trade.Shipment;
 import nl.tudelft.simulation.supplychain.product.Product;
 import nl.tudelft.simulation.supplychain.product.ProductAmount;
 import nl.tudelft.simulation.supplychain.role.inventory.InventoryRole;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
 
 /**
  * Simple implementation of Inventory for a Trader. The information on
- * inventoryed amounts is stored in a HashTable of InventoryRecords. Events on
+ * inventoryed amounts is stored in an InventoryTable, with arrays that are
+ * indexed by the dense index of the product in the model, so no hashing of
+ * products takes place when the amounts are read or changed. The
+ * InventoryRecords are views on the table. The future changes of the inventory
+ * are kept in a ForecastLedger, which fires the STOCK_FORECAST_UPDATE_EVENT
+ * on this Inventory. Events on
  * inventory changes are fired by Inventory, so subscribers who are interested
  * in the inventory amounts can see what is going on in the Inventory.
  * <p>
@@ -36,7 +47,7 @@ import nl.tudelft.simulation.supplychain.role.inventory.InventoryRole;
  * 
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class Inventory extends LocalEventProducer implements Serializable, EventProducer {
+public class Inventory extends LocalEventProducer implements Serializable, EventProducer, Checkpointable {
 	/** the serial version uid. */
 	private static final long serialVersionUID = 20221210L;
 
@@ -52,14 +63,23 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	/** the InventoryRole of the owner. */
 	private final InventoryRole inventoryRole;
 
-	/** record keeping of the inventory. */
-	private Map<Product, InventoryRecord> inventoryRecords = new LinkedHashMap<Product, InventoryRecord>();
+	/** record keeping of the inventory, with a slot per product index. */
+	private final InventoryTable table;
 
-	/**
-	 * Map of Product to Map of time to ArrayList of values for time moment: future
-	 * changes.
-	 */
-	private Map<Product, TreeMap<Time, ArrayList<Double>>> futureChanges = new LinkedHashMap<>();
+	/** the records of the inventory, as views on the table, indexed by product index. */
+	private InventoryRecord[] inventoryRecords;
+
+	/** the products in the inventory, in the order in which they were added. */
+	private final Set<Product> products = new LinkedHashSet<>();
+
+	/** the future changes of the inventory, in time buckets of one hour. */
+	private final ForecastLedger forecastLedger;
+
+	/** the period for booking the depreciation of the inventory. */
+	private Duration depreciationPostingPeriod = new Duration(1.0, DurationUnit.DAY);
+
+	/** whether a depreciation posting has been scheduled. */
+	private boolean depreciationPostingScheduled = false;
 
 	/**
 	 * Create a new Inventory for an actor.
@@ -71,6 +91,10 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 		Throw.whenNull(inventoryRole, "inventoryRole cannot be null");
 		this.owner = inventoryRole.getActor();
 		this.inventoryRole = inventoryRole;
+		int numberOfProducts = this.owner.getSimulator().getModel().getNumberOfProducts();
+		this.table = new InventoryTable(this.owner.getSimulator(), numberOfProducts);
+		this.inventoryRecords = new InventoryRecord[Math.max(numberOfProducts, 1)];
+		this.forecastLedger = new ForecastLedger(this, this.owner.getSimulator(), new Duration(1.0, DurationUnit.HOUR));
 	}
 
 	/**
@@ -99,6 +123,15 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 		return this.owner;
 	}
 
+	/**
+	 * Return the InventoryRole that physically handles the inventory.
+	 * 
+	 * @return InventoryRole; the role that physically handles the inventory
+	 */
+	public InventoryRole getInventoryRole() {
+		return this.inventoryRole;
+	}
+
 	/**
 	 * Return an overview of the products that we have in inventory.
 	 * 
@@ -106,7 +139,41 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 *         inventory
 	 */
 	public Set<Product> getProducts() {
-		return this.inventoryRecords.keySet();
+		return this.products;
+	}
+
+	/**
+	 * Return the inventory record of a product.
+	 * 
+	 * @param product Product; the product
+	 * @return InventoryRecord; the record of the product, or null when the product
+	 *         has not been added to the inventory
+	 */
+	protected InventoryRecord getInventoryRecord(final Product product) {
+		int index = product.getIndex();
+		return index < this.inventoryRecords.length ? this.inventoryRecords[index] : null;
+	}
+
+	/**
+	 * Return the inventory record of a product, and make it when the product has
+	 * not been added to the inventory yet.
+	 * 
+	 * @param product Product; the product
+	 * @return InventoryRecord; the record of the product
+	 */
+	private InventoryRecord makeInventoryRecord(final Product product) {
+		InventoryRecord inventoryRecord = getInventoryRecord(product);
+		if (inventoryRecord == null) {
+			int index = product.getIndex();
+			if (index >= this.inventoryRecords.length) {
+				this.inventoryRecords = Arrays.copyOf(this.inventoryRecords,
+						Math.max(index + 1, 2 * this.inventoryRecords.length));
+			}
+			inventoryRecord = new InventoryRecord(this.owner, this.table, product);
+			this.inventoryRecords[index] = inventoryRecord;
+			this.products.add(product);
+		}
+		return inventoryRecord;
 	}
 
 	/**
@@ -117,11 +184,7 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @param totalPrice the value of this amount of product
 	 */
 	public void addToInventory(final Product product, final double amount, final Money totalPrice) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(product);
-		if (inventoryRecord == null) {
-			inventoryRecord = new InventoryRecord(this.owner, this.owner.getSimulator(), product);
-			this.inventoryRecords.put(product, inventoryRecord);
-		}
+		InventoryRecord inventoryRecord = makeInventoryRecord(product);
 		try {
 			if (amount == 0.0) {
 				throw new Exception("Amount is 0.0; leading to a divide by zero.");
@@ -131,6 +194,7 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 			exception.printStackTrace();
 			Logger.error(exception, "addInventory");
 		}
+		scheduleDepreciationPosting();
 		this.sendInventoryUpdateEvent(inventoryRecord);
 	}
 
@@ -140,16 +204,84 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @param shipment the shipment to add to the inventory
 	 */
 	public void addToInventory(final Shipment shipment) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(shipment.getProduct());
-		if (inventoryRecord == null) {
-			inventoryRecord = new InventoryRecord(this.owner, this.owner.getSimulator(), shipment.getProduct());
-			this.inventoryRecords.put(shipment.getProduct(), inventoryRecord);
-		}
+		InventoryRecord inventoryRecord = makeInventoryRecord(shipment.getProduct());
 		inventoryRecord.addActualAmount(shipment.getAmount(),
 				shipment.getTotalCargoValue().divideBy(shipment.getAmount()));
+		scheduleDepreciationPosting();
 		this.sendInventoryUpdateEvent(inventoryRecord);
 	}
 
+	/**
+	 * Schedule the next depreciation posting, unless it has been scheduled
+	 * already.
+	 */
+	private void scheduleDepreciationPosting() {
+		if (!this.depreciationPostingScheduled) {
+			this.depreciationPostingScheduled = true;
+			this.owner.getSimulator().scheduleEventRel(this.depreciationPostingPeriod, this, "postDepreciation", null);
+		}
+	}
+
+	/**
+	 * Book the depreciation of all inventory records since the last posting on the
+	 * bank account of the owner, in one withdrawal. The next posting is only
+	 * scheduled when the inventory still depreciates, so an inventory without
+	 * value does not cause any events.
+	 */
+	protected void postDepreciation() {
+		this.depreciationPostingScheduled = false;
+		MoneyAccumulator total = new MoneyAccumulator();
+		boolean depreciating = false;
+		for (int i = 0; i < this.table.size(); i++) {
+			int slot = this.table.slotAt(i);
+			if (total.getMoneyUnit() != null && !total.getMoneyUnit().equals(this.table.getMoneyUnit(slot))) {
+				bookDepreciation(total);
+			}
+			this.table.addUnbookedDepreciationTo(slot, total);
+			depreciating |= this.table.isDepreciating(slot);
+		}
+		bookDepreciation(total);
+		if (depreciating) {
+			scheduleDepreciationPosting();
+		}
+	}
+
+	/**
+	 * Withdraw the accumulated depreciation from the bank account of the owner,
+	 * and clear the accumulator.
+	 * 
+	 * @param depreciation MoneyAccumulator; the depreciation to withdraw
+	 */
+	private void bookDepreciation(final MoneyAccumulator depreciation) {
+		if (depreciation.getAmount() != 0.0 && this.owner.getBankAccount() != null) {
+			this.owner.getBankAccount().withdrawFromBalance(depreciation.toMoney());
+		}
+		depreciation.clear();
+	}
+
+	/**
+	 * Return the period for booking the depreciation of the inventory.
+	 * 
+	 * @return Duration; the period for booking the depreciation
+	 */
+	public Duration getDepreciationPostingPeriod() {
+		return this.depreciationPostingPeriod;
+	}
+
+	/**
+	 * Set the period for booking the depreciation of the inventory. The new period
+	 * is used from the next posting onwards.
+	 * 
+	 * @param depreciationPostingPeriod Duration; the period for booking the
+	 *                                  depreciation
+	 */
+	public void setDepreciationPostingPeriod(final Duration depreciationPostingPeriod) {
+		Throw.whenNull(depreciationPostingPeriod, "depreciationPostingPeriod cannot be null");
+		Throw.when(depreciationPostingPeriod.si <= 0.0, IllegalArgumentException.class,
+				"depreciationPostingPeriod should be positive");
+		this.depreciationPostingPeriod = depreciationPostingPeriod;
+	}
+
 	/**
 	 * Remove products from the inventory.
 	 * 
@@ -158,12 +290,11 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @return double the actual amount of the product taken out of inventory
 	 */
 	public double removeFromInventory(final Product product, final double amount) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(product);
-		double actualAmount = 0.0;
-		if (inventoryRecord != null) {
-			actualAmount = Math.min(amount, inventoryRecord.getActualAmount());
+		InventoryRecord inventoryRecord = getInventoryRecord(product);
+		if (inventoryRecord == null) {
+			return 0.0;
 		}
-		// double unitprice = inventoryRecord.getUnitPrice();
+		double actualAmount = Math.min(amount, inventoryRecord.getActualAmount());
 		inventoryRecord.removeActualAmount(actualAmount);
 		this.inventoryRole.checkInventory(product);
 		this.sendInventoryUpdateEvent(inventoryRecord);
@@ -177,11 +308,7 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @return double the actual amount
 	 */
 	public double getActualAmount(final Product product) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(product);
-		if (inventoryRecord == null) {
-			return 0.0;
-		}
-		return inventoryRecord.getActualAmount();
+		return this.table.getActualAmount(product.getIndex());
 	}
 
 	/**
@@ -191,11 +318,7 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @return double the claimed amount
 	 */
 	public double getClaimedAmount(final Product product) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(product);
-		if (inventoryRecord == null) {
-			return 0.0;
-		}
-		return inventoryRecord.getClaimedAmount();
+		return this.table.getClaimedAmount(product.getIndex());
 	}
 
 	/**
@@ -205,11 +328,7 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @return double the ordered amount
 	 */
 	public double getOrderedAmount(final Product product) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(product);
-		if (inventoryRecord == null) {
-			return 0.0;
-		}
-		return inventoryRecord.getOrderedAmount();
+		return this.table.getOrderedAmount(product.getIndex());
 	}
 
 	/**
@@ -220,7 +339,7 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @return boolean success or not
 	 */
 	public boolean changeClaimedAmount(final Product product, final double delta) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(product);
+		InventoryRecord inventoryRecord = getInventoryRecord(product);
 		if (inventoryRecord == null) {
 			return false;
 		}
@@ -249,17 +368,13 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 			Logger.error("changeFutureOrderedAmount - The delta may not be smaller than 0 (" + delta + "<" + 0 + ").");
 			return false;
 		}
-
-		if (!this.futureChanges.containsKey(product)) {
-			this.futureChanges.put(product, new TreeMap<Time, ArrayList<Double>>());
-		}
-		if (!this.futureChanges.get(product).containsKey(time)) {
-			this.futureChanges.get(product).put(time, new ArrayList<Double>());
+		if (!this.forecastLedger.isWithinHorizon(time)) {
+			Logger.error("changeFutureClaimedAmount - Time for the change is too far in the future (" + time + ").");
+			return false;
 		}
 		// we consider a future claimed amount as a negative change for our inventory
 		// value
-		this.futureChanges.get(product).get(time).add(-delta);
-		// this.sendForecastUpdateEvent(product);
+		this.forecastLedger.addChange(product, -delta, time);
 		return true;
 	}
 
@@ -271,7 +386,7 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @return boolean success or not
 	 */
 	public boolean changeOrderedAmount(final Product product, final double delta) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(product);
+		InventoryRecord inventoryRecord = getInventoryRecord(product);
 		if (inventoryRecord == null) {
 			return false;
 		}
@@ -299,18 +414,36 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 			Logger.error("changeFutureOrderedAmount - The delta may not be smaller than 0 (" + delta + "<" + 0 + ").");
 			return false;
 		}
-
-		if (!this.futureChanges.containsKey(product)) {
-			this.futureChanges.put(product, new TreeMap<Time, ArrayList<Double>>());
-		}
-		if (!this.futureChanges.get(product).containsKey(time)) {
-			this.futureChanges.get(product).put(time, new ArrayList<Double>());
+		if (!this.forecastLedger.isWithinHorizon(time)) {
+			Logger.error("changeFutureOrderedAmount - Time for the change is too far in the future (" + time + ").");
+			return false;
 		}
-		this.futureChanges.get(product).get(time).add(delta);
-		// this.sendForecastUpdateEvent(product);
+		this.forecastLedger.addChange(product, delta, time);
 		return true;
 	}
 
+	/**
+	 * Return the projected amount of a product at a given time: the actual amount,
+	 * plus the future ordered amounts, minus the future claimed amounts, up to and
+	 * including the time bucket of the given time.
+	 * 
+	 * @param product Product; the product
+	 * @param time    Time; the time for which to project the amount
+	 * @return double; the projected amount of the product at the given time
+	 */
+	public double getProjectedAmount(final Product product, final Time time) {
+		return getActualAmount(product) + this.forecastLedger.getProjectedChange(product, time);
+	}
+
+	/**
+	 * Return the ledger with the future changes of the inventory.
+	 * 
+	 * @return ForecastLedger; the ledger with the future changes of the inventory
+	 */
+	public ForecastLedger getForecastLedger() {
+		return this.forecastLedger;
+	}
+
 	/**
 	 * Return the unit price of a product (based on its SKU).
 	 * 
@@ -318,11 +451,11 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @return double the price per unit
 	 */
 	public Money getUnitPrice(final Product product) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(product);
-		if (inventoryRecord == null) {
+		int index = product.getIndex();
+		if (!this.table.contains(index)) {
 			return product.getUnitMarketPrice();
 		}
-		return inventoryRecord.getUnitPrice();
+		return this.table.getUnitPrice(index);
 	}
 
 	/**
@@ -331,15 +464,24 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @return int number of products
 	 */
 	public int numberOfProducts() {
-		return this.inventoryRecords.keySet().size();
+		return this.table.size();
 	}
 
 	/**
-	 * Method sendInventoryUpdateEvent.
+	 * Method sendInventoryUpdateEvent. The change is also recorded in the
+	 * trace of the model, when a trace is recorded.
 	 * 
 	 * @param inventoryRecord the inventory record that is updated
 	 */
 	public void sendInventoryUpdateEvent(final InventoryRecord inventoryRecord) {
+		MessageTraceRecorder recorder = this.owner.getModel().getMessageTraceRecorder();
+		if (recorder != null) {
+			recorder.recordInventory(this.owner, inventoryRecord.getProduct(), inventoryRecord.getActualAmount(),
+					inventoryRecord.getClaimedAmount(), inventoryRecord.getOrderedAmount());
+		}
+		if (numberOfListeners(INVENTORY_CHANGE_EVENT) == 0) {
+			return;
+		}
 		InventoryUpdateData data = new InventoryUpdateData(inventoryRecord.getProduct().getName(),
 				inventoryRecord.getActualAmount(), inventoryRecord.getClaimedAmount(),
 				inventoryRecord.getOrderedAmount());
@@ -353,12 +495,47 @@ public class Inventory extends LocalEventProducer implements Serializable, Event
 	 * @param product Product; the product for which the inventory is updated
 	 */
 	public void sendInventoryUpdateEvent(final Product product) {
-		InventoryRecord inventoryRecord = this.inventoryRecords.get(product);
+		InventoryRecord inventoryRecord = getInventoryRecord(product);
 		if (inventoryRecord != null) {
 			this.sendInventoryUpdateEvent(inventoryRecord);
 		}
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void writeCheckpoint(final CheckpointOutput out) throws IOException {
+		out.writeInt(this.products.size());
+		for (Product product : this.products) {
+			out.writeValue(product);
+		}
+		this.table.writeCheckpoint(out);
+		this.forecastLedger.writeCheckpoint(out);
+		out.writeValue(this.depreciationPostingPeriod);
+		out.writeBoolean(this.depreciationPostingScheduled);
+	}
+
+	/**
+	 * {@inheritDoc} A pending depreciation posting is one of the events of the
+	 * checkpoint.
+	 */
+	@Override
+	public void readCheckpoint(final CheckpointInput in) throws IOException {
+		int numberOfProducts = in.readInt();
+		Product[] newProducts = new Product[numberOfProducts];
+		for (int i = 0; i < numberOfProducts; i++) {
+			newProducts[i] = (Product) in.readValue();
+		}
+		this.table.readCheckpoint(in);
+		this.forecastLedger.readCheckpoint(in);
+		Arrays.fill(this.inventoryRecords, null);
+		this.products.clear();
+		for (Product product : newProducts) {
+			makeInventoryRecord(product);
+		}
+		this.depreciationPostingPeriod = (Duration) in.readValue();
+		this.depreciationPostingScheduled = in.readBoolean();
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public String toString() {
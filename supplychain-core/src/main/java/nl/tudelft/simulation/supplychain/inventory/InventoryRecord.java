@@ -2,19 +2,23 @@ package nl.tudelft.simulation.supplychain.inventory;
 
 import java.io.Serializable;
 
-import org.djunits.unit.DurationUnit;
-import org.djunits.value.vdouble.scalar.Duration;
 import org.pmw.tinylog.Logger;
 
 import nl.tudelft.simulation.supplychain.actor.Actor;
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
 import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyAccumulator;
 import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
 import nl.tudelft.simulation.supplychain.product.Product;
 
 /**
  * A InventoryRecord keeps the information about products, such as actual, ordered and claimed amounts of products. It assists
- * the Inventory object and the restocking policies to assess the needed order amounts.
+ * the Inventory object and the restocking policies to assess the needed order amounts.<br>
+ * <br>
+ * The record is a view on the slot of the product in an InventoryTable, where the information is stored in arrays. The records
+ * of an Inventory share the table of the Inventory; a record that is made on its own has a table of its own. The costprice of
+ * the products depreciates with a daily factor in closed form, see InventoryTable. The depreciation is not booked on the bank
+ * account by the record itself; the Inventory collects the unbooked depreciation of all its records in one posting per period.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
@@ -29,26 +33,14 @@ public class InventoryRecord implements Serializable
     /** the owner. */
     private Actor owner = null;
 
-    /** the simulator to schedule the depreciation. */
-    private SupplyChainSimulatorInterface simulator = null;
-
     /** the product for which to keep information. */
     private Product product;
 
-    /** the amount currently on inventory. */
-    private double actualAmount;
-
-    /** the amount that is claimed by orders, but not yet taken. */
-    private double claimedAmount;
-
-    /** the amount that has been ordered, but not yet delivered. */
-    private double orderedAmount;
+    /** the table that stores the information. */
+    private final InventoryTable table;
 
-    /** the costprice of the total amount of these products in inventory. */
-    private Money costprice = new Money(0.0, MoneyUnit.USD);
-
-    /** the depreciation factor per day. */
-    private double dailyDepreciation = 0.0;
+    /** the slot of the product in the table. */
+    private final int slot;
 
     /**
      * @param owner the trader
@@ -56,20 +48,22 @@ public class InventoryRecord implements Serializable
      * @param product Product; the product
      */
     public InventoryRecord(final Actor owner, final SupplyChainSimulatorInterface simulator, final Product product)
+    {
+        this(owner, new InventoryTable(simulator, product.getIndex() + 1), product);
+    }
+
+    /**
+     * Create a record as a view on the slot of the product in a table. The product is added to the table when needed.
+     * @param owner the trader
+     * @param table InventoryTable; the table that stores the information
+     * @param product Product; the product
+     */
+    InventoryRecord(final Actor owner, final InventoryTable table, final Product product)
     {
         this.owner = owner;
-        this.simulator = simulator;
         this.product = product;
-        this.dailyDepreciation = product.getDepreciation();
-        // start the depreciation process...
-        try
-        {
-            this.simulator.scheduleEventNow(this, "depreciate", null);
-        }
-        catch (Exception exception)
-        {
-            Logger.error(exception, "<init>");
-        }
+        this.table = table;
+        this.slot = table.add(product);
     }
 
     /**
@@ -78,7 +72,7 @@ public class InventoryRecord implements Serializable
      */
     public double getActualAmount()
     {
-        return this.actualAmount;
+        return this.table.getActualAmount(this.slot);
     }
 
     /**
@@ -87,7 +81,7 @@ public class InventoryRecord implements Serializable
      */
     public double getClaimedAmount()
     {
-        return this.claimedAmount;
+        return this.table.getClaimedAmount(this.slot);
     }
 
     /**
@@ -96,7 +90,7 @@ public class InventoryRecord implements Serializable
      */
     public double getOrderedAmount()
     {
-        return this.orderedAmount;
+        return this.table.getOrderedAmount(this.slot);
     }
 
     /**
@@ -115,8 +109,7 @@ public class InventoryRecord implements Serializable
      */
     public void setActualAmount(final double newActualAmount, final Money unitprice)
     {
-        this.actualAmount = newActualAmount;
-        this.costprice = unitprice.multiplyBy(newActualAmount);
+        this.table.setActualAmount(this.slot, newActualAmount, unitprice);
     }
 
     /**
@@ -125,7 +118,7 @@ public class InventoryRecord implements Serializable
      */
     public void setClaimedAmount(final double claimedAmount)
     {
-        this.claimedAmount = claimedAmount;
+        this.table.setClaimedAmount(this.slot, claimedAmount);
     }
 
     /**
@@ -134,7 +127,7 @@ public class InventoryRecord implements Serializable
      */
     public void setOrderedAmount(final double orderedAmount)
     {
-        this.orderedAmount = orderedAmount;
+        this.table.setOrderedAmount(this.slot, orderedAmount);
     }
 
     /**
@@ -144,8 +137,7 @@ public class InventoryRecord implements Serializable
      */
     public void addActualAmount(final double delta, final Money unitprice)
     {
-        this.actualAmount += delta;
-        this.costprice = this.costprice.plus(unitprice.multiplyBy(delta));
+        this.table.addActualAmount(this.slot, delta, unitprice);
     }
 
     /**
@@ -154,8 +146,7 @@ public class InventoryRecord implements Serializable
      */
     public void removeActualAmount(final double delta)
     {
-        this.costprice = this.costprice.minus(getUnitPrice().multiplyBy(delta));
-        this.actualAmount -= delta;
+        this.table.removeActualAmount(this.slot, delta);
     }
 
     /**
@@ -164,7 +155,7 @@ public class InventoryRecord implements Serializable
      */
     public void changeClaimedAmount(final double delta)
     {
-        this.claimedAmount += delta;
+        this.table.changeClaimedAmount(this.slot, delta);
     }
 
     /**
@@ -173,7 +164,7 @@ public class InventoryRecord implements Serializable
      */
     public void changeOrderedAmount(final double delta)
     {
-        this.orderedAmount += delta;
+        this.table.changeOrderedAmount(this.slot, delta);
     }
 
     /**
@@ -182,7 +173,16 @@ public class InventoryRecord implements Serializable
      */
     public Money getCostprice()
     {
-        return this.costprice;
+        return this.table.getCostprice(this.slot);
+    }
+
+    /**
+     * Return the money unit in which the costprice is expressed.
+     * @return MoneyUnit; the money unit of the costprice
+     */
+    public MoneyUnit getMoneyUnit()
+    {
+        return this.table.getMoneyUnit(this.slot);
     }
 
     /**
@@ -191,11 +191,7 @@ public class InventoryRecord implements Serializable
      */
     public Money getUnitPrice()
     {
-        if (this.actualAmount > 0.0)
-        {
-            return this.costprice.divideBy(this.actualAmount);
-        }
-        return this.product.getUnitMarketPrice();
+        return this.table.getUnitPrice(this.slot);
     }
 
     /**
@@ -203,19 +199,59 @@ public class InventoryRecord implements Serializable
      */
     public void setDailyDepreciation(final double dailyDepriciation)
     {
-        this.dailyDepreciation = dailyDepriciation;
+        this.table.setDailyDepreciation(this.slot, dailyDepriciation);
+    }
+
+    /**
+     * Apply the depreciation for the whole days that passed since the last update to the costprice, in closed form.
+     */
+    protected void updateDepreciation()
+    {
+        this.table.updateDepreciation(this.slot);
+    }
+
+    /**
+     * Return the depreciation that has not been booked on the bank account yet, and reset it, so the caller can book it.
+     * @return Money; the depreciation to book on the bank account
+     */
+    public Money takeUnbookedDepreciation()
+    {
+        return new Money(this.table.takeUnbookedDepreciation(this.slot), this.table.getMoneyUnit(this.slot));
+    }
+
+    /**
+     * Add the depreciation that has not been booked on the bank account yet to an accumulator, and reset it, so the caller
+     * can book the depreciation of several records at once.
+     * @param accumulator MoneyAccumulator; the accumulator to add the unbooked depreciation to
+     * @throws IllegalArgumentException when the money unit of the accumulator differs from the unit of the costprice
+     */
+    public void addUnbookedDepreciationTo(final MoneyAccumulator accumulator)
+    {
+        this.table.addUnbookedDepreciationTo(this.slot, accumulator);
+    }
+
+    /**
+     * Return whether the costprice of the products in this record still depreciates.
+     * @return boolean; whether the record has products with a value, and a non-zero depreciation factor
+     */
+    public boolean isDepreciating()
+    {
+        return this.table.isDepreciating(this.slot);
     }
 
     /**
-     * decrease the value of the inventory according to the current depreciation.
+     * Decrease the value of the inventory according to the current depreciation, and book the unbooked depreciation on the
+     * bank account of the owner right away.
      */
     protected void depreciate()
     {
         try
         {
-            this.costprice = this.costprice.multiplyBy(1.0 - this.dailyDepreciation);
-            this.owner.getBankAccount().withdrawFromBalance(this.costprice.multiplyBy(this.dailyDepreciation));
-            this.simulator.scheduleEventRel(new Duration(1.0, DurationUnit.DAY), this, "depreciate", null);
+            Money depreciation = takeUnbookedDepreciation();
+            if (depreciation.getAmount() != 0.0)
+            {
+                this.owner.getBankAccount().withdrawFromBalance(depreciation);
+            }
         }
         catch (Exception exception)
         {
@@ -0,0 +1,517 @@
+package nl.tudelft.simulation.supplychain.inventory;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyAccumulator;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.product.Product;
+
+/**
+ * InventoryTable stores the inventory information of an actor in a struct-of-arrays layout. The slot of a product is its dense
+ * index in the model (see Product.getIndex()), so the actual, claimed and ordered amounts and the costprice of a product are
+ * read and changed with an array access, without hashing the product. The InventoryRecords of an Inventory are views on a slot
+ * of the table.<br>
+ * <br>
+ * The costprice of the products depreciates with a daily factor, counted in whole days from the moment the product was added to
+ * the table. The depreciation is not carried out by a daily event, but calculated in closed form as
+ * <code>costprice * (1-d)^days</code> for the days that passed since the last time the costprice was read or changed. The amount
+ * that a daily booking of <code>costprice * d</code> after each daily step would have booked is kept as unbooked depreciation.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class InventoryTable implements Serializable, Checkpointable
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the number of seconds in a day. */
+    private static final double DAY_SI = 86400.0;
+
+    /** the simulator to calculate the depreciation. */
+    private final SupplyChainSimulatorInterface simulator;
+
+    /** the products per slot; null when the product is not in the table. */
+    private Product[] products;
+
+    /** the slots that are in use, in the order in which the products were added. */
+    private int[] order;
+
+    /** the number of products in the table. */
+    private int size = 0;
+
+    /** the amount currently on inventory per slot. */
+    private double[] actualAmount;
+
+    /** the amount that is claimed by orders, but not yet taken, per slot. */
+    private double[] claimedAmount;
+
+    /** the amount that has been ordered, but not yet delivered, per slot. */
+    private double[] orderedAmount;
+
+    /** the costprice of the total amount of products in inventory per slot, in the money unit of the slot. */
+    private double[] costprice;
+
+    /** the money unit of the costprice per slot. */
+    private MoneyUnit[] moneyUnit;
+
+    /** the costprice as a Money object per slot, made when it is asked for; null when the costprice changed. */
+    private Money[] costpriceMoney;
+
+    /** the depreciation factor per day per slot. */
+    private double[] dailyDepreciation;
+
+    /** the absolute simulator time in seconds from which the days of depreciation are counted, per slot. */
+    private double[] depreciationStartSi;
+
+    /** the number of days of depreciation that have been applied to the costprice, per slot. */
+    private long[] depreciationDays;
+
+    /** the depreciation that has been applied to the costprice, but has not been booked, per slot. */
+    private double[] unbookedDepreciation;
+
+    /**
+     * Create an inventory table with room for the given number of products. The table grows when a product with a higher index
+     * is added.
+     * @param simulator SupplyChainSimulatorInterface; the simulator to calculate the depreciation
+     * @param initialCapacity int; the number of product slots to reserve, e.g., the number of products in the model
+     */
+    public InventoryTable(final SupplyChainSimulatorInterface simulator, final int initialCapacity)
+    {
+        Throw.whenNull(simulator, "simulator cannot be null");
+        Throw.when(initialCapacity < 0, IllegalArgumentException.class, "initialCapacity cannot be negative");
+        this.simulator = simulator;
+        int capacity = Math.max(initialCapacity, 1);
+        this.products = new Product[capacity];
+        this.order = new int[capacity];
+        this.actualAmount = new double[capacity];
+        this.claimedAmount = new double[capacity];
+        this.orderedAmount = new double[capacity];
+        this.costprice = new double[capacity];
+        this.moneyUnit = new MoneyUnit[capacity];
+        this.costpriceMoney = new Money[capacity];
+        this.dailyDepreciation = new double[capacity];
+        this.depreciationStartSi = new double[capacity];
+        this.depreciationDays = new long[capacity];
+        this.unbookedDepreciation = new double[capacity];
+    }
+
+    /**
+     * Grow the arrays so the slot fits.
+     * @param slot int; the slot that has to fit in the arrays
+     */
+    private void ensureCapacity(final int slot)
+    {
+        if (slot < this.products.length)
+        {
+            return;
+        }
+        int capacity = Math.max(slot + 1, 2 * this.products.length);
+        this.products = Arrays.copyOf(this.products, capacity);
+        this.order = Arrays.copyOf(this.order, capacity);
+        this.actualAmount = Arrays.copyOf(this.actualAmount, capacity);
+        this.claimedAmount = Arrays.copyOf(this.claimedAmount, capacity);
+        this.orderedAmount = Arrays.copyOf(this.orderedAmount, capacity);
+        this.costprice = Arrays.copyOf(this.costprice, capacity);
+        this.moneyUnit = Arrays.copyOf(this.moneyUnit, capacity);
+        this.costpriceMoney = Arrays.copyOf(this.costpriceMoney, capacity);
+        this.dailyDepreciation = Arrays.copyOf(this.dailyDepreciation, capacity);
+        this.depreciationStartSi = Arrays.copyOf(this.depreciationStartSi, capacity);
+        this.depreciationDays = Arrays.copyOf(this.depreciationDays, capacity);
+        this.unbookedDepreciation = Arrays.copyOf(this.unbookedDepreciation, capacity);
+    }
+
+    /**
+     * Add a product to the table, with zero amounts and a zero costprice in USD. When the product is already in the table,
+     * nothing changes.
+     * @param product Product; the product to add
+     * @return int; the slot of the product
+     */
+    public int add(final Product product)
+    {
+        int slot = product.getIndex();
+        if (contains(slot))
+        {
+            return slot;
+        }
+        ensureCapacity(slot);
+        this.products[slot] = product;
+        this.order[this.size++] = slot;
+        this.moneyUnit[slot] = MoneyUnit.USD;
+        this.dailyDepreciation[slot] = product.getDepreciation();
+        this.depreciationStartSi[slot] = this.simulator.getAbsSimulatorTime().si;
+        return slot;
+    }
+
+    /**
+     * Return whether the slot contains a product.
+     * @param slot int; the slot, i.e., the index of the product
+     * @return boolean; whether the product has been added to the table
+     */
+    public boolean contains(final int slot)
+    {
+        return slot >= 0 && slot < this.products.length && this.products[slot] != null;
+    }
+
+    /**
+     * Return the number of products in the table.
+     * @return int; the number of products in the table
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Return the slot of the i-th product that was added to the table.
+     * @param i int; the sequence number of the product, between 0 and size() - 1
+     * @return int; the slot of the i-th product that was added
+     */
+    public int slotAt(final int i)
+    {
+        Throw.when(i < 0 || i >= this.size, IndexOutOfBoundsException.class, "index %d out of bounds", i);
+        return this.order[i];
+    }
+
+    /**
+     * Return the product in a slot.
+     * @param slot int; the slot
+     * @return Product; the product in the slot, or null when the slot is empty
+     */
+    public Product getProduct(final int slot)
+    {
+        return contains(slot) ? this.products[slot] : null;
+    }
+
+    /**
+     * Return the actual amount in a slot.
+     * @param slot int; the slot
+     * @return double; the actual amount, or 0.0 when the slot is empty
+     */
+    public double getActualAmount(final int slot)
+    {
+        return contains(slot) ? this.actualAmount[slot] : 0.0;
+    }
+
+    /**
+     * Return the claimed amount in a slot.
+     * @param slot int; the slot
+     * @return double; the claimed amount, or 0.0 when the slot is empty
+     */
+    public double getClaimedAmount(final int slot)
+    {
+        return contains(slot) ? this.claimedAmount[slot] : 0.0;
+    }
+
+    /**
+     * Return the ordered amount in a slot.
+     * @param slot int; the slot
+     * @return double; the ordered amount, or 0.0 when the slot is empty
+     */
+    public double getOrderedAmount(final int slot)
+    {
+        return contains(slot) ? this.orderedAmount[slot] : 0.0;
+    }
+
+    /**
+     * Set the claimed amount in a slot.
+     * @param slot int; the slot of a product in the table
+     * @param amount double; the new claimed amount
+     */
+    public void setClaimedAmount(final int slot, final double amount)
+    {
+        this.claimedAmount[slot] = amount;
+    }
+
+    /**
+     * Set the ordered amount in a slot.
+     * @param slot int; the slot of a product in the table
+     * @param amount double; the new ordered amount
+     */
+    public void setOrderedAmount(final int slot, final double amount)
+    {
+        this.orderedAmount[slot] = amount;
+    }
+
+    /**
+     * Change the claimed amount in a slot.
+     * @param slot int; the slot of a product in the table
+     * @param delta double; the change of the claimed amount (positive or negative)
+     */
+    public void changeClaimedAmount(final int slot, final double delta)
+    {
+        this.claimedAmount[slot] += delta;
+    }
+
+    /**
+     * Change the ordered amount in a slot.
+     * @param slot int; the slot of a product in the table
+     * @param delta double; the change of the ordered amount (positive or negative)
+     */
+    public void changeOrderedAmount(final int slot, final double delta)
+    {
+        this.orderedAmount[slot] += delta;
+    }
+
+    /**
+     * Set the actual amount in a slot, and the costprice to the unit price times the amount.
+     * @param slot int; the slot of a product in the table
+     * @param amount double; the new actual amount
+     * @param unitprice Money; the costprice per unit
+     */
+    public void setActualAmount(final int slot, final double amount, final Money unitprice)
+    {
+        updateDepreciation(slot);
+        this.actualAmount[slot] = amount;
+        this.costprice[slot] = unitprice.getAmount() * amount;
+        this.moneyUnit[slot] = unitprice.getMoneyUnit();
+        this.costpriceMoney[slot] = null;
+    }
+
+    /**
+     * Add to the actual amount in a slot, and add the unit price times the amount to the costprice.
+     * @param slot int; the slot of a product in the table
+     * @param delta double; the amount to add
+     * @param unitprice Money; the costprice per unit of the added products
+     * @throws IllegalArgumentException when the money unit of the unit price differs from the unit of the costprice
+     */
+    public void addActualAmount(final int slot, final double delta, final Money unitprice)
+    {
+        checkUnit(slot, unitprice.getMoneyUnit());
+        updateDepreciation(slot);
+        this.actualAmount[slot] += delta;
+        this.costprice[slot] += unitprice.getAmount() * delta;
+        this.costpriceMoney[slot] = null;
+    }
+
+    /**
+     * Remove from the actual amount in a slot, and decrease the costprice with the current unit price times the amount.
+     * @param slot int; the slot of a product in the table
+     * @param delta double; the amount to remove
+     */
+    public void removeActualAmount(final int slot, final double delta)
+    {
+        updateDepreciation(slot);
+        if (this.actualAmount[slot] > 0.0)
+        {
+            this.costprice[slot] -= this.costprice[slot] / this.actualAmount[slot] * delta;
+        }
+        else
+        {
+            Money marketPrice = this.products[slot].getUnitMarketPrice();
+            checkUnit(slot, marketPrice.getMoneyUnit());
+            this.costprice[slot] -= marketPrice.getAmount() * delta;
+        }
+        this.actualAmount[slot] -= delta;
+        this.costpriceMoney[slot] = null;
+    }
+
+    /**
+     * Check that the money unit is the same as the money unit of the costprice in the slot.
+     * @param slot int; the slot
+     * @param unit MoneyUnit; the unit to check
+     * @throws IllegalArgumentException when the units differ
+     */
+    private void checkUnit(final int slot, final MoneyUnit unit)
+    {
+        Throw.when(this.moneyUnit[slot] != unit && !this.moneyUnit[slot].equals(unit), IllegalArgumentException.class,
+                "unequal money units");
+    }
+
+    /**
+     * Return the costprice of the products in a slot, after depreciation.
+     * @param slot int; the slot of a product in the table
+     * @return double; the costprice in the money unit of the slot
+     */
+    public double getCostpriceAmount(final int slot)
+    {
+        updateDepreciation(slot);
+        return this.costprice[slot];
+    }
+
+    /**
+     * Return the costprice of the products in a slot, after depreciation, as a Money object. The object is only made once for
+     * each new value of the costprice.
+     * @param slot int; the slot of a product in the table
+     * @return Money; the costprice of the products in the slot
+     */
+    public Money getCostprice(final int slot)
+    {
+        updateDepreciation(slot);
+        if (this.costpriceMoney[slot] == null)
+        {
+            this.costpriceMoney[slot] = new Money(this.costprice[slot], this.moneyUnit[slot]);
+        }
+        return this.costpriceMoney[slot];
+    }
+
+    /**
+     * Return the money unit of the costprice in a slot.
+     * @param slot int; the slot of a product in the table
+     * @return MoneyUnit; the money unit of the costprice
+     */
+    public MoneyUnit getMoneyUnit(final int slot)
+    {
+        return this.moneyUnit[slot];
+    }
+
+    /**
+     * Return the costprice per unit of the products in a slot, or the market price when there are no products in inventory.
+     * @param slot int; the slot of a product in the table
+     * @return Money; the costprice per unit
+     */
+    public Money getUnitPrice(final int slot)
+    {
+        if (this.actualAmount[slot] > 0.0)
+        {
+            return new Money(getCostpriceAmount(slot) / this.actualAmount[slot], this.moneyUnit[slot]);
+        }
+        return this.products[slot].getUnitMarketPrice();
+    }
+
+    /**
+     * Set the depreciation factor per day for a slot. The depreciation until now is applied with the old factor.
+     * @param slot int; the slot of a product in the table
+     * @param depreciation double; the new depreciation factor per day
+     */
+    public void setDailyDepreciation(final int slot, final double depreciation)
+    {
+        updateDepreciation(slot);
+        this.dailyDepreciation[slot] = depreciation;
+    }
+
+    /**
+     * Apply the depreciation for the whole days that passed since the last update to the costprice of a slot, in closed form.
+     * The amount to book is the same as the sum of the daily bookings of <code>costprice * d</code> after each daily step, i.e.,
+     * <code>(1-d) * (old costprice - new costprice)</code>.
+     * @param slot int; the slot of a product in the table
+     */
+    public void updateDepreciation(final int slot)
+    {
+        long days = (long) Math.floor((this.simulator.getAbsSimulatorTime().si - this.depreciationStartSi[slot]) / DAY_SI);
+        long newDays = days - this.depreciationDays[slot];
+        if (newDays <= 0)
+        {
+            return;
+        }
+        this.depreciationDays[slot] = days;
+        double oldAmount = this.costprice[slot];
+        double d = this.dailyDepreciation[slot];
+        if (d == 0.0 || oldAmount == 0.0)
+        {
+            return;
+        }
+        double newAmount = oldAmount * Math.pow(1.0 - d, newDays);
+        this.costprice[slot] = newAmount;
+        this.costpriceMoney[slot] = null;
+        this.unbookedDepreciation[slot] += (1.0 - d) * (oldAmount - newAmount);
+    }
+
+    /**
+     * Return the depreciation of a slot that has not been booked yet, and reset it.
+     * @param slot int; the slot of a product in the table
+     * @return double; the unbooked depreciation in the money unit of the slot
+     */
+    public double takeUnbookedDepreciation(final int slot)
+    {
+        updateDepreciation(slot);
+        double depreciation = this.unbookedDepreciation[slot];
+        this.unbookedDepreciation[slot] = 0.0;
+        return depreciation;
+    }
+
+    /**
+     * Add the depreciation of a slot that has not been booked yet to an accumulator, and reset it.
+     * @param slot int; the slot of a product in the table
+     * @param accumulator MoneyAccumulator; the accumulator to add the unbooked depreciation to
+     * @throws IllegalArgumentException when the money unit of the accumulator differs from the unit of the costprice
+     */
+    public void addUnbookedDepreciationTo(final int slot, final MoneyAccumulator accumulator)
+    {
+        accumulator.add(takeUnbookedDepreciation(slot), this.moneyUnit[slot]);
+    }
+
+    /**
+     * Return whether the costprice of the products in a slot still depreciates.
+     * @param slot int; the slot of a product in the table
+     * @return boolean; whether the slot has products with a value, and a non-zero depreciation factor
+     */
+    public boolean isDepreciating(final int slot)
+    {
+        return this.dailyDepreciation[slot] != 0.0 && this.actualAmount[slot] > 0.0 && this.costprice[slot] != 0.0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeCheckpoint(final CheckpointOutput out) throws IOException
+    {
+        out.writeInt(this.size);
+        for (int i = 0; i < this.size; i++)
+        {
+            int slot = this.order[i];
+            out.writeValue(this.products[slot]);
+            out.writeDouble(this.actualAmount[slot]);
+            out.writeDouble(this.claimedAmount[slot]);
+            out.writeDouble(this.orderedAmount[slot]);
+            out.writeDouble(this.costprice[slot]);
+            out.writeValue(this.moneyUnit[slot]);
+            out.writeDouble(this.dailyDepreciation[slot]);
+            out.writeDouble(this.depreciationStartSi[slot]);
+            out.writeLong(this.depreciationDays[slot]);
+            out.writeDouble(this.unbookedDepreciation[slot]);
+        }
+    }
+
+    /**
+     * {@inheritDoc} The products that are in the table, but not in the checkpoint, are removed from the table.
+     */
+    @Override
+    public void readCheckpoint(final CheckpointInput in) throws IOException
+    {
+        Arrays.fill(this.products, null);
+        Arrays.fill(this.actualAmount, 0.0);
+        Arrays.fill(this.claimedAmount, 0.0);
+        Arrays.fill(this.orderedAmount, 0.0);
+        Arrays.fill(this.costprice, 0.0);
+        Arrays.fill(this.moneyUnit, null);
+        Arrays.fill(this.costpriceMoney, null);
+        Arrays.fill(this.dailyDepreciation, 0.0);
+        Arrays.fill(this.depreciationStartSi, 0.0);
+        Arrays.fill(this.depreciationDays, 0L);
+        Arrays.fill(this.unbookedDepreciation, 0.0);
+        this.size = 0;
+        int newSize = in.readInt();
+        for (int i = 0; i < newSize; i++)
+        {
+            int slot = add((Product) in.readValue());
+            this.actualAmount[slot] = in.readDouble();
+            this.claimedAmount[slot] = in.readDouble();
+            this.orderedAmount[slot] = in.readDouble();
+            this.costprice[slot] = in.readDouble();
+            this.moneyUnit[slot] = (MoneyUnit) in.readValue();
+            this.dailyDepreciation[slot] = in.readDouble();
+            this.depreciationStartSi[slot] = in.readDouble();
+            this.depreciationDays[slot] = in.readLong();
+            this.unbookedDepreciation[slot] = in.readDouble();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "InventoryTable [size=" + this.size + "]";
+    }
+
+}
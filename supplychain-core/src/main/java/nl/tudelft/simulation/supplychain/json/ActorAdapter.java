@@ -1,28 +1,27 @@
 package nl.tudelft.simulation.supplychain.json;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import nl.tudelft.simulation.supplychain.actor.Actor;
 import nl.tudelft.simulation.supplychain.actor.ActorNotFoundException;
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
 
 /**
- * Serialize and deserialize Actor with GSON, without reinstantiating the Actor.
+ * Serialize and deserialize Actor with GSON, without reinstantiating the Actor. The id of the actor is written to and read from
+ * the JSON stream directly.
  * <p>
  * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
  * </p>
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class ActorAdapter implements JsonSerializer<Actor>, JsonDeserializer<Actor>
+public class ActorAdapter extends TypeAdapter<Actor>
 {
     /** the model to get, e.g., the Actor map to (de)serialize the message sender and receiver. */
     private final SupplyChainModelInterface model;
@@ -38,12 +37,16 @@ public class ActorAdapter implements JsonSerializer<Actor>, JsonDeserializer<Act
 
     /** {@inheritDoc} */
     @Override
-    public Actor deserialize(final JsonElement json, final Type typeOfT, final JsonDeserializationContext context)
-            throws JsonParseException
+    public Actor read(final JsonReader in) throws IOException
     {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
         try
         {
-            return this.model.getActor(json.getAsJsonPrimitive().getAsString());
+            return this.model.getActor(in.nextString());
         }
         catch (ActorNotFoundException e)
         {
@@ -53,8 +56,13 @@ public class ActorAdapter implements JsonSerializer<Actor>, JsonDeserializer<Act
 
     /** {@inheritDoc} */
     @Override
-    public JsonElement serialize(final Actor src, final Type typeOfSrc, final JsonSerializationContext context)
+    public void write(final JsonWriter out, final Actor src) throws IOException
     {
-        return new JsonPrimitive(src.getId());
+        if (src == null)
+        {
+            out.nullValue();
+            return;
+        }
+        out.value(src.getId());
     }
 }
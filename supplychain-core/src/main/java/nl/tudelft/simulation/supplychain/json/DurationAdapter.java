@@ -1,16 +1,13 @@
 package nl.tudelft.simulation.supplychain.json;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 import org.djunits.value.vdouble.scalar.Duration;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Serialize and deserialize Duration with GSON.
@@ -20,20 +17,29 @@ import com.google.gson.JsonSerializer;
  * </p>
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class DurationAdapter implements JsonSerializer<Duration>, JsonDeserializer<Duration>
+public class DurationAdapter extends TypeAdapter<Duration>
 {
     /** {@inheritDoc} */
     @Override
-    public Duration deserialize(final JsonElement json, final Type typeOfT, final JsonDeserializationContext context)
-            throws JsonParseException
+    public Duration read(final JsonReader in) throws IOException
     {
-        return Duration.valueOf(json.getAsJsonPrimitive().getAsString());
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+        return Duration.valueOf(in.nextString());
     }
 
     /** {@inheritDoc} */
     @Override
-    public JsonElement serialize(final Duration src, final Type typeOfSrc, final JsonSerializationContext context)
+    public void write(final JsonWriter out, final Duration src) throws IOException
     {
-        return new JsonPrimitive(src.getInUnit() + " " + src.getDisplayUnit());
+        if (src == null)
+        {
+            out.nullValue();
+            return;
+        }
+        out.value(src.getInUnit() + " " + src.getDisplayUnit());
     }
 }
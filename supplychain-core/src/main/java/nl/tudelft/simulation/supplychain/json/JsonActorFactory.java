@@ -1,7 +1,7 @@
 package nl.tudelft.simulation.supplychain.json;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.djunits.value.vdouble.scalar.Duration;
 import org.djunits.value.vdouble.scalar.Time;
@@ -11,9 +11,11 @@ import com.google.gson.GsonBuilder;
 
 import nl.tudelft.simulation.supplychain.actor.Actor;
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.product.Product;
 
 /**
- * JsonMessageFactory allows serializing and deserializing of any Message using the GSON library. This class can be extended to
+ * JsonActorFactory allows serializing and deserializing of the fields of objects such as messages using the GSON library. Actors
+ * and products are written as their id and name. The output is compact, without pretty printing. This class can be extended to
  * add more type adapters.
  * <p>
  * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
@@ -29,8 +31,8 @@ public final class JsonActorFactory
     /** the model to get, e.g., the Actor map to (de)serialize the message sender and receiver. */
     private final SupplyChainModelInterface model;
 
-    /** static map of JsonMessageFactory singletons per model. */
-    private static final Map<SupplyChainModelInterface, JsonActorFactory> INSTANCE_MAP = new LinkedHashMap<>();
+    /** static map of JsonActorFactory singletons per model; models in parallel replications can use it concurrently. */
+    private static final Map<SupplyChainModelInterface, JsonActorFactory> INSTANCE_MAP = new ConcurrentHashMap<>();
 
     /**
      * Create a JsonMessageFactory with the special type adapters.
@@ -40,9 +42,10 @@ public final class JsonActorFactory
     {
         this.model = model;
         GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.setPrettyPrinting();
+        gsonBuilder.setFieldNamingStrategy(new ShadowedFieldNamingStrategy());
         gsonBuilder.registerTypeAdapter(Duration.class, new DurationAdapter());
         gsonBuilder.registerTypeAdapter(Time.class, new TimeAdapter());
+        gsonBuilder.registerTypeAdapter(Product.class, new ProductAdapter(this.model));
         gsonBuilder.registerTypeHierarchyAdapter(Actor.class, new ActorAdapter(this.model));
         registerTypeAdapters();
         this.gson = gsonBuilder.create();
@@ -72,12 +75,16 @@ public final class JsonActorFactory
      */
     public static Gson instance(final SupplyChainModelInterface model)
     {
-        if (!INSTANCE_MAP.containsKey(model))
-        {
-            JsonActorFactory factory = new JsonActorFactory(model);
-            INSTANCE_MAP.put(model, factory);
-        }
-        return INSTANCE_MAP.get(model).getGson();
+        return INSTANCE_MAP.computeIfAbsent(model, m -> new JsonActorFactory(m)).getGson();
+    }
+
+    /**
+     * Remove the singleton instance for the model, e.g., at the end of a replication, so the model can be garbage collected.
+     * @param model SupplyChainModelInterface; the model for which to remove the Gson object
+     */
+    public static void release(final SupplyChainModelInterface model)
+    {
+        INSTANCE_MAP.remove(model);
     }
 
 }
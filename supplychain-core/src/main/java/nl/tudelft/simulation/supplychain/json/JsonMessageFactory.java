@@ -1,17 +1,18 @@
 package nl.tudelft.simulation.supplychain.json;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
-import nl.tudelft.simulation.supplychain.message.Message;
 
 /**
  * JsonMessageFactory allows serializing and deserializing of any Message using the GSON library. This class can be extended to
- * add more type adapters. The Factory uses the JsonActorFactory to (de)serialize the fields.
+ * add more type adapters. The Factory uses the type adapters of the JsonActorFactory to (de)serialize the fields, and writes
+ * each message with a short type tag in compact form. The messages are streamed to the JSON output without an intermediate
+ * JsonElement tree, which makes it suitable for exporting large numbers of messages with the JsonMessageWriter.
  * <p>
  * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
@@ -26,8 +27,8 @@ public final class JsonMessageFactory
     /** the model to get, e.g., the Actor map to (de)serialize the message sender and receiver. */
     private final SupplyChainModelInterface model;
 
-    /** static map of JsonMessageFactory singletons per model. */
-    private static final Map<SupplyChainModelInterface, JsonMessageFactory> INSTANCE_MAP = new LinkedHashMap<>();
+    /** static map of JsonMessageFactory singletons per model; models in parallel replications can use it concurrently. */
+    private static final Map<SupplyChainModelInterface, JsonMessageFactory> INSTANCE_MAP = new ConcurrentHashMap<>();
 
     /**
      * Create a JsonMessageFactory with the special type adapters.
@@ -36,9 +37,8 @@ public final class JsonMessageFactory
     public JsonMessageFactory(final SupplyChainModelInterface model)
     {
         this.model = model;
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.setPrettyPrinting();
-        gsonBuilder.registerTypeHierarchyAdapter(Message.class, new MessageAdapter(this.model));
+        GsonBuilder gsonBuilder = new JsonActorFactory(this.model).getGson().newBuilder();
+        gsonBuilder.registerTypeAdapterFactory(new MessageAdapter());
         registerTypeAdapters();
         this.gson = gsonBuilder.create();
     }
@@ -67,12 +67,16 @@ public final class JsonMessageFactory
      */
     public static Gson instance(final SupplyChainModelInterface model)
     {
-        if (!INSTANCE_MAP.containsKey(model))
-        {
-            JsonMessageFactory factory = new JsonMessageFactory(model);
-            INSTANCE_MAP.put(model, factory);
-        }
-        return INSTANCE_MAP.get(model).getGson();
+        return INSTANCE_MAP.computeIfAbsent(model, m -> new JsonMessageFactory(m)).getGson();
+    }
+
+    /**
+     * Remove the singleton instance for the model, e.g., at the end of a replication, so the model can be garbage collected.
+     * @param model SupplyChainModelInterface; the model for which to remove the Gson object
+     */
+    public static void release(final SupplyChainModelInterface model)
+    {
+        INSTANCE_MAP.remove(model);
     }
 
 }
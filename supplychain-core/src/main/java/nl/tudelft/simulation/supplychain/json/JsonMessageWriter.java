@@ -0,0 +1,221 @@
+package nl.tudelft.simulation.supplychain.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.djutils.exceptions.Throw;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.Message;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStoreInterface;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
+import nl.tudelft.simulation.supplychain.trace.TraceReader;
+
+/**
+ * JsonMessageWriter exports messages as newline-delimited JSON (NDJSON): one compact JSON object per line. Messages are written
+ * with the Gson object of the JsonMessageFactory of the model, and the records of a trace are written field by field. Each
+ * object is streamed to the writer, so exporting all messages of a message store or all records of a trace only keeps one
+ * message or record in memory at a time.<br>
+ * <br>
+ * A record of a trace is written with the simulator time <code>t</code> and the <code>kind</code> of the record, and the fields
+ * of the kind: the <code>type</code> of the message, the <code>sender</code>, <code>receiver</code>, <code>product</code>,
+ * <code>amount</code>, <code>price</code>, money <code>unit</code>, internal <code>demand</code> id and unique <code>id</code>
+ * of a message; the <code>actor</code>, <code>product</code>, and <code>actual</code>, <code>claimed</code> and
+ * <code>ordered</code> amounts of an inventory change; and the <code>actor</code>, <code>balance</code> and money
+ * <code>unit</code> of a bank account change. Fields without a value are left out.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class JsonMessageWriter implements Closeable, Flushable
+{
+    /** the Gson object with the type adapters of the model. */
+    private final Gson gson;
+
+    /** the adapter for the messages. */
+    private final TypeAdapter<Message> messageAdapter;
+
+    /** the writer to write the lines to. */
+    private final Writer writer;
+
+    /** the number of lines that have been written. */
+    private long numberOfLines = 0;
+
+    /**
+     * Create a writer that writes the lines to a writer.
+     * @param model SupplyChainModelInterface; the model of the messages
+     * @param writer Writer; the writer to write the lines to, preferably buffered
+     */
+    public JsonMessageWriter(final SupplyChainModelInterface model, final Writer writer)
+    {
+        Throw.whenNull(model, "model cannot be null");
+        Throw.whenNull(writer, "writer cannot be null");
+        this.gson = JsonMessageFactory.instance(model);
+        this.messageAdapter = this.gson.getAdapter(Message.class);
+        this.writer = writer;
+    }
+
+    /**
+     * Create a writer that writes the lines to a UTF-8 file, which is replaced when it exists.
+     * @param model SupplyChainModelInterface; the model of the messages
+     * @param path Path; the file to write the lines to
+     * @throws IOException when the file cannot be created
+     */
+    public JsonMessageWriter(final SupplyChainModelInterface model, final Path path) throws IOException
+    {
+        this(model, Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write a message as one line.
+     * @param message Message; the message
+     * @throws IOException on write error
+     */
+    public void write(final Message message) throws IOException
+    {
+        this.messageAdapter.write(this.gson.newJsonWriter(this.writer), message);
+        endLine();
+    }
+
+    /**
+     * Write all messages of a message store, one message per line.
+     * @param messageStore TradeMessageStoreInterface; the message store
+     * @return long; the number of messages that have been written
+     * @throws IOException on write error
+     */
+    public long write(final TradeMessageStoreInterface messageStore) throws IOException
+    {
+        long start = this.numberOfLines;
+        try
+        {
+            messageStore.forEachMessage((message) ->
+            {
+                try
+                {
+                    write(message);
+                }
+                catch (IOException exception)
+                {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        }
+        catch (UncheckedIOException exception)
+        {
+            throw exception.getCause();
+        }
+        return this.numberOfLines - start;
+    }
+
+    /**
+     * Write the remaining records of a trace, one record per line.
+     * @param reader TraceReader; the reader of the trace
+     * @return long; the number of records that have been written
+     * @throws IOException on read or write error
+     */
+    public long write(final TraceReader reader) throws IOException
+    {
+        long start = this.numberOfLines;
+        List<String> actorIds = reader.getActorIds();
+        List<String> productNames = reader.getProductNames();
+        List<MoneyUnit> moneyUnits = reader.getMoneyUnits();
+        while (reader.next())
+        {
+            JsonWriter out = this.gson.newJsonWriter(this.writer);
+            out.beginObject();
+            out.name("t").value(reader.getTime());
+            byte kind = reader.getKind();
+            switch (kind)
+            {
+                case MessageTraceRecorder.KIND_INVENTORY:
+                    out.name("kind").value("INVENTORY");
+                    out.name("actor").value(actorIds.get(reader.getSender()));
+                    out.name("product").value(productNames.get(reader.getProduct()));
+                    out.name("actual").value(reader.getAmount());
+                    out.name("claimed").value(reader.getPrice());
+                    out.name("ordered").value(reader.getOrderedAmount());
+                    break;
+
+                case MessageTraceRecorder.KIND_BANK_ACCOUNT:
+                    out.name("kind").value("BANK_ACCOUNT");
+                    out.name("actor").value(actorIds.get(reader.getSender()));
+                    out.name("balance").value(reader.getPrice());
+                    out.name("unit").value(moneyUnits.get(reader.getMoneyUnit()).getName());
+                    break;
+
+                default:
+                    out.name("kind").value(kind == MessageTraceRecorder.KIND_SENT ? "SENT" : "RECEIVED");
+                    out.name("type").value(reader.getType().name());
+                    out.name("sender").value(actorIds.get(reader.getSender()));
+                    out.name("receiver").value(actorIds.get(reader.getReceiver()));
+                    if (reader.getProduct() >= 0)
+                    {
+                        out.name("product").value(productNames.get(reader.getProduct()));
+                    }
+                    if (!Double.isNaN(reader.getAmount()))
+                    {
+                        out.name("amount").value(reader.getAmount());
+                    }
+                    if (reader.getMoneyUnit() >= 0)
+                    {
+                        out.name("price").value(reader.getPrice());
+                        out.name("unit").value(moneyUnits.get(reader.getMoneyUnit()).getName());
+                    }
+                    out.name("demand").value(reader.getInternalDemandId());
+                    out.name("id").value(reader.getMessageId());
+                    break;
+            }
+            out.endObject();
+            endLine();
+        }
+        return this.numberOfLines - start;
+    }
+
+    /**
+     * End the line of a JSON object.
+     * @throws IOException on write error
+     */
+    private void endLine() throws IOException
+    {
+        this.writer.write('\n');
+        this.numberOfLines++;
+    }
+
+    /**
+     * Return the number of lines that have been written.
+     * @return long; the number of lines
+     */
+    public long getNumberOfLines()
+    {
+        return this.numberOfLines;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() throws IOException
+    {
+        this.writer.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException
+    {
+        this.writer.close();
+    }
+
+}
@@ -1,52 +1,111 @@
 package nl.tudelft.simulation.supplychain.json;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
 import nl.tudelft.simulation.supplychain.message.Message;
+import nl.tudelft.simulation.supplychain.message.trade.Bill;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.OrderBasedOnQuote;
+import nl.tudelft.simulation.supplychain.message.trade.OrderConfirmation;
+import nl.tudelft.simulation.supplychain.message.trade.OrderStandalone;
+import nl.tudelft.simulation.supplychain.message.trade.Payment;
+import nl.tudelft.simulation.supplychain.message.trade.ProductionOrder;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.message.trade.Shipment;
+import nl.tudelft.simulation.supplychain.message.trade.YellowPageAnswer;
+import nl.tudelft.simulation.supplychain.message.trade.YellowPageRequest;
 
 /**
- * Serialize and deserialize a Message (sub)class with GSON.
+ * Serialize and deserialize a Message (sub)class with GSON. A message is written as an object with the type tag of its class as
+ * <code>messageType</code>, and the fields of the message as <code>content</code>. The trade messages of the library have
+ * their simple class name as a short type tag, e.g., <code>Quote</code>; other messages have their fully qualified class name.
+ * Both forms of the type tag can be read.<br>
+ * <br>
+ * The adapter is a TypeAdapterFactory, so the fields of the message are streamed to the JsonWriter by the reflective adapter of
+ * the message class, without building a JsonElement tree, and messages in the fields of a message, such as the Order of a
+ * Shipment, also get their type tag.
  * <p>
  * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
  * </p>
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class MessageAdapter implements JsonSerializer<Message>, JsonDeserializer<Message>
+public class MessageAdapter implements TypeAdapterFactory
 {
-    /** the model to get, e.g., the Actor map to (de)serialize the message sender and receiver. */
-    private final SupplyChainModelInterface model;
+    /** the message classes with a short type tag, with the tag as the key. */
+    private static final Map<String, Class<? extends Message>> SHORT_TAG_MAP = new HashMap<>();
+
+    static
+    {
+        for (Class<? extends Message> messageClass : List.<Class<? extends Message>>of(InternalDemand.class,
+                RequestForQuote.class, Quote.class, OrderBasedOnQuote.class, OrderStandalone.class, OrderConfirmation.class,
+                Shipment.class, Bill.class, Payment.class, ProductionOrder.class, YellowPageRequest.class,
+                YellowPageAnswer.class))
+        {
+            SHORT_TAG_MAP.put(messageClass.getSimpleName(), messageClass);
+        }
+    }
+
+    /** the type tag of a message class, computed once per class. */
+    private static final ClassValue<String> TYPE_TAG = new ClassValue<String>()
+    {
+        @Override
+        protected String computeValue(final Class<?> type)
+        {
+            return SHORT_TAG_MAP.get(type.getSimpleName()) == type ? type.getSimpleName() : type.getName();
+        }
+    };
 
     /**
-     * Create the Message adapter.
-     * @param model the model to get the JsonActorFactory
+     * Return the type tag of a message class.
+     * @param messageClass Class&lt;? extends Message&gt;; the message class
+     * @return String; the short type tag of a trade message of the library, or the fully qualified class name
      */
-    public MessageAdapter(final SupplyChainModelInterface model)
+    public static String getTypeTag(final Class<? extends Message> messageClass)
     {
-        this.model = model;
+        return TYPE_TAG.get(messageClass);
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public Message deserialize(final JsonElement json, final Type typeOfT, final JsonDeserializationContext context)
-            throws JsonParseException
+    /**
+     * Return the message class of a type tag. A class that is given by its fully qualified name is loaded without being
+     * initialized, and is only used when it is a message class, so a type tag in the input cannot run the static initializer
+     * of an arbitrary class.
+     * @param typeTag String; the short type tag, or the fully qualified class name
+     * @return Class&lt;? extends Message&gt;; the message class
+     * @throws JsonParseException when the type tag does not belong to a message class
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends Message> getMessageClass(final String typeTag) throws JsonParseException
     {
+        Class<? extends Message> messageClass = SHORT_TAG_MAP.get(typeTag);
+        if (messageClass != null)
+        {
+            return messageClass;
+        }
         try
         {
-            JsonObject wrapper = (JsonObject) json;
-            JsonElement type = wrapper.get("messageType");
-            JsonElement content = wrapper.get("content");
-            Type actualType = Class.forName(type.getAsString());
-            return JsonActorFactory.instance(this.model).fromJson(content, actualType);
+            Class<?> type = Class.forName(typeTag, false, MessageAdapter.class.getClassLoader());
+            if (!Message.class.isAssignableFrom(type))
+            {
+                throw new JsonParseException(typeTag + " is not a message class");
+            }
+            return (Class<? extends Message>) type;
         }
         catch (ClassNotFoundException e)
         {
@@ -56,11 +115,108 @@ public class MessageAdapter implements JsonSerializer<Message>, JsonDeserializer
 
     /** {@inheritDoc} */
     @Override
-    public JsonElement serialize(final Message src, final Type typeOfSrc, final JsonSerializationContext context)
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type)
     {
-        final JsonObject wrapper = new JsonObject();
-        wrapper.addProperty("messageType", src.getClass().getName());
-        wrapper.add("content", JsonActorFactory.instance(this.model).toJsonTree(src));
-        return wrapper;
+        if (!Message.class.isAssignableFrom(type.getRawType()))
+        {
+            return null;
+        }
+        return (TypeAdapter<T>) new TaggedMessageAdapter(gson);
+    }
+
+    /** Adapter that writes and reads the type tag and the content of a message. */
+    private class TaggedMessageAdapter extends TypeAdapter<Message>
+    {
+        /** the Gson object that creates the adapters for the content. */
+        private final Gson gson;
+
+        /** the adapters for the content of each message class. */
+        private final Map<Class<?>, TypeAdapter<Message>> contentAdapters = new ConcurrentHashMap<>();
+
+        /**
+         * Create the adapter for the messages of a Gson object.
+         * @param gson Gson; the Gson object that creates the adapters for the content
+         */
+        TaggedMessageAdapter(final Gson gson)
+        {
+            this.gson = gson;
+        }
+
+        /**
+         * Return the adapter for the fields of a message class, which is the adapter after this factory, usually the
+         * reflective adapter.
+         * @param messageClass Class&lt;? extends Message&gt;; the message class
+         * @return TypeAdapter&lt;Message&gt;; the adapter for the content
+         */
+        @SuppressWarnings("unchecked")
+        private TypeAdapter<Message> contentAdapter(final Class<? extends Message> messageClass)
+        {
+            TypeAdapter<Message> adapter = this.contentAdapters.get(messageClass);
+            if (adapter == null)
+            {
+                adapter = (TypeAdapter<Message>) this.gson.getDelegateAdapter(MessageAdapter.this, TypeToken.get(messageClass));
+                this.contentAdapters.put(messageClass, adapter);
+            }
+            return adapter;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(final JsonWriter out, final Message src) throws IOException
+        {
+            if (src == null)
+            {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("messageType").value(TYPE_TAG.get(src.getClass()));
+            out.name("content");
+            contentAdapter(src.getClass()).write(out, src);
+            out.endObject();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Message read(final JsonReader in) throws IOException
+        {
+            if (in.peek() == JsonToken.NULL)
+            {
+                in.nextNull();
+                return null;
+            }
+            Class<? extends Message> messageClass = null;
+            Message message = null;
+            JsonElement content = null;
+            in.beginObject();
+            while (in.hasNext())
+            {
+                String name = in.nextName();
+                if ("messageType".equals(name))
+                {
+                    messageClass = getMessageClass(in.nextString());
+                }
+                else if ("content".equals(name) && messageClass != null)
+                {
+                    message = contentAdapter(messageClass).read(in);
+                }
+                else if ("content".equals(name))
+                {
+                    // the type tag comes after the content, so the content has to be parsed first
+                    content = JsonParser.parseReader(in);
+                }
+                else
+                {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            if (messageClass == null)
+            {
+                throw new JsonParseException("message without messageType");
+            }
+            return content == null ? message : contentAdapter(messageClass).fromJsonTree(content);
+        }
     }
 }
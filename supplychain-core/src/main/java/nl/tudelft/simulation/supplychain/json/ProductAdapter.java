@@ -0,0 +1,68 @@
+package nl.tudelft.simulation.supplychain.json;
+
+import java.io.IOException;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.product.Product;
+
+/**
+ * Serialize and deserialize Product with GSON, without reinstantiating the Product. The product is written as its name, and
+ * read as the product with that name in the model, so the bill of materials of the product is not written with every message.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ProductAdapter extends TypeAdapter<Product>
+{
+    /** the model with the products. */
+    private final SupplyChainModelInterface model;
+
+    /**
+     * Create the Product adapter.
+     * @param model the model with the products to deserialize the Product
+     */
+    public ProductAdapter(final SupplyChainModelInterface model)
+    {
+        this.model = model;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Product read(final JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+        String name = in.nextString();
+        for (Product product : this.model.getProducts())
+        {
+            if (product.getName().equals(name))
+            {
+                return product;
+            }
+        }
+        throw new JsonParseException("product " + name + " not found in the model");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final JsonWriter out, final Product src) throws IOException
+    {
+        if (src == null)
+        {
+            out.nullValue();
+            return;
+        }
+        out.value(src.getName());
+    }
+}
@@ -0,0 +1,38 @@
+package nl.tudelft.simulation.supplychain.json;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import com.google.gson.FieldNamingStrategy;
+
+/**
+ * Field naming strategy that keeps the name of a field, unless a superclass has a field with the same name. GSON cannot
+ * serialize a class with two fields with the same name, such as the internalDemandId of the InternalDemand and of the
+ * TradeMessage. A field that shadows a field of a superclass is therefore named with the simple name of its class as a prefix,
+ * e.g., <code>InternalDemand.internalDemandId</code>.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ShadowedFieldNamingStrategy implements FieldNamingStrategy
+{
+    /** {@inheritDoc} */
+    @Override
+    public String translateName(final Field field)
+    {
+        for (Class<?> superclass = field.getDeclaringClass().getSuperclass(); superclass != null; superclass =
+                superclass.getSuperclass())
+        {
+            for (Field superField : superclass.getDeclaredFields())
+            {
+                if (superField.getName().equals(field.getName()) && !Modifier.isStatic(superField.getModifiers()))
+                {
+                    return field.getDeclaringClass().getSimpleName() + "." + field.getName();
+                }
+            }
+        }
+        return field.getName();
+    }
+}
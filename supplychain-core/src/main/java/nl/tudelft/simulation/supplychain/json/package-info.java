@@ -1,5 +1,6 @@
 /**
- * JSON parser for messages, using adapters for special types.
+ * JSON parser for messages, using adapters for special types. The adapters stream the messages to and from JSON in compact
+ * form, and the JsonMessageWriter exports the messages of a message store or the records of a trace as newline-delimited JSON.
  * <p>
  * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
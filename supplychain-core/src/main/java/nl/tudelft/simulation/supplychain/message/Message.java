@@ -32,6 +32,18 @@ public abstract class Message implements Serializable
     /** the unqiue message id. */
     private final long uniqueId;
 
+    /**
+     * Create an empty message for the ModelCheckpoint, which sets the fields when it reads the message from a checkpoint. Every
+     * message class that can be stored in a checkpoint needs a constructor without arguments that calls this constructor.
+     */
+    protected Message()
+    {
+        this.sender = null;
+        this.receiver = null;
+        this.timestamp = null;
+        this.uniqueId = 0L;
+    }
+
     /**
      * Construct a new message.
      * @param sender Actor; the sender (necessary for a possible reply)
@@ -0,0 +1,77 @@
+package nl.tudelft.simulation.supplychain.message;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.AbstractSimEvent;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEventInterface;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+
+/**
+ * MessageDeliveryEvent is a typed simulation event that delivers a message to the receiving actor. Contrary to a SimEvent
+ * that is scheduled with a method name, the event calls Actor.receiveMessage directly, so no method lookup and reflective
+ * invocation take place for each message that is delivered.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class MessageDeliveryEvent extends AbstractSimEvent<Duration>
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the actor that receives the message. */
+    private final Actor receiver;
+
+    /** the message to deliver. */
+    private final Message message;
+
+    /**
+     * Create a delivery event for a message, to be executed at the given (relative to the start of the replication) time.
+     * @param absoluteExecutionTime Duration; the simulation time at which the message arrives at the receiver
+     * @param message Message; the message to deliver to its receiver
+     */
+    public MessageDeliveryEvent(final Duration absoluteExecutionTime, final Message message)
+    {
+        super(absoluteExecutionTime, SimEventInterface.NORMAL_PRIORITY);
+        Throw.whenNull(message, "message cannot be null");
+        this.receiver = message.getReceiver();
+        this.message = message;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void execute()
+    {
+        this.receiver.receiveMessage(this.message);
+    }
+
+    /**
+     * Return the actor that receives the message.
+     * @return Actor; the actor that receives the message
+     */
+    public Actor getReceiver()
+    {
+        return this.receiver;
+    }
+
+    /**
+     * Return the message that is delivered.
+     * @return Message; the message that is delivered
+     */
+    public Message getMessage()
+    {
+        return this.message;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "MessageDeliveryEvent[time=" + this.absoluteExecutionTime + ", receiver=" + this.receiver + ", message="
+                + this.message + "]";
+    }
+
+}
@@ -0,0 +1,80 @@
+package nl.tudelft.simulation.supplychain.message.policy;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.AbstractSimEvent;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEventInterface;
+import nl.tudelft.simulation.supplychain.message.Message;
+
+/**
+ * MessagePolicyEvent is a typed simulation event that hands a message to a MessagePolicy after a delay, e.g., for an
+ * administrative delay in a MessageReceiver. The event calls MessagePolicy.handleMessage directly, without the method lookup
+ * and reflective invocation of a SimEvent that is scheduled with a method name.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ * @param <M> the message type to ensure that the message and policy align
+ */
+public class MessagePolicyEvent<M extends Message> extends AbstractSimEvent<Duration>
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the policy that handles the message. */
+    private final MessagePolicy<M> messagePolicy;
+
+    /** the message to handle. */
+    private final M message;
+
+    /**
+     * Create an event that hands the message to the policy at the given (relative to the start of the replication) time.
+     * @param absoluteExecutionTime Duration; the simulation time at which the policy handles the message
+     * @param messagePolicy MessagePolicy&lt;M&gt;; the policy that handles the message
+     * @param message M; the message to handle
+     */
+    public MessagePolicyEvent(final Duration absoluteExecutionTime, final MessagePolicy<M> messagePolicy, final M message)
+    {
+        super(absoluteExecutionTime, SimEventInterface.NORMAL_PRIORITY);
+        Throw.whenNull(messagePolicy, "messagePolicy cannot be null");
+        Throw.whenNull(message, "message cannot be null");
+        this.messagePolicy = messagePolicy;
+        this.message = message;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void execute()
+    {
+        this.messagePolicy.handleMessage(this.message);
+    }
+
+    /**
+     * Return the policy that will handle the message.
+     * @return MessagePolicy&lt;M&gt;; the policy that will handle the message
+     */
+    public MessagePolicy<M> getMessagePolicy()
+    {
+        return this.messagePolicy;
+    }
+
+    /**
+     * Return the message to handle.
+     * @return M; the message to handle
+     */
+    public M getMessage()
+    {
+        return this.message;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "MessagePolicyEvent[time=" + this.absoluteExecutionTime + ", policy=" + this.messagePolicy.getId()
+                + ", message=" + this.message + "]";
+    }
+
+}
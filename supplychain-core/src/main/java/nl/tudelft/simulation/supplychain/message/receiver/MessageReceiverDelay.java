@@ -3,8 +3,10 @@ package nl.tudelft.simulation.supplychain.message.receiver;
 import org.djutils.exceptions.Throw;
 
 import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
 import nl.tudelft.simulation.supplychain.message.Message;
 import nl.tudelft.simulation.supplychain.message.policy.MessagePolicy;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicyEvent;
 
 /**
  * MessageReceiverDelay implements a message queuing mechanism for an actor that
@@ -44,8 +46,9 @@ public class MessageReceiverDelay extends MessageReceiver {
 	/** {@inheritDoc} */
 	@Override
 	public <M extends Message> void receiveMessage(final M message, final MessagePolicy<M> messagePolicy) {
-		getRole().getActor().getSimulator().scheduleEventRel(this.delayDistribution.draw(), messagePolicy,
-				"handleMessage", new Object[] { message });
+		SupplyChainSimulatorInterface simulator = getRole().getActor().getSimulator();
+		simulator.scheduleEvent(new MessagePolicyEvent<M>(simulator.getSimulatorTime().plus(this.delayDistribution.draw()),
+				messagePolicy, message));
 	}
 
 	/**
@@ -0,0 +1,23 @@
+package nl.tudelft.simulation.supplychain.message.store;
+
+/**
+ * MessageStoreMode indicates whether a message store protects its content against concurrent access. A DEVS replication only
+ * accesses the message store of an actor from the simulator thread, so the locking of the SYNCHRONIZED mode is uncontended
+ * overhead in most models. The SINGLE_THREADED mode leaves out all monitors and synchronized wrappers. When the JVM runs with
+ * assertions enabled (-ea), a store in SINGLE_THREADED mode checks that it is only accessed from one thread while the
+ * simulator is running. In a run of the PartitionedSimulator, the events of a partition can run on any of its threads, so there
+ * the check verifies that the store is only accessed by the partition of its owner.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public enum MessageStoreMode
+{
+    /** the store can be accessed from multiple threads, and synchronizes all access. */
+    SYNCHRONIZED,
+
+    /** the store is only accessed from the simulator thread, and does not use any locking. */
+    SINGLE_THREADED;
+}
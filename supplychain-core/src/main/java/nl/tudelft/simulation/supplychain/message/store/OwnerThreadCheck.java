@@ -0,0 +1,66 @@
+package nl.tudelft.simulation.supplychain.message.store;
+
+import java.io.Serializable;
+
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.dsol.PartitionedSimulator;
+
+/**
+ * OwnerThreadCheck verifies that a single-threaded message store is only accessed from one thread while the simulator is
+ * running. The first thread that accesses the store while the simulator runs is taken as the simulator thread. Access when
+ * the simulator is not running, e.g., during model construction, is not checked. The check is meant to be called in an assert
+ * statement, so it costs nothing when assertions are disabled: <code>assert this.ownerThreadCheck.check(owner);</code><br>
+ * <br>
+ * The PartitionedSimulator executes the events of a partition on any of its threads, one window at a time. In such a run, the
+ * check verifies that the store is only accessed by the events of the partition of the owner, or by the simulator thread
+ * between the windows, instead of verifying the thread.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class OwnerThreadCheck implements Serializable
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the thread that accesses the store while the simulator runs. */
+    private transient Thread ownerThread = null;
+
+    /**
+     * Check whether the current thread is allowed to access the store of the owner.
+     * @param owner Actor; the owner of the store
+     * @return boolean; always true, so the method can be used in an assert statement
+     * @throws IllegalStateException when the store is accessed from another thread than the simulator thread, or by the events
+     *             of another partition in a run of the PartitionedSimulator
+     */
+    public boolean check(final Actor owner)
+    {
+        if (owner == null || !owner.getSimulator().isStartingOrRunning())
+        {
+            return true;
+        }
+        if (owner.getSimulator() instanceof PartitionedSimulator)
+        {
+            PartitionedSimulator simulator = (PartitionedSimulator) owner.getSimulator();
+            int partition = simulator.getExecutingPartition();
+            Throw.when(partition != -1 && partition != simulator.getPartition(owner), IllegalStateException.class,
+                    "single-threaded message store of %s in partition %d accessed by partition %d", owner.getId(),
+                    simulator.getPartition(owner), partition);
+            return true;
+        }
+        Thread current = Thread.currentThread();
+        if (this.ownerThread == null)
+        {
+            this.ownerThread = current;
+        }
+        Throw.when(this.ownerThread != current, IllegalStateException.class,
+                "single-threaded message store of %s accessed from thread %s instead of simulator thread %s", owner.getId(),
+                current.getName(), this.ownerThread.getName());
+        return true;
+    }
+
+}
@@ -1,8 +1,12 @@
 package nl.tudelft.simulation.supplychain.message.store.trade;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
 import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
 
 /**
@@ -13,7 +17,7 @@ import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
  * </p>
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class EmptyTradeMessageStore implements TradeMessageStoreInterface
+public class EmptyTradeMessageStore implements TradeMessageStoreInterface, Checkpointable
 {
     /** */
     private static final long serialVersionUID = 20221201L;
@@ -72,6 +76,13 @@ public class EmptyTradeMessageStore implements TradeMessageStoreInterface
         // do nothing
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void forEachMessage(final Consumer<? super TradeMessage> visitor)
+    {
+        // no messages
+    }
+
     /** {@inheritDoc} */
     @Override
     public <T extends TradeMessage> List<T> getMessageList(final long internalDemandId, final Class<T> messageClass)
@@ -87,4 +98,18 @@ public class EmptyTradeMessageStore implements TradeMessageStoreInterface
         return List.of();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void writeCheckpoint(final CheckpointOutput out)
+    {
+        // nothing to store
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void readCheckpoint(final CheckpointInput in)
+    {
+        // nothing to restore
+    }
+
 }
@@ -0,0 +1,604 @@
+package nl.tudelft.simulation.supplychain.message.store.trade;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.djutils.event.LocalEventProducer;
+import org.djutils.exceptions.Throw;
+import org.pmw.tinylog.Logger;
+
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
+import nl.tudelft.simulation.supplychain.message.store.MessageStoreMode;
+import nl.tudelft.simulation.supplychain.message.store.OwnerThreadCheck;
+import nl.tudelft.simulation.supplychain.message.trade.Bill;
+import nl.tudelft.simulation.supplychain.message.trade.Order;
+import nl.tudelft.simulation.supplychain.message.trade.OrderBasedOnQuote;
+import nl.tudelft.simulation.supplychain.message.trade.OrderConfirmation;
+import nl.tudelft.simulation.supplychain.message.trade.OrderStandalone;
+import nl.tudelft.simulation.supplychain.message.trade.Payment;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.message.trade.Shipment;
+import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
+import nl.tudelft.simulation.supplychain.util.LongObjectMap;
+
+/**
+ * The IndexedTradeMessageStore stores the same information as the TradeMessageStore, and removes the 'old' state in the same
+ * way, but it indexes the messages by internalDemandId, message type and direction (sent or received). The TradeMessageStore
+ * keeps one list per message type for all sent or received messages, and has to scan that list to find the messages for one
+ * internal demand, which makes the cost per message grow with the number of open internal demands. In this store, the
+ * internal demands are kept in a map with primitive long keys, and each internal demand has its own small lists per message
+ * type and direction. Messages are removed on identity, so no Message.equals() calls are needed.<br>
+ * <br>
+ * In the (default) SYNCHRONIZED mode, all access to the store is synchronized. In the SINGLE_THREADED mode, the store does not
+ * use any locking, and assumes that it is only accessed from the simulator thread, which is checked when assertions are
+ * enabled. The mode can be set per store in the constructor, or for all stores without an explicit mode in the model.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class IndexedTradeMessageStore extends LocalEventProducer implements TradeMessageStoreInterface, Checkpointable
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** slot kind for all stored messages of an internal demand. */
+    private static final int ALL = 0;
+
+    /** slot kind for the sent state of an internal demand. */
+    private static final int SENT = 1;
+
+    /** slot kind for the received state of an internal demand. */
+    private static final int RECEIVED = 2;
+
+    /** the messages per internal demand id. */
+    private final LongObjectMap<DemandMessages> demandMap = new LongObjectMap<>(256);
+
+    /** the index of each message class in the per-demand slot arrays. */
+    private final Map<Class<? extends TradeMessage>, Integer> classIndexMap = new IdentityHashMap<>();
+
+    /** the owner. */
+    private Actor owner;
+
+    /** the mode of the store; null until the owner is set, when the store uses the default mode of the model. */
+    private MessageStoreMode mode;
+
+    /** whether access to the store is synchronized. */
+    private boolean synchronizedAccess = true;
+
+    /** the check for single-threaded access when assertions are enabled. */
+    private final OwnerThreadCheck ownerThreadCheck = new OwnerThreadCheck();
+
+    /**
+     * Create an indexed message store that uses the default MessageStoreMode of the model of its owner.
+     */
+    public IndexedTradeMessageStore()
+    {
+        this.mode = null;
+    }
+
+    /**
+     * Create an indexed message store with an explicit mode, e.g., to use a SINGLE_THREADED store for one actor.
+     * @param mode MessageStoreMode; the mode of the store
+     */
+    public IndexedTradeMessageStore(final MessageStoreMode mode)
+    {
+        Throw.whenNull(mode, "mode cannot be null");
+        this.mode = mode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setOwner(final Actor owner)
+    {
+        Throw.whenNull(owner, "owner cannot be null");
+        Throw.when(this.owner != null, RuntimeException.class,
+                "MessageStore - setting owner for %s while it has been set before", owner.toString());
+        this.owner = owner;
+        if (this.mode == null)
+        {
+            this.mode = owner.getModel().getMessageStoreMode();
+        }
+        this.synchronizedAccess = this.mode == MessageStoreMode.SYNCHRONIZED;
+    }
+
+    /**
+     * Return the mode of the store, or null when the owner has not been set and the store will use the mode of the model.
+     * @return MessageStoreMode; the mode of the store
+     */
+    public MessageStoreMode getMode()
+    {
+        return this.mode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addMessage(final TradeMessage message, final boolean sent)
+    {
+        if (this.synchronizedAccess)
+        {
+            synchronized (this)
+            {
+                doAddMessage(message, sent);
+            }
+            return;
+        }
+        assert this.ownerThreadCheck.check(this.owner);
+        doAddMessage(message, sent);
+    }
+
+    /**
+     * Implementation of addMessage without synchronization.
+     * @param message TradeMessage; the message to add
+     * @param sent boolean; whether the message was sent or received
+     */
+    private void doAddMessage(final TradeMessage message, final boolean sent)
+    {
+        Throw.whenNull(this.owner, "MessageStore - owner has not been initialized");
+        long internalDemandId = message.getInternalDemandId();
+        DemandMessages demand = this.demandMap.get(internalDemandId);
+        if (demand == null)
+        {
+            demand = new DemandMessages(this.classIndexMap.size() + 4);
+            this.demandMap.put(internalDemandId, demand);
+        }
+        demand.list(ALL, classIndex(message.getClass()), true).add(message);
+        demand.list(sent ? SENT : RECEIVED, classIndex(foldExtendedMessageClass(message.getClass())), true)
+                .add(message);
+        removeOldStateContent(demand, message, sent);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void removeMessage(final TradeMessage message, final boolean sent)
+    {
+        if (this.synchronizedAccess)
+        {
+            synchronized (this)
+            {
+                doRemoveMessage(message, sent);
+            }
+            return;
+        }
+        assert this.ownerThreadCheck.check(this.owner);
+        doRemoveMessage(message, sent);
+    }
+
+    /**
+     * Implementation of removeMessage without synchronization.
+     * @param message TradeMessage; the message to remove
+     * @param sent boolean; whether the message was sent or received
+     */
+    private void doRemoveMessage(final TradeMessage message, final boolean sent)
+    {
+        Throw.whenNull(this.owner, "MessageStore - owner has not been initialized");
+        DemandMessages demand = this.demandMap.get(message.getInternalDemandId());
+        if (demand != null)
+        {
+            removeIdentical(demand.list(ALL, classIndex(message.getClass()), false), message);
+            removeIdentical(demand.list(sent ? SENT : RECEIVED,
+                    classIndex(foldExtendedMessageClass(message.getClass())), false), message);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void removeSentReceivedMessage(final TradeMessage message, final boolean sent)
+    {
+        if (this.synchronizedAccess)
+        {
+            synchronized (this)
+            {
+                doRemoveSentReceivedMessage(message, sent);
+            }
+            return;
+        }
+        assert this.ownerThreadCheck.check(this.owner);
+        doRemoveSentReceivedMessage(message, sent);
+    }
+
+    /**
+     * Implementation of removeSentReceivedMessage without synchronization.
+     * @param message TradeMessage; the message to remove
+     * @param sent boolean; whether the message was sent or received
+     */
+    private void doRemoveSentReceivedMessage(final TradeMessage message, final boolean sent)
+    {
+        Throw.whenNull(this.owner, "MessageStore - owner has not been initialized");
+        DemandMessages demand = this.demandMap.get(message.getInternalDemandId());
+        if (demand != null)
+        {
+            removeIdentical(demand.list(sent ? SENT : RECEIVED,
+                    classIndex(foldExtendedMessageClass(message.getClass())), false), message);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void removeAllMessages(final long internalDemandId)
+    {
+        if (this.synchronizedAccess)
+        {
+            synchronized (this)
+            {
+                doRemoveAllMessages(internalDemandId);
+            }
+            return;
+        }
+        assert this.ownerThreadCheck.check(this.owner);
+        doRemoveAllMessages(internalDemandId);
+    }
+
+    /**
+     * Implementation of removeAllMessages without synchronization.
+     * @param internalDemandId long; the internal demand id
+     */
+    private void doRemoveAllMessages(final long internalDemandId)
+    {
+        Throw.whenNull(this.owner, "MessageStore - owner has not been initialized");
+        this.demandMap.remove(internalDemandId);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void forEachMessage(final Consumer<? super TradeMessage> visitor)
+    {
+        if (this.synchronizedAccess)
+        {
+            synchronized (this)
+            {
+                doForEachMessage(visitor);
+            }
+            return;
+        }
+        assert this.ownerThreadCheck.check(this.owner);
+        doForEachMessage(visitor);
+    }
+
+    /**
+     * Visit all messages in the store, using the lists with all messages of each internal demand.
+     * @param visitor Consumer&lt;? super TradeMessage&gt;; the visitor that is called for each message
+     */
+    @SuppressWarnings("unchecked")
+    private void doForEachMessage(final Consumer<? super TradeMessage> visitor)
+    {
+        for (DemandMessages demand : this.demandMap.values())
+        {
+            for (Object messageList : demand.slots[ALL])
+            {
+                if (messageList != null)
+                {
+                    for (TradeMessage message : (List<TradeMessage>) messageList)
+                    {
+                        visitor.accept(message);
+                    }
+                }
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends TradeMessage> List<T> getMessageList(final long internalDemandId, final Class<T> messageClass)
+    {
+        if (this.synchronizedAccess)
+        {
+            synchronized (this)
+            {
+                return copyList(internalDemandId, ALL, messageClass);
+            }
+        }
+        assert this.ownerThreadCheck.check(this.owner);
+        return copyList(internalDemandId, ALL, messageClass);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends TradeMessage> List<T> getMessageList(final long internalDemandId, final Class<T> messageClass,
+            final boolean sent)
+    {
+        if (this.synchronizedAccess)
+        {
+            synchronized (this)
+            {
+                return copyList(internalDemandId, sent ? SENT : RECEIVED, foldExtendedMessageClass(messageClass));
+            }
+        }
+        assert this.ownerThreadCheck.check(this.owner);
+        return copyList(internalDemandId, sent ? SENT : RECEIVED, foldExtendedMessageClass(messageClass));
+    }
+
+    /**
+     * Return a copy of the list of messages of an internal demand for a slot kind and message class.
+     * @param internalDemandId long; the internal demand id
+     * @param kind int; ALL, SENT or RECEIVED
+     * @param messageClass Class&lt;? extends TradeMessage&gt;; the (folded for SENT and RECEIVED) message class
+     * @return List&lt;T&gt;; a copy of the stored messages, or an empty list when there are none
+     * @param <T> the message type
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends TradeMessage> List<T> copyList(final long internalDemandId, final int kind,
+            final Class<? extends TradeMessage> messageClass)
+    {
+        List<T> result = new ArrayList<>();
+        DemandMessages demand = this.demandMap.get(internalDemandId);
+        if (demand != null)
+        {
+            List<TradeMessage> messageList = demand.list(kind, classIndex(messageClass), false);
+            if (messageList != null)
+            {
+                result.addAll((List<T>) messageList);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of internal demands for which messages are stored.
+     * @return int; the number of internal demands for which messages are stored
+     */
+    public int getNumberOfInternalDemands()
+    {
+        if (this.synchronizedAccess)
+        {
+            synchronized (this)
+            {
+                return this.demandMap.size();
+            }
+        }
+        return this.demandMap.size();
+    }
+
+    /**
+     * Remove the sent or received state of the message that the new message answers, in the same way as the
+     * TradeMessageStore: a received Quote clears the sent RequestForQuote, a sent Payment clears the received Bill, etc. For a
+     * Shipment, the OrderConfirmation in the same direction is cleared.
+     * @param demand DemandMessages; the messages of the internal demand of the message
+     * @param message TradeMessage; the message that was just added
+     * @param sent boolean; whether the message was sent or received
+     */
+    private void removeOldStateContent(final DemandMessages demand, final TradeMessage message, final boolean sent)
+    {
+        Class<? extends TradeMessage> previousClass;
+        boolean previousSent = !sent;
+        if (message instanceof Quote)
+        {
+            previousClass = RequestForQuote.class;
+        }
+        else if (message instanceof OrderBasedOnQuote)
+        {
+            previousClass = Quote.class;
+        }
+        else if (message instanceof OrderConfirmation)
+        {
+            previousClass = Order.class;
+        }
+        else if (message instanceof Shipment)
+        {
+            previousClass = OrderConfirmation.class;
+            previousSent = sent;
+        }
+        else if (message instanceof Payment)
+        {
+            previousClass = Bill.class;
+        }
+        else
+        {
+            return;
+        }
+        List<TradeMessage> previousList =
+                demand.list(previousSent ? SENT : RECEIVED, classIndex(previousClass), false);
+        if (previousList == null || previousList.isEmpty())
+        {
+            Logger.warn("t=" + this.owner.getSimulatorTime() + " removeOldStateContent - could not find "
+                    + previousClass.getSimpleName() + " for " + message.getClass().getSimpleName() + " uniqueId="
+                    + message.getUniqueId() + ", IDid=" + message.getInternalDemandId() + " " + message.toString());
+        }
+        else
+        {
+            previousList.clear();
+        }
+    }
+
+    /**
+     * Remove a message from a list based on identity, starting at the end of the list where the most recent messages are.
+     * @param messageList List&lt;TradeMessage&gt;; the list to remove the message from, can be null
+     * @param message TradeMessage; the message to remove
+     */
+    private static void removeIdentical(final List<TradeMessage> messageList, final TradeMessage message)
+    {
+        if (messageList != null)
+        {
+            for (int i = messageList.size() - 1; i >= 0; i--)
+            {
+                if (messageList.get(i) == message)
+                {
+                    messageList.remove(i);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the slot index for a message class, assigning a new index when the class is stored for the first time.
+     * @param messageClass Class&lt;? extends TradeMessage&gt;; the message class
+     * @return int; the slot index for the message class
+     */
+    private int classIndex(final Class<? extends TradeMessage> messageClass)
+    {
+        Integer index = this.classIndexMap.get(messageClass);
+        if (index == null)
+        {
+            index = this.classIndexMap.size();
+            this.classIndexMap.put(messageClass, index);
+        }
+        return index;
+    }
+
+    /**
+     * This method folds back extended message classes onto their basic message class, in the same way as the
+     * TradeMessageStore, e.g., OrderBasedOnQuote and OrderStandAlone are mapped back onto 'Order'.
+     * @param messageClass Class&lt;? extends TradeMessage&gt;; the message class to fold
+     * @return Class&lt;? extends TradeMessage&gt;; the folded extended message class
+     */
+    protected Class<? extends TradeMessage> foldExtendedMessageClass(final Class<? extends TradeMessage> messageClass)
+    {
+        if (messageClass == OrderBasedOnQuote.class || messageClass == OrderStandalone.class)
+        {
+            return Order.class;
+        }
+        return messageClass;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Actor getOwner()
+    {
+        return this.owner;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void writeCheckpoint(final CheckpointOutput out) throws IOException
+    {
+        Class<?>[] classes = new Class<?>[this.classIndexMap.size()];
+        for (Map.Entry<Class<? extends TradeMessage>, Integer> entry : this.classIndexMap.entrySet())
+        {
+            classes[entry.getValue()] = entry.getKey();
+        }
+        out.writeInt(classes.length);
+        for (Class<?> messageClass : classes)
+        {
+            out.writeClass(messageClass);
+        }
+        long[] keys = this.demandMap.keys();
+        out.writeInt(keys.length);
+        for (long internalDemandId : keys)
+        {
+            out.writeLong(internalDemandId);
+            DemandMessages demand = this.demandMap.get(internalDemandId);
+            for (int kind = ALL; kind <= RECEIVED; kind++)
+            {
+                Object[] slots = demand.slots[kind];
+                int count = 0;
+                for (Object slot : slots)
+                {
+                    count += slot == null ? 0 : 1;
+                }
+                out.writeInt(count);
+                for (int index = 0; index < slots.length; index++)
+                {
+                    if (slots[index] != null)
+                    {
+                        List<?> messageList = (List<?>) slots[index];
+                        out.writeInt(index);
+                        out.writeInt(messageList.size());
+                        for (Object message : messageList)
+                        {
+                            out.writeValue(message);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void readCheckpoint(final CheckpointInput in) throws IOException
+    {
+        this.classIndexMap.clear();
+        int numberOfClasses = in.readInt();
+        for (int i = 0; i < numberOfClasses; i++)
+        {
+            this.classIndexMap.put((Class<? extends TradeMessage>) in.readClass(), i);
+        }
+        this.demandMap.clear();
+        int numberOfDemands = in.readInt();
+        for (int i = 0; i < numberOfDemands; i++)
+        {
+            long internalDemandId = in.readLong();
+            DemandMessages demand = new DemandMessages(numberOfClasses + 4);
+            for (int kind = ALL; kind <= RECEIVED; kind++)
+            {
+                int count = in.readInt();
+                for (int j = 0; j < count; j++)
+                {
+                    List<TradeMessage> messageList = demand.list(kind, in.readInt(), true);
+                    int size = in.readInt();
+                    for (int k = 0; k < size; k++)
+                    {
+                        messageList.add((TradeMessage) in.readValue());
+                    }
+                }
+            }
+            this.demandMap.put(internalDemandId, demand);
+        }
+    }
+
+    /**
+     * DemandMessages contains the messages of one internal demand, with one list per message class for all messages, and one
+     * list per folded message class for the sent and received state. The lists are created when a message of that class is
+     * stored for the first time.
+     */
+    private static class DemandMessages implements Serializable
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the lists per message class index for ALL, SENT and RECEIVED. */
+        private final Object[][] slots;
+
+        /**
+         * Create the empty slot arrays.
+         * @param capacity int; the initial number of message class slots
+         */
+        DemandMessages(final int capacity)
+        {
+            this.slots = new Object[3][capacity];
+        }
+
+        /**
+         * Return the list for a message class index, creating it when asked.
+         * @param kind int; ALL, SENT or RECEIVED
+         * @param index int; the index of the message class
+         * @param create boolean; whether to create the list when it does not exist
+         * @return List&lt;TradeMessage&gt;; the list for the slot, or null when it does not exist and create is false
+         */
+        @SuppressWarnings("unchecked")
+        List<TradeMessage> list(final int kind, final int index, final boolean create)
+        {
+            Object[] array = this.slots[kind];
+            if (index < array.length && array[index] != null)
+            {
+                return (List<TradeMessage>) array[index];
+            }
+            if (!create)
+            {
+                return null;
+            }
+            if (index >= array.length)
+            {
+                array = Arrays.copyOf(array, Math.max(index + 1, 2 * array.length));
+                this.slots[kind] = array;
+            }
+            List<TradeMessage> messageList = new ArrayList<>(2);
+            array[index] = messageList;
+            return messageList;
+        }
+    }
+
+}
@@ -1,9 +1,7 @@
 package nl.tudelft.simulation.supplychain.message.store.trade;
 
-import java.io.Serializable;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.NotSerializableException;
 
 import org.djunits.unit.DurationUnit;
 import org.djunits.value.vdouble.scalar.Duration;
@@ -11,7 +9,13 @@ import org.djunits.value.vdouble.scalar.Time;
 import org.djutils.exceptions.Throw;
 import org.pmw.tinylog.Logger;
 
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.dsol.PartitionedSimulator;
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.message.store.trade.TimeoutWheel.Timeout;
+import nl.tudelft.simulation.supplychain.message.store.trade.TimeoutWheel.TimeoutListener;
 import nl.tudelft.simulation.supplychain.message.trade.Bill;
 import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
 import nl.tudelft.simulation.supplychain.message.trade.OrderBasedOnQuote;
@@ -25,8 +29,15 @@ import nl.tudelft.simulation.supplychain.message.trade.Shipment;
 import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
 import nl.tudelft.simulation.supplychain.message.trade.YellowPageAnswer;
 import nl.tudelft.simulation.supplychain.message.trade.YellowPageRequest;
+import nl.tudelft.simulation.supplychain.util.LongObjectMap;
 
 /**
+ * The LeanTradeMessageStore removes messages that have not been answered
+ * before their deadline. The deadlines are registered with the TimeoutWheel of
+ * the model, which sweeps the expired time-outs of all stores in one event per
+ * bucket. When a message is answered, its time-out is cancelled. In a run of
+ * the PartitionedSimulator, the deadlines are registered with the TimeoutWheel
+ * of the partition of the owner, since the partitions run on several threads.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the
  * Netherlands. All rights reserved. <br>
@@ -35,18 +46,23 @@ import nl.tudelft.simulation.supplychain.message.trade.YellowPageRequest;
  * 
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class LeanTradeMessageStore extends TradeMessageStore {
+public class LeanTradeMessageStore extends TradeMessageStore implements TimeoutListener {
 	/** the serial version uid. */
 	private static final long serialVersionUID = 20221201L;
 
 	/** the simulator to schedule time-out events. */
 	protected SupplyChainSimulatorInterface simulator;
 
-	/** the map of unanswered content. */
-	private Map<Serializable, TradeMessage> unansweredContentMap = Collections
-			.synchronizedMap(new LinkedHashMap<Serializable, TradeMessage>());
+	/** the timeout wheel to register the deadlines with. */
+	private TimeoutWheel timeoutWheel;
+
+	/** the pending time-outs of the unanswered content, keyed by unique id. */
+	private LongObjectMap<Timeout> unansweredContentMap = new LongObjectMap<>();
 
 	/**
+	 * Create a lean message store that uses the timeout wheel of the model of its
+	 * owner.
+	 * 
 	 * @param simulator the simulator
 	 */
 	public LeanTradeMessageStore(final SupplyChainSimulatorInterface simulator) {
@@ -54,63 +70,86 @@ public class LeanTradeMessageStore extends TradeMessageStore {
 		this.simulator = simulator;
 	}
 
+	/**
+	 * Create a lean message store that uses a specific timeout wheel. In a run of
+	 * the PartitionedSimulator with more than one partition, this has to be the
+	 * wheel of the partition of the owner, see
+	 * {@link PartitionedSimulator#getTimeoutWheel(Actor)}.
+	 * 
+	 * @param simulator    the simulator
+	 * @param timeoutWheel TimeoutWheel; the timeout wheel to register the
+	 *                     deadlines with
+	 */
+	public LeanTradeMessageStore(final SupplyChainSimulatorInterface simulator, final TimeoutWheel timeoutWheel) {
+		this(simulator);
+		Throw.whenNull(timeoutWheel, "timeoutWheel cannot be null");
+		this.timeoutWheel = timeoutWheel;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void setOwner(final Actor owner) {
+		super.setOwner(owner);
+		if (this.simulator instanceof PartitionedSimulator) {
+			PartitionedSimulator partitionedSimulator = (PartitionedSimulator) this.simulator;
+			if (this.timeoutWheel == null || partitionedSimulator.getNumberOfPartitions() > 1) {
+				TimeoutWheel partitionWheel = partitionedSimulator.getTimeoutWheel(owner);
+				Throw.when(this.timeoutWheel != null && this.timeoutWheel != partitionWheel,
+						IllegalArgumentException.class,
+						"the timeout wheel of the store of %s cannot be shared between the partitions",
+						owner.getId());
+				this.timeoutWheel = partitionWheel;
+			}
+		} else if (this.timeoutWheel == null) {
+			this.timeoutWheel = owner.getModel().getTimeoutWheel();
+		}
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public synchronized void addMessage(final TradeMessage message, final boolean sent) {
 		super.addMessage(message, sent);
 		Class<? extends TradeMessage> messageClass = message.getClass();
 		try {
-			// schedule the removal after the 'lifetime' of the content is unanswered
+			// register the removal after the 'lifetime' of the content is unanswered
 			if (messageClass.equals(InternalDemand.class)) {
 				InternalDemand internalDemand = (InternalDemand) message;
-				this.unansweredContentMap.put(message.getUniqueId(), message);
 				Time date = Time.max(this.simulator.getAbsSimulatorTime(), internalDemand.getLatestDeliveryDate());
-				this.simulator.scheduleEventAbs(date, this, "internalDemandTimeout",
-						new Serializable[] { internalDemand, Boolean.valueOf(sent) });
+				registerTimeout(date, message, sent);
 			} else if (messageClass.equals(RequestForQuote.class) && !sent) {
 				RequestForQuote rfq = (RequestForQuote) message;
-				this.unansweredContentMap.put(message.getUniqueId(), message);
-				this.unansweredContentMap.remove(rfq.getInternalDemandId());
+				answered(rfq.getInternalDemandId());
 				Time date = Time.max(this.simulator.getAbsSimulatorTime(), rfq.getCutoffDate());
-				this.simulator.scheduleEventAbs(date, this, "requestForQuoteTimeout",
-						new Serializable[] { rfq, Boolean.valueOf(sent) });
+				registerTimeout(date, message, sent);
 			} else if (messageClass.equals(RequestForQuote.class) && sent) {
 				RequestForQuote rfq = (RequestForQuote) message;
-				this.unansweredContentMap.put(message.getUniqueId(), message);
-				this.unansweredContentMap.remove(rfq.getInternalDemandId());
+				answered(rfq.getInternalDemandId());
 				Time date = Time.max(this.simulator.getAbsSimulatorTime(),
 						rfq.getCutoffDate().plus(new Duration(1.0, DurationUnit.DAY)));
-				this.simulator.scheduleEventAbs(date, this, "requestForQuoteTimeout",
-						new Serializable[] { rfq, Boolean.valueOf(sent) });
+				registerTimeout(date, message, sent);
 			} else if (messageClass.equals(Quote.class)) {
 				Quote quote = (Quote) message;
-				this.unansweredContentMap.put(message.getUniqueId(), message);
-				this.unansweredContentMap.remove(quote.getRequestForQuote().getUniqueId());
+				answered(quote.getRequestForQuote().getUniqueId());
 				Time date = Time.max(quote.getProposedDeliveryDate(),
 						quote.getRequestForQuote().getCutoffDate().plus(new Duration(1.0, DurationUnit.DAY)));
 				date = Time.max(date, quote.getRequestForQuote().getLatestDeliveryDate());
 				date = Time.max(this.simulator.getAbsSimulatorTime(), date);
-				this.simulator.scheduleEventAbs(date, this, "quoteTimeout",
-						new Serializable[] { quote, Boolean.valueOf(sent) });
+				registerTimeout(date, message, sent);
 			} else if (messageClass.equals(OrderBasedOnQuote.class)) {
 				OrderBasedOnQuote order = (OrderBasedOnQuote) message;
-				this.unansweredContentMap.put(message.getUniqueId(), message);
-				this.unansweredContentMap.remove(order.getQuote().getUniqueId());
+				answered(order.getQuote().getUniqueId());
 				Time date = Time.max(order.getDeliveryDate(), order.getQuote().getProposedDeliveryDate());
 				date = Time.max(date, order.getQuote().getRequestForQuote().getLatestDeliveryDate());
 				date = Time.max(this.simulator.getAbsSimulatorTime(), date);
-				this.simulator.scheduleEventAbs(date, this, "orderBasedOnQuoteTimeout",
-						new Serializable[] { order, Boolean.valueOf(sent) });
+				registerTimeout(date, message, sent);
 			} else if (messageClass.equals(OrderStandalone.class)) {
 				OrderStandalone order = (OrderStandalone) message;
-				this.unansweredContentMap.put(message.getUniqueId(), message);
-				this.unansweredContentMap.remove(order.getInternalDemandId());
+				answered(order.getInternalDemandId());
 				Time date = Time.max(this.simulator.getAbsSimulatorTime(), order.getDeliveryDate());
-				this.simulator.scheduleEventAbs(date, this, "orderStandAloneTimeout",
-						new Serializable[] { order, Boolean.valueOf(sent) });
+				registerTimeout(date, message, sent);
 			} else if (messageClass.equals(OrderConfirmation.class)) {
 				OrderConfirmation orderConfirmation = (OrderConfirmation) message;
-				this.unansweredContentMap.remove(orderConfirmation.getOrder().getUniqueId());
+				answered(orderConfirmation.getOrder().getUniqueId());
 			} else if (messageClass.equals(ProductionOrder.class) || messageClass.equals(Shipment.class)
 					|| messageClass.equals(Bill.class) || messageClass.equals(Payment.class)
 					|| messageClass.equals(YellowPageRequest.class) || messageClass.equals(YellowPageAnswer.class)) {
@@ -123,11 +162,60 @@ public class LeanTradeMessageStore extends TradeMessageStore {
 		}
 	}
 
+	/**
+	 * Register a time-out for an unanswered message. When the message already has
+	 * a pending time-out, e.g., because the actor sent the message to itself, the
+	 * first time-out is kept.
+	 * 
+	 * @param date    Time; the deadline for the message
+	 * @param message TradeMessage; the unanswered message
+	 * @param sent    boolean; whether the message was sent or received
+	 */
+	private void registerTimeout(final Time date, final TradeMessage message, final boolean sent) {
+		if (!this.unansweredContentMap.containsKey(message.getUniqueId())) {
+			this.unansweredContentMap.put(message.getUniqueId(),
+					this.timeoutWheel.register(date, message, sent, this));
+		}
+	}
+
+	/**
+	 * Cancel the time-out of a message that has been answered.
+	 * 
+	 * @param uniqueId long; the unique id of the answered message
+	 */
+	private void answered(final long uniqueId) {
+		Timeout timeout = this.unansweredContentMap.remove(uniqueId);
+		if (timeout != null) {
+			this.timeoutWheel.cancel(timeout);
+		}
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public synchronized void removeMessage(final TradeMessage message, final boolean sent) {
 		super.removeMessage(message, sent);
-		this.unansweredContentMap.remove(message.getUniqueId());
+		answered(message.getUniqueId());
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public synchronized void timeout(final Timeout timeout) {
+		TradeMessage message = timeout.getMessage();
+		boolean sent = timeout.isSent();
+		if (message instanceof InternalDemand) {
+			internalDemandTimeout((InternalDemand) message, sent);
+		} else if (message instanceof RequestForQuote) {
+			requestForQuoteTimeout((RequestForQuote) message, sent);
+		} else if (message instanceof Quote) {
+			quoteTimeout((Quote) message, sent);
+		} else if (message instanceof OrderBasedOnQuote) {
+			orderBasedOnQuoteTimeout((OrderBasedOnQuote) message, sent);
+		} else if (message instanceof OrderStandalone) {
+			orderStandAloneTimeout((OrderStandalone) message, sent);
+		}
+		if (this.unansweredContentMap.get(message.getUniqueId()) == timeout) {
+			this.unansweredContentMap.remove(message.getUniqueId());
+		}
 	}
 
 	/**
@@ -186,4 +274,26 @@ public class LeanTradeMessageStore extends TradeMessageStore {
 			super.removeInternalDemand(order.getInternalDemandId());
 		}
 	}
+
+	/**
+	 * The time-outs of this store are swept by lambda events of the TimeoutWheel,
+	 * which cannot be stored in a checkpoint.
+	 * 
+	 * @throws NotSerializableException always
+	 */
+	@Override
+	public void writeCheckpoint(final CheckpointOutput out) throws IOException {
+		throw new NotSerializableException("LeanTradeMessageStore does not support checkpoints");
+	}
+
+	/**
+	 * The time-outs of this store are swept by lambda events of the TimeoutWheel,
+	 * which cannot be stored in a checkpoint.
+	 * 
+	 * @throws NotSerializableException always
+	 */
+	@Override
+	public void readCheckpoint(final CheckpointInput in) throws IOException {
+		throw new NotSerializableException("LeanTradeMessageStore does not support checkpoints");
+	}
 }
@@ -0,0 +1,342 @@
+package nl.tudelft.simulation.supplychain.message.store.trade;
+
+import java.io.Serializable;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.Executable;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
+import nl.tudelft.simulation.supplychain.util.LongObjectMap;
+
+/**
+ * TimeoutWheel is a bucketed calendar for the time-outs of unanswered trade messages. Instead of scheduling a simulator event
+ * per message, the time-outs are collected in buckets of a fixed width, and one simulator event per bucket sweeps all
+ * time-outs in the bucket. A time-out fires at the end of the bucket in which its deadline falls, so never before its
+ * deadline, and at most one bucket width after it. Each time-out is an entry in a doubly linked list of its bucket, so a
+ * time-out for a message that has been answered is cancelled in constant time. One TimeoutWheel can be shared by all message
+ * stores of a model that runs on one thread. The wheel is not synchronized; the PartitionedSimulator gives each partition a
+ * wheel of its own.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TimeoutWheel implements Serializable
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the simulator to schedule the bucket events on. */
+    private final SupplyChainSimulatorInterface simulator;
+
+    /** the width of a bucket in seconds. */
+    private final double bucketWidthSi;
+
+    /** the buckets with pending time-outs, keyed by bucket number. */
+    private final LongObjectMap<Bucket> buckets = new LongObjectMap<>();
+
+    /** the number of pending time-outs. */
+    private int size = 0;
+
+    /**
+     * Create a timeout wheel with buckets of a fixed width.
+     * @param simulator SupplyChainSimulatorInterface; the simulator to schedule the bucket events on
+     * @param bucketWidth Duration; the width of a bucket, i.e., the maximum delay of a time-out after its deadline
+     */
+    public TimeoutWheel(final SupplyChainSimulatorInterface simulator, final Duration bucketWidth)
+    {
+        Throw.whenNull(simulator, "simulator cannot be null");
+        Throw.whenNull(bucketWidth, "bucketWidth cannot be null");
+        Throw.when(bucketWidth.si <= 0.0, IllegalArgumentException.class, "bucketWidth should be positive");
+        this.simulator = simulator;
+        this.bucketWidthSi = bucketWidth.si;
+    }
+
+    /**
+     * Register a time-out for a message. The listener is called at the end of the bucket that contains the deadline, unless the
+     * time-out has been cancelled before.
+     * @param deadline Time; the absolute time after which the message times out; should not be before the current time
+     * @param message TradeMessage; the message that can time out
+     * @param sent boolean; whether the message was sent or received
+     * @param listener TimeoutListener; the listener to call when the time-out fires
+     * @return Timeout; the registered time-out, which can be cancelled
+     */
+    public Timeout register(final Time deadline, final TradeMessage message, final boolean sent,
+            final TimeoutListener listener)
+    {
+        double relativeSi = deadline.si - this.simulator.getAbsStartTime().si;
+        long bucketNr = (long) Math.ceil(relativeSi / this.bucketWidthSi);
+        Bucket bucket = this.buckets.get(bucketNr);
+        if (bucket == null)
+        {
+            bucket = new Bucket(bucketNr);
+            this.buckets.put(bucketNr, bucket);
+            Bucket scheduledBucket = bucket;
+            double fireTimeSi = Math.max(bucketNr * this.bucketWidthSi, this.simulator.getSimulatorTime().si);
+            scheduleSweep(Duration.instantiateSI(fireTimeSi), () -> expire(scheduledBucket));
+        }
+        Timeout timeout = new Timeout(deadline, message, sent, listener);
+        bucket.add(timeout);
+        this.size++;
+        return timeout;
+    }
+
+    /**
+     * Schedule the event that sweeps a bucket on the simulator.
+     * @param time Duration; the time of the sweep
+     * @param sweep Executable; the sweep of the bucket
+     */
+    protected void scheduleSweep(final Duration time, final Executable sweep)
+    {
+        this.simulator.scheduleEventAbs(time, sweep);
+    }
+
+    /**
+     * Cancel a time-out, e.g., because the message was answered.
+     * @param timeout Timeout; the time-out to cancel
+     * @return boolean; whether the time-out was still pending
+     */
+    public boolean cancel(final Timeout timeout)
+    {
+        if (timeout.bucket == null)
+        {
+            return false;
+        }
+        timeout.bucket.unlink(timeout);
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Fire all pending time-outs in a bucket. The bucket is removed from the map first, so time-outs that are registered by the
+     * listeners end up in a new bucket, even when they fall in the same bucket number.
+     * @param bucket Bucket; the bucket to sweep
+     */
+    private void expire(final Bucket bucket)
+    {
+        if (this.buckets.get(bucket.bucketNr) == bucket)
+        {
+            this.buckets.remove(bucket.bucketNr);
+        }
+        while (bucket.head != null)
+        {
+            Timeout timeout = bucket.head;
+            bucket.unlink(timeout);
+            this.size--;
+            timeout.listener.timeout(timeout);
+        }
+    }
+
+    /**
+     * Return the number of pending time-outs.
+     * @return int; the number of pending time-outs
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Return the number of buckets with a scheduled sweep event.
+     * @return int; the number of buckets with a scheduled sweep event
+     */
+    public int getNumberOfBuckets()
+    {
+        return this.buckets.size();
+    }
+
+    /**
+     * Return the width of a bucket.
+     * @return Duration; the width of a bucket
+     */
+    public Duration getBucketWidth()
+    {
+        return Duration.instantiateSI(this.bucketWidthSi);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "TimeoutWheel [bucketWidth=" + getBucketWidth() + ", size=" + this.size + "]";
+    }
+
+    /**
+     * TimeoutListener is called when a time-out fires.
+     */
+    public interface TimeoutListener extends Serializable
+    {
+        /**
+         * Handle a time-out for a message that was not answered before its deadline.
+         * @param timeout Timeout; the time-out that fired
+         */
+        void timeout(Timeout timeout);
+    }
+
+    /**
+     * Timeout is a registered time-out for a message, and an entry in the linked list of its bucket.
+     */
+    public static final class Timeout implements Serializable
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the deadline of the message. */
+        private final Time deadline;
+
+        /** the message that can time out. */
+        private final TradeMessage message;
+
+        /** whether the message was sent or received. */
+        private final boolean sent;
+
+        /** the listener to call when the time-out fires. */
+        private final TimeoutListener listener;
+
+        /** the bucket of a pending time-out, or null when it fired or was cancelled. */
+        private Bucket bucket;
+
+        /** the previous time-out in the bucket. */
+        private Timeout prev;
+
+        /** the next time-out in the bucket. */
+        private Timeout next;
+
+        /**
+         * Create a time-out.
+         * @param deadline Time; the deadline of the message
+         * @param message TradeMessage; the message that can time out
+         * @param sent boolean; whether the message was sent or received
+         * @param listener TimeoutListener; the listener to call when the time-out fires
+         */
+        Timeout(final Time deadline, final TradeMessage message, final boolean sent, final TimeoutListener listener)
+        {
+            this.deadline = deadline;
+            this.message = message;
+            this.sent = sent;
+            this.listener = listener;
+        }
+
+        /**
+         * Return the deadline of the message.
+         * @return Time; the deadline of the message
+         */
+        public Time getDeadline()
+        {
+            return this.deadline;
+        }
+
+        /**
+         * Return the message that can time out.
+         * @return TradeMessage; the message that can time out
+         */
+        public TradeMessage getMessage()
+        {
+            return this.message;
+        }
+
+        /**
+         * Return whether the message was sent or received.
+         * @return boolean; whether the message was sent or received
+         */
+        public boolean isSent()
+        {
+            return this.sent;
+        }
+
+        /**
+         * Return whether the time-out is still pending, i.e., has not fired and has not been cancelled.
+         * @return boolean; whether the time-out is still pending
+         */
+        public boolean isPending()
+        {
+            return this.bucket != null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString()
+        {
+            return "Timeout [deadline=" + this.deadline + ", message=" + this.message + ", sent=" + this.sent + "]";
+        }
+    }
+
+    /**
+     * Bucket contains the doubly linked list of the pending time-outs for one bucket number.
+     */
+    private static final class Bucket implements Serializable
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the bucket number; the bucket fires at bucketNr * bucketWidth. */
+        private final long bucketNr;
+
+        /** the first time-out in the bucket. */
+        private Timeout head = null;
+
+        /** the last time-out in the bucket. */
+        private Timeout tail = null;
+
+        /**
+         * Create an empty bucket.
+         * @param bucketNr long; the bucket number
+         */
+        Bucket(final long bucketNr)
+        {
+            this.bucketNr = bucketNr;
+        }
+
+        /**
+         * Add a time-out at the end of the list, so the time-outs in a bucket fire in order of registration.
+         * @param timeout Timeout; the time-out to add
+         */
+        void add(final Timeout timeout)
+        {
+            timeout.bucket = this;
+            timeout.prev = this.tail;
+            timeout.next = null;
+            if (this.tail == null)
+            {
+                this.head = timeout;
+            }
+            else
+            {
+                this.tail.next = timeout;
+            }
+            this.tail = timeout;
+        }
+
+        /**
+         * Remove a time-out from the list.
+         * @param timeout Timeout; the time-out to remove
+         */
+        void unlink(final Timeout timeout)
+        {
+            if (timeout.prev == null)
+            {
+                this.head = timeout.next;
+            }
+            else
+            {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null)
+            {
+                this.tail = timeout.prev;
+            }
+            else
+            {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+}
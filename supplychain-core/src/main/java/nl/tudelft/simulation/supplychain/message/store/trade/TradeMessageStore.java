@@ -1,16 +1,21 @@
 package nl.tudelft.simulation.supplychain.message.store.trade;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.djutils.event.LocalEventProducer;
 import org.djutils.exceptions.Throw;
 import org.pmw.tinylog.Logger;
 
 import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
 import nl.tudelft.simulation.supplychain.message.trade.Bill;
 import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
 import nl.tudelft.simulation.supplychain.message.trade.Order;
@@ -41,7 +46,7 @@ import nl.tudelft.simulation.supplychain.message.trade.YellowPageRequest;
  * </p>
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class TradeMessageStore extends LocalEventProducer implements TradeMessageStoreInterface
+public class TradeMessageStore extends LocalEventProducer implements TradeMessageStoreInterface, Checkpointable
 {
     /** the serial version uid. */
     private static final long serialVersionUID = 20221203L;
@@ -208,6 +213,23 @@ public class TradeMessageStore extends LocalEventProducer implements TradeMessag
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void forEachMessage(final Consumer<? super TradeMessage> visitor)
+    {
+        for (Map<Class<? extends TradeMessage>, List<? super TradeMessage>> messageMap : this.internalDemandMap.values())
+        {
+            for (List<? super TradeMessage> messageList : messageMap.values())
+            {
+                for (Object message : messageList)
+                {
+                    visitor.accept((TradeMessage) message);
+                }
+            }
+        }
+    }
+
     /**
      * Method getMessageList returns a list of Message objects of type messageClass based on the internalDemandId.
      * @param internalDemandId the identifier of the InternalDemand belonging to the message
@@ -473,4 +495,83 @@ public class TradeMessageStore extends LocalEventProducer implements TradeMessag
         return this.owner;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void writeCheckpoint(final CheckpointOutput out) throws IOException
+    {
+        out.writeInt(this.internalDemandMap.size());
+        for (Map.Entry<Long, Map<Class<? extends TradeMessage>, List<? super TradeMessage>>> entry : this.internalDemandMap
+                .entrySet())
+        {
+            out.writeLong(entry.getKey());
+            writeMessageMap(out, entry.getValue());
+        }
+        writeMessageMap(out, this.sentStateMap);
+        writeMessageMap(out, this.receivedStateMap);
+    }
+
+    /**
+     * Write the message lists of a map with the message class as the key.
+     * @param out CheckpointOutput; the checkpoint to write to
+     * @param messageMap Map&lt;Class, List&gt;; the map with the message lists
+     * @throws IOException on write error
+     */
+    private static void writeMessageMap(final CheckpointOutput out,
+            final Map<Class<? extends TradeMessage>, List<? super TradeMessage>> messageMap) throws IOException
+    {
+        out.writeInt(messageMap.size());
+        for (Map.Entry<Class<? extends TradeMessage>, List<? super TradeMessage>> entry : messageMap.entrySet())
+        {
+            out.writeClass(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (Object message : entry.getValue())
+            {
+                out.writeValue(message);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void readCheckpoint(final CheckpointInput in) throws IOException
+    {
+        this.internalDemandMap.clear();
+        int numberOfDemands = in.readInt();
+        for (int i = 0; i < numberOfDemands; i++)
+        {
+            long internalDemandId = in.readLong();
+            Map<Class<? extends TradeMessage>, List<? super TradeMessage>> messageMap = new LinkedHashMap<>();
+            readMessageMap(in, messageMap);
+            this.internalDemandMap.put(internalDemandId, messageMap);
+        }
+        this.sentStateMap.clear();
+        readMessageMap(in, this.sentStateMap);
+        this.receivedStateMap.clear();
+        readMessageMap(in, this.receivedStateMap);
+    }
+
+    /**
+     * Read the message lists of a map with the message class as the key.
+     * @param in CheckpointInput; the checkpoint to read from
+     * @param messageMap Map&lt;Class, List&gt;; the empty map to fill
+     * @throws IOException on read error
+     */
+    @SuppressWarnings("unchecked")
+    private static void readMessageMap(final CheckpointInput in,
+            final Map<Class<? extends TradeMessage>, List<? super TradeMessage>> messageMap) throws IOException
+    {
+        int numberOfClasses = in.readInt();
+        for (int i = 0; i < numberOfClasses; i++)
+        {
+            Class<? extends TradeMessage> messageClass = (Class<? extends TradeMessage>) in.readClass();
+            int size = in.readInt();
+            List<TradeMessage> messageList = new ArrayList<>(size);
+            for (int j = 0; j < size; j++)
+            {
+                messageList.add((TradeMessage) in.readValue());
+            }
+            messageMap.put(messageClass, messageList);
+        }
+    }
+
 }
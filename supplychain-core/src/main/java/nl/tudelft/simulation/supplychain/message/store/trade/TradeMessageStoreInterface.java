@@ -2,6 +2,7 @@ package nl.tudelft.simulation.supplychain.message.store.trade;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.function.Consumer;
 
 import nl.tudelft.simulation.supplychain.actor.Actor;
 import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
@@ -101,4 +102,15 @@ public interface TradeMessageStoreInterface extends Serializable {
 	 */
 	<T extends TradeMessage> List<T> getMessageList(long internalDemandId, Class<T> messageClass, boolean sent);
 
+	/**
+	 * Visit all messages in the store, e.g., to export them, grouped by the
+	 * internalDemandId and in the order in which they were stored per message
+	 * class. The visitor should not add messages to or remove messages from the
+	 * store.
+	 * 
+	 * @param visitor Consumer&lt;? super TradeMessage&gt;; the visitor that is
+	 *                called for each message
+	 */
+	void forEachMessage(Consumer<? super TradeMessage> visitor);
+
 }
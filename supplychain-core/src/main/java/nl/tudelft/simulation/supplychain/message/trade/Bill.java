@@ -35,6 +35,14 @@ public class Bill extends TradeMessage
     /** whether the bill is paid or not. */
     private boolean isPaid = false;
 
+    /**
+     * Create an empty bill for the ModelCheckpoint.
+     */
+    protected Bill()
+    {
+        super();
+    }
+
     /**
      * Constructs a new Bill.
      * @param sender Actor; the sender
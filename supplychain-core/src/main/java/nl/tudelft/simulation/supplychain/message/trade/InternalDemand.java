@@ -34,6 +34,14 @@ public class InternalDemand extends TradeMessage
     /** the latest delivery date. */
     private Time latestDeliveryDate;
 
+    /**
+     * Create an empty internal demand for the ModelCheckpoint.
+     */
+    protected InternalDemand()
+    {
+        this.internalDemandId = 0L;
+    }
+
     /**
      * Constructs a new InternalDemand.
      * @param sender Actor; the sender of the internal demand
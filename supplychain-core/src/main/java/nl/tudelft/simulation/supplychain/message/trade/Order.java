@@ -32,6 +32,16 @@ public abstract class Order extends TradeMessage
     /** the accepted transport option. */
     private final TransportOption transportOption;
 
+    /**
+     * Create an empty order for the ModelCheckpoint.
+     */
+    protected Order()
+    {
+        this.internalDemand = null;
+        this.deliveryDate = null;
+        this.transportOption = null;
+    }
+
     /**
      * Constructor for an order. This abstract constructor has to be called by every extending class.
      * @param sender BuyingActor; the sender actor of the message content
@@ -25,6 +25,14 @@ public class OrderBasedOnQuote extends Order
     /** the Quote the order is based on. */
     private Quote quote;
 
+    /**
+     * Create an empty order based on a quote for the ModelCheckpoint.
+     */
+    protected OrderBasedOnQuote()
+    {
+        super();
+    }
+
     /**
      * The constructor for the OrderBasedOnQuote.
      * @param sender BuyingActor; the sender actor of the message content
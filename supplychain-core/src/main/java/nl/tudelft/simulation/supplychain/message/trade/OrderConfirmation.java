@@ -36,6 +36,14 @@ public class OrderConfirmation extends TradeMessage
     /** indicating whether the order was accepted or not. */
     private int status;
 
+    /**
+     * Create an empty order confirmation for the ModelCheckpoint.
+     */
+    protected OrderConfirmation()
+    {
+        super();
+    }
+
     /**
      * @param sender SellingActor; the sender actor of the message content
      * @param receiver BuyingActor; the receving actor of the message content
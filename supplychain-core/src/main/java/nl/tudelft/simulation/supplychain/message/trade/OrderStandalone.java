@@ -32,6 +32,14 @@ public class OrderStandalone extends Order
     /** the price we want to pay for the product. */
     private Money price;
 
+    /**
+     * Create an empty standalone order for the ModelCheckpoint.
+     */
+    protected OrderStandalone()
+    {
+        super();
+    }
+
     /**
      * The constructor for the OrderStandAlone.
      * @param sender BuyingActor; the sender actor of the message content
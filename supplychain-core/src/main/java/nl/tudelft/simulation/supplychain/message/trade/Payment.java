@@ -23,6 +23,14 @@ public class Payment extends TradeMessage
     /** the amount reflecting the payment. */
     private Money payment;
 
+    /**
+     * Create an empty payment for the ModelCheckpoint.
+     */
+    protected Payment()
+    {
+        super();
+    }
+
     /**
      * Constructs a new Payment.
      * @param sender Actor; the sender actor of the message content
@@ -33,6 +33,14 @@ public class ProductionOrder extends TradeMessage
     /** the accumulated costs for gathered raw materials. */
     private Money materialCost = new Money(0.0, MoneyUnit.USD);
 
+    /**
+     * Create an empty production order for the ModelCheckpoint.
+     */
+    protected ProductionOrder()
+    {
+        super();
+    }
+
     /**
      * The constructor for the ProductionOrder.
      * @param owner the producer of the products
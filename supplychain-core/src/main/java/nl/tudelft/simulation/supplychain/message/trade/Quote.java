@@ -42,6 +42,14 @@ public class Quote extends TradeMessage
     /** the time on the simulator clock until which the quote is valid. */
     private Time validityTime;
 
+    /**
+     * Create an empty quote for the ModelCheckpoint.
+     */
+    protected Quote()
+    {
+        super();
+    }
+
     /**
      * The Constructor for a Quote. Note that the Quote contains a product and an amount. This sounds superfluous, but it is
      * not. The quote might contain a replacement product or less amount than the original request in the RFQ.
@@ -30,6 +30,16 @@ public class RequestForQuote extends TradeMessage
     /** the preferred transport option for moving the product from sender to receiver. */
     private final TransportOption preferredTransportOption;
 
+    /**
+     * Create an empty request for quote for the ModelCheckpoint.
+     */
+    protected RequestForQuote()
+    {
+        this.internalDemand = null;
+        this.cutoffDate = null;
+        this.preferredTransportOption = null;
+    }
+
     /**
      * Create a new RFQ, based on an internal demand.
      * @param sender Actor; the sender actor of the message content
@@ -36,6 +36,14 @@ public class Shipment extends TradeMessage
     /** has the shipment been delivered? */
     private boolean delivered = false;
 
+    /**
+     * Create an empty shipment for the ModelCheckpoint.
+     */
+    protected Shipment()
+    {
+        super();
+    }
+
     /**
      * @param sender Actor; the sender actor of the message content
      * @param receiver Actor; the receiving actor of the message content
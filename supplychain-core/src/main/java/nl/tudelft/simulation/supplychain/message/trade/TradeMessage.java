@@ -23,6 +23,14 @@ public abstract class TradeMessage extends Message
     /** unique id of the InternalDemand that triggered the message chain. */
     private long internalDemandId;
 
+    /**
+     * Create an empty trade message for the ModelCheckpoint.
+     */
+    protected TradeMessage()
+    {
+        super();
+    }
+
     /**
      * Constructs a new TradeMessage object.
      * @param sender Actor; the sending actor of the message content
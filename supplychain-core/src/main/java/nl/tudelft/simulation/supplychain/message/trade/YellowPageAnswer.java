@@ -26,6 +26,15 @@ public class YellowPageAnswer extends TradeMessage
     /** the request that triggered this yellow page anawer. */
     private final YellowPageRequest ypRequest;
 
+    /**
+     * Create an empty yellow page answer for the ModelCheckpoint.
+     */
+    protected YellowPageAnswer()
+    {
+        this.suppliers = null;
+        this.ypRequest = null;
+    }
+
     /**
      * Constructs a new YellowPageAnswer.
      * @param sender YellowPageActor; the sender of the yellow page answer
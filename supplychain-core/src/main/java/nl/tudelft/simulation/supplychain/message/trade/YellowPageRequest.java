@@ -30,6 +30,14 @@ public class YellowPageRequest extends TradeMessage
     /** product to look for. */
     private Product product;
 
+    /**
+     * Create an empty yellow page request for the ModelCheckpoint.
+     */
+    protected YellowPageRequest()
+    {
+        super();
+    }
+
     /**
      * Construct a YellowPageRequest with a maximum distance.
      * @param sender Actor; the sender of the yellow page request
@@ -3,17 +3,19 @@ package nl.tudelft.simulation.supplychain.policy.quote;
 import java.io.Serializable;
 import java.util.Comparator;
 
-import org.djunits.value.vdouble.scalar.Time;
-import org.djutils.draw.point.Point2d;
 import org.djutils.exceptions.Throw;
 import org.pmw.tinylog.Logger;
 
+import nl.tudelft.simulation.supplychain.actor.Actor;
 import nl.tudelft.simulation.supplychain.actor.Role;
-import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.dsol.DistanceMatrix;
 import nl.tudelft.simulation.supplychain.message.trade.Quote;
 
 /**
- * Class for comparing quotes.
+ * Class for comparing quotes. The comparator type determines the lexicographic
+ * order of the price, the proposed delivery date, and the distance of the
+ * sender of the quote to the owner. Fields are only calculated when the
+ * previous fields are equal.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the
  * Netherlands. All rights reserved. <br>
@@ -26,11 +28,29 @@ public class QuoteComparator implements Comparator<Quote>, Serializable {
 	/** the serial version uid. */
 	private static final long serialVersionUID = 20221201L;
 
+	/** the number of fields in the sort key of a quote. */
+	public static final int KEY_LENGTH = 3;
+
+	/** key field for the price of the quote. */
+	private static final int PRICE = 0;
+
+	/** key field for the proposed delivery date of the quote. */
+	private static final int DATE = 1;
+
+	/** key field for the distance of the sender of the quote to the owner. */
+	private static final int DISTANCE = 2;
+
 	/** comparatorType indicates the sorting order for the comparator. */
 	private QuoteComparatorEnum comparatorType;
 
-	/** ownerPosition stores the position of the owner. */
-	private Point2d ownerPosition;
+	/** the fields of the sort key in the order of comparison. */
+	private int[] keyOrder;
+
+	/** the actor that owns the role, to which the distances are calculated. */
+	private Actor ownerActor;
+
+	/** the distance matrix of the model of the owner. */
+	private DistanceMatrix distanceMatrix;
 
 	/**
 	 * @param owner          the supply chain actor
@@ -41,75 +61,103 @@ public class QuoteComparator implements Comparator<Quote>, Serializable {
 		Throw.whenNull(owner, "owner cannot be null");
 		Throw.whenNull(comparatorType, "comparatorType cannot be null");
 		this.comparatorType = comparatorType;
-		this.ownerPosition = (Point2d) owner.getActor().getLocation();
+		this.keyOrder = keyOrder(comparatorType);
+		this.ownerActor = owner.getActor();
+		this.distanceMatrix = owner.getActor().getModel().getDistanceMatrix();
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public int compare(final Quote quote1, final Quote quote2) {
-		Money price0 = quote1.getPrice();
-		Money price1 = quote2.getPrice();
-		int priceCompare = Double.compare(price0.getAmount(), price1.getAmount());
-		Time date0 = quote1.getProposedDeliveryDate();
-		Time date1 = quote2.getProposedDeliveryDate();
-		int dateCompare = Double.compare(date0.si, date1.si);
-		double distance0 = ((Point2d) quote1.getSender().getLocation()).distance(this.ownerPosition);
-		double distance1 = ((Point2d) quote2.getSender().getLocation()).distance(this.ownerPosition);
-		int distanceCompare = Double.compare(distance0, distance1);
-		switch (this.comparatorType) {
-		case SORT_DATE_DISTANCE_PRICE:
-			if (dateCompare != 0) {
-				return dateCompare;
-			} else if (distanceCompare != 0) {
-				return distanceCompare;
-			} else {
-				return priceCompare;
+		if (this.keyOrder == null) {
+			Logger.error("QuoteHandler$compare - Illegal comparator type=" + this.comparatorType);
+			return 0;
+		}
+		for (int field : this.keyOrder) {
+			int result = Double.compare(keyField(quote1, field), keyField(quote2, field));
+			if (result != 0) {
+				return result;
 			}
-		case SORT_DATE_PRICE_DISTANCE:
-			if (dateCompare != 0) {
-				return dateCompare;
-			} else if (priceCompare != 0) {
-				return priceCompare;
-			} else {
-				return distanceCompare;
+		}
+		return 0;
+	}
+
+	/**
+	 * Fill the sort key of a quote: the price, the proposed delivery date, and the
+	 * distance of the sender to the owner, in the order of the comparator type.
+	 * Comparing the keys lexicographically with compareKeys gives the same result
+	 * as comparing the quotes with this comparator, but the fields of each quote
+	 * are only calculated once.
+	 * 
+	 * @param quote Quote; the quote to calculate the key for
+	 * @param key   double[]; the array of length KEY_LENGTH to store the key in
+	 */
+	public void fillKey(final Quote quote, final double[] key) {
+		for (int i = 0; i < KEY_LENGTH; i++) {
+			key[i] = this.keyOrder == null ? 0.0 : keyField(quote, this.keyOrder[i]);
+		}
+	}
+
+	/**
+	 * Compare two sort keys, as filled by fillKey, lexicographically.
+	 * 
+	 * @param key1 double[]; the first key
+	 * @param key2 double[]; the second key
+	 * @return int; a negative number when key1 comes first, zero when the keys are
+	 *         equal, and a positive number when key2 comes first
+	 */
+	public static int compareKeys(final double[] key1, final double[] key2) {
+		for (int i = 0; i < KEY_LENGTH; i++) {
+			int result = Double.compare(key1[i], key2[i]);
+			if (result != 0) {
+				return result;
 			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Return one field of the sort key of a quote.
+	 * 
+	 * @param quote Quote; the quote
+	 * @param field int; PRICE, DATE or DISTANCE
+	 * @return double; the value of the field for the quote
+	 */
+	private double keyField(final Quote quote, final int field) {
+		switch (field) {
+		case PRICE:
+			return quote.getPrice().getAmount();
+		case DATE:
+			return quote.getProposedDeliveryDate().si;
+		default:
+			return this.distanceMatrix.getDistanceSi(quote.getSender(), this.ownerActor);
+		}
+	}
+
+	/**
+	 * Return the order of the fields of the sort key for a comparator type.
+	 * 
+	 * @param comparatorType QuoteComparatorEnum; the comparator type
+	 * @return int[]; the fields in the order of comparison, or null for an unknown
+	 *         type
+	 */
+	private static int[] keyOrder(final QuoteComparatorEnum comparatorType) {
+		switch (comparatorType) {
+		case SORT_DATE_DISTANCE_PRICE:
+			return new int[] { DATE, DISTANCE, PRICE };
+		case SORT_DATE_PRICE_DISTANCE:
+			return new int[] { DATE, PRICE, DISTANCE };
 		case SORT_DISTANCE_DATE_PRICE:
-			if (distanceCompare != 0) {
-				return distanceCompare;
-			} else if (dateCompare != 0) {
-				return dateCompare;
-			} else {
-				return priceCompare;
-			}
+			return new int[] { DISTANCE, DATE, PRICE };
 		case SORT_DISTANCE_PRICE_DATE:
-			if (distanceCompare != 0) {
-				return distanceCompare;
-			} else if (priceCompare != 0) {
-				return priceCompare;
-			} else {
-				return dateCompare;
-			}
+			return new int[] { DISTANCE, PRICE, DATE };
 		case SORT_PRICE_DATE_DISTANCE:
-			if (priceCompare != 0) {
-				return priceCompare;
-			} else if (dateCompare != 0) {
-				return dateCompare;
-			} else {
-				return distanceCompare;
-			}
+			return new int[] { PRICE, DATE, DISTANCE };
 		case SORT_PRICE_DISTANCE_DATE:
-			if (priceCompare != 0) {
-				return priceCompare;
-			} else if (distanceCompare != 0) {
-				return distanceCompare;
-			} else {
-				return dateCompare;
-			}
+			return new int[] { PRICE, DISTANCE, DATE };
 		default:
-			Logger.error("QuoteHandler$compare - Illegal comparator type=" + this.comparatorType);
-			break;
+			return null;
 		}
-		return 0;
 	}
 
 	/** {@inheritDoc} */
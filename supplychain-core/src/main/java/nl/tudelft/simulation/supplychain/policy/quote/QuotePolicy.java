@@ -1,10 +1,9 @@
 package nl.tudelft.simulation.supplychain.policy.quote;
 
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+
+import org.djunits.value.vdouble.scalar.Time;
 
 import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
 import nl.tudelft.simulation.supplychain.actor.Role;
@@ -99,81 +98,80 @@ public abstract class QuotePolicy extends SupplyChainPolicy<Quote>
 
     /**
      * Select the best quote from a list of quotes, based on the ordering sequence as indicated in the constructor of the
-     * handler.
+     * handler. The quotes are filtered and the minimum is selected in one pass; when several quotes are equally good, the
+     * first one in the list is selected. For a QuoteComparator, the sort key of each quote is calculated only once, see
+     * QuoteSelection.
      * @param quotes the list of quotes to select from
      * @return Quote the best quote according to the sorting criterion or null of no quote passed the validity tests
      */
     protected Quote selectBestQuote(final List<Quote> quotes)
     {
-        SortedSet<Quote> sortedQuotes = new TreeSet<>(this.quoteComparator);
-        Iterator<Quote> quoteIterator = quotes.iterator();
-        while (quoteIterator.hasNext())
+        Time now = getSimulator().getAbsSimulatorTime();
+        QuoteSelection selection = new QuoteSelection(this.quoteComparator);
+        for (Quote quote : quotes)
+        {
+            if (isAcceptable(quote, now))
+            {
+                selection.offer(quote);
+            }
+        }
+        return selection.getBestQuote();
+    }
+
+    /**
+     * Return whether a quote passes the validity tests: it is still valid, its price is within the maximum price margin, its
+     * amount is within the minimum amount margin, and it can be delivered in time.
+     * @param quote Quote; the quote to test
+     * @param now Time; the current simulation time
+     * @return boolean; whether the quote can be selected
+     */
+    protected boolean isAcceptable(final Quote quote, final Time now)
+    {
+        if (!(quote.getValidityTime().gt(now) && quote.getAmount() > 0.0))
         {
-            Quote quote = quoteIterator.next();
-            // only take valid quotes...
-            if (quote.getValidityTime().gt(getSimulator().getAbsSimulatorTime()) && quote.getAmount() > 0.0)
+            if (QuotePolicy.DEBUG)
             {
-                if (((quote.getPrice().getAmount() / quote.getAmount()))
-                        / quote.getProduct().getUnitMarketPrice().getAmount() <= (1.0 + this.maximumPriceMargin))
-                {
-                    if (quote.getAmount() <= quote.getRequestForQuote().getAmount() && ((quote.getRequestForQuote().getAmount()
-                            / quote.getAmount()) <= (1.0 + this.minimumAmountMargin)))
-                    {
-                        if ((quote.getProposedDeliveryDate().le(quote.getRequestForQuote().getLatestDeliveryDate())))
-                        // && (quote.getProposedDeliveryDate() >= quote
-                        // .getRequestForQuote()
-                        // .getEarliestDeliveryDate()))
-                        {
-                            sortedQuotes.add(quote);
-                        }
-                        else
-                        {
-                            if (QuotePolicy.DEBUG)
-                            {
-                                System.err.println("QuoteHandler: quote: + prop delivery date: "
-                                        + quote.getProposedDeliveryDate() + " earliest delivery date: "
-                                        + quote.getRequestForQuote().getEarliestDeliveryDate() + " latest delivery date: "
-                                        + quote.getRequestForQuote().getLatestDeliveryDate());
-                                System.err.println("Quote: " + quote);
-                                System.err.println("Owner of quote handler: " + getActor().getName());
-                            }
-                        }
-
-                    }
-                    else
-                    {
-                        if (QuotePolicy.DEBUG)
-                        {
-                            System.err.println("DEBUG -- QuoteHandler: " + " Quote: " + quote + " has invalid amount : "
-                                    + quote.getAmount() + ">" + quote.getRequestForQuote().getAmount());
-                        }
-                    }
-                }
-                else
-                {
-                    if (QuotePolicy.DEBUG)
-                    {
-                        System.err.println("DEBUG -- QuoteHandler: " + " Price of quote: " + quote + " is too high: "
-                                + (((quote.getPrice().getAmount() / quote.getAmount()))
-                                        / quote.getProduct().getUnitMarketPrice().getAmount() + "> "
-                                        + (1.0 + this.maximumPriceMargin)));
-                    }
-                }
+                System.err.println("DEBUG -- QuoteHandler: " + " Quote: " + quote + " is invalid (before simtime) : "
+                        + quote.getValidityTime() + " < " + getSimulator().getSimulatorTime());
             }
-            else
+            return false;
+        }
+        // a NaN ratio, e.g., for a market price of zero, is not acceptable
+        if (!(((quote.getPrice().getAmount() / quote.getAmount()))
+                / quote.getProduct().getUnitMarketPrice().getAmount() <= (1.0 + this.maximumPriceMargin)))
+        {
+            if (QuotePolicy.DEBUG)
             {
-                if (QuotePolicy.DEBUG)
-                {
-                    System.err.println("DEBUG -- QuoteHandler: " + " Quote: " + quote + " is invalid (before simtime) : "
-                            + quote.getValidityTime() + " < " + getSimulator().getSimulatorTime());
-                }
+                System.err.println("DEBUG -- QuoteHandler: " + " Price of quote: " + quote + " is too high: "
+                        + (((quote.getPrice().getAmount() / quote.getAmount()))
+                                / quote.getProduct().getUnitMarketPrice().getAmount() + "> "
+                                + (1.0 + this.maximumPriceMargin)));
             }
+            return false;
         }
-        if (sortedQuotes.size() == 0)
+        if (!(quote.getAmount() <= quote.getRequestForQuote().getAmount()
+                && ((quote.getRequestForQuote().getAmount() / quote.getAmount()) <= (1.0 + this.minimumAmountMargin))))
         {
-            return null;
+            if (QuotePolicy.DEBUG)
+            {
+                System.err.println("DEBUG -- QuoteHandler: " + " Quote: " + quote + " has invalid amount : "
+                        + quote.getAmount() + ">" + quote.getRequestForQuote().getAmount());
+            }
+            return false;
+        }
+        if (!quote.getProposedDeliveryDate().le(quote.getRequestForQuote().getLatestDeliveryDate()))
+        {
+            if (QuotePolicy.DEBUG)
+            {
+                System.err.println("QuoteHandler: quote: + prop delivery date: " + quote.getProposedDeliveryDate()
+                        + " earliest delivery date: " + quote.getRequestForQuote().getEarliestDeliveryDate()
+                        + " latest delivery date: " + quote.getRequestForQuote().getLatestDeliveryDate());
+                System.err.println("Quote: " + quote);
+                System.err.println("Owner of quote handler: " + getActor().getName());
+            }
+            return false;
         }
-        return sortedQuotes.first();
+        return true;
     }
 
     /**
@@ -1,9 +1,13 @@
 package nl.tudelft.simulation.supplychain.policy.quote;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.djunits.value.vdouble.scalar.Time;
@@ -11,7 +15,9 @@ import org.pmw.tinylog.Logger;
 
 import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
 import nl.tudelft.simulation.supplychain.actor.Role;
-import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStoreInterface;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
 import nl.tudelft.simulation.supplychain.message.trade.Order;
 import nl.tudelft.simulation.supplychain.message.trade.OrderBasedOnQuote;
 import nl.tudelft.simulation.supplychain.message.trade.Quote;
@@ -23,7 +29,15 @@ import nl.tudelft.simulation.supplychain.role.selling.SellingActor;
  * The QuoteHandlerTimeout handles quotes until a certain timeout is reached.
  * When all Quotes are in, it reacts. It schedules the timeout date when the
  * FIRST Quote comes in, because it makes no sense to cut off the negotiation
- * process without any received Quote.
+ * process without any received Quote. The RFQs for a demand are counted once,
+ * when the first Quote comes in; after that, the policy counts the Quotes and
+ * keeps the best Quote so far itself, without consulting the message store.
+ * The quotes of a demand are tracked until the timeout, whatever the outcome;
+ * quotes that arrive after the timeout of their demand are ignored. The first
+ * quote of a demand that arrives after the cutoff date of its RFQ is still
+ * handled, and leads to an order right away. The trackers of the demands and
+ * the demands that timed out are part of a checkpoint of the model, so a
+ * restored policy handles the pending quotes and timeouts in the same way.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the
  * Netherlands. All rights reserved. <br>
@@ -32,12 +46,15 @@ import nl.tudelft.simulation.supplychain.role.selling.SellingActor;
  * 
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class QuotePolicyTimeout extends QuotePolicy {
+public class QuotePolicyTimeout extends QuotePolicy implements Checkpointable {
 	/** the serial version uid. */
 	private static final long serialVersionUID = 20221201L;
 
-	/** a set of internal demand IDs for which we did not yet answer. */
-	private Set<Serializable> unansweredIDs = new LinkedHashSet<Serializable>();
+	/** the quotes per internal demand ID, for the demands that are not yet complete. */
+	private Map<Long, QuoteTracker> trackers = new LinkedHashMap<>();
+
+	/** the internal demand IDs of the demands that have timed out. */
+	private Set<Long> timedOutDemands = new HashSet<>();
 
 	/**
 	 * Constructor of the QuoteHandlerTimeout with a user defined comparator for
@@ -81,25 +98,40 @@ public class QuotePolicyTimeout extends QuotePolicy {
 			return false;
 		}
 		long internalDemandId = quote.getInternalDemandId();
-		TradeMessageStoreInterface messageStore = getActor().getMessageStore();
-		int numberQuotes = messageStore.getMessageList(internalDemandId, Quote.class).size();
-		int numberRFQs = messageStore.getMessageList(internalDemandId, RequestForQuote.class).size();
-		// when the first quote comes in, schedule the timeout
-		if (numberQuotes == 1) {
+		QuoteTracker tracker = this.trackers.get(internalDemandId);
+		// when the first quote comes in, count the RFQs and schedule the timeout
+		if (tracker == null) {
+			if (this.timedOutDemands.contains(internalDemandId)) {
+				// a late quote after the timeout of the demand
+				return true;
+			}
+			int numberRFQs = getActor().getMessageStore().getMessageList(internalDemandId, RequestForQuote.class)
+					.size();
+			tracker = new QuoteTracker(numberRFQs, new QuoteSelection(getQuoteComparator()));
+			this.trackers.put(internalDemandId, tracker);
 			try {
-				this.unansweredIDs.add(internalDemandId);
 				Serializable[] args = new Serializable[] { internalDemandId };
 
 				// calculate the actual time out
 				Time time = Time.max(getSimulator().getAbsSimulatorTime(), quote.getRequestForQuote().getCutoffDate());
-				getSimulator().scheduleEventAbs(time, this, "createOrder", args);
+				getSimulator().scheduleEventAbs(time, this, "timeout", args);
 			} catch (Exception exception) {
 				Logger.error(exception, "handleContent");
 				return false;
 			}
 		}
+		tracker.receivedQuotes++;
+		if (tracker.answered) {
+			// a quote after the demand has been answered
+			removeWhenComplete(internalDemandId, tracker);
+			return true;
+		}
+		tracker.quotes.add(quote);
+		if (isAcceptable(quote, getSimulator().getAbsSimulatorTime())) {
+			tracker.selection.offer(quote);
+		}
 		// look if all quotes are there for the RFQs that we sent out
-		if (numberQuotes == numberRFQs) {
+		if (tracker.receivedQuotes >= tracker.expectedQuotes) {
 			createOrder(internalDemandId);
 		}
 		return true;
@@ -107,27 +139,151 @@ public class QuotePolicyTimeout extends QuotePolicy {
 
 	/**
 	 * All quotes are in, or time is over. Select the best quote, and place an
-	 * order. The set of unansweredIDs is used to determine if we already answered
+	 * order. The tracker of the demand is used to determine if we already answered
 	 * with an Order -- in many cases, the createOrder method is scheduled twice:
-	 * once when all the quotes are in, and once when the timeout is there.
+	 * once when all the quotes are in, and once when the timeout is there. The
+	 * best quote has been selected while the quotes came in; only when it is no
+	 * longer valid at the time of the order, the received quotes are evaluated
+	 * again.
 	 * 
 	 * @param internalDemandId the original demand linked to the quotes
 	 */
 	protected void createOrder(final long internalDemandId) {
-		if (this.unansweredIDs.contains(internalDemandId)) {
-			this.unansweredIDs.remove(internalDemandId);
-			TradeMessageStoreInterface messageStore = getActor().getMessageStore();
-			List<Quote> quotes = messageStore.getMessageList(internalDemandId, Quote.class);
-
-			// the size of the quotes is at least one
-			// since the invocation of this method is scheduled after a first
-			// quote has been received (see handleContent() of this class)
-			Quote bestQuote = this.selectBestQuote(quotes);
-			if (bestQuote != null) {
-				Order order = new OrderBasedOnQuote((BuyingActor) getActor(), (SellingActor) bestQuote.getSender(),
-						bestQuote.getProposedDeliveryDate(), bestQuote, bestQuote.getTransportOption());
-				sendMessage(order, this.getHandlingTime().draw());
+		QuoteTracker tracker = this.trackers.get(internalDemandId);
+		if (tracker == null || tracker.answered) {
+			return;
+		}
+		tracker.answered = true;
+
+		// the tracker has at least one quote, since the invocation of this method
+		// is scheduled after a first quote has been received (see handleMessage)
+		Quote bestQuote = tracker.selection.getBestQuote();
+		if (bestQuote != null && !isAcceptable(bestQuote, getSimulator().getAbsSimulatorTime())) {
+			bestQuote = selectBestQuote(tracker.quotes);
+		}
+		tracker.quotes = null;
+		tracker.selection = null;
+		removeWhenComplete(internalDemandId, tracker);
+		if (bestQuote != null) {
+			Order order = new OrderBasedOnQuote((BuyingActor) getActor(), (SellingActor) bestQuote.getSender(),
+					bestQuote.getProposedDeliveryDate(), bestQuote, bestQuote.getTransportOption());
+			sendMessage(order, this.getHandlingTime().draw());
+		}
+	}
+
+	/**
+	 * The timeout of the quotes for a demand: place an order when that has not
+	 * been done yet, and stop tracking the quotes of the demand, also when not all
+	 * quotes came in or when no order could be placed.
+	 * 
+	 * @param internalDemandId the original demand linked to the quotes
+	 */
+	protected void timeout(final long internalDemandId) {
+		createOrder(internalDemandId);
+		this.trackers.remove(internalDemandId);
+		this.timedOutDemands.add(internalDemandId);
+	}
+
+	/**
+	 * Remove the tracker of a demand that has been answered, once all quotes for
+	 * the demand are in, since no more quotes can come in for the demand.
+	 * 
+	 * @param internalDemandId the original demand linked to the quotes
+	 * @param tracker          the tracker of the demand
+	 */
+	private void removeWhenComplete(final long internalDemandId, final QuoteTracker tracker) {
+		if (tracker.answered && tracker.receivedQuotes >= tracker.expectedQuotes) {
+			this.trackers.remove(internalDemandId);
+		}
+	}
+
+	/**
+	 * Return the number of demands for which quotes are being tracked, i.e., the
+	 * demands that have not been answered yet, or for which not all quotes are in
+	 * before the timeout.
+	 * 
+	 * @return int; the number of tracked demands
+	 */
+	public int getNumberOfTrackedDemands() {
+		return this.trackers.size();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void writeCheckpoint(final CheckpointOutput out) throws IOException {
+		out.writeInt(this.trackers.size());
+		for (Map.Entry<Long, QuoteTracker> entry : this.trackers.entrySet()) {
+			QuoteTracker tracker = entry.getValue();
+			out.writeLong(entry.getKey());
+			out.writeInt(tracker.expectedQuotes);
+			out.writeInt(tracker.receivedQuotes);
+			out.writeBoolean(tracker.answered);
+			out.writeValue(tracker.quotes);
+			out.writeValue(tracker.answered ? null : tracker.selection.getBestQuote());
+		}
+		out.writeInt(this.timedOutDemands.size());
+		for (long internalDemandId : this.timedOutDemands) {
+			out.writeLong(internalDemandId);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} The selection of a demand that has not been answered yet
+	 * starts again with the best quote so far.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void readCheckpoint(final CheckpointInput in) throws IOException {
+		this.trackers.clear();
+		int numberOfTrackers = in.readInt();
+		for (int i = 0; i < numberOfTrackers; i++) {
+			long internalDemandId = in.readLong();
+			QuoteTracker tracker = new QuoteTracker(in.readInt(), new QuoteSelection(getQuoteComparator()));
+			tracker.receivedQuotes = in.readInt();
+			tracker.answered = in.readBoolean();
+			tracker.quotes = (List<Quote>) in.readValue();
+			Quote bestQuote = (Quote) in.readValue();
+			if (tracker.answered) {
+				tracker.selection = null;
+			} else if (bestQuote != null) {
+				tracker.selection.offer(bestQuote);
 			}
+			this.trackers.put(internalDemandId, tracker);
+		}
+		this.timedOutDemands.clear();
+		int numberOfTimedOutDemands = in.readInt();
+		for (int i = 0; i < numberOfTimedOutDemands; i++) {
+			this.timedOutDemands.add(in.readLong());
+		}
+	}
+
+	/** The quotes for one internal demand, and the best quote so far. */
+	private static class QuoteTracker implements Serializable {
+		/** */
+		private static final long serialVersionUID = 20231017L;
+
+		/** the number of RFQs that were sent for the demand. */
+		private final int expectedQuotes;
+
+		/** the number of quotes that have come in for the demand. */
+		private int receivedQuotes = 0;
+
+		/** whether the demand has been answered with an order. */
+		private boolean answered = false;
+
+		/** the quotes that have come in, in order of arrival; null when answered. */
+		private List<Quote> quotes = new ArrayList<>();
+
+		/** the selection of the best quote so far; null when answered. */
+		private QuoteSelection selection;
+
+		/**
+		 * @param expectedQuotes int; the number of RFQs that were sent for the demand
+		 * @param selection      QuoteSelection; the selection of the best quote
+		 */
+		QuoteTracker(final int expectedQuotes, final QuoteSelection selection) {
+			this.expectedQuotes = expectedQuotes;
+			this.selection = selection;
 		}
 	}
 }
@@ -0,0 +1,113 @@
+package nl.tudelft.simulation.supplychain.policy.quote;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+
+/**
+ * QuoteSelection keeps the best quote of the quotes that are offered to it, according to a comparator. When several quotes
+ * are equally good, the quote that was offered first is kept. For a QuoteComparator, the sort key of each offered quote is
+ * calculated only once, and the key of the best quote is kept, so quotes can be offered one by one as they come in. The
+ * selection does not test the validity of the quotes; that is up to the QuotePolicy that offers them.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class QuoteSelection implements Serializable
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the comparator to order the quotes. */
+    private final Comparator<Quote> comparator;
+
+    /** the comparator as QuoteComparator, or null when it is a user defined comparator. */
+    private final QuoteComparator quoteComparator;
+
+    /** the best quote so far, or null when no quote has been offered. */
+    private Quote bestQuote = null;
+
+    /** the sort key of the best quote, when a QuoteComparator is used. */
+    private double[] bestKey;
+
+    /** the sort key of the offered quote, when a QuoteComparator is used. */
+    private double[] key;
+
+    /**
+     * Create an empty selection.
+     * @param comparator Comparator&lt;Quote&gt;; the comparator to order the quotes
+     */
+    public QuoteSelection(final Comparator<Quote> comparator)
+    {
+        Throw.whenNull(comparator, "comparator cannot be null");
+        this.comparator = comparator;
+        if (comparator instanceof QuoteComparator)
+        {
+            this.quoteComparator = (QuoteComparator) comparator;
+            this.bestKey = new double[QuoteComparator.KEY_LENGTH];
+            this.key = new double[QuoteComparator.KEY_LENGTH];
+        }
+        else
+        {
+            this.quoteComparator = null;
+        }
+    }
+
+    /**
+     * Offer a quote to the selection, and keep it when it is better than the best quote so far.
+     * @param quote Quote; the quote to offer
+     * @return boolean; whether the quote is the new best quote
+     */
+    public boolean offer(final Quote quote)
+    {
+        if (this.quoteComparator != null)
+        {
+            this.quoteComparator.fillKey(quote, this.key);
+            if (this.bestQuote == null || QuoteComparator.compareKeys(this.key, this.bestKey) < 0)
+            {
+                this.bestQuote = quote;
+                double[] swap = this.bestKey;
+                this.bestKey = this.key;
+                this.key = swap;
+                return true;
+            }
+            return false;
+        }
+        if (this.bestQuote == null || this.comparator.compare(quote, this.bestQuote) < 0)
+        {
+            this.bestQuote = quote;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return the best quote so far.
+     * @return Quote; the best quote so far, or null when no quote has been offered
+     */
+    public Quote getBestQuote()
+    {
+        return this.bestQuote;
+    }
+
+    /**
+     * Empty the selection, so it can be used for a new set of quotes.
+     */
+    public void clear()
+    {
+        this.bestQuote = null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "QuoteSelection [comparator=" + this.comparator + ", bestQuote=" + this.bestQuote + "]";
+    }
+
+}
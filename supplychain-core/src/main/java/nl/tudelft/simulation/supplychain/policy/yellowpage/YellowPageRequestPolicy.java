@@ -1,15 +1,6 @@
 package nl.tudelft.simulation.supplychain.policy.yellowpage;
 
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
-
-import org.djunits.value.vdouble.scalar.Length;
-import org.djutils.draw.point.Point;
-import org.pmw.tinylog.Logger;
 
 import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
 import nl.tudelft.simulation.supplychain.actor.Actor;
@@ -23,7 +14,8 @@ import nl.tudelft.simulation.supplychain.role.yellowpage.YellowPageRole;
  * The YellowPageRequestHandler implements the business logic for a yellow page
  * actor who receives a YellowPageRequest and has to look up supply chain actors
  * within the boundaries of the request For the moment, these are max number,
- * max distance, and product.
+ * max distance, and product. The suppliers are looked up with a k-nearest
+ * within radius query on the spatial index of the YellowPageRole.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the
  * Netherlands. All rights reserved. <br>
@@ -56,59 +48,14 @@ public class YellowPageRequestPolicy extends SupplyChainPolicy<YellowPageRequest
 		if (!isValidMessage(ypRequest)) {
 			return false;
 		}
-		Set<Actor> supplierSet = ((YellowPageRole) getRole()).getSuppliers(ypRequest.getProduct());
-		if (supplierSet == null) {
-			Logger.warn("YellowPage '{}' has no supplier map for product {}", getActor().getName(),
-					ypRequest.getProduct().getName());
-			return false;
-		}
-		SortedMap<Length, Actor> suppliers = pruneDistance(supplierSet, ypRequest.getMaximumDistance(),
-				ypRequest.getSender().getLocation());
-		pruneNumber(suppliers, ypRequest.getMaximumNumber());
-		List<Actor> potentialSuppliers = new ArrayList<>(suppliers.values());
+		List<Actor> potentialSuppliers = getRole().findNearestSuppliers(ypRequest.getProduct(), ypRequest.getSender(),
+				ypRequest.getMaximumDistance(), ypRequest.getMaximumNumber());
 		YellowPageAnswer ypAnswer = new YellowPageAnswer((YellowPageActor) getActor(), ypRequest.getSender(),
 				ypRequest.getInternalDemandId(), potentialSuppliers, ypRequest);
 		sendMessage(ypAnswer, this.handlingTime.draw());
 		return true;
 	}
 
-	/**
-	 * Prune the list of suppliers based on the maximum distance.
-	 * 
-	 * @param supplierSet the set of suppliers
-	 * @param maxDistance the maximum distance tgo use for pruning
-	 * @param location    the location to compare the supplier locations with
-	 * @return a map of suppliers, sorted on distance
-	 */
-	private SortedMap<Length, Actor> pruneDistance(final Set<Actor> supplierSet, final Length maxDistance,
-			final Point<?> location) {
-		SortedMap<Length, Actor> sortedSuppliers = new TreeMap<>();
-		for (Actor actor : sortedSuppliers.values()) {
-			Length distance = getRole().getSimulator().getModel().calculateDistance(actor.getLocation(), location);
-			if (distance.le(maxDistance)) {
-				sortedSuppliers.put(distance, actor);
-			}
-		}
-		return sortedSuppliers;
-	}
-
-	/**
-	 * Prune the list of suppliers based on the number.
-	 * 
-	 * @param suppliers the map of suppliers (sorted on distance)
-	 * @param maxNumber the maximum number to leave
-	 */
-	private void pruneNumber(final SortedMap<Length, Actor> suppliers, final int maxNumber) {
-		int count = 0;
-		Iterator<Actor> supplierIterator = suppliers.values().iterator();
-		while (supplierIterator.hasNext()) {
-			supplierIterator.next();
-			if (++count > maxNumber) {
-				supplierIterator.remove();
-			}
-		}
-	}
-
 	/** {@inheritDoc} */
 	@Override
 	public YellowPageRole getRole() {
@@ -53,6 +53,9 @@ public class Product implements Serializable {
 	/** the current world market price of the product per unit. */
 	private Money unitMarketPrice = new Money(0.0, MoneyUnit.USD);
 
+	/** the dense index of the product in the model, e.g., for array-based inventories. */
+	private final int index;
+
 	/**
 	 * Construct a new product with an empty Bill of Materials.
 	 * 
@@ -72,6 +75,7 @@ public class Product implements Serializable {
 	public Product(final SupplyChainModelInterface model, final String name, final Sku sku,
 			final Money initialUnitMarketPrice, final Mass averageSkuWeight, final Volume averageSkuVolume,
 			final double depreciation) {
+		Throw.whenNull(model, "model cannot be null");
 		Throw.whenNull(name, "name cannot be null");
 		Throw.whenNull(sku, "sku cannot be null");
 		Throw.whenNull(initialUnitMarketPrice, "initialUnitMarketPrice cannot be null");
@@ -84,6 +88,18 @@ public class Product implements Serializable {
 		this.averageSkuWeight = averageSkuWeight;
 		this.averageSkuVolume = averageSkuVolume;
 		this.depreciation = depreciation;
+		this.index = model.registerProduct(this);
+	}
+
+	/**
+	 * Return the dense index of the product in the model. The indices of the
+	 * products in a model run from 0 to the number of products - 1, and equal
+	 * products have the same index.
+	 * 
+	 * @return int; the dense index of the product in the model
+	 */
+	public int getIndex() {
+		return this.index;
 	}
 
 	/**
@@ -56,6 +56,14 @@ public class Sku implements Serializable {
 	/** the name of the unit for printing and identification purposes. */
 	private String name;
 
+	/**
+	 * Create an empty SKU for the ModelCheckpoint, which sets the name when it
+	 * reads a transport option with estimates per SKU from a checkpoint.
+	 */
+	protected Sku() {
+		// the name is set by the checkpoint
+	}
+
 	/**
 	 * Constructor for Unit.
 	 * 
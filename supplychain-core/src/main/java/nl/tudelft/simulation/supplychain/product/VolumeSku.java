@@ -23,6 +23,13 @@ public class VolumeSku extends Sku {
 	/** volume of the unit in m3. */
 	private double volumeM3;
 
+	/**
+	 * Create an empty volume SKU for the ModelCheckpoint.
+	 */
+	protected VolumeSku() {
+		super();
+	}
+
 	/**
 	 * @param name     String; the name of the unit
 	 * @param volumeM3 double; determining volume of the unit, in m3
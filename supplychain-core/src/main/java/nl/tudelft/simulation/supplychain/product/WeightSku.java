@@ -23,6 +23,13 @@ public class WeightSku extends Sku {
 	/** weight of the unit in kg. */
 	private double weightKg;
 
+	/**
+	 * Create an empty weight SKU for the ModelCheckpoint.
+	 */
+	protected WeightSku() {
+		super();
+	}
+
 	/**
 	 * Instantiate a Stock Keeping Unit based on weight in kg.
 	 * 
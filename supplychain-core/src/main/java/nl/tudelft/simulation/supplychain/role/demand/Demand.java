@@ -11,7 +11,6 @@ import nl.tudelft.simulation.jstats.distributions.DistContinuous;
 import nl.tudelft.simulation.jstats.distributions.DistDiscrete;
 import nl.tudelft.simulation.jstats.distributions.DistDiscreteConstant;
 import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
-import nl.tudelft.simulation.jstats.streams.Java2Random;
 import nl.tudelft.simulation.jstats.streams.StreamInterface;
 import nl.tudelft.simulation.supplychain.product.Product;
 
@@ -43,9 +42,6 @@ public class Demand implements Serializable
     /** the latest delivery date relative to the current simulator time. */
     private DistContinuousDuration latestDeliveryDurationDistribution;
 
-    /** a default stream for DistConstant. */
-    private static StreamInterface stream = new Java2Random();
-
     /**
      * @param product Product; the product
      * @param interval the distribution for the demand generation interval
@@ -65,6 +61,8 @@ public class Demand implements Serializable
     }
 
     /**
+     * The constant distributions for the amount and delivery dates use the stream of the interval distribution, so the demand
+     * does not share a stream with demands in other models; a constant distribution does not draw from its stream.
      * @param product Product; the product
      * @param interval the distribution for the demand generation interval
      * @param amount double; the amount of product to order
@@ -76,11 +74,12 @@ public class Demand implements Serializable
     {
         this.product = product;
         this.intervalDistribution = interval;
-        this.amountDistribution = new DistConstant(Demand.stream, amount);
+        StreamInterface stream = interval.getStream();
+        this.amountDistribution = new DistConstant(stream, amount);
         this.earliestDeliveryDurationDistribution =
-                new DistContinuousDuration(new DistConstant(Demand.stream, earliestDeliveryDuration.si), DurationUnit.SI);
+                new DistContinuousDuration(new DistConstant(stream, earliestDeliveryDuration.si), DurationUnit.SI);
         this.latestDeliveryDurationDistribution =
-                new DistContinuousDuration(new DistConstant(Demand.stream, latestDeliveryDuration.si), DurationUnit.SI);
+                new DistContinuousDuration(new DistConstant(stream, latestDeliveryDuration.si), DurationUnit.SI);
     }
 
     /**
@@ -101,6 +100,7 @@ public class Demand implements Serializable
     }
 
     /**
+     * The constant distributions for the amount and delivery dates use the stream of the interval distribution.
      * @param product Product; the product
      * @param interval the distribution for the demand generation interval
      * @param amount double; the amount of product to order
@@ -112,11 +112,12 @@ public class Demand implements Serializable
     {
         this.product = product;
         this.intervalDistribution = interval;
-        this.amountDistribution = new DistDiscreteConstant(Demand.stream, amount);
+        StreamInterface stream = interval.getStream();
+        this.amountDistribution = new DistDiscreteConstant(stream, amount);
         this.earliestDeliveryDurationDistribution =
-                new DistContinuousDuration(new DistConstant(Demand.stream, earliestDeliveryDate.si), DurationUnit.SI);
+                new DistContinuousDuration(new DistConstant(stream, earliestDeliveryDate.si), DurationUnit.SI);
         this.latestDeliveryDurationDistribution =
-                new DistContinuousDuration(new DistConstant(Demand.stream, latestDeliveryDate.si), DurationUnit.SI);
+                new DistContinuousDuration(new DistConstant(stream, latestDeliveryDate.si), DurationUnit.SI);
     }
 
     /**
@@ -1,12 +1,17 @@
 package nl.tudelft.simulation.supplychain.role.inventory;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.exceptions.Throw;
 import org.pmw.tinylog.Logger;
 
 import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
 import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
 import nl.tudelft.simulation.supplychain.inventory.Inventory;
 import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
@@ -14,14 +19,22 @@ import nl.tudelft.simulation.supplychain.product.Product;
 
 /**
  * Generic restocking service as the parent of different implementations. It contains the product, inventory, and interval for
- * checking the inventory levels or ordering.
+ * checking the inventory levels or ordering.<br>
+ * <br>
+ * With a periodic review, the service checks the inventory level at intervals that are drawn from the check interval
+ * distribution. In the reorder point mode, the service registers itself with the InventoryRole of the inventory, and checks the
+ * inventory level only when the inventory reports a change that brings the inventory position below the reorder level. After
+ * an internal demand has been sent, the service waits until the demand has been ordered, or until the inventory position is
+ * back at or above the reorder level, before it reacts again, so one crossing leads to one internal demand. When the demand
+ * does not lead to an order within the maximum delivery duration, e.g., because no supplier answered, the service stops
+ * waiting, and checks the inventory level again.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
  * </p>
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public abstract class AbstractRestockingService implements RestockingServiceInterface
+public abstract class AbstractRestockingService implements RestockingServiceInterface, Checkpointable
 {
     /** the serial version uid. */
     private static final long serialVersionUID = 20221201L;
@@ -41,6 +54,18 @@ public abstract class AbstractRestockingService implements RestockingServiceInte
     /** the maximum delivery time. */
     private Duration maxDeliveryDuration = Duration.ZERO;
 
+    /** the moments at which the inventory level is checked. */
+    private final RestockingModeEnum mode;
+
+    /** whether an internal demand has been sent that has not been ordered yet. */
+    private boolean awaitingOrder = false;
+
+    /** the ordered amount of the product when the last internal demand was sent. */
+    private double orderedAmountAtDemand = 0.0;
+
+    /** the number of internal demands that have been sent, to recognize the time-out of the last demand. */
+    private long numberOfDemands = 0;
+
     /**
      * Construct a new restocking service, with the basic parameters that every restocking service has.
      * @param inventory the inventory for which the service holds
@@ -51,14 +76,41 @@ public abstract class AbstractRestockingService implements RestockingServiceInte
     public AbstractRestockingService(final Inventory inventory, final Product product,
             final DistContinuousDuration checkInterval, final Duration maxDeliveryDuration)
     {
+        this(inventory, product, RestockingModeEnum.PERIODIC_REVIEW, checkInterval, maxDeliveryDuration);
+    }
+
+    /**
+     * Construct a new restocking service, with the basic parameters that every restocking service has. In the reorder point
+     * mode, the service is added to the InventoryRole of the inventory, and the inventory level is checked once right away.
+     * @param inventory the inventory for which the service holds
+     * @param product Product; the product that has to be restocked
+     * @param mode RestockingModeEnum; the moments at which the inventory level is checked
+     * @param checkInterval the distribution of the interval for restocking or checking; only used for a periodic review
+     * @param maxDeliveryDuration the maximum delivery time to use
+     */
+    public AbstractRestockingService(final Inventory inventory, final Product product, final RestockingModeEnum mode,
+            final DistContinuousDuration checkInterval, final Duration maxDeliveryDuration)
+    {
+        Throw.whenNull(mode, "mode cannot be null");
+        Throw.when(mode.equals(RestockingModeEnum.PERIODIC_REVIEW) && checkInterval == null, NullPointerException.class,
+                "checkInterval cannot be null for a periodic review");
         this.simulator = inventory.getOwner().getSimulator();
         this.inventory = inventory;
         this.product = product;
+        this.mode = mode;
         this.checkInterval = checkInterval;
         this.maxDeliveryDuration = maxDeliveryDuration;
         try
         {
-            this.simulator.scheduleEventRel(checkInterval.draw(), this, "checkLoop", new Serializable[] {});
+            if (mode.equals(RestockingModeEnum.PERIODIC_REVIEW))
+            {
+                this.simulator.scheduleEventRel(checkInterval.draw(), this, "checkLoop", new Serializable[] {});
+            }
+            else
+            {
+                inventory.getInventoryRole().addRestockingService(this);
+                this.simulator.scheduleEventRel(Duration.ZERO, this, "inventoryPositionChanged", new Serializable[] {});
+            }
         }
         catch (Exception e)
         {
@@ -87,12 +139,86 @@ public abstract class AbstractRestockingService implements RestockingServiceInte
      */
     protected abstract void checkInventoryLevel();
 
+    /** {@inheritDoc} */
+    @Override
+    public void inventoryPositionChanged()
+    {
+        if (!this.mode.equals(RestockingModeEnum.REORDER_POINT))
+        {
+            return;
+        }
+        double inventoryPosition = getInventoryPosition();
+        if (this.awaitingOrder)
+        {
+            if (this.inventory.getOrderedAmount(this.product) <= this.orderedAmountAtDemand
+                    && inventoryPosition < getReorderLevel())
+            {
+                return;
+            }
+            this.awaitingOrder = false;
+        }
+        if (inventoryPosition < getReorderLevel())
+        {
+            checkInventoryLevel();
+        }
+    }
+
+    /**
+     * Stop waiting for the order of an internal demand when the demand has not been ordered within the maximum delivery
+     * duration, and check the inventory level again. A time-out of an earlier demand is ignored.
+     * @param demandNumber long; the number of the internal demand that timed out
+     */
+    protected void demandTimedOut(final long demandNumber)
+    {
+        if (this.awaitingOrder && demandNumber == this.numberOfDemands)
+        {
+            this.awaitingOrder = false;
+            inventoryPositionChanged();
+        }
+    }
+
+    /**
+     * Return the inventory position of the product: the actual amount plus the ordered amount, minus the claimed amount.
+     * @return double; the inventory position of the product
+     */
+    protected double getInventoryPosition()
+    {
+        return this.inventory.getActualAmount(this.product) + this.inventory.getOrderedAmount(this.product)
+                - this.inventory.getClaimedAmount(this.product);
+    }
+
     /**
-     * Creates an internal demand order.
+     * Return the level below which the inventory position should drop before the inventory level is checked in the reorder
+     * point mode. The default reorder level is zero.
+     * @return double; the reorder level of the product
+     */
+    protected double getReorderLevel()
+    {
+        return 0.0;
+    }
+
+    /**
+     * Creates an internal demand order. In the reorder point mode, the service waits for the order of the demand at most the
+     * maximum delivery duration; with a maximum delivery duration of zero, it does not wait.
      * @param orderAmount the amount to order or manufacture
      */
     protected void createInternalDemand(final double orderAmount)
     {
+        this.awaitingOrder = this.maxDeliveryDuration.si > 0.0;
+        this.orderedAmountAtDemand = this.inventory.getOrderedAmount(this.product);
+        this.numberOfDemands++;
+        if (this.awaitingOrder && this.mode.equals(RestockingModeEnum.REORDER_POINT))
+        {
+            try
+            {
+                this.simulator.scheduleEventRel(this.maxDeliveryDuration, this, "demandTimedOut",
+                        new Serializable[] {this.numberOfDemands});
+            }
+            catch (Exception e)
+            {
+                Logger.error(e, "createInternalDemand");
+            }
+        }
         Actor owner = this.inventory.getOwner();
         InternalDemand internalDemand = new InternalDemand(owner, this.product, orderAmount, owner.getSimulatorTime(),
                 owner.getSimulatorTime().plus(this.maxDeliveryDuration));
@@ -137,6 +263,15 @@ public abstract class AbstractRestockingService implements RestockingServiceInte
         return this.checkInterval;
     }
 
+    /**
+     * Return the moments at which the inventory level is checked.
+     * @return RestockingModeEnum; the moments at which the inventory level is checked
+     */
+    public RestockingModeEnum getMode()
+    {
+        return this.mode;
+    }
+
     /**
      * @return maxDeliveryDuration
      */
@@ -145,4 +280,22 @@ public abstract class AbstractRestockingService implements RestockingServiceInte
         return this.maxDeliveryDuration;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void writeCheckpoint(final CheckpointOutput out) throws IOException
+    {
+        out.writeBoolean(this.awaitingOrder);
+        out.writeDouble(this.orderedAmountAtDemand);
+        out.writeLong(this.numberOfDemands);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void readCheckpoint(final CheckpointInput in) throws IOException
+    {
+        this.awaitingOrder = in.readBoolean();
+        this.orderedAmountAtDemand = in.readDouble();
+        this.numberOfDemands = in.readLong();
+    }
+
 }
@@ -73,12 +73,34 @@ public abstract class InventoryRole extends Role {
 	}
 
 	/**
-	 * Implement to check whether the inventory is below some level, might trigger
-	 * ordering of extra amount of the product.
+	 * Return the restocking service that has been added to this role for a
+	 * product.
+	 * 
+	 * @param product Product; the product
+	 * @return RestockingServiceInterface; the restocking service for the product,
+	 *         or null when no service has been added for the product
+	 */
+	public RestockingServiceInterface getRestockingService(final Product product) {
+		return this.restockingServices.get(product);
+	}
+
+	/**
+	 * Check whether the inventory is below some level, which might trigger ordering
+	 * of extra amount of the product. The Inventory calls this method when the
+	 * inventory position of the product changes. The default implementation
+	 * notifies the restocking service that has been added for the product, so a
+	 * service in the reorder point mode can react to the change. Subclasses that
+	 * override this method should call this method as well to keep the restocking
+	 * services informed.
 	 * 
 	 * @param product Product; the product to check the inventory for.
 	 */
-	public abstract void checkInventory(Product product);
+	public void checkInventory(final Product product) {
+		RestockingServiceInterface restockingService = this.restockingServices.get(product);
+		if (restockingService != null) {
+			restockingService.inventoryPositionChanged();
+		}
+	}
 
 	/**
 	 * @return the raw materials
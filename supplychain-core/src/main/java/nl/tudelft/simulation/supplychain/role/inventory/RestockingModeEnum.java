@@ -0,0 +1,22 @@
+package nl.tudelft.simulation.supplychain.role.inventory;
+
+/**
+ * The moments at which a restocking service checks the inventory level of its product.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public enum RestockingModeEnum
+{
+    /** Check the inventory level at intervals that are drawn from the check interval distribution. */
+    PERIODIC_REVIEW,
+
+    /**
+     * Check the inventory level when the inventory reports a change, and take action when the inventory position crosses
+     * the reorder level from above.
+     */
+    REORDER_POINT;
+
+}
@@ -8,7 +8,8 @@ import nl.tudelft.simulation.supplychain.product.Product;
 
 /**
  * This RestockingService either orders fixed amounts of goods at the times indicated by the 'checkInterval', or supplements the
- * number of products till a fixed amount is reached.
+ * number of products till a fixed amount is reached. In the reorder point mode, the service orders when the inventory position
+ * drops below the ceiling, or, for fixed amounts, when the inventory position becomes negative.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
@@ -43,7 +44,27 @@ public class RestockingServiceFixed extends AbstractRestockingService
             final DistContinuousDuration frequency, final boolean ceiling, final double amount, final boolean includeClaims,
             final Duration maxDeliveryTime)
     {
-        super(inventory, product, frequency, maxDeliveryTime);
+        this(inventory, product, RestockingModeEnum.PERIODIC_REVIEW, frequency, ceiling, amount, includeClaims,
+                maxDeliveryTime);
+    }
+
+    /**
+     * Construct a new restocking service, which works with fixed amounts, and checks the inventory at the given moments.
+     * @param inventory the inventory for which the service holds
+     * @param product Product; the product that has to be restocked
+     * @param mode RestockingModeEnum; the moments at which the inventory level is checked
+     * @param frequency the frequency distribution for restocking; only used for a periodic review
+     * @param ceiling fixed ceiling (true) or fixed amount (false)
+     * @param amount double; the amount with which or to which stock is supplemented
+     * @param includeClaims whether to include the claims in the stock or not
+     * @param maxDeliveryTime the maximum delivery time to use
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    public RestockingServiceFixed(final Inventory inventory, final Product product, final RestockingModeEnum mode,
+            final DistContinuousDuration frequency, final boolean ceiling, final double amount, final boolean includeClaims,
+            final Duration maxDeliveryTime)
+    {
+        super(inventory, product, mode, frequency, maxDeliveryTime);
         this.ceiling = ceiling;
         this.amount = amount;
         this.includeClaims = includeClaims;
@@ -57,13 +78,7 @@ public class RestockingServiceFixed extends AbstractRestockingService
         double orderAmount = 0.0;
         if (this.ceiling)
         {
-            double inventoryLevel =
-                    getInventory().getActualAmount(getProduct()) + getInventory().getOrderedAmount(getProduct());
-            if (this.includeClaims)
-            {
-                inventoryLevel -= getInventory().getClaimedAmount(getProduct());
-            }
-            orderAmount = Math.max(0.0, this.amount - inventoryLevel);
+            orderAmount = Math.max(0.0, this.amount - getInventoryPosition());
         }
         else
         {
@@ -75,6 +90,25 @@ public class RestockingServiceFixed extends AbstractRestockingService
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected double getInventoryPosition()
+    {
+        double inventoryPosition = getInventory().getActualAmount(getProduct()) + getInventory().getOrderedAmount(getProduct());
+        if (this.includeClaims)
+        {
+            inventoryPosition -= getInventory().getClaimedAmount(getProduct());
+        }
+        return inventoryPosition;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected double getReorderLevel()
+    {
+        return this.ceiling ? this.amount : 0.0;
+    }
+
     /**
      * @return the amount (ceiling or amount).
      */
@@ -27,4 +27,14 @@ public interface RestockingServiceInterface extends Serializable
      * @return Inventory; the inventory that needs to be checked for restocking
      */
     Inventory getInventory();
+
+    /**
+     * Notify the service that the inventory position of its product has changed. The InventoryRole calls this method for the
+     * restocking services that have been added to it. The default implementation ignores the notification, for services that
+     * check the inventory at their own moments.
+     */
+    default void inventoryPositionChanged()
+    {
+        // services with a periodic review do not react to changes
+    }
 }
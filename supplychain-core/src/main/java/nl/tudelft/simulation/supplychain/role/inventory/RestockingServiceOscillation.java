@@ -9,7 +9,8 @@ import nl.tudelft.simulation.supplychain.product.Product;
 /**
  * This restocking service looks at the difference between ordered and stock on hand on one hand, and the committed stock on the
  * other hand. If we committed more than we ordered and have on hand, we overreact and order more products than strictly
- * necessary. This reaction tends to lead in an oscillation of order sizes upstream the supply chain.
+ * necessary. This reaction tends to lead in an oscillation of order sizes upstream the supply chain. In the reorder point mode,
+ * the service reacts when the inventory position drops below the amount to which the stock is supplemented.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
@@ -40,7 +41,28 @@ public class RestockingServiceOscillation extends RestockingServiceFixed
             final DistContinuousDuration frequency, final boolean ceiling, final double amount, final boolean includeClaims,
             final double overReactionMargin, final Duration maxDeliveryTime)
     {
-        super(inventory, product, frequency, ceiling, amount, includeClaims, maxDeliveryTime);
+        this(inventory, product, RestockingModeEnum.PERIODIC_REVIEW, frequency, ceiling, amount, includeClaims,
+                overReactionMargin, maxDeliveryTime);
+    }
+
+    /**
+     * Construct a new restocking service based on a safety stock level, which checks the inventory at the given moments.
+     * @param inventory the inventory for which the service holds
+     * @param product Product; the product that has to be restocked
+     * @param mode RestockingModeEnum; the moments at which the inventory level is checked
+     * @param frequency the frequency distribution for restocking; only used for a periodic review
+     * @param ceiling fixed ceiling (true) or fixed amount (false)
+     * @param amount double; the amount with which or to which stock is supplemented
+     * @param includeClaims whether to include the claims in the stock or not
+     * @param overReactionMargin the over reaction margin
+     * @param maxDeliveryTime the maximum delivery time to use
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    public RestockingServiceOscillation(final Inventory inventory, final Product product, final RestockingModeEnum mode,
+            final DistContinuousDuration frequency, final boolean ceiling, final double amount, final boolean includeClaims,
+            final double overReactionMargin, final Duration maxDeliveryTime)
+    {
+        super(inventory, product, mode, frequency, ceiling, amount, includeClaims, maxDeliveryTime);
         this.oscillationMargin = overReactionMargin;
     }
 
@@ -50,11 +72,7 @@ public class RestockingServiceOscillation extends RestockingServiceFixed
     {
         // just create an internal demand and send it to the owner
         double orderAmount = 0.0;
-        double stockLevel = getInventory().getActualAmount(getProduct()) + getInventory().getOrderedAmount(getProduct());
-        if (isIncludeClaims())
-        {
-            stockLevel -= getInventory().getClaimedAmount(getProduct());
-        }
+        double stockLevel = getInventoryPosition();
         orderAmount = Math.max(0.0, getAmount() - stockLevel);
 
         if (stockLevel <= 0.0)
@@ -71,6 +89,13 @@ public class RestockingServiceOscillation extends RestockingServiceFixed
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected double getReorderLevel()
+    {
+        return getAmount();
+    }
+
     /**
      * @return the overReactionMargin.
      */
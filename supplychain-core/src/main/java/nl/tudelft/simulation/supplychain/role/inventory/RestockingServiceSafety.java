@@ -8,7 +8,8 @@ import nl.tudelft.simulation.supplychain.product.Product;
 
 /**
  * This restocking service looks at a safety stock level. As long as the stock level is above the safety stock level, do
- * nothing. Otherwise, order either a fixed amount or replenish until a certain level.
+ * nothing. Otherwise, order either a fixed amount or replenish until a certain level. In the reorder point mode, the safety stock
+ * level is the reorder level.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
@@ -39,7 +40,28 @@ public class RestockingServiceSafety extends RestockingServiceFixed
             final DistContinuousDuration frequency, final boolean ceiling, final double amount, final boolean includeClaims,
             final double safetyAmount, final Duration maxDeliveryTime)
     {
-        super(inventory, product, frequency, ceiling, amount, includeClaims, maxDeliveryTime);
+        this(inventory, product, RestockingModeEnum.PERIODIC_REVIEW, frequency, ceiling, amount, includeClaims, safetyAmount,
+                maxDeliveryTime);
+    }
+
+    /**
+     * Construct a new restocking service based on a safety stock level, which checks the inventory at the given moments.
+     * @param inventory the inventory for which the service holds
+     * @param product Product; the product that has to be restocked
+     * @param mode RestockingModeEnum; the moments at which the inventory level is checked
+     * @param frequency the frequency distribution for restocking; only used for a periodic review
+     * @param ceiling fixed ceiling (true) or fixed amount (false)
+     * @param amount double; the amount with which or to which stock is supplemented
+     * @param includeClaims whether to include the claims in the stock or not
+     * @param safetyAmount the safety stock level for the product
+     * @param maxDeliveryTime the maximum delivery time to use
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    public RestockingServiceSafety(final Inventory inventory, final Product product, final RestockingModeEnum mode,
+            final DistContinuousDuration frequency, final boolean ceiling, final double amount, final boolean includeClaims,
+            final double safetyAmount, final Duration maxDeliveryTime)
+    {
+        super(inventory, product, mode, frequency, ceiling, amount, includeClaims, maxDeliveryTime);
         this.safetyAmount = safetyAmount;
     }
 
@@ -48,17 +70,19 @@ public class RestockingServiceSafety extends RestockingServiceFixed
     protected void checkInventoryLevel()
     {
         // check if below safety level; if so, call super.checkStockLevel()
-        double inventoryLevel = getInventory().getActualAmount(getProduct()) + getInventory().getOrderedAmount(getProduct());
-        if (isIncludeClaims())
-        {
-            inventoryLevel -= getInventory().getClaimedAmount(getProduct());
-        }
-        if (inventoryLevel < this.safetyAmount)
+        if (getInventoryPosition() < this.safetyAmount)
         {
             super.checkInventoryLevel();
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected double getReorderLevel()
+    {
+        return this.safetyAmount;
+    }
+
     /**
      * @return the safetyAmount.
      */
@@ -0,0 +1,404 @@
+package nl.tudelft.simulation.supplychain.role.yellowpage;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.dsol.DistanceMatrix;
+
+/**
+ * SupplierIndex is a spatial index over the suppliers of one product, which answers k-nearest-within-radius queries in
+ * sub-linear time. The index is a vantage-point tree that only uses the distances between actors, as calculated by the model
+ * and cached in the DistanceMatrix, so it works for any distance function that behaves as a metric (symmetric, and obeying the
+ * triangle inequality), such as Euclidean distances, great-circle distances, or shortest paths over a road network.<br>
+ * <br>
+ * Each node of the tree is a vantage supplier with a threshold distance; the suppliers in the inner subtree are at most the
+ * threshold away from the vantage supplier, and the suppliers in the outer subtree are at least the threshold away. The tree
+ * is stored implicitly in one array: the node for the range [lo, hi) is at position lo, its inner subtree is the range [lo + 1,
+ * mid), and its outer subtree is the range [mid, hi).
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class SupplierIndex implements Serializable
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the distance matrix that provides the distances between the actors. */
+    private final DistanceMatrix distanceMatrix;
+
+    /** the suppliers, in the order of the implicit tree. */
+    private final Actor[] suppliers;
+
+    /** the registration order of the suppliers in the tree, to order suppliers at the same distance. */
+    private final int[] order;
+
+    /** the threshold distance in meters of the node at each position. */
+    private final double[] thresholds;
+
+    /** the version of the distance matrix for which the tree was built. */
+    private final long distanceVersion;
+
+    /**
+     * Build the index for a collection of suppliers.
+     * @param distanceMatrix DistanceMatrix; the distance matrix that provides the distances between the actors
+     * @param suppliers Collection&lt;Actor&gt;; the suppliers to index, in registration order
+     */
+    public SupplierIndex(final DistanceMatrix distanceMatrix, final Collection<Actor> suppliers)
+    {
+        Throw.whenNull(distanceMatrix, "distanceMatrix cannot be null");
+        Throw.whenNull(suppliers, "suppliers cannot be null");
+        this.distanceMatrix = distanceMatrix;
+        this.distanceVersion = distanceMatrix.getVersion();
+        int n = suppliers.size();
+        this.suppliers = suppliers.toArray(new Actor[n]);
+        this.order = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            this.order[i] = i;
+        }
+        this.thresholds = new double[n];
+        build(0, n, new double[n]);
+    }
+
+    /**
+     * Build the subtree for the range [lo, hi) of the arrays, with the first supplier of the range as vantage supplier.
+     * @param lo int; the first position of the range
+     * @param hi int; the position after the last position of the range
+     * @param distances double[]; scratch array for the distances to the vantage supplier
+     */
+    private void build(final int lo, final int hi, final double[] distances)
+    {
+        if (hi - lo <= 1)
+        {
+            return;
+        }
+        Actor vantage = this.suppliers[lo];
+        for (int i = lo + 1; i < hi; i++)
+        {
+            distances[i] = this.distanceMatrix.getDistanceSi(vantage, this.suppliers[i]);
+        }
+        sortRange(lo + 1, hi, distances);
+        int mid = (lo + 1 + hi) / 2;
+        this.thresholds[lo] = distances[mid];
+        build(lo + 1, mid, distances);
+        build(mid, hi, distances);
+    }
+
+    /**
+     * Sort the range [lo, hi) of the suppliers on their distance to the vantage supplier.
+     * @param lo int; the first position of the range
+     * @param hi int; the position after the last position of the range
+     * @param distances double[]; the distances to the vantage supplier, sorted along with the suppliers
+     */
+    private void sortRange(final int lo, final int hi, final double[] distances)
+    {
+        Integer[] positions = new Integer[hi - lo];
+        for (int i = 0; i < positions.length; i++)
+        {
+            positions[i] = lo + i;
+        }
+        Arrays.sort(positions, Comparator.comparingDouble((Integer p) -> distances[p]));
+        Actor[] sortedSuppliers = new Actor[positions.length];
+        int[] sortedOrder = new int[positions.length];
+        double[] sortedDistances = new double[positions.length];
+        for (int i = 0; i < positions.length; i++)
+        {
+            sortedSuppliers[i] = this.suppliers[positions[i]];
+            sortedOrder[i] = this.order[positions[i]];
+            sortedDistances[i] = distances[positions[i]];
+        }
+        System.arraycopy(sortedSuppliers, 0, this.suppliers, lo, positions.length);
+        System.arraycopy(sortedOrder, 0, this.order, lo, positions.length);
+        System.arraycopy(sortedDistances, 0, distances, lo, positions.length);
+    }
+
+    /**
+     * Return whether the index is still valid, i.e., whether no distances have been invalidated since it was built.
+     * @return boolean; whether the index is still valid
+     */
+    public boolean isValid()
+    {
+        return this.distanceMatrix.getVersion() == this.distanceVersion;
+    }
+
+    /**
+     * Return the number of suppliers in the index.
+     * @return int; the number of suppliers in the index
+     */
+    public int size()
+    {
+        return this.suppliers.length;
+    }
+
+    /**
+     * Find the nearest suppliers of an actor, within a maximum distance. Suppliers at the same distance are returned in the
+     * order in which they were registered.
+     * @param actor Actor; the actor for which to find the suppliers
+     * @param maximumDistanceSi double; the maximum distance between a supplier and the actor in meters
+     * @param maximumNumber int; the maximum number of suppliers to return
+     * @return List&lt;Actor&gt;; the nearest suppliers within the maximum distance, sorted on their distance to the actor
+     */
+    public List<Actor> findNearest(final Actor actor, final double maximumDistanceSi, final int maximumNumber)
+    {
+        Throw.whenNull(actor, "actor cannot be null");
+        Throw.when(maximumNumber < 0, IllegalArgumentException.class, "maximumNumber cannot be negative");
+        int k = Math.min(maximumNumber, this.suppliers.length);
+        if (k == 0)
+        {
+            return new ArrayList<>();
+        }
+        Candidates candidates = new Candidates(k, maximumDistanceSi);
+        search(0, this.suppliers.length, actor, candidates);
+        return candidates.toSortedList();
+    }
+
+    /**
+     * Search the subtree for the range [lo, hi) for the nearest suppliers of an actor.
+     * @param lo int; the first position of the range
+     * @param hi int; the position after the last position of the range
+     * @param actor Actor; the actor for which to find the suppliers
+     * @param candidates Candidates; the nearest suppliers found so far
+     */
+    private void search(final int lo, final int hi, final Actor actor, final Candidates candidates)
+    {
+        if (lo >= hi)
+        {
+            return;
+        }
+        double d = this.distanceMatrix.getDistanceSi(this.suppliers[lo], actor);
+        candidates.offer(this.suppliers[lo], this.order[lo], d);
+        if (hi - lo == 1)
+        {
+            return;
+        }
+        int mid = (lo + 1 + hi) / 2;
+        double threshold = this.thresholds[lo];
+        // visit the side of the actor first, so the search radius shrinks as fast as possible
+        if (d <= threshold)
+        {
+            if (d - threshold <= candidates.radius())
+            {
+                search(lo + 1, mid, actor, candidates);
+            }
+            if (threshold - d <= candidates.radius())
+            {
+                search(mid, hi, actor, candidates);
+            }
+        }
+        else
+        {
+            if (threshold - d <= candidates.radius())
+            {
+                search(mid, hi, actor, candidates);
+            }
+            if (d - threshold <= candidates.radius())
+            {
+                search(lo + 1, mid, actor, candidates);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "SupplierIndex [size=" + this.suppliers.length + "]";
+    }
+
+    /**
+     * Candidates keeps the k nearest suppliers found so far in a bounded max-heap on distance, with the registration order
+     * as tie breaker.
+     */
+    private static class Candidates
+    {
+        /** the maximum number of candidates. */
+        private final int capacity;
+
+        /** the maximum distance of a candidate in meters. */
+        private final double maximumDistance;
+
+        /** the number of candidates. */
+        private int size = 0;
+
+        /** the suppliers in the heap. */
+        private final Actor[] heapSuppliers;
+
+        /** the registration order of the suppliers in the heap. */
+        private final int[] heapOrder;
+
+        /** the distances of the suppliers in the heap. */
+        private final double[] heapDistances;
+
+        /**
+         * @param capacity int; the maximum number of candidates
+         * @param maximumDistance double; the maximum distance of a candidate in meters
+         */
+        Candidates(final int capacity, final double maximumDistance)
+        {
+            this.capacity = capacity;
+            this.maximumDistance = maximumDistance;
+            this.heapSuppliers = new Actor[capacity];
+            this.heapOrder = new int[capacity];
+            this.heapDistances = new double[capacity];
+        }
+
+        /**
+         * Return the current search radius: the maximum distance, or the distance of the k-th candidate when there are k.
+         * @return double; the current search radius in meters
+         */
+        double radius()
+        {
+            return this.size < this.capacity ? this.maximumDistance
+                    : Math.min(this.maximumDistance, this.heapDistances[0]);
+        }
+
+        /**
+         * Offer a supplier as candidate.
+         * @param supplier Actor; the supplier
+         * @param supplierOrder int; the registration order of the supplier
+         * @param distance double; the distance of the supplier in meters
+         */
+        void offer(final Actor supplier, final int supplierOrder, final double distance)
+        {
+            if (distance > this.maximumDistance)
+            {
+                return;
+            }
+            if (this.size < this.capacity)
+            {
+                int i = this.size++;
+                set(i, supplier, supplierOrder, distance);
+                siftUp(i);
+            }
+            else if (less(distance, supplierOrder, this.heapDistances[0], this.heapOrder[0]))
+            {
+                set(0, supplier, supplierOrder, distance);
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Return the candidates, sorted on distance and registration order.
+         * @return List&lt;Actor&gt;; the sorted candidates
+         */
+        List<Actor> toSortedList()
+        {
+            Actor[] result = new Actor[this.size];
+            while (this.size > 0)
+            {
+                result[this.size - 1] = this.heapSuppliers[0];
+                this.size--;
+                swap(0, this.size);
+                siftDown(0);
+            }
+            return new ArrayList<>(Arrays.asList(result));
+        }
+
+        /**
+         * Return whether the first entry comes before the second entry.
+         * @param d1 double; the distance of the first entry
+         * @param o1 int; the registration order of the first entry
+         * @param d2 double; the distance of the second entry
+         * @param o2 int; the registration order of the second entry
+         * @return boolean; whether the first entry comes before the second entry
+         */
+        private static boolean less(final double d1, final int o1, final double d2, final int o2)
+        {
+            return d1 < d2 || (d1 == d2 && o1 < o2);
+        }
+
+        /**
+         * Return whether the entry at position i comes after the entry at position j.
+         * @param i int; the first position
+         * @param j int; the second position
+         * @return boolean; whether the entry at position i comes after the entry at position j
+         */
+        private boolean after(final int i, final int j)
+        {
+            return less(this.heapDistances[j], this.heapOrder[j], this.heapDistances[i], this.heapOrder[i]);
+        }
+
+        /**
+         * @param i int; the position
+         * @param supplier Actor; the supplier
+         * @param supplierOrder int; the registration order of the supplier
+         * @param distance double; the distance of the supplier
+         */
+        private void set(final int i, final Actor supplier, final int supplierOrder, final double distance)
+        {
+            this.heapSuppliers[i] = supplier;
+            this.heapOrder[i] = supplierOrder;
+            this.heapDistances[i] = distance;
+        }
+
+        /**
+         * @param i int; the first position
+         * @param j int; the second position
+         */
+        private void swap(final int i, final int j)
+        {
+            Actor supplier = this.heapSuppliers[i];
+            int supplierOrder = this.heapOrder[i];
+            double distance = this.heapDistances[i];
+            set(i, this.heapSuppliers[j], this.heapOrder[j], this.heapDistances[j]);
+            set(j, supplier, supplierOrder, distance);
+        }
+
+        /**
+         * @param start int; the position to move up in the heap
+         */
+        private void siftUp(final int start)
+        {
+            int i = start;
+            while (i > 0)
+            {
+                int parent = (i - 1) / 2;
+                if (!after(i, parent))
+                {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        /**
+         * @param start int; the position to move down in the heap
+         */
+        private void siftDown(final int start)
+        {
+            int i = start;
+            while (true)
+            {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < this.size && after(left, largest))
+                {
+                    largest = left;
+                }
+                if (right < this.size && after(right, largest))
+                {
+                    largest = right;
+                }
+                if (largest == i)
+                {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+    }
+
+}
@@ -1,9 +1,13 @@
 package nl.tudelft.simulation.supplychain.role.yellowpage;
 
 import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
- * A Topic to be used in storing and finding 'topics' in the YellowPage. <br>
+ * A Topic to be used in storing and finding 'topics' in the YellowPage. A topic can have a parent topic, of which it is a
+ * specialization. Each topic stores the set of its ancestors, including itself, so whether a topic is a specialization of
+ * another topic is determined in constant time. <br>
  * <br>
  * Copyright (c) 2003-2018 Delft University of Technology, Jaffalaan 5, 2628 BX Delft, the Netherlands. All rights reserved. See
  * for project information <a href="https://www.simulation.tudelft.nl/" target="_blank">www.simulation.tudelft.nl</a>. The
@@ -16,7 +20,10 @@ public class Topic implements Serializable
     private static final long serialVersionUID = 20221201L;
 
     /** the parent topic. */
-    private Topic parent = null;
+    private final Topic parent;
+
+    /** the ancestors of the topic, including the topic itself. */
+    private final Set<Topic> ancestors;
 
     /** the description of the topic. */
     private final String description;
@@ -29,8 +36,26 @@ public class Topic implements Serializable
      * @param description the description of the topic
      */
     public Topic(final String description)
+    {
+        this(description, null);
+    }
+
+    /**
+     * constructs a new Topic that is a specialization of a parent topic.
+     * @param description the description of the topic
+     * @param parent the parent topic, or null when the topic has no parent
+     */
+    public Topic(final String description, final Topic parent)
     {
         this.description = description;
+        this.parent = parent;
+        Set<Topic> ancestorSet = new LinkedHashSet<>();
+        ancestorSet.add(this);
+        if (parent != null)
+        {
+            ancestorSet.addAll(parent.ancestors);
+        }
+        this.ancestors = ancestorSet;
     }
 
     /**
@@ -42,6 +67,15 @@ public class Topic implements Serializable
         return this.parent;
     }
 
+    /**
+     * returns the ancestors of this topic, starting with the topic itself, followed by its parent, etc.
+     * @return Set&lt;Topic&gt; the ancestors of the topic, including the topic itself
+     */
+    public Set<Topic> getAncestors()
+    {
+        return new LinkedHashSet<>(this.ancestors);
+    }
+
     /**
      * determines whether cat1 is a specialization of cat2.
      * @param cat1 the first topic
@@ -54,11 +88,7 @@ public class Topic implements Serializable
         {
             return false;
         }
-        if (cat1.equals(cat2))
-        {
-            return true;
-        }
-        return Topic.specializationOf(cat1.getParent(), cat2);
+        return cat1.ancestors.contains(cat2);
     }
 
     /** {@inheritDoc} */
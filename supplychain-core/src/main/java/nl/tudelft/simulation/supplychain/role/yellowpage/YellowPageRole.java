@@ -1,5 +1,6 @@
 package nl.tudelft.simulation.supplychain.role.yellowpage;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -7,6 +8,10 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.djunits.value.vdouble.scalar.Length;
+import org.djutils.exceptions.Throw;
 
 import nl.tudelft.simulation.supplychain.actor.Actor;
 import nl.tudelft.simulation.supplychain.actor.Role;
@@ -15,7 +20,10 @@ import nl.tudelft.simulation.supplychain.product.Product;
 
 /**
  * YellowPageRole is a base implementation of providing information about other actors in the model. Actors can register
- * themselves in the registry.
+ * themselves in the registry. The suppliers of each product are kept in a SupplierIndex, which is built when the suppliers
+ * of the product are searched, and rebuilt after suppliers are added or removed, or after distances have been invalidated.
+ * The actors that are registered for a topic are kept in an inverted index that includes the actors of the specializations of
+ * the topic, and the results of actor queries are cached until the next registration.
  * <p>
  * Copyright (c) 2003-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
  * The supply chain Java library uses a BSD-3 style license.
@@ -27,12 +35,38 @@ public class YellowPageRole extends Role
     /** */
     private static final long serialVersionUID = 20221201L;
 
+    /** the maximum number of cached queries. */
+    private static final int MAX_CACHED_QUERIES = 256;
+
     /** the dictionary of topic-actor combinations. */
     private Map<Topic, List<Actor>> topicDictionary = new LinkedHashMap<Topic, List<Actor>>();
 
+    /** the inverted index from a topic to the actors registered for the topic or one of its specializations. */
+    private Map<Topic, Set<Actor>> topicIndex = new LinkedHashMap<>();
+
+    /** the registered actors, in order of registration. */
+    private Set<Actor> registeredActors = new LinkedHashSet<>();
+
+    /** the cached results of the actor queries, cleared on every registration. */
+    private Map<QueryKey, List<Actor>> queryCache = new LinkedHashMap<QueryKey, List<Actor>>(16, 0.75f, true)
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** {@inheritDoc} */
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<QueryKey, List<Actor>> eldest)
+        {
+            return size() > MAX_CACHED_QUERIES;
+        }
+    };
+
     /** the dictionary of product-actor combinations. */
     private Map<Product, HashSet<Actor>> productDictionary = new LinkedHashMap<>();
 
+    /** the spatial index of the suppliers per product, built when it is first used. */
+    private Map<Product, SupplierIndex> supplierIndexMap = new LinkedHashMap<>();
+
     /**
      * Create a new YellowPage role.
      * @param owner YellowPageActor; the actor that owns the YP role
@@ -55,7 +89,10 @@ public class YellowPageRole extends Role
             supplierSet = new LinkedHashSet<Actor>();
             this.productDictionary.put(product, supplierSet);
         }
-        supplierSet.add(supplier);
+        if (supplierSet.add(supplier))
+        {
+            this.supplierIndexMap.remove(product);
+        }
     }
 
     /**
@@ -68,7 +105,10 @@ public class YellowPageRole extends Role
         HashSet<Actor> supplierSet = this.productDictionary.get(product);
         if (supplierSet != null)
         {
-            supplierSet.remove(supplier);
+            if (supplierSet.remove(supplier))
+            {
+                this.supplierIndexMap.remove(product);
+            }
         }
     }
 
@@ -87,85 +127,181 @@ public class YellowPageRole extends Role
     }
 
     /**
-     * finds actors based on the regex.
+     * Find the nearest suppliers of a product for an actor, within a maximum distance. The distances are the distances of
+     * the suppliers to the actor according to the model.
+     * @param product Product; the product for which to search for suppliers
+     * @param actor Actor; the actor for which to find the nearest suppliers
+     * @param maximumDistance Length; the maximum distance between a supplier and the actor
+     * @param maximumNumber int; the maximum number of suppliers to return
+     * @return List&lt;Actor&gt;; the nearest suppliers of the product within the maximum distance, sorted on distance, or an
+     *         empty list when there are no suppliers for the product
+     */
+    public List<Actor> findNearestSuppliers(final Product product, final Actor actor, final Length maximumDistance,
+            final int maximumNumber)
+    {
+        Throw.whenNull(actor, "actor cannot be null");
+        Throw.whenNull(maximumDistance, "maximumDistance cannot be null");
+        SupplierIndex index = getSupplierIndex(product);
+        if (index == null)
+        {
+            return new ArrayList<>();
+        }
+        return index.findNearest(actor, maximumDistance.si, maximumNumber);
+    }
+
+    /**
+     * Return the spatial index of the suppliers of a product, and build it when it does not exist or is no longer valid.
+     * @param product Product; the product for which to return the index
+     * @return SupplierIndex; the index of the suppliers of the product, or null when there are no suppliers for the product
+     */
+    protected SupplierIndex getSupplierIndex(final Product product)
+    {
+        HashSet<Actor> supplierSet = this.productDictionary.get(product);
+        if (supplierSet == null || supplierSet.isEmpty())
+        {
+            return null;
+        }
+        SupplierIndex index = this.supplierIndexMap.get(product);
+        if (index == null || !index.isValid())
+        {
+            index = new SupplierIndex(getActor().getModel().getDistanceMatrix(), supplierSet);
+            this.supplierIndexMap.put(product, index);
+        }
+        return index;
+    }
+
+    /**
+     * finds actors based on the regex. The regex is compiled once per query, and the results of frequent queries are cached
+     * until the next registration.
      * @param regex the name of the actor as regular expression
      * @return Actor[] the result
      */
     public List<Actor> findActor(final String regex)
     {
-        List<Actor> result = new ArrayList<Actor>();
-        for (List<Actor> actors : this.topicDictionary.values())
-        {
-            for (Actor actor : actors)
-            {
-                if (actor.getName().matches(regex))
-                {
-                    result.add(actor);
-                }
-            }
-        }
-        return result;
+        return findActor(regex, this.registeredActors);
     }
 
     /**
      * finds an actor based on the regex.
      * @param regex the name of the actor as regular expression
-     * @param topic the topic for which this actor is registered
+     * @param topic the topic for which this actor is registered; actors that are registered for a specialization of the
+     *            topic are found as well
      * @return Actor[] the result
      */
     public List<Actor> findActor(final String regex, final Topic topic)
     {
-        List<Actor> result = new ArrayList<Actor>();
-        for (Topic cat : this.topicDictionary.keySet())
+        Set<Actor> actors = this.topicIndex.get(topic);
+        return actors == null ? new ArrayList<Actor>() : findActor(regex, actors);
+    }
+
+    /**
+     * finds the actors whose name matches the regex in a set of actors, using the query cache.
+     * @param regex the name of the actor as regular expression
+     * @param actors the actors to search
+     * @return Actor[] the result
+     */
+    private List<Actor> findActor(final String regex, final Set<Actor> actors)
+    {
+        Throw.whenNull(regex, "regex cannot be null");
+        QueryKey key = new QueryKey(regex, actors);
+        List<Actor> result = this.queryCache.get(key);
+        if (result == null)
         {
-            if (Topic.specializationOf(topic, cat))
+            Pattern pattern = Pattern.compile(regex);
+            result = new ArrayList<Actor>();
+            for (Actor actor : actors)
             {
-                List<Actor> actors = this.topicDictionary.get(cat);
-                for (Actor actor : actors)
+                if (pattern.matcher(actor.getName()).matches())
                 {
-                    if (actor.getName().matches(regex))
-                    {
-                        result.add(actor);
-                    }
+                    result.add(actor);
                 }
             }
+            this.queryCache.put(key, result);
         }
-        return result;
+        return new ArrayList<>(result);
     }
 
     /**
-     * finds an actor based on the category.
+     * finds the actors that are registered for a topic, or for a specialization of the topic.
      * @param topic the category for this actor
      * @return Actor[] the result
      */
     public List<Actor> findActor(final Topic topic)
     {
-        List<Actor> actors = new ArrayList<Actor>();
-        for (Topic t : this.topicDictionary.keySet())
-        {
-            if (Topic.specializationOf(topic, t))
-            {
-                actors = this.topicDictionary.get(t);
-            }
-        }
-        return actors;
+        Set<Actor> actors = this.topicIndex.get(topic);
+        return actors == null ? new ArrayList<Actor>() : new ArrayList<Actor>(actors);
     }
 
     /**
-     * registers an actor.
+     * registers an actor. The actor is added to the index of the topic and of all its ancestors, and the query cache is
+     * cleared.
      * @param actor the actor
      * @param topic the category
      * @return success
      */
     public boolean register(final Actor actor, final Topic topic)
     {
+        Throw.whenNull(actor, "actor cannot be null");
+        Throw.whenNull(topic, "topic cannot be null");
         List<Actor> actors = this.topicDictionary.get(topic);
         if (actors == null)
         {
             actors = new ArrayList<Actor>();
             this.topicDictionary.put(topic, actors);
         }
+        for (Topic ancestor : topic.getAncestors())
+        {
+            this.topicIndex.computeIfAbsent(ancestor, t -> new LinkedHashSet<>()).add(actor);
+        }
+        this.registeredActors.add(actor);
+        this.queryCache.clear();
         return actors.add(actor);
     }
 
+    /**
+     * The key of a cached query: the regex and the set of actors that was searched. The set is compared on identity, since it
+     * is either the set of all registered actors or the index set of a topic.
+     */
+    private static final class QueryKey implements Serializable
+    {
+        /** */
+        private static final long serialVersionUID = 20231017L;
+
+        /** the regex of the query. */
+        private final String regex;
+
+        /** the set of actors that was searched. */
+        private final Set<Actor> actors;
+
+        /**
+         * @param regex String; the regex of the query
+         * @param actors Set&lt;Actor&gt;; the set of actors that was searched
+         */
+        QueryKey(final String regex, final Set<Actor> actors)
+        {
+            this.regex = regex;
+            this.actors = actors;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode()
+        {
+            return 31 * this.regex.hashCode() + System.identityHashCode(this.actors);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        @SuppressWarnings("checkstyle:needbraces")
+        public boolean equals(final Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof QueryKey))
+                return false;
+            QueryKey other = (QueryKey) obj;
+            return this.actors == other.actors && this.regex.equals(other.regex);
+        }
+    }
+
 }
@@ -0,0 +1,584 @@
+package nl.tudelft.simulation.supplychain.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.SupplyChainRuntimeException;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
+import nl.tudelft.simulation.supplychain.product.Product;
+
+/**
+ * MessageTraceRecorder appends every sent and received trade message of a model, and every change of an inventory or a bank
+ * account, as a fixed-layout binary record to a series of memory-mapped segment files. A record is written with absolute puts
+ * into the mapped segment, so recording a message does not create any objects, apart from the first time that an actor or a
+ * money unit is seen. The recorder is installed with SupplyChainModel.setMessageTraceRecorder, after which the actors record
+ * the messages they send and receive, and the inventories and bank accounts record their changes. The next segment
+ * is created, mapped and touched on a background thread while the current segment fills up, so the simulator thread does not
+ * wait for the page faults of a new file.<br>
+ * <br>
+ * The segments are files with the name of the trace followed by a five digit segment number, e.g., <code>run.00000</code>,
+ * and contain recordsPerSegment records of RECORD_SIZE bytes. The layout of a record, with the offsets in bytes, is:
+ * <ul>
+ * <li>0: double, the simulator time of the record in seconds since the start of the replication;</li>
+ * <li>8: byte, the kind of the record, KIND_SENT, KIND_RECEIVED, KIND_INVENTORY or KIND_BANK_ACCOUNT, where 0 indicates the
+ * end of the trace;</li>
+ * <li>9: byte, the code of the TraceMessageType of the message;</li>
+ * <li>10: short, the index of the money unit of the price, or -1 when the message has no price;</li>
+ * <li>12: int, the index of the sender;</li>
+ * <li>16: int, the index of the receiver;</li>
+ * <li>20: int, the index of the product in the model, or -1 when the message has no product;</li>
+ * <li>24: long, the internal demand id of the message;</li>
+ * <li>32: long, the unique id of the message;</li>
+ * <li>40: double, the amount of product, or NaN when the message has no amount;</li>
+ * <li>48: double, the price in the money unit, or NaN when the message has no price;</li>
+ * <li>56: 8 bytes that are reserved, and zero.</li>
+ * </ul>
+ * An inventory record uses the sender for the owner of the inventory, the product for the product of which the inventory
+ * changed, and stores the actual amount at offset 40, the claimed amount at offset 48, and the ordered amount at offset 56. A
+ * bank account record uses the sender for the owner of the bank account, and stores the balance at offset 48 in the money unit
+ * at offset 10. The receiver of these records is -1, and the message type, the internal demand id and the unique id are 0.<br>
+ * The numbers are stored in big-endian order. The kind of a record is written last, and the unused part of a segment is zero,
+ * so the TraceReader stops at the first record with kind 0. When the recorder is closed, it writes the index file with the
+ * name of the trace followed by <code>.index</code>, which contains the number of segments and records, the absolute start
+ * time of the simulator, and the ids of the actors, the names of the products and the money units in the order of their
+ * index. A trace can only be read after the recorder has been closed, since the records refer to the actors, products and
+ * money units by their index in the index file; a trace that was not closed, e.g., after a crash, cannot be read.<br>
+ * <br>
+ * The recorder can be used by the actors of a PartitionedSimulator on several threads at the same time, since the methods
+ * that write a record are synchronized.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class MessageTraceRecorder implements Closeable
+{
+    /** the magic number at the start of the index file, "SCTR". */
+    public static final int MAGIC = 0x53435452;
+
+    /** the version of the format. */
+    public static final int VERSION = 1;
+
+    /** the size of a record in bytes. */
+    public static final int RECORD_SIZE = 64;
+
+    /** the offset of the simulator time in a record. */
+    public static final int OFFSET_TIME = 0;
+
+    /** the offset of the kind of record. */
+    public static final int OFFSET_KIND = 8;
+
+    /** the offset of the code of the message type. */
+    public static final int OFFSET_TYPE = 9;
+
+    /** the offset of the index of the money unit. */
+    public static final int OFFSET_MONEY_UNIT = 10;
+
+    /** the offset of the index of the sender. */
+    public static final int OFFSET_SENDER = 12;
+
+    /** the offset of the index of the receiver. */
+    public static final int OFFSET_RECEIVER = 16;
+
+    /** the offset of the index of the product. */
+    public static final int OFFSET_PRODUCT = 20;
+
+    /** the offset of the internal demand id. */
+    public static final int OFFSET_INTERNAL_DEMAND_ID = 24;
+
+    /** the offset of the unique id of the message. */
+    public static final int OFFSET_MESSAGE_ID = 32;
+
+    /** the offset of the amount of product. */
+    public static final int OFFSET_AMOUNT = 40;
+
+    /** the offset of the price. */
+    public static final int OFFSET_PRICE = 48;
+
+    /** the kind of a record of a sent message. */
+    public static final byte KIND_SENT = 1;
+
+    /** the offset of the ordered amount in an inventory record. */
+    public static final int OFFSET_ORDERED_AMOUNT = 56;
+
+    /** the kind of a record of a received message. */
+    public static final byte KIND_RECEIVED = 2;
+
+    /** the kind of a record of a change of an inventory. */
+    public static final byte KIND_INVENTORY = 3;
+
+    /** the kind of a record of a change of the balance of a bank account. */
+    public static final byte KIND_BANK_ACCOUNT = 4;
+
+    /** the size of a page of memory, at which the pages of a new segment are touched. */
+    private static final int PAGE_SIZE = 4096;
+
+    /** the default number of records in a segment, for segments of 64 MiB. */
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    /** the model of which the messages are recorded. */
+    private final SupplyChainModelInterface model;
+
+    /** the path of the trace, to which the segment number or the index extension is added. */
+    private final Path path;
+
+    /** the number of records in a segment. */
+    private final int recordsPerSegment;
+
+    /** the channel of the current segment. */
+    private FileChannel channel = null;
+
+    /** the current segment. */
+    private MappedByteBuffer segment = null;
+
+    /** the segment after the current segment, which is prepared in the background. */
+    private Future<Segment> preparedSegment = null;
+
+    /** the thread that prepares the next segment. */
+    private final ExecutorService preparer;
+
+    /** the number of the current segment. */
+    private int segmentNumber = -1;
+
+    /** the number of records in the current segment. */
+    private int segmentRecords = 0;
+
+    /** the total number of records. */
+    private long numberOfRecords = 0;
+
+    /** the index of the actors in the records. */
+    private final Map<Actor, Integer> actorIndex = new IdentityHashMap<>();
+
+    /** the actors in the order of their index. */
+    private final List<Actor> actors = new ArrayList<>();
+
+    /** the index of the money units in the records. */
+    private final Map<MoneyUnit, Integer> moneyUnitIndex = new IdentityHashMap<>();
+
+    /** the money units in the order of their index. */
+    private final List<MoneyUnit> moneyUnits = new ArrayList<>();
+
+    /** whether the recorder has been closed. */
+    private boolean closed = false;
+
+    /**
+     * Create a recorder with segments of the default size.
+     * @param model SupplyChainModelInterface; the model of which the messages are recorded
+     * @param path Path; the path of the trace, to which the segment number or the index extension is added
+     * @throws IOException when the first segment cannot be created
+     */
+    public MessageTraceRecorder(final SupplyChainModelInterface model, final Path path) throws IOException
+    {
+        this(model, path, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Create a recorder.
+     * @param model SupplyChainModelInterface; the model of which the messages are recorded
+     * @param path Path; the path of the trace, to which the segment number or the index extension is added
+     * @param recordsPerSegment int; the number of records in a segment
+     * @throws IOException when the first segment cannot be created
+     */
+    public MessageTraceRecorder(final SupplyChainModelInterface model, final Path path, final int recordsPerSegment)
+            throws IOException
+    {
+        Throw.whenNull(model, "model cannot be null");
+        Throw.whenNull(path, "path cannot be null");
+        Throw.when(recordsPerSegment <= 0 || recordsPerSegment > Integer.MAX_VALUE / RECORD_SIZE,
+                IllegalArgumentException.class, "recordsPerSegment out of range");
+        this.model = model;
+        this.path = path;
+        this.recordsPerSegment = recordsPerSegment;
+        this.preparer = Executors.newSingleThreadExecutor((final Runnable runnable) ->
+        {
+            Thread thread = new Thread(runnable, "trace " + path.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        nextSegment();
+    }
+
+    /**
+     * Record a message that has been sent.
+     * @param message TradeMessage; the message
+     */
+    public synchronized void recordSent(final TradeMessage message)
+    {
+        record(KIND_SENT, message);
+    }
+
+    /**
+     * Record a message that has been received.
+     * @param message TradeMessage; the message
+     */
+    public synchronized void recordReceived(final TradeMessage message)
+    {
+        record(KIND_RECEIVED, message);
+    }
+
+    /**
+     * Record a change of an inventory.
+     * @param owner Actor; the owner of the inventory
+     * @param product Product; the product of which the inventory changed
+     * @param actualAmount double; the actual amount of the product in the inventory
+     * @param claimedAmount double; the claimed amount of the product
+     * @param orderedAmount double; the ordered amount of the product
+     */
+    public synchronized void recordInventory(final Actor owner, final Product product, final double actualAmount,
+            final double claimedAmount, final double orderedAmount)
+    {
+        int position = nextPosition();
+        MappedByteBuffer buffer = this.segment;
+        buffer.putDouble(position + OFFSET_TIME, this.model.getSimulator().getSimulatorTime().si);
+        buffer.putShort(position + OFFSET_MONEY_UNIT, (short) -1);
+        buffer.putInt(position + OFFSET_SENDER, actorIndex(owner));
+        buffer.putInt(position + OFFSET_RECEIVER, -1);
+        buffer.putInt(position + OFFSET_PRODUCT, product.getIndex());
+        buffer.putDouble(position + OFFSET_AMOUNT, actualAmount);
+        buffer.putDouble(position + OFFSET_PRICE, claimedAmount);
+        buffer.putDouble(position + OFFSET_ORDERED_AMOUNT, orderedAmount);
+        buffer.put(position + OFFSET_KIND, KIND_INVENTORY);
+        this.segmentRecords++;
+        this.numberOfRecords++;
+    }
+
+    /**
+     * Record a change of the balance of a bank account.
+     * @param owner Actor; the owner of the bank account
+     * @param balance double; the new balance in the money unit
+     * @param moneyUnit MoneyUnit; the money unit of the balance
+     */
+    public synchronized void recordBankAccount(final Actor owner, final double balance, final MoneyUnit moneyUnit)
+    {
+        int position = nextPosition();
+        MappedByteBuffer buffer = this.segment;
+        buffer.putDouble(position + OFFSET_TIME, this.model.getSimulator().getSimulatorTime().si);
+        buffer.putShort(position + OFFSET_MONEY_UNIT, (short) moneyUnitIndex(moneyUnit));
+        buffer.putInt(position + OFFSET_SENDER, actorIndex(owner));
+        buffer.putInt(position + OFFSET_RECEIVER, -1);
+        buffer.putInt(position + OFFSET_PRODUCT, -1);
+        buffer.putDouble(position + OFFSET_AMOUNT, Double.NaN);
+        buffer.putDouble(position + OFFSET_PRICE, balance);
+        buffer.put(position + OFFSET_KIND, KIND_BANK_ACCOUNT);
+        this.segmentRecords++;
+        this.numberOfRecords++;
+    }
+
+    /**
+     * Return the position of the next record in the current segment, and continue with the next segment when the current
+     * segment is full.
+     * @return int; the position of the next record in the current segment
+     */
+    private int nextPosition()
+    {
+        Throw.when(this.closed, IllegalStateException.class, "trace recorder has been closed");
+        if (this.segmentRecords == this.recordsPerSegment)
+        {
+            try
+            {
+                nextSegment();
+            }
+            catch (IOException exception)
+            {
+                throw new SupplyChainRuntimeException("trace segment cannot be created", exception);
+            }
+        }
+        return this.segmentRecords * RECORD_SIZE;
+    }
+
+    /**
+     * Write a record for a message at the end of the trace.
+     * @param kind byte; the kind of record
+     * @param message TradeMessage; the message
+     */
+    private void record(final byte kind, final TradeMessage message)
+    {
+        int position = nextPosition();
+        TraceMessageType type = TraceMessageType.of(message.getClass());
+        Money price = type.getPrice(message);
+        Product product = message.getProduct();
+        MappedByteBuffer buffer = this.segment;
+        buffer.putDouble(position + OFFSET_TIME, this.model.getSimulator().getSimulatorTime().si);
+        buffer.put(position + OFFSET_TYPE, type.getCode());
+        buffer.putShort(position + OFFSET_MONEY_UNIT, price == null ? -1 : (short) moneyUnitIndex(price.getMoneyUnit()));
+        buffer.putInt(position + OFFSET_SENDER, actorIndex(message.getSender()));
+        buffer.putInt(position + OFFSET_RECEIVER, actorIndex(message.getReceiver()));
+        buffer.putInt(position + OFFSET_PRODUCT, product == null ? -1 : product.getIndex());
+        buffer.putLong(position + OFFSET_INTERNAL_DEMAND_ID, message.getInternalDemandId());
+        buffer.putLong(position + OFFSET_MESSAGE_ID, message.getUniqueId());
+        buffer.putDouble(position + OFFSET_AMOUNT, type.getAmount(message));
+        buffer.putDouble(position + OFFSET_PRICE, price == null ? Double.NaN : price.getAmount());
+        buffer.put(position + OFFSET_KIND, kind);
+        this.segmentRecords++;
+        this.numberOfRecords++;
+    }
+
+    /**
+     * Return the index of an actor in the records, and give the actor an index when it is seen for the first time.
+     * @param actor Actor; the actor
+     * @return int; the index of the actor
+     */
+    private int actorIndex(final Actor actor)
+    {
+        Integer index = this.actorIndex.get(actor);
+        if (index == null)
+        {
+            index = this.actors.size();
+            this.actorIndex.put(actor, index);
+            this.actors.add(actor);
+        }
+        return index;
+    }
+
+    /**
+     * Return the index of a money unit in the records, and give the money unit an index when it is seen for the first time.
+     * @param moneyUnit MoneyUnit; the money unit
+     * @return int; the index of the money unit
+     */
+    private int moneyUnitIndex(final MoneyUnit moneyUnit)
+    {
+        Integer index = this.moneyUnitIndex.get(moneyUnit);
+        if (index == null)
+        {
+            index = this.moneyUnits.size();
+            this.moneyUnitIndex.put(moneyUnit, index);
+            this.moneyUnits.add(moneyUnit);
+        }
+        return index;
+    }
+
+    /**
+     * Close the channel of the current segment, and continue with the next segment, which has been prepared in the background.
+     * The records of the old segment are written to the file by the operating system, so the recording does not wait for the
+     * disk. The preparation of the segment after the next segment is started right away.
+     * @throws IOException when the segment cannot be created
+     */
+    private void nextSegment() throws IOException
+    {
+        if (this.channel != null)
+        {
+            this.channel.close();
+        }
+        this.segmentNumber++;
+        Segment next = this.preparedSegment == null ? prepareSegment(this.segmentNumber) : takePreparedSegment();
+        this.channel = next.channel;
+        this.segment = next.buffer;
+        this.segmentRecords = 0;
+        final int number = this.segmentNumber + 1;
+        this.preparedSegment = this.preparer.submit(() -> prepareSegment(number));
+    }
+
+    /**
+     * Create and map a segment file, and touch each page of the mapped segment, so the page faults of a new file do not
+     * happen while the records are written.
+     * @param number int; the number of the segment
+     * @return Segment; the mapped segment
+     * @throws IOException when the segment cannot be created
+     */
+    private Segment prepareSegment(final int number) throws IOException
+    {
+        FileChannel segmentChannel = FileChannel.open(getSegmentPath(this.path, number), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int size = this.recordsPerSegment * RECORD_SIZE;
+        MappedByteBuffer buffer = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        for (int position = 0; position < size; position += PAGE_SIZE)
+        {
+            buffer.put(position, (byte) 0);
+        }
+        return new Segment(segmentChannel, buffer);
+    }
+
+    /**
+     * Wait for the segment that is prepared in the background, and return it.
+     * @return Segment; the prepared segment
+     * @throws IOException when the segment could not be created, or when the thread is interrupted
+     */
+    private Segment takePreparedSegment() throws IOException
+    {
+        try
+        {
+            Segment segment = this.preparedSegment.get();
+            this.preparedSegment = null;
+            return segment;
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for trace segment");
+        }
+        catch (ExecutionException exception)
+        {
+            this.preparedSegment = null;
+            throw exception.getCause() instanceof IOException ? (IOException) exception.getCause()
+                    : new IOException(exception.getCause());
+        }
+    }
+
+    /**
+     * Write the records of the current segment to the file, so they can be read while the recording goes on.
+     * @throws IOException on write error
+     */
+    public synchronized void flush() throws IOException
+    {
+        if (this.channel != null)
+        {
+            this.segment.force();
+        }
+    }
+
+    /**
+     * Close the last segment, and write the index file. Messages cannot be recorded anymore after the recorder has been closed.
+     * @throws IOException on write error
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (this.closed)
+        {
+            return;
+        }
+        this.closed = true;
+        this.segment.force();
+        this.channel.close();
+        try
+        {
+            // the prepared segment has no records
+            if (this.preparedSegment != null)
+            {
+                takePreparedSegment().channel.close();
+                Files.deleteIfExists(getSegmentPath(this.path, this.segmentNumber + 1));
+            }
+        }
+        finally
+        {
+            this.preparer.shutdown();
+        }
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(getIndexPath(this.path)))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(RECORD_SIZE);
+            out.writeInt(this.recordsPerSegment);
+            out.writeInt(this.segmentNumber + 1);
+            out.writeLong(this.numberOfRecords);
+            out.writeDouble(this.model.getSimulator().getAbsStartTime().si);
+            out.writeInt(this.actors.size());
+            for (Actor actor : this.actors)
+            {
+                out.writeUTF(actor.getId());
+            }
+            out.writeInt(this.model.getNumberOfProducts());
+            for (Product product : this.model.getProducts())
+            {
+                out.writeUTF(product.getName());
+            }
+            out.writeInt(this.moneyUnits.size());
+            for (MoneyUnit moneyUnit : this.moneyUnits)
+            {
+                out.writeUTF(moneyUnit.getName());
+                out.writeUTF(moneyUnit.getSymbol());
+            }
+        }
+    }
+
+    /**
+     * Return the total number of records in the trace.
+     * @return long; the number of records
+     */
+    public synchronized long getNumberOfRecords()
+    {
+        return this.numberOfRecords;
+    }
+
+    /**
+     * Return the number of segments of the trace.
+     * @return int; the number of segments
+     */
+    public synchronized int getNumberOfSegments()
+    {
+        return this.segmentNumber + 1;
+    }
+
+    /**
+     * Return the path of the trace, to which the segment number or the index extension is added.
+     * @return Path; the path of the trace
+     */
+    public Path getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * Return the path of a segment of a trace.
+     * @param path Path; the path of the trace
+     * @param segmentNumber int; the number of the segment
+     * @return Path; the path of the segment file
+     */
+    public static Path getSegmentPath(final Path path, final int segmentNumber)
+    {
+        return path.resolveSibling(path.getFileName() + String.format(".%05d", segmentNumber));
+    }
+
+    /**
+     * Return the path of the index file of a trace.
+     * @param path Path; the path of the trace
+     * @return Path; the path of the index file
+     */
+    public static Path getIndexPath(final Path path)
+    {
+        return path.resolveSibling(path.getFileName() + ".index");
+    }
+
+    /** A mapped segment file with its channel. */
+    private static final class Segment
+    {
+        /** the channel of the segment file. */
+        private final FileChannel channel;
+
+        /** the mapped segment. */
+        private final MappedByteBuffer buffer;
+
+        /**
+         * @param channel FileChannel; the channel of the segment file
+         * @param buffer MappedByteBuffer; the mapped segment
+         */
+        Segment(final FileChannel channel, final MappedByteBuffer buffer)
+        {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "MessageTraceRecorder [path=" + this.path + ", segments=" + (this.segmentNumber + 1) + ", records="
+                + this.numberOfRecords + "]";
+    }
+
+}
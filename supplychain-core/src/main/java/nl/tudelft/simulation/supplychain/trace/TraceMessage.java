@@ -0,0 +1,112 @@
+package nl.tudelft.simulation.supplychain.trace;
+
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
+import nl.tudelft.simulation.supplychain.product.Product;
+
+/**
+ * TraceMessage is the message that a TraceReplay sends to the listeners of SEND_MESSAGE_EVENT for a recorded message. It
+ * carries the fields that are stored in the trace: the type of the original message, the product, the amount and the price,
+ * and the unique id that the message had in the recorded run. The message is only given to the listeners, and is never
+ * delivered to the receiver.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TraceMessage extends TradeMessage
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the type of the recorded message. */
+    private final TraceMessageType type;
+
+    /** the product of the recorded message, may be null. */
+    private final Product product;
+
+    /** the amount of product of the recorded message, NaN when the message has no amount. */
+    private final double amount;
+
+    /** the price of the recorded message, may be null. */
+    private final Money price;
+
+    /** the unique id of the message in the recorded run. */
+    private final long tracedUniqueId;
+
+    /**
+     * Create a message for a recorded message.
+     * @param sender Actor; the sender of the recorded message
+     * @param receiver Actor; the receiver of the recorded message
+     * @param internalDemandId long; the internal demand id of the recorded message
+     * @param type TraceMessageType; the type of the recorded message
+     * @param product Product; the product of the recorded message, may be null
+     * @param amount double; the amount of product of the recorded message, NaN when the message has no amount
+     * @param price Money; the price of the recorded message, may be null
+     * @param tracedUniqueId long; the unique id of the message in the recorded run
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    public TraceMessage(final Actor sender, final Actor receiver, final long internalDemandId, final TraceMessageType type,
+            final Product product, final double amount, final Money price, final long tracedUniqueId)
+    {
+        super(sender, receiver, internalDemandId);
+        this.type = type;
+        this.product = product;
+        this.amount = amount;
+        this.price = price;
+        this.tracedUniqueId = tracedUniqueId;
+    }
+
+    /**
+     * Return the type of the recorded message.
+     * @return TraceMessageType; the type of the recorded message
+     */
+    public TraceMessageType getType()
+    {
+        return this.type;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Product getProduct()
+    {
+        return this.product;
+    }
+
+    /**
+     * Return the amount of product of the recorded message.
+     * @return double; the amount, or NaN when the message has no amount
+     */
+    public double getAmount()
+    {
+        return this.amount;
+    }
+
+    /**
+     * Return the price of the recorded message.
+     * @return Money; the price, or null when the message has no price
+     */
+    public Money getPrice()
+    {
+        return this.price;
+    }
+
+    /**
+     * Return the unique id of the message in the recorded run.
+     * @return long; the unique id of the recorded message
+     */
+    public long getTracedUniqueId()
+    {
+        return this.tracedUniqueId;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "TraceMessage " + this.type + " from " + getSender().getName() + " to " + getReceiver().getName();
+    }
+
+}
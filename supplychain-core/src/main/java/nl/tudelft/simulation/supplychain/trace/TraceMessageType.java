@@ -0,0 +1,261 @@
+package nl.tudelft.simulation.supplychain.trace;
+
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.message.trade.Bill;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Order;
+import nl.tudelft.simulation.supplychain.message.trade.OrderConfirmation;
+import nl.tudelft.simulation.supplychain.message.trade.Payment;
+import nl.tudelft.simulation.supplychain.message.trade.ProductionOrder;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.message.trade.Shipment;
+import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
+import nl.tudelft.simulation.supplychain.message.trade.YellowPageAnswer;
+import nl.tudelft.simulation.supplychain.message.trade.YellowPageRequest;
+
+/**
+ * TraceMessageType is the type of a trade message in a trace, stored as a one byte code in the record. The type knows which
+ * amount and price of the message are stored in the record. A subclass of a trade message has the type of its closest
+ * superclass in this list; a trade message of another class has the type OTHER.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public enum TraceMessageType
+{
+    /** a trade message of a class that is not in this list. */
+    OTHER(TradeMessage.class),
+
+    /** an InternalDemand, with its amount. */
+    INTERNAL_DEMAND(InternalDemand.class)
+    {
+        @Override
+        public double getAmount(final TradeMessage message)
+        {
+            return ((InternalDemand) message).getAmount();
+        }
+    },
+
+    /** a RequestForQuote, with its amount. */
+    REQUEST_FOR_QUOTE(RequestForQuote.class)
+    {
+        @Override
+        public double getAmount(final TradeMessage message)
+        {
+            return ((RequestForQuote) message).getAmount();
+        }
+    },
+
+    /** a Quote, with its amount and price. */
+    QUOTE(Quote.class)
+    {
+        @Override
+        public double getAmount(final TradeMessage message)
+        {
+            return ((Quote) message).getAmount();
+        }
+
+        @Override
+        public Money getPrice(final TradeMessage message)
+        {
+            return ((Quote) message).getPrice();
+        }
+    },
+
+    /** an Order, with its amount and price. */
+    ORDER(Order.class)
+    {
+        @Override
+        public double getAmount(final TradeMessage message)
+        {
+            return ((Order) message).getAmount();
+        }
+
+        @Override
+        public Money getPrice(final TradeMessage message)
+        {
+            return ((Order) message).getPrice();
+        }
+    },
+
+    /** an OrderConfirmation, with the amount and price of its order. */
+    ORDER_CONFIRMATION(OrderConfirmation.class)
+    {
+        @Override
+        public double getAmount(final TradeMessage message)
+        {
+            return ((OrderConfirmation) message).getOrder().getAmount();
+        }
+
+        @Override
+        public Money getPrice(final TradeMessage message)
+        {
+            return ((OrderConfirmation) message).getOrder().getPrice();
+        }
+    },
+
+    /** a Shipment, with its amount and the value of the cargo. */
+    SHIPMENT(Shipment.class)
+    {
+        @Override
+        public double getAmount(final TradeMessage message)
+        {
+            return ((Shipment) message).getAmount();
+        }
+
+        @Override
+        public Money getPrice(final TradeMessage message)
+        {
+            return ((Shipment) message).getTotalCargoValue();
+        }
+    },
+
+    /** a Bill, with the amount of its order and its price. */
+    BILL(Bill.class)
+    {
+        @Override
+        public double getAmount(final TradeMessage message)
+        {
+            return ((Bill) message).getOrder().getAmount();
+        }
+
+        @Override
+        public Money getPrice(final TradeMessage message)
+        {
+            return ((Bill) message).getPrice();
+        }
+    },
+
+    /** a Payment, with the paid money as the price. */
+    PAYMENT(Payment.class)
+    {
+        @Override
+        public Money getPrice(final TradeMessage message)
+        {
+            return ((Payment) message).getPayment();
+        }
+    },
+
+    /** a ProductionOrder, with its amount and the cost of the materials. */
+    PRODUCTION_ORDER(ProductionOrder.class)
+    {
+        @Override
+        public double getAmount(final TradeMessage message)
+        {
+            return ((ProductionOrder) message).getAmount();
+        }
+
+        @Override
+        public Money getPrice(final TradeMessage message)
+        {
+            return ((ProductionOrder) message).getMaterialCost();
+        }
+    },
+
+    /** a YellowPageRequest. */
+    YELLOW_PAGE_REQUEST(YellowPageRequest.class),
+
+    /** a YellowPageAnswer. */
+    YELLOW_PAGE_ANSWER(YellowPageAnswer.class);
+
+    /** the types in the order of their code. */
+    private static final TraceMessageType[] TYPES = values();
+
+    /** the type of each message class, determined when the class is first traced. */
+    private static final ClassValue<TraceMessageType> CLASS_TYPES = new ClassValue<TraceMessageType>()
+    {
+        @Override
+        protected TraceMessageType computeValue(final Class<?> type)
+        {
+            for (Class<?> c = type; c != null && !c.equals(TradeMessage.class); c = c.getSuperclass())
+            {
+                for (TraceMessageType messageType : TYPES)
+                {
+                    if (messageType.messageClass.equals(c))
+                    {
+                        return messageType;
+                    }
+                }
+            }
+            return OTHER;
+        }
+    };
+
+    /** the message class of the type. */
+    private final Class<? extends TradeMessage> messageClass;
+
+    /**
+     * @param messageClass Class&lt;? extends TradeMessage&gt;; the message class of the type
+     */
+    TraceMessageType(final Class<? extends TradeMessage> messageClass)
+    {
+        this.messageClass = messageClass;
+    }
+
+    /**
+     * Return the message class of the type.
+     * @return Class&lt;? extends TradeMessage&gt;; the message class of the type
+     */
+    public Class<? extends TradeMessage> getMessageClass()
+    {
+        return this.messageClass;
+    }
+
+    /**
+     * Return the code of the type in a trace record.
+     * @return byte; the code of the type
+     */
+    public byte getCode()
+    {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Return the amount of product of a message of this type that is stored in the trace.
+     * @param message TradeMessage; the message of this type
+     * @return double; the amount of product, or NaN when the message has no amount
+     */
+    public double getAmount(final TradeMessage message)
+    {
+        return Double.NaN;
+    }
+
+    /**
+     * Return the price of a message of this type that is stored in the trace.
+     * @param message TradeMessage; the message of this type
+     * @return Money; the price, or null when the message has no price
+     */
+    public Money getPrice(final TradeMessage message)
+    {
+        return null;
+    }
+
+    /**
+     * Return the type of a message class.
+     * @param messageClass Class&lt;? extends TradeMessage&gt;; the message class
+     * @return TraceMessageType; the type of the closest superclass of the message class in this list, or OTHER
+     */
+    public static TraceMessageType of(final Class<? extends TradeMessage> messageClass)
+    {
+        return CLASS_TYPES.get(messageClass);
+    }
+
+    /**
+     * Return the type with a code.
+     * @param code byte; the code of the type
+     * @return TraceMessageType; the type with the code
+     * @throws IllegalArgumentException when there is no type with the code
+     */
+    public static TraceMessageType ofCode(final byte code)
+    {
+        if (code < 0 || code >= TYPES.length)
+        {
+            throw new IllegalArgumentException("no trace message type with code " + code);
+        }
+        return TYPES[code];
+    }
+
+}
@@ -0,0 +1,468 @@
+package nl.tudelft.simulation.supplychain.trace;
+
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_AMOUNT;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_INTERNAL_DEMAND_ID;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_KIND;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_MESSAGE_ID;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_MONEY_UNIT;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_ORDERED_AMOUNT;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_PRICE;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_PRODUCT;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_RECEIVER;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_SENDER;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_TIME;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.OFFSET_TYPE;
+import static nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder.RECORD_SIZE;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.djutils.exceptions.Throw;
+
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+
+/**
+ * TraceReader reads the records of a trace that has been written by a MessageTraceRecorder, one record at a time. The reader
+ * is a cursor: next() moves to the next record, and the getters return the fields of the current record, so reading a trace
+ * does not create any objects per record. The segments are either memory-mapped, which is the fastest when the trace is on a
+ * local disk, or streamed through a small buffer, which keeps the memory use constant for traces that are larger than the
+ * address space or that are on a network drive.<br>
+ * <br>
+ * The reader uses the index file of the trace for the number of records, and for the ids of the actors, the names of the
+ * products and the money units that belong to the indices in the records. Since the recorder only writes the index file
+ * when it is closed, a trace can only be read after its recorder has been closed.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TraceReader implements Closeable
+{
+    /** the number of records in the buffer when the segments are streamed. */
+    public static final int STREAM_BUFFER_RECORDS = 1024;
+
+    /** the path of the trace. */
+    private final Path path;
+
+    /** whether the segments are memory-mapped or streamed. */
+    private final boolean mapped;
+
+    /** the number of records in a segment. */
+    private final int recordsPerSegment;
+
+    /** the number of segments. */
+    private final int numberOfSegments;
+
+    /** the total number of records. */
+    private final long numberOfRecords;
+
+    /** the absolute start time of the simulator of the recorded run, in seconds. */
+    private final double absStartTimeSi;
+
+    /** the ids of the actors in the order of their index. */
+    private final List<String> actorIds;
+
+    /** the names of the products in the order of their index. */
+    private final List<String> productNames;
+
+    /** the money units in the order of their index. */
+    private final List<MoneyUnit> moneyUnits;
+
+    /** the channel of the current segment, or null when no segment is open. */
+    private FileChannel channel = null;
+
+    /** the number of the current segment. */
+    private int segmentNumber = -1;
+
+    /** the buffer with the records that are read, the mapped segment or the stream buffer. */
+    private ByteBuffer buffer = null;
+
+    /** the position of the current record in the buffer. */
+    private int position = 0;
+
+    /** the number of bytes with complete records in the buffer. */
+    private int limit = 0;
+
+    /** the number of records that have been read. */
+    private long recordsRead = 0;
+
+    /**
+     * Open a trace.
+     * @param path Path; the path of the trace, to which the segment number or the index extension is added
+     * @param mapped boolean; whether the segments are memory-mapped (true) or streamed (false)
+     * @throws IOException when the index file cannot be read, or has a different format
+     */
+    public TraceReader(final Path path, final boolean mapped) throws IOException
+    {
+        Throw.whenNull(path, "path cannot be null");
+        this.path = path;
+        this.mapped = mapped;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(MessageTraceRecorder.getIndexPath(path)))))
+        {
+            if (in.readInt() != MessageTraceRecorder.MAGIC || in.readInt() != MessageTraceRecorder.VERSION
+                    || in.readInt() != RECORD_SIZE)
+            {
+                throw new IOException("index file of trace " + path + " has an unknown format");
+            }
+            this.recordsPerSegment = in.readInt();
+            this.numberOfSegments = in.readInt();
+            this.numberOfRecords = in.readLong();
+            this.absStartTimeSi = in.readDouble();
+            int numberOfActors = in.readInt();
+            List<String> ids = new ArrayList<>(numberOfActors);
+            for (int i = 0; i < numberOfActors; i++)
+            {
+                ids.add(in.readUTF());
+            }
+            this.actorIds = Collections.unmodifiableList(ids);
+            int numberOfProducts = in.readInt();
+            List<String> names = new ArrayList<>(numberOfProducts);
+            for (int i = 0; i < numberOfProducts; i++)
+            {
+                names.add(in.readUTF());
+            }
+            this.productNames = Collections.unmodifiableList(names);
+            int numberOfMoneyUnits = in.readInt();
+            List<MoneyUnit> units = new ArrayList<>(numberOfMoneyUnits);
+            for (int i = 0; i < numberOfMoneyUnits; i++)
+            {
+                units.add(moneyUnit(in.readUTF(), in.readUTF()));
+            }
+            this.moneyUnits = Collections.unmodifiableList(units);
+        }
+        if (!mapped)
+        {
+            this.buffer = ByteBuffer.allocateDirect(STREAM_BUFFER_RECORDS * RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Return the predefined money unit with the name and symbol, or a new money unit when it is not predefined.
+     * @param name String; the name of the money unit
+     * @param symbol String; the symbol of the money unit
+     * @return MoneyUnit; the money unit
+     */
+    private static MoneyUnit moneyUnit(final String name, final String symbol)
+    {
+        for (MoneyUnit moneyUnit : new MoneyUnit[] {MoneyUnit.USD, MoneyUnit.EUR, MoneyUnit.GBP})
+        {
+            if (moneyUnit.getName().equals(name) && moneyUnit.getSymbol().equals(symbol))
+            {
+                return moneyUnit;
+            }
+        }
+        return new MoneyUnit(name, symbol);
+    }
+
+    /**
+     * Move to the next record of the trace.
+     * @return boolean; true when there is a next record, false at the end of the trace
+     * @throws IOException on read error
+     */
+    public boolean next() throws IOException
+    {
+        if (this.recordsRead == this.numberOfRecords)
+        {
+            return false;
+        }
+        if (this.buffer != null && this.position + RECORD_SIZE < this.limit)
+        {
+            this.position += RECORD_SIZE;
+        }
+        else if (!nextRecords())
+        {
+            return false;
+        }
+        if (this.buffer.get(this.position + OFFSET_KIND) == 0)
+        {
+            // the trace ends before the number of records in the index, e.g., after a failed write
+            return false;
+        }
+        this.recordsRead++;
+        return true;
+    }
+
+    /**
+     * Fill the buffer with the next records, and move to the first of these records. A mapped reader maps the next segment;
+     * a streamed reader reads the next records from the current segment, or from the next segment when the current segment
+     * has been read completely.
+     * @return boolean; whether there are more records
+     * @throws IOException on read error
+     */
+    private boolean nextRecords() throws IOException
+    {
+        while (true)
+        {
+            if (this.channel != null && !this.mapped)
+            {
+                this.buffer.clear();
+                while (this.buffer.hasRemaining() && this.channel.read(this.buffer) >= 0)
+                {
+                    // read until the buffer is full or the segment has been read
+                }
+                this.buffer.flip();
+                this.limit = this.buffer.limit() - this.buffer.limit() % RECORD_SIZE;
+                if (this.limit > 0)
+                {
+                    this.position = 0;
+                    return true;
+                }
+            }
+            if (this.segmentNumber + 1 >= this.numberOfSegments)
+            {
+                return false;
+            }
+            openSegment(this.segmentNumber + 1);
+            if (this.mapped)
+            {
+                this.limit = this.buffer.capacity() - this.buffer.capacity() % RECORD_SIZE;
+                this.position = 0;
+                if (this.limit > 0)
+                {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Close the current segment, and open a segment of the trace. A mapped reader maps the segment in the buffer.
+     * @param number int; the number of the segment
+     * @throws IOException when the segment cannot be opened
+     */
+    private void openSegment(final int number) throws IOException
+    {
+        if (this.channel != null)
+        {
+            this.channel.close();
+        }
+        this.segmentNumber = number;
+        this.channel = FileChannel.open(MessageTraceRecorder.getSegmentPath(this.path, number), StandardOpenOption.READ);
+        if (this.mapped)
+        {
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.channel.size());
+        }
+    }
+
+    /**
+     * Return the simulator time of the current record, in seconds since the start of the replication.
+     * @return double; the simulator time of the current record
+     */
+    public double getTime()
+    {
+        return this.buffer.getDouble(this.position + OFFSET_TIME);
+    }
+
+    /**
+     * Return the kind of the current record, e.g., MessageTraceRecorder.KIND_SENT.
+     * @return byte; the kind of the current record
+     */
+    public byte getKind()
+    {
+        return this.buffer.get(this.position + OFFSET_KIND);
+    }
+
+    /**
+     * Return the message type of the current record.
+     * @return TraceMessageType; the message type of the current record
+     */
+    public TraceMessageType getType()
+    {
+        return TraceMessageType.ofCode(this.buffer.get(this.position + OFFSET_TYPE));
+    }
+
+    /**
+     * Return the index of the money unit of the current record.
+     * @return int; the index of the money unit, or -1 when the record has no money unit
+     */
+    public int getMoneyUnit()
+    {
+        return this.buffer.getShort(this.position + OFFSET_MONEY_UNIT);
+    }
+
+    /**
+     * Return the index of the sender of the current record, or of the owner of the inventory or bank account.
+     * @return int; the index of the sender
+     */
+    public int getSender()
+    {
+        return this.buffer.getInt(this.position + OFFSET_SENDER);
+    }
+
+    /**
+     * Return the index of the receiver of the current record.
+     * @return int; the index of the receiver, or -1 when the record is not a message
+     */
+    public int getReceiver()
+    {
+        return this.buffer.getInt(this.position + OFFSET_RECEIVER);
+    }
+
+    /**
+     * Return the index of the product of the current record.
+     * @return int; the index of the product, or -1 when the record has no product
+     */
+    public int getProduct()
+    {
+        return this.buffer.getInt(this.position + OFFSET_PRODUCT);
+    }
+
+    /**
+     * Return the internal demand id of the message of the current record.
+     * @return long; the internal demand id
+     */
+    public long getInternalDemandId()
+    {
+        return this.buffer.getLong(this.position + OFFSET_INTERNAL_DEMAND_ID);
+    }
+
+    /**
+     * Return the unique id of the message of the current record.
+     * @return long; the unique id of the message
+     */
+    public long getMessageId()
+    {
+        return this.buffer.getLong(this.position + OFFSET_MESSAGE_ID);
+    }
+
+    /**
+     * Return the amount of product of a message, or the actual amount of an inventory record.
+     * @return double; the amount, or NaN when the message has no amount
+     */
+    public double getAmount()
+    {
+        return this.buffer.getDouble(this.position + OFFSET_AMOUNT);
+    }
+
+    /**
+     * Return the price of a message, the claimed amount of an inventory record, or the balance of a bank account record.
+     * @return double; the price, claimed amount or balance, or NaN when the message has no price
+     */
+    public double getPrice()
+    {
+        return this.buffer.getDouble(this.position + OFFSET_PRICE);
+    }
+
+    /**
+     * Return the ordered amount of an inventory record.
+     * @return double; the ordered amount
+     */
+    public double getOrderedAmount()
+    {
+        return this.buffer.getDouble(this.position + OFFSET_ORDERED_AMOUNT);
+    }
+
+    /**
+     * Return the total number of records in the trace, according to the index file.
+     * @return long; the number of records
+     */
+    public long getNumberOfRecords()
+    {
+        return this.numberOfRecords;
+    }
+
+    /**
+     * Return the number of records that have been read.
+     * @return long; the number of records that have been read
+     */
+    public long getRecordsRead()
+    {
+        return this.recordsRead;
+    }
+
+    /**
+     * Return the number of segments of the trace.
+     * @return int; the number of segments
+     */
+    public int getNumberOfSegments()
+    {
+        return this.numberOfSegments;
+    }
+
+    /**
+     * Return the number of records in a segment.
+     * @return int; the number of records in a segment
+     */
+    public int getRecordsPerSegment()
+    {
+        return this.recordsPerSegment;
+    }
+
+    /**
+     * Return the absolute start time of the simulator of the recorded run.
+     * @return double; the absolute start time in seconds
+     */
+    public double getAbsStartTimeSi()
+    {
+        return this.absStartTimeSi;
+    }
+
+    /**
+     * Return the ids of the actors, in the order of their index in the records.
+     * @return List&lt;String&gt;; the ids of the actors
+     */
+    public List<String> getActorIds()
+    {
+        return this.actorIds;
+    }
+
+    /**
+     * Return the names of the products, in the order of their index in the records.
+     * @return List&lt;String&gt;; the names of the products
+     */
+    public List<String> getProductNames()
+    {
+        return this.productNames;
+    }
+
+    /**
+     * Return the money units, in the order of their index in the records.
+     * @return List&lt;MoneyUnit&gt;; the money units
+     */
+    public List<MoneyUnit> getMoneyUnits()
+    {
+        return this.moneyUnits;
+    }
+
+    /**
+     * Return whether the segments are memory-mapped or streamed.
+     * @return boolean; true when the segments are memory-mapped
+     */
+    public boolean isMapped()
+    {
+        return this.mapped;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException
+    {
+        if (this.channel != null)
+        {
+            this.channel.close();
+            this.channel = null;
+        }
+        this.recordsRead = this.numberOfRecords;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "TraceReader [path=" + this.path + ", mapped=" + this.mapped + ", recordsRead=" + this.recordsRead
+                + ", numberOfRecords=" + this.numberOfRecords + "]";
+    }
+
+}
@@ -0,0 +1,282 @@
+package nl.tudelft.simulation.supplychain.trace;
+
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.event.TimedEvent;
+import org.djutils.exceptions.Throw;
+import org.pmw.tinylog.Logger;
+
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEvent;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEventInterface;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.actor.ActorNotFoundException;
+import nl.tudelft.simulation.supplychain.actor.SupplyChainActor;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.finance.BankAccount;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.inventory.Inventory;
+import nl.tudelft.simulation.supplychain.inventory.InventoryUpdateData;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryActor;
+
+/**
+ * TraceReplay replays a recorded trace in a model with the same actors and products as the recorded run, without running the
+ * behavior of the actors. For every record, the replay fires the event that was fired in the recorded run: a
+ * SEND_MESSAGE_EVENT with a TraceMessage on the sender, an INVENTORY_CHANGE_EVENT on the inventory of the owner, or a
+ * BANK_ACCOUNT_CHANGED_EVENT on the bank account of the owner. The listeners of the model, such as the StockPlot and the
+ * ContentAnimator, therefore show the recorded run without having to simulate it again. Records of received messages do not
+ * fire an event.<br>
+ * <br>
+ * The records are replayed by events on the simulator of the model, at the simulator time at which they were recorded. Only
+ * one replay event is pending at any time, so the memory use does not depend on the length of the trace. With a
+ * SupplyChainSimulator, the trace is replayed as fast as possible; with a SupplyChainAnimator, the trace is replayed at the
+ * time scale of the speed factor of the animator.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TraceReplay
+{
+    /** the model in which the trace is replayed. */
+    private final SupplyChainModelInterface model;
+
+    /** the simulator of the model. */
+    private final SupplyChainSimulatorInterface simulator;
+
+    /** the reader of the trace. */
+    private final TraceReader reader;
+
+    /** the actors of the model in the order of their index in the trace. */
+    private final Actor[] actors;
+
+    /** the products of the model in the order of their index in the trace, null when the model has no such product. */
+    private final Product[] products;
+
+    /** the money units in the order of their index in the trace. */
+    private final MoneyUnit[] moneyUnits;
+
+    /** the number of records that have been replayed. */
+    private long numberOfReplayedRecords = 0;
+
+    /** whether the replay has been started. */
+    private boolean started = false;
+
+    /**
+     * Create a replay of a trace in a model. The actors of the trace are looked up in the model by their id.
+     * @param model SupplyChainModelInterface; the model with the same actors as the recorded run, and with the listeners
+     * @param reader TraceReader; the reader of the trace, positioned at the start of the trace
+     * @throws ActorNotFoundException when an actor of the trace does not exist in the model
+     */
+    public TraceReplay(final SupplyChainModelInterface model, final TraceReader reader) throws ActorNotFoundException
+    {
+        Throw.whenNull(model, "model cannot be null");
+        Throw.whenNull(reader, "reader cannot be null");
+        Throw.when(reader.getRecordsRead() > 0, IllegalArgumentException.class, "reader is not at the start of the trace");
+        this.model = model;
+        this.simulator = model.getSimulator();
+        this.reader = reader;
+        List<String> actorIds = reader.getActorIds();
+        this.actors = new Actor[actorIds.size()];
+        for (int i = 0; i < this.actors.length; i++)
+        {
+            this.actors[i] = model.getActor(actorIds.get(i));
+        }
+        Map<String, Product> productMap = new HashMap<>();
+        for (Product product : model.getProducts())
+        {
+            productMap.put(product.getName(), product);
+        }
+        List<String> productNames = reader.getProductNames();
+        this.products = new Product[productNames.size()];
+        for (int i = 0; i < this.products.length; i++)
+        {
+            this.products[i] = productMap.get(productNames.get(i));
+        }
+        this.moneyUnits = reader.getMoneyUnits().toArray(new MoneyUnit[0]);
+    }
+
+    /**
+     * Start the replay: remove the pending events of the model, so the actors do not simulate their behavior, and schedule
+     * the replay of the first record. The events of the simulator itself, such as the end of the replication, stay on the
+     * event list. The replay runs when the simulator is started.
+     * @throws IOException when the trace cannot be read
+     */
+    public void start() throws IOException
+    {
+        Throw.when(this.started, IllegalStateException.class, "replay has been started already");
+        Throw.when(this.simulator.isStartingOrRunning(), IllegalStateException.class, "cannot start replay in a running model");
+        this.started = true;
+        List<SimEventInterface<Duration>> modelEvents = new ArrayList<>();
+        for (SimEventInterface<Duration> event : this.simulator.getEventList())
+        {
+            if (!(event instanceof SimEvent && ((SimEvent<Duration>) event).getTarget() == this.simulator))
+            {
+                modelEvents.add(event);
+            }
+        }
+        for (SimEventInterface<Duration> event : modelEvents)
+        {
+            this.simulator.cancelEvent(event);
+        }
+        if (this.reader.next())
+        {
+            scheduleNext();
+        }
+    }
+
+    /**
+     * Schedule the replay of the current record of the reader at its simulator time. A record that lies before the current
+     * simulator time is replayed right away.
+     */
+    private void scheduleNext()
+    {
+        double time = Math.max(this.reader.getTime(), this.simulator.getSimulatorTime().si);
+        this.simulator.scheduleEventAbs(Duration.instantiateSI(time), () -> replayNext());
+    }
+
+    /**
+     * Replay the current record, and the following records with the same simulator time, and schedule the replay of the
+     * first record with a later simulator time.
+     */
+    protected void replayNext()
+    {
+        double now = this.simulator.getSimulatorTime().si;
+        try
+        {
+            replayRecord();
+            while (this.reader.next())
+            {
+                if (this.reader.getTime() > now)
+                {
+                    scheduleNext();
+                    return;
+                }
+                replayRecord();
+            }
+        }
+        catch (IOException exception)
+        {
+            Logger.error(exception, "replay of trace stopped at record {}", this.reader.getRecordsRead());
+        }
+    }
+
+    /**
+     * Fire the event of the current record of the reader.
+     */
+    protected void replayRecord()
+    {
+        TraceReader record = this.reader;
+        Actor owner = this.actors[record.getSender()];
+        switch (record.getKind())
+        {
+            case MessageTraceRecorder.KIND_SENT:
+            {
+                int productIndex = record.getProduct();
+                int moneyUnitIndex = record.getMoneyUnit();
+                TraceMessage message = new TraceMessage(owner, this.actors[record.getReceiver()],
+                        record.getInternalDemandId(), record.getType(), productIndex < 0 ? null : this.products[productIndex],
+                        record.getAmount(),
+                        moneyUnitIndex < 0 ? null : new Money(record.getPrice(), this.moneyUnits[moneyUnitIndex]),
+                        record.getMessageId());
+                try
+                {
+                    owner.fireEvent(SupplyChainActor.SEND_MESSAGE_EVENT, new Object[] {message});
+                }
+                catch (RemoteException exception)
+                {
+                    Logger.error(exception, "replayRecord");
+                }
+                break;
+            }
+
+            case MessageTraceRecorder.KIND_INVENTORY:
+            {
+                Product product = this.products[record.getProduct()];
+                if (owner instanceof InventoryActor && product != null)
+                {
+                    Inventory inventory = ((InventoryActor) owner).getInventoryRole().getInventory();
+                    if (inventory.numberOfListeners(Inventory.INVENTORY_CHANGE_EVENT) > 0)
+                    {
+                        inventory.fireEvent(new TimedEvent<Time>(Inventory.INVENTORY_CHANGE_EVENT,
+                                new InventoryUpdateData(product.getName(), record.getAmount(), record.getPrice(),
+                                        record.getOrderedAmount()),
+                                owner.getSimulatorTime()));
+                    }
+                }
+                break;
+            }
+
+            case MessageTraceRecorder.KIND_BANK_ACCOUNT:
+            {
+                BankAccount bankAccount = owner.getBankAccount();
+                if (bankAccount != null && bankAccount.numberOfListeners(BankAccount.BANK_ACCOUNT_CHANGED_EVENT) > 0)
+                {
+                    bankAccount.fireTimedEvent(BankAccount.BANK_ACCOUNT_CHANGED_EVENT,
+                            new Money(record.getPrice(), this.moneyUnits[record.getMoneyUnit()]), owner.getSimulatorTime());
+                }
+                break;
+            }
+
+            default:
+                // received messages are not shown by the listeners
+                break;
+        }
+        this.numberOfReplayedRecords++;
+    }
+
+    /**
+     * Return the number of records that have been replayed.
+     * @return long; the number of replayed records
+     */
+    public long getNumberOfReplayedRecords()
+    {
+        return this.numberOfReplayedRecords;
+    }
+
+    /**
+     * Return whether all records of the trace have been replayed.
+     * @return boolean; whether the replay has finished
+     */
+    public boolean isFinished()
+    {
+        return this.started && this.numberOfReplayedRecords == this.reader.getRecordsRead()
+                && this.reader.getRecordsRead() == this.reader.getNumberOfRecords();
+    }
+
+    /**
+     * Return the model in which the trace is replayed.
+     * @return SupplyChainModelInterface; the model
+     */
+    public SupplyChainModelInterface getModel()
+    {
+        return this.model;
+    }
+
+    /**
+     * Return the reader of the trace.
+     * @return TraceReader; the reader
+     */
+    public TraceReader getReader()
+    {
+        return this.reader;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "TraceReplay [reader=" + this.reader + ", replayed=" + this.numberOfReplayedRecords + "]";
+    }
+
+}
@@ -0,0 +1,12 @@
+/**
+ * Binary traces of a supply chain run. The trace recorder appends the sent and received trade messages, and the changes of the
+ * inventories and bank accounts, as fixed-layout records to memory-mapped segment files, so a long run can be audited
+ * afterwards without keeping the messages in memory. The trace reader and the trace replay fire the recorded events again to
+ * the listeners of a model, such as the charts and the animation, without simulating the run again.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+package nl.tudelft.simulation.supplychain.trace;
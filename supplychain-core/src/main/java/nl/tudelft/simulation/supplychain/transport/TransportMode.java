@@ -37,6 +37,16 @@ public class TransportMode implements Identifiable, Serializable {
 	/** SKUs that the TransportMode can handle. */
 	private ImmutableSet<Sku> handledSkuSet = new ImmutableLinkedHashSet<>(new LinkedHashSet<>());
 
+	/** the version of the speed, incremented on every change of the speed. */
+	private long version = 0L;
+
+	/**
+	 * Create an empty transport mode for the ModelCheckpoint.
+	 */
+	protected TransportMode() {
+		super();
+	}
+
 	/**
 	 * Constructor for TransportMode.
 	 * 
@@ -73,6 +83,18 @@ public class TransportMode implements Identifiable, Serializable {
 	public void setAverageSpeed(final Speed averageSpeed) {
 		Throw.whenNull(averageSpeed, "averageSpeed cannot be null");
 		this.averageSpeed = averageSpeed;
+		this.version++;
+	}
+
+	/**
+	 * Return the version of the speed of this mode. The version is incremented on
+	 * every change of the speed, so a TransportOption can see whether its cached
+	 * durations are still valid.
+	 * 
+	 * @return long; the version of the speed of this mode
+	 */
+	public long getVersion() {
+		return this.version;
 	}
 
 	/**
@@ -3,7 +3,9 @@ package nl.tudelft.simulation.supplychain.transport;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.djunits.value.vdouble.scalar.Duration;
 import org.djunits.value.vdouble.scalar.Length;
@@ -14,7 +16,7 @@ import org.djutils.immutablecollections.ImmutableList;
 
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
 import nl.tudelft.simulation.supplychain.finance.Money;
-import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.finance.MoneyAccumulator;
 import nl.tudelft.simulation.supplychain.product.Sku;
 
 /**
@@ -23,7 +25,15 @@ import nl.tudelft.simulation.supplychain.product.Sku;
  * e.g., trucking, or a multimodal option that involves, e.g., a truck to the
  * Port, a containrship to another port, and trucking to the final destination.
  * Each of the modes has a different speed, and each of the transfers will take
- * time (and possibly cost money),
+ * time (and possibly cost money),<br>
+ * <br>
+ * The estimated total duration and cost are cached per Sku. The cache is only
+ * used as long as the steps of the option, the estimates of the steps, the
+ * speeds of the transport modes, and the distances of the model did not change;
+ * each of these has a version that is incremented on a change. The cached
+ * estimates are immutable and are replaced in a concurrent map, so the
+ * estimates of an option can be used by actors in different partitions of a
+ * PartitionedSimulator on several threads.
  * <p>
  * Copyright (c) 2022-2023 Delft University of Technology, Delft, the
  * Netherlands. All rights reserved. <br>
@@ -42,6 +52,17 @@ public class TransportOption implements Identifiable, Serializable {
 	/** the sequence of TransportSteps. */
 	private ImmutableList<TransportOptionStep> transportSteps = new ImmutableArrayList<>(new ArrayList<>());
 
+	/** the cached estimates per Sku, created when they are first used. */
+	private transient volatile Map<Sku, Estimate> estimates = null;
+
+	/**
+	 * Create an empty transport option for the ModelCheckpoint, which sets the fields when it reads a message with the
+	 * transport option from a checkpoint.
+	 */
+	protected TransportOption() {
+		this.id = null;
+	}
+
 	/**
 	 * make a new TransportOption.
 	 * 
@@ -77,6 +98,7 @@ public class TransportOption implements Identifiable, Serializable {
 		List<TransportOptionStep> steps = this.transportSteps.toList();
 		steps.add(transportOptionStep);
 		this.transportSteps = new ImmutableArrayList<>(steps);
+		this.estimates = null;
 	}
 
 	/**
@@ -99,12 +121,28 @@ public class TransportOption implements Identifiable, Serializable {
 	 *         transloading
 	 */
 	public Duration estimatedTotalTransportDuration(final Sku sku) {
+		Estimate estimate = getEstimate(sku);
+		if (estimate.duration != null) {
+			return estimate.duration;
+		}
+		Duration duration = calculateTotalTransportDuration(sku);
+		getEstimates().put(sku, new Estimate(estimate.version, duration, estimate.cost));
+		return duration;
+	}
+
+	/**
+	 * Calculate the estimated total transport duration from sender to receiver.
+	 * 
+	 * @param sku Sku; the sku that needs to be transported
+	 * @return Duration; the total transport duration including transport and
+	 *         transloading
+	 */
+	protected Duration calculateTotalTransportDuration(final Sku sku) {
 		Duration result = Duration.ZERO;
 		for (TransportOptionStep step : this.transportSteps) {
 			result = result.plus(step.getEstimatedLoadingTime(sku)).plus(step.getEstimatedUnloadingTime(sku));
 			SupplyChainModelInterface model = step.getOrigin().getSimulator().getModel();
-			Length distance = model.calculateDistance(step.getOrigin().getLocation(),
-					step.getDestination().getLocation());
+			Length distance = model.getDistanceMatrix().getDistance(step.getOrigin(), step.getDestination());
 			result = result.plus(distance.divide(step.getTransportMode().getAverageSpeed()));
 		}
 		return result;
@@ -117,20 +155,115 @@ public class TransportOption implements Identifiable, Serializable {
 	 * @return Money; the total costs including transport and transloading
 	 */
 	public Money estimatedTotalTransportCost(final Sku sku) {
-		double cost = 0.0;
-		MoneyUnit costUnit = null;
+		Estimate estimate = getEstimate(sku);
+		if (estimate.cost != null) {
+			return estimate.cost;
+		}
+		Money cost = calculateTotalTransportCost(sku);
+		getEstimates().put(sku, new Estimate(estimate.version, estimate.duration, cost));
+		return cost;
+	}
+
+	/**
+	 * Calculate the estimated total transport cost from sender to receiver.
+	 * 
+	 * @param sku Sku; the sku that needs to be transported
+	 * @return Money; the total costs including transport and transloading
+	 */
+	protected Money calculateTotalTransportCost(final Sku sku) {
+		MoneyAccumulator cost = new MoneyAccumulator();
 		for (TransportOptionStep step : this.transportSteps) {
-			Money costPerKm = step.getEstimatedTransportCostPerKm(sku);
-			if (costUnit == null) {
-				costUnit = costPerKm.getMoneyUnit();
+			double distanceKm = step.getOrigin().getSimulator().getModel().getDistanceMatrix()
+					.getDistanceKm(step.getOrigin(), step.getDestination());
+			cost.add(step.getEstimatedLoadingCost(sku));
+			cost.add(step.getEstimatedUnloadingCost(sku));
+			cost.addProduct(step.getEstimatedTransportCostPerKm(sku), distanceKm);
+		}
+		return cost.toMoney();
+	}
+
+	/**
+	 * Return the cached estimate for a Sku, or an empty estimate when the steps,
+	 * the transport modes, or the distances have changed since it was cached.
+	 * 
+	 * @param sku Sku; the sku that needs to be transported
+	 * @return Estimate; the cached estimate for the sku
+	 */
+	private Estimate getEstimate(final Sku sku) {
+		long version = calculateVersion();
+		Estimate estimate = getEstimates().get(sku);
+		if (estimate == null || estimate.version != version) {
+			return new Estimate(version, null, null);
+		}
+		return estimate;
+	}
+
+	/**
+	 * Return the map with the cached estimates, and create it when it is first
+	 * used, also after deserialization.
+	 * 
+	 * @return Map&lt;Sku, Estimate&gt;; the cached estimates per Sku
+	 */
+	private Map<Sku, Estimate> getEstimates() {
+		Map<Sku, Estimate> result = this.estimates;
+		if (result == null) {
+			synchronized (this) {
+				if (this.estimates == null) {
+					this.estimates = new ConcurrentHashMap<>();
+				}
+				result = this.estimates;
 			}
-			double distanceKm = step.getOrigin().getSimulator().getModel()
-					.calculateDistance(step.getOrigin().getLocation(), step.getDestination().getLocation()).si / 1000.0;
-			cost += step.getEstimatedLoadingCost(sku).getAmount();
-			cost += step.getEstimatedUnloadingCost(sku).getAmount();
-			cost += costPerKm.getAmount() * distanceKm;
 		}
-		return new Money(cost, costUnit);
+		return result;
+	}
+
+	/**
+	 * Calculate the combined version of the steps, their transport modes, and the
+	 * distance matrix of the model. All versions only increase, so their sum
+	 * changes when any of them changes.
+	 * 
+	 * @return long; the combined version of the data that the estimates use
+	 */
+	private long calculateVersion() {
+		long version = 0L;
+		for (TransportOptionStep step : this.transportSteps) {
+			version += step.getVersion() + step.getTransportMode().getVersion();
+		}
+		if (!this.transportSteps.isEmpty()) {
+			version += this.transportSteps.get(0).getOrigin().getModel().getDistanceMatrix().getVersion();
+		}
+		return version;
+	}
+
+	/**
+	 * The cached total duration and cost for one Sku. An estimate is immutable;
+	 * when a value is calculated, the estimate is replaced. When two threads
+	 * replace the estimate at the same time, one of the values is calculated
+	 * again the next time, but the cached values are always correct.
+	 */
+	private static class Estimate {
+		/** the combined version of the data for which the estimate is valid. */
+		private final long version;
+
+		/** the cached total transport duration, or null when not calculated. */
+		private final Duration duration;
+
+		/** the cached total transport cost, or null when not calculated. */
+		private final Money cost;
+
+		/**
+		 * @param version  long; the combined version of the data for which the
+		 *                 estimate is valid
+		 * @param duration Duration; the total transport duration, or null when not
+		 *                 calculated
+		 * @param cost     Money; the total transport cost, or null when not
+		 *                 calculated
+		 */
+		Estimate(final long version, final Duration duration, final Money cost) {
+			this.version = version;
+			this.duration = duration;
+			this.cost = cost;
+		}
 	}
 
 	/** {@inheritDoc} */
@@ -69,6 +69,19 @@ public class TransportOptionStep implements Identifiable, Serializable {
 	/** the estimated costs to transport an SKU per km. */
 	private Map<Sku, Money> estimatedTransportCostsPerKm = new LinkedHashMap<>();
 
+	/** the version of the estimates, incremented on every change of an estimate. */
+	private long version = 0L;
+
+	/**
+	 * Create an empty transport option step for the ModelCheckpoint.
+	 */
+	protected TransportOptionStep() {
+		this.id = null;
+		this.origin = null;
+		this.destination = null;
+		this.transportMode = null;
+	}
+
 	/**
 	 * @param id            String; the identifier for this TransportStep
 	 * @param origin        Actor; the actor at the origin (company, port, terminal)
@@ -200,6 +213,7 @@ public class TransportOptionStep implements Identifiable, Serializable {
 		Throw.whenNull(sku, "sku cannot be null");
 		Throw.whenNull(estimatedLoadingTime, "estimatedLoadingTime cannot be null");
 		this.estimatedLoadingTimes.put(sku, estimatedLoadingTime);
+		this.version++;
 	}
 
 	/**
@@ -215,6 +229,7 @@ public class TransportOptionStep implements Identifiable, Serializable {
 		Throw.whenNull(sku, "sku cannot be null");
 		Throw.whenNull(estimatedUnloadingTime, "estimatedUnloadingTime cannot be null");
 		this.estimatedUnloadingTimes.put(sku, estimatedUnloadingTime);
+		this.version++;
 	}
 
 	/**
@@ -229,6 +244,7 @@ public class TransportOptionStep implements Identifiable, Serializable {
 		Throw.whenNull(sku, "sku cannot be null");
 		Throw.whenNull(estimatedLoadingCost, "estimatedLoadingCost cannot be null");
 		this.estimatedLoadingCosts.put(sku, estimatedLoadingCost);
+		this.version++;
 	}
 
 	/**
@@ -243,6 +259,7 @@ public class TransportOptionStep implements Identifiable, Serializable {
 		Throw.whenNull(sku, "sku cannot be null");
 		Throw.whenNull(estimatedUnloadingCost, "estimatedUnloadingCost cannot be null");
 		this.estimatedUnloadingCosts.put(sku, estimatedUnloadingCost);
+		this.version++;
 	}
 
 	/**
@@ -259,6 +276,18 @@ public class TransportOptionStep implements Identifiable, Serializable {
 		Throw.whenNull(sku, "sku cannot be null");
 		Throw.whenNull(estimatedTransportCostPerKm, "estimatedTransportCostPerKm cannot be null");
 		this.estimatedTransportCostsPerKm.put(sku, estimatedTransportCostPerKm);
+		this.version++;
+	}
+
+	/**
+	 * Return the version of the estimates of this step. The version is
+	 * incremented on every change of an estimate, so a TransportOption can see
+	 * whether its cached totals are still valid.
+	 * 
+	 * @return long; the version of the estimates of this step
+	 */
+	public long getVersion() {
+		return this.version;
 	}
 
 	/** {@inheritDoc} */
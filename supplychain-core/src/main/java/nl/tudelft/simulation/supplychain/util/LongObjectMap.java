@@ -0,0 +1,285 @@
+package nl.tudelft.simulation.supplychain.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LongObjectMap is a compact hash map with primitive long keys, e.g., for message ids and internal demand ids. The keys are
+ * stored in an open addressing table with linear probing, so no Long objects or map entries are created when adding,
+ * retrieving or removing values. Removal uses backward shifting, so the table does not fill up with deleted markers when many
+ * keys are added and removed over a long simulation run. The map is not synchronized.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ * @param <V> the value type
+ */
+public class LongObjectMap<V> implements Serializable
+{
+    /** */
+    private static final long serialVersionUID = 20231017L;
+
+    /** the keys; a slot is free when the value in that slot is null. */
+    private long[] keys;
+
+    /** the values; null indicates a free slot. */
+    private Object[] values;
+
+    /** the number of keys in the map. */
+    private int size = 0;
+
+    /** the bit mask for the table index; the table length is always a power of 2. */
+    private int mask;
+
+    /**
+     * Create an empty map with a default initial capacity.
+     */
+    public LongObjectMap()
+    {
+        this(16);
+    }
+
+    /**
+     * Create an empty map that can hold the given number of keys without resizing.
+     * @param initialCapacity int; the expected number of keys
+     */
+    public LongObjectMap(final int initialCapacity)
+    {
+        int length = 8;
+        while (length * 3 / 4 < initialCapacity)
+        {
+            length <<= 1;
+        }
+        allocate(length);
+    }
+
+    /**
+     * Allocate a new, empty table.
+     * @param length int; the length of the table (a power of 2)
+     */
+    private void allocate(final int length)
+    {
+        this.keys = new long[length];
+        this.values = new Object[length];
+        this.mask = length - 1;
+    }
+
+    /**
+     * Return the start slot for a key, using the mixing function of SplitMix64 to spread sequential ids over the table.
+     * @param key long; the key
+     * @return int; the start slot for the key
+     */
+    private int slot(final long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & this.mask;
+    }
+
+    /**
+     * Return the value for the key, or null when the key is not in the map.
+     * @param key long; the key
+     * @return V; the value for the key, or null when the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final long key)
+    {
+        int i = slot(key);
+        while (this.values[i] != null)
+        {
+            if (this.keys[i] == key)
+            {
+                return (V) this.values[i];
+            }
+            i = (i + 1) & this.mask;
+        }
+        return null;
+    }
+
+    /**
+     * Return whether the key is in the map.
+     * @param key long; the key
+     * @return boolean; whether the key is in the map
+     */
+    public boolean containsKey(final long key)
+    {
+        return get(key) != null;
+    }
+
+    /**
+     * Store a value for a key, replacing the previous value for the key.
+     * @param key long; the key
+     * @param value V; the value, not null
+     * @return V; the previous value for the key, or null when the key was not in the map
+     * @throws NullPointerException when value is null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final long key, final V value)
+    {
+        if (value == null)
+        {
+            throw new NullPointerException("value cannot be null");
+        }
+        int i = slot(key);
+        while (this.values[i] != null)
+        {
+            if (this.keys[i] == key)
+            {
+                V previous = (V) this.values[i];
+                this.values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & this.mask;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        if (++this.size > this.keys.length * 3 / 4)
+        {
+            rehash(this.keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Remove the key from the map.
+     * @param key long; the key
+     * @return V; the value for the removed key, or null when the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final long key)
+    {
+        int i = slot(key);
+        while (this.values[i] != null)
+        {
+            if (this.keys[i] == key)
+            {
+                V previous = (V) this.values[i];
+                shiftBack(i);
+                this.size--;
+                return previous;
+            }
+            i = (i + 1) & this.mask;
+        }
+        return null;
+    }
+
+    /**
+     * Fill the freed slot with a later key of the same probe sequence, and repeat for the slot that becomes free.
+     * @param freeSlot int; the slot that became free
+     */
+    private void shiftBack(final int freeSlot)
+    {
+        int free = freeSlot;
+        int i = (free + 1) & this.mask;
+        while (this.values[i] != null)
+        {
+            int home = slot(this.keys[i]);
+            // move the entry when its home slot is not in the cyclic range (free, i]
+            if (((i - home) & this.mask) >= ((i - free) & this.mask))
+            {
+                this.keys[free] = this.keys[i];
+                this.values[free] = this.values[i];
+                free = i;
+            }
+            i = (i + 1) & this.mask;
+        }
+        this.values[free] = null;
+    }
+
+    /**
+     * Move all entries to a table of a new length.
+     * @param length int; the new length of the table (a power of 2)
+     */
+    private void rehash(final int length)
+    {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        allocate(length);
+        for (int j = 0; j < oldKeys.length; j++)
+        {
+            if (oldValues[j] != null)
+            {
+                int i = slot(oldKeys[j]);
+                while (this.values[i] != null)
+                {
+                    i = (i + 1) & this.mask;
+                }
+                this.keys[i] = oldKeys[j];
+                this.values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Return the number of keys in the map.
+     * @return int; the number of keys in the map
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Return whether the map is empty.
+     * @return boolean; whether the map is empty
+     */
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    /**
+     * Remove all keys from the map.
+     */
+    public void clear()
+    {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * Return the keys of the map in table order.
+     * @return long[]; a new array with the keys of the map
+     */
+    public long[] keys()
+    {
+        long[] result = new long[this.size];
+        int n = 0;
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            if (this.values[i] != null)
+            {
+                result[n++] = this.keys[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the values of the map in table order.
+     * @return List&lt;V&gt;; a new list with the values of the map
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values()
+    {
+        List<V> result = new ArrayList<>(this.size);
+        for (int i = 0; i < this.values.length; i++)
+        {
+            if (this.values[i] != null)
+            {
+                result.add((V) this.values[i]);
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return "LongObjectMap [size=" + this.size + "]";
+    }
+
+}
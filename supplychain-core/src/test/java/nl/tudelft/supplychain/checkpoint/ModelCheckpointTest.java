@@ -0,0 +1,796 @@
+package nl.tudelft.supplychain.checkpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.rmi.RemoteException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.unit.SpeedUnit;
+import org.djunits.unit.TimeUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Speed;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.djutils.event.Event;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.SimRuntimeException;
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.jstats.distributions.DistConstant;
+import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
+import nl.tudelft.simulation.jstats.streams.StreamInterface;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.actor.SupplyChainActor;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointInput;
+import nl.tudelft.simulation.supplychain.checkpoint.CheckpointOutput;
+import nl.tudelft.simulation.supplychain.checkpoint.Checkpointable;
+import nl.tudelft.simulation.supplychain.checkpoint.ModelCheckpoint;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.finance.Bank;
+import nl.tudelft.simulation.supplychain.finance.BankAccount;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.MessageDeliveryEvent;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicy;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiverDirect;
+import nl.tudelft.simulation.supplychain.message.store.trade.LeanTradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.OrderBasedOnQuote;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.policy.quote.QuoteComparatorEnum;
+import nl.tudelft.simulation.supplychain.policy.quote.QuotePolicyTimeout;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.role.banking.BankingRole;
+import nl.tudelft.simulation.supplychain.role.financing.FinancingActor;
+import nl.tudelft.simulation.supplychain.role.financing.FinancingRole;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryActor;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryRole;
+import nl.tudelft.simulation.supplychain.transport.TransportMode;
+import nl.tudelft.simulation.supplychain.transport.TransportOption;
+import nl.tudelft.simulation.supplychain.transport.TransportOptionStep;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+import nl.tudelft.supplychain.dsol.TestSimulation;
+import nl.tudelft.supplychain.message.MessageTest.TestMessage;
+import nl.tudelft.supplychain.message.TestMessageFields;
+import nl.tudelft.supplychain.policy.QuotePolicyTimeoutTest.TradingActor;
+
+/**
+ * ModelCheckpointTest saves a running model halfway, restores it into a fresh model, and checks that the restored model
+ * continues in the same way as the model that was not interrupted. The time to save and restore a checkpoint is measured in
+ * the CheckpointBenchmark of supplychain-bench.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ModelCheckpointTest
+{
+    /** the length of the replication in days. */
+    private static final double RUN_LENGTH = 100.0;
+
+    /**
+     * Test that a restored model has the same state as the saved model, and continues in the same way.
+     * @throws IOException on checkpoint error
+     * @throws InterruptedException on sleep error
+     */
+    @Test
+    public void testRestoreAndContinue() throws IOException, InterruptedException
+    {
+        CheckpointModel original = makeModel(5);
+        runUpTo(original, 50.0);
+        ModelCheckpoint checkpoint = new ModelCheckpoint(original);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        checkpoint.save(bytes);
+        assertTrue(checkpoint.getNumberOfEvents() > 0);
+
+        CheckpointModel restored = makeModel(5);
+        ModelCheckpoint restoreCheckpoint = new ModelCheckpoint(restored);
+        restoreCheckpoint.restore(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(checkpoint.getNumberOfEvents(), restoreCheckpoint.getNumberOfEvents());
+        assertSameState(original, restored);
+
+        // both models run to the end of the replication
+        runUpTo(original, RUN_LENGTH);
+        runUpTo(restored, RUN_LENGTH);
+        assertSameState(original, restored);
+        assertTrue(original.getActor(0).getReceivedCount() > 0);
+    }
+
+    /**
+     * Test that a QuotePolicyTimeout that tracks the quotes of two demands at the save orders in the same way after the
+     * restore: demand 1 is ordered at supplier 1 at the timeout, and both demands are no longer tracked.
+     * @throws IOException on checkpoint error
+     * @throws InterruptedException on sleep error
+     */
+    @Test
+    public void testQuotePolicyTimeout() throws IOException, InterruptedException
+    {
+        QuoteModel original = makeQuoteModel();
+        runUpTo(original, 0.5);
+        assertEquals(2, original.getPolicy().getNumberOfTrackedDemands());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ModelCheckpoint(original).save(bytes);
+
+        QuoteModel restored = makeQuoteModel();
+        new ModelCheckpoint(restored).restore(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(2, restored.getPolicy().getNumberOfTrackedDemands());
+
+        runUpTo(original, 5.0);
+        runUpTo(restored, 5.0);
+        for (QuoteModel model : new QuoteModel[] {original, restored})
+        {
+            assertEquals(0, model.getPolicy().getNumberOfTrackedDemands());
+            assertEquals(1, model.getOrders().size());
+            assertEquals("supplier1", model.getOrders().get(0).getReceiver().getId());
+        }
+        assertEquals(original.getOrders().get(0).getInternalDemandId(), restored.getOrders().get(0).getInternalDemandId());
+        assertEquals(original.getOrders().get(0).getQuote().getUniqueId(),
+                restored.getOrders().get(0).getQuote().getUniqueId());
+    }
+
+    /**
+     * Test that a checkpoint cannot be restored into a model with a different structure.
+     * @throws IOException on checkpoint error
+     * @throws InterruptedException on sleep error
+     */
+    @Test
+    public void testDifferentModel() throws IOException, InterruptedException
+    {
+        CheckpointModel original = makeModel(3);
+        runUpTo(original, 10.0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ModelCheckpoint(original).save(bytes);
+        try
+        {
+            new ModelCheckpoint(makeModel(4)).restore(new ByteArrayInputStream(bytes.toByteArray()));
+            fail("restore into a model with a different number of actors should fail");
+        }
+        catch (InvalidObjectException exception)
+        {
+            // ok
+        }
+    }
+
+    /**
+     * Test that a message without a constructor without arguments cannot be saved, since it cannot be read back.
+     * @throws IOException on checkpoint error
+     * @throws InterruptedException on sleep error
+     */
+    @Test
+    public void testMessageWithoutConstructor() throws IOException, InterruptedException
+    {
+        CheckpointModel original = makeModel(2);
+        runUpTo(original, 10.0);
+        TestMessageFields message = new TestMessageFields(original.getActor(0), original.getActor(1),
+                new Duration(1.0, DurationUnit.HOUR), "name", true);
+        original.getSimulator().scheduleEvent(new MessageDeliveryEvent(new Duration(11.0, DurationUnit.DAY), message));
+        try
+        {
+            new ModelCheckpoint(original).save(new ByteArrayOutputStream());
+            fail("save of a message without a constructor without arguments should fail");
+        }
+        catch (NotSerializableException exception)
+        {
+            assertTrue(exception.getMessage().contains(TestMessageFields.class.getName()));
+        }
+    }
+
+    /**
+     * Test that a pending event that cannot be written makes the save fail, instead of being left out of the checkpoint.
+     * @throws IOException on checkpoint error
+     * @throws InterruptedException on sleep error
+     */
+    @Test
+    public void testUnwritableEvent() throws IOException, InterruptedException
+    {
+        CheckpointModel original = makeModel(2);
+        runUpTo(original, 10.0);
+        original.getSimulator().scheduleEventRel(new Duration(1.0, DurationUnit.DAY), () -> original.getActor(0).tick());
+        try
+        {
+            new ModelCheckpoint(original).save(new ByteArrayOutputStream());
+            fail("save of a lambda event should fail");
+        }
+        catch (NotSerializableException exception)
+        {
+            assertTrue(exception.getMessage().contains("lambda"));
+        }
+    }
+
+    /**
+     * Test that a model with a LeanTradeMessageStore cannot be saved, since the time-outs of its messages are not stored.
+     * @throws IOException on checkpoint error
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testLeanStore() throws IOException, ActorAlreadyDefinedException
+    {
+        CheckpointModel original = makeModel(2);
+        new LeanActor("LEAN", original);
+        try
+        {
+            new ModelCheckpoint(original).save(new ByteArrayOutputStream());
+            fail("save of a model with a LeanTradeMessageStore should fail");
+        }
+        catch (IllegalArgumentException exception)
+        {
+            assertTrue(exception.getMessage().contains("LEAN"));
+        }
+    }
+
+    /**
+     * Test that a checkpoint in which a class name has been replaced cannot create objects of a class that would not have been
+     * written, such as a class that is not Serializable, a class of the JDK, or a class that is not a unit.
+     * @throws IOException on checkpoint error
+     * @throws InterruptedException on sleep error
+     */
+    @Test
+    public void testHostileClass() throws IOException, InterruptedException
+    {
+        CheckpointModel original = makeModel(2);
+        runUpTo(original, 10.0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ModelCheckpoint(original).save(bytes);
+        String[][] replacements = {{InternalDemand.class.getName(), Unserializable.class.getName()},
+                {InternalDemand.class.getName(), Random.class.getName()}, {DurationUnit.class.getName(), Thread.class.getName()}};
+        for (String[] replacement : replacements)
+        {
+            byte[] hostile = replaceClassName(bytes.toByteArray(), replacement[0], replacement[1]);
+            try
+            {
+                new ModelCheckpoint(makeModel(2)).restore(new ByteArrayInputStream(hostile));
+                fail("restore of a checkpoint with class " + replacement[1] + " should fail");
+            }
+            catch (InvalidClassException exception)
+            {
+                assertTrue(exception.getMessage().contains(replacement[1]));
+            }
+        }
+        assertEquals(0, Unserializable.instances);
+    }
+
+    /**
+     * Replace the first class name in a checkpoint, which is written with its length as in DataOutput.writeUTF.
+     * @param bytes byte[]; the checkpoint
+     * @param name String; the class name to replace
+     * @param replacement String; the new class name
+     * @return byte[]; the checkpoint with the replaced class name
+     */
+    private byte[] replaceClassName(final byte[] bytes, final String name, final String replacement)
+    {
+        byte[] pattern = utf(name);
+        for (int i = 0; i <= bytes.length - pattern.length; i++)
+        {
+            if (Arrays.equals(bytes, i, i + pattern.length, pattern, 0, pattern.length))
+            {
+                ByteArrayOutputStream result = new ByteArrayOutputStream();
+                result.write(bytes, 0, i);
+                result.writeBytes(utf(replacement));
+                result.write(bytes, i + pattern.length, bytes.length - i - pattern.length);
+                return result.toByteArray();
+            }
+        }
+        fail("class " + name + " not found in the checkpoint");
+        return null;
+    }
+
+    /**
+     * @param name String; an ASCII class name
+     * @return byte[]; the class name with its length, as written by DataOutput.writeUTF
+     */
+    private byte[] utf(final String name)
+    {
+        byte[] result = new byte[name.length() + 2];
+        result[0] = (byte) (name.length() >> 8);
+        result[1] = (byte) name.length();
+        System.arraycopy(name.getBytes(StandardCharsets.US_ASCII), 0, result, 2, name.length());
+        return result;
+    }
+
+    /**
+     * Check that two models have the same state.
+     * @param expected CheckpointModel; the model with the expected state
+     * @param actual CheckpointModel; the model to check
+     */
+    private void assertSameState(final CheckpointModel expected, final CheckpointModel actual)
+    {
+        assertEquals(expected.getSimulator().getSimulatorTime().si, actual.getSimulator().getSimulatorTime().si, 1E-6);
+        assertEquals(expected.getSimulator().getEventList().size(), actual.getSimulator().getEventList().size());
+        for (int i = 0; i < expected.getNrActors(); i++)
+        {
+            CheckpointActor a = expected.getActor(i);
+            CheckpointActor b = actual.getActor(i);
+            assertEquals(a.getReceivedCount(), b.getReceivedCount());
+            assertEquals(a.getBankAccount().getBalance().getAmount(), b.getBankAccount().getBalance().getAmount(), 1E-6);
+            for (Product product : expected.getProducts())
+            {
+                Product other = actual.getProducts().get(product.getIndex());
+                assertEquals(a.getInventoryRole().getInventory().getActualAmount(product),
+                        b.getInventoryRole().getInventory().getActualAmount(other), 1E-9);
+                assertEquals(a.getInventoryRole().getInventory().getUnitPrice(product).getAmount(),
+                        b.getInventoryRole().getInventory().getUnitPrice(other).getAmount(), 1E-6);
+            }
+
+            // the ids of the demands are kept by the original actor, the restored actor only knows its new demands
+            for (long id : a.getDemandIds())
+            {
+                List<InternalDemand> listA = a.getMessageStore().getMessageList(id, InternalDemand.class);
+                List<InternalDemand> listB = b.getMessageStore().getMessageList(id, InternalDemand.class);
+                assertEquals(listA.size(), listB.size());
+                for (int m = 0; m < listA.size(); m++)
+                {
+                    assertEquals(listA.get(m).getAmount(), listB.get(m).getAmount(), 0.0);
+                    assertEquals(listA.get(m).getProduct().getName(), listB.get(m).getProduct().getName());
+                    assertEquals(listA.get(m).getSender().getId(), listB.get(m).getSender().getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Create and initialize a model with a number of actors.
+     * @param nrActors int; the number of actors
+     * @return CheckpointModel; the initialized model
+     */
+    private CheckpointModel makeModel(final int nrActors)
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        CheckpointModel model = new CheckpointModel(simulator, nrActors);
+        SingleReplication<Duration> replication = new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO,
+                new Duration(RUN_LENGTH, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        return model;
+    }
+
+    /**
+     * Create and initialize a model with a buyer that uses a QuotePolicyTimeout.
+     * @return QuoteModel; the initialized model
+     */
+    private QuoteModel makeQuoteModel()
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        QuoteModel model = new QuoteModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(10.0, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        return model;
+    }
+
+    /**
+     * Run the model up to a time, or to the end of the replication.
+     * @param model TestModel; the model
+     * @param days double; the time to run to in days
+     * @throws InterruptedException when the thread is interrupted while waiting
+     */
+    private void runUpTo(final TestModel model, final double days) throws InterruptedException
+    {
+        if (days < RUN_LENGTH)
+        {
+            TestSimulation.runUpTo(model.getSimulator(), new Duration(days, DurationUnit.DAY));
+        }
+        else
+        {
+            TestSimulation.run(model.getSimulator());
+        }
+    }
+
+    /** Model with a bank, two products, and a number of actors that trade with their neighbor. */
+    static class CheckpointModel extends TestModel
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the number of actors. */
+        private final int nrActors;
+
+        /** the actors. */
+        private final List<CheckpointActor> actors = new ArrayList<>();
+
+        /**
+         * @param simulator SupplyChainSimulatorInterface; the simulator
+         * @param nrActors int; the number of actors
+         */
+        CheckpointModel(final SupplyChainSimulatorInterface simulator, final int nrActors)
+        {
+            super(simulator);
+            this.nrActors = nrActors;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void constructModel() throws SimRuntimeException
+        {
+            try
+            {
+                Bank bank = new Bank("BANK", "Bank", this, new OrientedPoint2d(0, 0), "Dallas, TX", null);
+                bank.setBankingRole(new BankingRole("BR", bank));
+                Money price = new Money(10.0, MoneyUnit.USD);
+                new Product(this, "p0", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.01);
+                new Product(this, "p1", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+                for (int i = 0; i < this.nrActors; i++)
+                {
+                    this.actors.add(new CheckpointActor("A" + i, this, bank));
+                }
+                for (int i = 0; i < this.nrActors; i++)
+                {
+                    this.actors.get(i).start(this.actors.get((i + 1) % this.nrActors));
+                }
+            }
+            catch (ActorAlreadyDefinedException exception)
+            {
+                throw new SimRuntimeException(exception);
+            }
+        }
+
+        /**
+         * @return int; the number of actors
+         */
+        int getNrActors()
+        {
+            return this.nrActors;
+        }
+
+        /**
+         * @param index int; the index of the actor
+         * @return CheckpointActor; the actor
+         */
+        CheckpointActor getActor(final int index)
+        {
+            return this.actors.get(index);
+        }
+    }
+
+    /**
+     * Model with a buyer that uses a QuotePolicyTimeout and two suppliers. For demand 1, supplier 1 sends an acceptable quote
+     * after 2 hours, and supplier 2 sends a quote after the cutoff of 1 day. For demand 2, supplier 1 sends a quote that is
+     * too expensive, and supplier 2 does not answer. The orders have a handling time beyond the end of the run.
+     */
+    static class QuoteModel extends TestModel
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the quote policy of the buyer. */
+        private QuotePolicyTimeout policy;
+
+        /** the orders that the buyer sent. */
+        private final List<OrderBasedOnQuote> orders = new ArrayList<>();
+
+        /**
+         * @param simulator SupplyChainSimulatorInterface; the simulator
+         */
+        QuoteModel(final SupplyChainSimulatorInterface simulator)
+        {
+            super(simulator);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void constructModel() throws SimRuntimeException
+        {
+            try
+            {
+                TradingActor buyer = new TradingActor("buyer", this);
+                TradingActor supplier1 = new TradingActor("supplier1", this);
+                TradingActor supplier2 = new TradingActor("supplier2", this);
+                Product product = new Product(this, "p1", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+                Role role = new Role("buying", buyer, new MessageReceiverDirect())
+                {
+                    /** */
+                    private static final long serialVersionUID = 1L;
+                };
+                this.policy = new QuotePolicyTimeout(role, QuoteComparatorEnum.SORT_PRICE_DATE_DISTANCE,
+                        new DistContinuousDuration(new DistConstant(getStream("default"), 20.0), DurationUnit.DAY), 0.2, 0.1);
+                role.setMessagePolicy(this.policy);
+                buyer.addListener((final Event event) ->
+                {
+                    Object message = ((Object[]) event.getContent())[0];
+                    if (message instanceof OrderBasedOnQuote)
+                    {
+                        this.orders.add((OrderBasedOnQuote) message);
+                    }
+                }, SupplyChainActor.SEND_MESSAGE_EVENT);
+
+                Time latest = new Time(8.0, TimeUnit.BASE_DAY);
+                InternalDemand demand1 = new InternalDemand(buyer, product, 5.0, Time.ZERO, latest);
+                deliverQuote(sendRfq(buyer, supplier1, demand1), 50.0, 2.0);
+                deliverQuote(sendRfq(buyer, supplier2, demand1), 40.0, 72.0);
+                InternalDemand demand2 = new InternalDemand(buyer, product, 5.0, Time.ZERO, latest);
+                deliverQuote(sendRfq(buyer, supplier1, demand2), 100.0, 4.0);
+                sendRfq(buyer, supplier2, demand2);
+            }
+            catch (ActorAlreadyDefinedException | RemoteException exception)
+            {
+                throw new SimRuntimeException(exception);
+            }
+        }
+
+        /**
+         * Store a request for quote with a cutoff of 1 day as sent by the buyer.
+         * @param buyer TradingActor; the buyer
+         * @param supplier TradingActor; the supplier
+         * @param demand InternalDemand; the demand
+         * @return RequestForQuote; the RFQ
+         */
+        private RequestForQuote sendRfq(final TradingActor buyer, final TradingActor supplier, final InternalDemand demand)
+        {
+            TransportOption transportOption = new TransportOption(supplier.getId() + "-" + buyer.getId());
+            TransportOptionStep step = new TransportOptionStep("truck", supplier, buyer,
+                    new TransportMode("truck", new Speed(80.0, SpeedUnit.KM_PER_HOUR)));
+            step.setEstimatedLoadingTime(Sku.PIECE, new Duration(2.0, DurationUnit.HOUR));
+            step.setEstimatedUnloadingTime(Sku.PIECE, new Duration(2.0, DurationUnit.HOUR));
+            transportOption.addTransportStep(step);
+            RequestForQuote rfq =
+                    new RequestForQuote(buyer, supplier, demand, transportOption, new Duration(1.0, DurationUnit.DAY));
+            buyer.getMessageStore().addMessage(rfq, true);
+            return rfq;
+        }
+
+        /**
+         * Schedule the delivery of a quote for the full amount of an RFQ to the buyer.
+         * @param rfq RequestForQuote; the RFQ to answer
+         * @param price double; the price in USD
+         * @param hours double; the time of delivery in hours
+         */
+        private void deliverQuote(final RequestForQuote rfq, final double price, final double hours)
+        {
+            Quote quote = new Quote(rfq.getReceiver(), rfq.getSender(), rfq, rfq.getProduct(), rfq.getAmount(),
+                    new Money(price, MoneyUnit.USD), new Time(1.0, TimeUnit.BASE_DAY), rfq.getPreferredTransportOption(),
+                    new Time(100.0, TimeUnit.BASE_DAY));
+            getSimulator().scheduleEvent(new MessageDeliveryEvent(new Duration(hours, DurationUnit.HOUR), quote));
+        }
+
+        /**
+         * @return QuotePolicyTimeout; the quote policy of the buyer
+         */
+        QuotePolicyTimeout getPolicy()
+        {
+            return this.policy;
+        }
+
+        /**
+         * @return List&lt;OrderBasedOnQuote&gt;; the orders that the buyer sent
+         */
+        List<OrderBasedOnQuote> getOrders()
+        {
+            return this.orders;
+        }
+    }
+
+    /** Actor that buys products, pays for them, stores an internal demand, and sends a message to its neighbor each tick. */
+    static class CheckpointActor extends TestActor implements InventoryActor, FinancingActor
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the inventory role. */
+        private InventoryRole inventoryRole;
+
+        /** the bank account. */
+        private final BankAccount bankAccount;
+
+        /** the policy that counts the received messages. */
+        private final CountingPolicy countingPolicy;
+
+        /** the neighbor that receives the messages. */
+        private CheckpointActor neighbor;
+
+        /** the ids of the internal demands that the actor made. */
+        private final List<Long> demandIds = new ArrayList<>();
+
+        /**
+         * @param id String; the id
+         * @param model CheckpointModel; the model
+         * @param bank Bank; the bank
+         * @throws ActorAlreadyDefinedException on error
+         */
+        CheckpointActor(final String id, final CheckpointModel model, final Bank bank) throws ActorAlreadyDefinedException
+        {
+            super(id, id, model, new OrientedPoint2d(10, 10), "Dallas, TX");
+            this.inventoryRole = new InventoryRole(this)
+            {
+                /** */
+                private static final long serialVersionUID = 1L;
+            };
+            this.bankAccount = new BankAccount(this, bank, new Money(1000.0, MoneyUnit.USD));
+            this.countingPolicy = new CountingPolicy(new CountingRole(this));
+        }
+
+        /**
+         * Schedule the first tick.
+         * @param newNeighbor CheckpointActor; the neighbor that receives the messages
+         */
+        void start(final CheckpointActor newNeighbor)
+        {
+            this.neighbor = newNeighbor;
+            getSimulator().scheduleEventRel(new Duration(1.0, DurationUnit.DAY), this, "tick", null);
+        }
+
+        /**
+         * Buy an amount of a product, use part of the inventory, and send a message to the neighbor.
+         */
+        protected void tick()
+        {
+            StreamInterface stream = getModel().getStream("default");
+            Product product = getModel().getProducts().get(stream.nextInt(0, 1));
+            double amount = 1.0 + stream.nextInt(0, 9);
+            Money price = new Money(10.0 * amount, MoneyUnit.USD);
+            this.inventoryRole.getInventory().addToInventory(product, amount, price);
+            this.inventoryRole.getInventory().removeFromInventory(product, amount / 2.0);
+            this.bankAccount.withdrawFromBalance(price);
+            Time now = getSimulator().getAbsSimulatorTime();
+            InternalDemand demand = new InternalDemand(this, product, amount, now, now.plus(new Duration(10.0, DurationUnit.DAY)));
+            getMessageStore().addMessage(demand, true);
+            this.demandIds.add(demand.getInternalDemandId());
+            sendMessage(new TestMessage(this, this.neighbor), new Duration(stream.nextDouble() * 5.0, DurationUnit.HOUR));
+            getSimulator().scheduleEventRel(new Duration(0.5 + stream.nextDouble(), DurationUnit.DAY), this, "tick", null);
+        }
+
+        /**
+         * @return long; the number of received messages
+         */
+        long getReceivedCount()
+        {
+            return this.countingPolicy.count;
+        }
+
+        /**
+         * @return List&lt;Long&gt;; the ids of the internal demands that the actor made
+         */
+        List<Long> getDemandIds()
+        {
+            return this.demandIds;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public BankAccount getBankAccount()
+        {
+            return this.bankAccount;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public InventoryRole getInventoryRole()
+        {
+            return this.inventoryRole;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setInventoryRole(final InventoryRole inventoryRole)
+        {
+            this.inventoryRole = inventoryRole;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public FinancingRole getFinancingRole()
+        {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setFinancingRole(final FinancingRole financingRole)
+        {
+            // not used
+        }
+    }
+
+    /** Actor with a LeanTradeMessageStore. */
+    static class LeanActor extends SupplyChainActor
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param id String; the id
+         * @param model SupplyChainModelInterface; the model
+         * @throws ActorAlreadyDefinedException on error
+         */
+        LeanActor(final String id, final SupplyChainModelInterface model) throws ActorAlreadyDefinedException
+        {
+            super(id, id, model, new OrientedPoint2d(10, 10), "Dallas, TX", new LeanTradeMessageStore(model.getSimulator()));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void checkNecessaryRoles()
+        {
+            // no roles
+        }
+    }
+
+    /** Class that is not Serializable, and counts its instances. */
+    static class Unserializable
+    {
+        /** the number of created instances. */
+        private static int instances = 0;
+
+        /** count the instance. */
+        Unserializable()
+        {
+            instances++;
+        }
+    }
+
+    /** Role that receives the messages directly. */
+    static class CountingRole extends Role
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param owner CheckpointActor; the owner
+         */
+        CountingRole(final CheckpointActor owner)
+        {
+            super("COUNT", owner, new MessageReceiverDirect());
+        }
+    }
+
+    /** Policy that counts the handled messages, and saves the count in a checkpoint. */
+    static class CountingPolicy extends MessagePolicy<TestMessage> implements Checkpointable
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the number of handled messages. */
+        private long count = 0;
+
+        /**
+         * @param role Role; the role
+         */
+        CountingPolicy(final Role role)
+        {
+            super("CountingPolicy", role, TestMessage.class);
+            role.setMessagePolicy(this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean handleMessage(final TestMessage message)
+        {
+            this.count++;
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void writeCheckpoint(final CheckpointOutput out) throws IOException
+        {
+            out.writeLong(this.count);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void readCheckpoint(final CheckpointInput in) throws IOException
+        {
+            this.count = in.readLong();
+        }
+    }
+
+}
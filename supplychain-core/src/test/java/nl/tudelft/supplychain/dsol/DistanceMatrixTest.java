@@ -0,0 +1,176 @@
+package nl.tudelft.supplychain.dsol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.DistanceMatrix;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * DistanceMatrixTest tests the caching of the distances between actors in the dense matrix and in the bounded cache.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class DistanceMatrixTest
+{
+    /**
+     * Test the dense matrix, including the growth of the matrix and the invalidation of an actor.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testDenseMatrix() throws ActorAlreadyDefinedException
+    {
+        TestModel model = makeModel();
+        DistanceMatrix matrix = model.getDistanceMatrix();
+        assertTrue(matrix == model.getDistanceMatrix());
+        assertTrue(matrix.isDense());
+        TestActor[] actors = makeActors(model, 40);
+
+        assertEquals(50.0, matrix.getDistanceSi(actors[0], actors[1]), 1E-9);
+        assertEquals(0.05, matrix.getDistanceKm(actors[0], actors[1]), 1E-12);
+        assertEquals(50.0, matrix.getDistance(actors[1], actors[0]).si, 1E-9);
+        assertEquals(2, matrix.getNumberOfCalculations());
+
+        // all pairs, growing the matrix beyond its initial capacity
+        for (int i = 0; i < actors.length; i++)
+        {
+            for (int j = 0; j < actors.length; j++)
+            {
+                assertEquals(50.0 * Math.abs(i - j), matrix.getDistanceSi(actors[i], actors[j]), 1E-9);
+            }
+        }
+        assertTrue(matrix.isDense());
+        long calculations = matrix.getNumberOfCalculations();
+        assertEquals(40 * 40, calculations);
+        for (int i = 0; i < actors.length; i++)
+        {
+            for (int j = 0; j < actors.length; j++)
+            {
+                assertEquals(50.0 * Math.abs(i - j), matrix.getDistanceSi(actors[i], actors[j]), 1E-9);
+            }
+        }
+        assertEquals(calculations, matrix.getNumberOfCalculations());
+
+        // invalidation recalculates the row and the column of the actor
+        matrix.invalidate(actors[3]);
+        for (int i = 0; i < actors.length; i++)
+        {
+            for (int j = 0; j < actors.length; j++)
+            {
+                matrix.getDistanceSi(actors[i], actors[j]);
+            }
+        }
+        assertEquals(calculations + 2 * 40 - 1, matrix.getNumberOfCalculations());
+
+        matrix.clear();
+        matrix.getDistanceSi(actors[0], actors[1]);
+        assertEquals(calculations + 2 * 40, matrix.getNumberOfCalculations());
+    }
+
+    /**
+     * Test the switch to the bounded cache for a large number of actors.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testBoundedCache() throws ActorAlreadyDefinedException
+    {
+        TestModel model = makeModel();
+        DistanceMatrix matrix = new DistanceMatrix(model, 4, 10);
+        model.setDistanceMatrix(matrix);
+        assertTrue(matrix == model.getDistanceMatrix());
+        TestActor[] actors = makeActors(model, 6);
+
+        for (int i = 0; i < 4; i++)
+        {
+            matrix.getDistanceSi(actors[0], actors[i]);
+        }
+        assertTrue(matrix.isDense());
+        assertEquals(250.0, matrix.getDistanceSi(actors[5], actors[0]), 1E-9);
+        assertFalse(matrix.isDense());
+        long calculations = matrix.getNumberOfCalculations();
+        assertEquals(250.0, matrix.getDistanceSi(actors[5], actors[0]), 1E-9);
+        assertEquals(calculations, matrix.getNumberOfCalculations());
+
+        // the cache is bounded; all distances stay correct when it is emptied
+        for (int round = 0; round < 2; round++)
+        {
+            for (int i = 0; i < actors.length; i++)
+            {
+                for (int j = 0; j < actors.length; j++)
+                {
+                    assertEquals(50.0 * Math.abs(i - j), matrix.getDistanceSi(actors[i], actors[j]), 1E-9);
+                }
+            }
+        }
+
+        // invalidation in the bounded cache
+        matrix.clear();
+        matrix.getDistanceSi(actors[1], actors[2]);
+        matrix.getDistanceSi(actors[2], actors[1]);
+        matrix.getDistanceSi(actors[3], actors[4]);
+        calculations = matrix.getNumberOfCalculations();
+        matrix.invalidate(actors[2]);
+        matrix.getDistanceSi(actors[1], actors[2]);
+        matrix.getDistanceSi(actors[2], actors[1]);
+        matrix.getDistanceSi(actors[3], actors[4]);
+        assertEquals(calculations + 2, matrix.getNumberOfCalculations());
+
+        try
+        {
+            new DistanceMatrix(model, 4, 0);
+            fail("maxCacheSize of 0 should throw an exception");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // ok
+        }
+    }
+
+    /**
+     * Create actors on a line, 50 m apart.
+     * @param model TestModel; the model
+     * @param number int; the number of actors
+     * @return TestActor[]; the actors
+     * @throws ActorAlreadyDefinedException on error
+     */
+    private TestActor[] makeActors(final TestModel model, final int number) throws ActorAlreadyDefinedException
+    {
+        TestActor[] actors = new TestActor[number];
+        for (int i = 0; i < number; i++)
+        {
+            actors[i] = new TestActor("TA" + i, "TestActor" + i, model, new OrientedPoint2d(30.0 * i, 40.0 * i), "loc" + i);
+        }
+        return actors;
+    }
+
+    /**
+     * Create and initialize a simulator with a TestModel.
+     * @return TestModel; the initialized model
+     */
+    private TestModel makeModel()
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        simulator.getEventList().clear();
+        return model;
+    }
+
+}
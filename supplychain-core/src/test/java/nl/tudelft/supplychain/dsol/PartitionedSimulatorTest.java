@@ -0,0 +1,538 @@
+package nl.tudelft.supplychain.dsol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.unit.TimeUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.djutils.exceptions.Try;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.SimRuntimeException;
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.Executable;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.actor.SupplyChainActor;
+import nl.tudelft.simulation.supplychain.dsol.PartitionedSimulator;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicy;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiverDirect;
+import nl.tudelft.simulation.supplychain.message.store.MessageStoreMode;
+import nl.tudelft.simulation.supplychain.message.store.trade.IndexedTradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.store.trade.LeanTradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.store.trade.TimeoutWheel;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStoreInterface;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+import nl.tudelft.supplychain.message.MessageTest.TestMessage;
+
+/**
+ * PartitionedSimulatorTest runs the same exchange of messages between four actors in two partitions on the sequential
+ * simulator and on the partitioned simulator with one and with several threads, and checks that every actor sees the same
+ * messages at the same times. The exchange is run with each type of trade message store, to check that the stores can be used
+ * by the partitions on several threads. Events with the same time that come from both partitions are checked to be executed
+ * in the order of the sequential run.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class PartitionedSimulatorTest
+{
+    /** the number of actors in the scenario. */
+    private static final int NR_ACTORS = 4;
+
+    /** the lookahead between the partitions. */
+    private static final Duration LOOKAHEAD = new Duration(1.0, DurationUnit.HOUR);
+
+    /**
+     * Test that the partitioned runs give the same results as the sequential run.
+     * @throws Exception on error
+     */
+    @Test
+    public void testSameResults() throws Exception
+    {
+        Map<String, List<String>> sequential = runScenario(new SupplyChainSimulator("seq", Time.ZERO), TradeMessageStore::new);
+        PartitionedSimulator single = makeSimulator(1);
+        Map<String, List<String>> oneThread = runScenario(single, TradeMessageStore::new);
+        PartitionedSimulator parallel = makeSimulator(4);
+        Map<String, List<String>> fourThreads = runScenario(parallel, TradeMessageStore::new);
+
+        assertEquals(NR_ACTORS, sequential.size());
+        for (List<String> log : sequential.values())
+        {
+            assertTrue(log.size() > 10);
+        }
+        assertEquals(sequential, oneThread);
+        assertEquals(sequential, fourThreads);
+        assertTrue(parallel.getNumberOfWindows() > 1);
+        assertTrue(parallel.getNumberOfExecutedEvents(0) > 0);
+        assertTrue(parallel.getNumberOfExecutedEvents(1) > 0);
+        assertEquals(single.getNumberOfWindows(), parallel.getNumberOfWindows());
+    }
+
+    /**
+     * Test that events with the same time are executed in the order of the sequential simulator, also when they come from
+     * another partition, and that the partitions assign the same message ids for any number of threads.
+     * @throws Exception on error
+     */
+    @Test
+    public void testSameTimeOrder() throws Exception
+    {
+        List<String> sequential = runSameTime(new SupplyChainSimulator("seq", Time.ZERO));
+        assertEquals(List.of("A0", "local", "A2", "A3", "A2", "A3"), entries(sequential));
+        List<String> oneThread = runSameTime(makeSimulator(1));
+        List<String> fourThreads = runSameTime(makeSimulator(4));
+        assertEquals(entries(sequential), entries(oneThread));
+        assertEquals(oneThread, fourThreads);
+        for (int i = 0; i < 5; i++)
+        {
+            assertEquals(oneThread, runSameTime(makeSimulator(4)));
+        }
+    }
+
+    /**
+     * Let four actors schedule events for actor A1 at the same time, from both partitions and at different times, and return
+     * the log of A1 with the sender and the id of every message.
+     * @param simulator SupplyChainSimulator; the simulator to use
+     * @return List&lt;String&gt;; the log of A1
+     * @throws Exception on error
+     */
+    private List<String> runSameTime(final SupplyChainSimulator simulator) throws Exception
+    {
+        TestModel model = new TestModel(simulator);
+        simulator.initialize(model,
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1.0, DurationUnit.DAY)));
+        List<StoreActor> actors = new ArrayList<>();
+        for (int i = 0; i < NR_ACTORS; i++)
+        {
+            actors.add(new StoreActor("A" + i, model, new TradeMessageStore()));
+        }
+        StoreActor a1 = actors.get(1);
+        OrderPolicy policy = new OrderPolicy(new Role("order", a1, new MessageReceiverDirect())
+        {
+            /** */
+            private static final long serialVersionUID = 1L;
+        });
+        Duration arrival = new Duration(2.0, DurationUnit.HOUR);
+        // scheduled by partition 0, 1, 0 and 1 at different times; the message from A0 is the first to be scheduled
+        at(simulator, actors.get(0), 0.0, () -> send(actors.get(0), a1, arrival));
+        at(simulator, a1, 0.25, () -> simulator.scheduleEventAbs(arrival, () -> policy.log("local")));
+        at(simulator, actors.get(2), 0.5, () -> send(actors.get(2), a1, arrival));
+        at(simulator, actors.get(3), 0.75, () -> send(actors.get(3), a1, arrival));
+        // scheduled by partition 0 and 1 at the same time, in the order of the partitions
+        at(simulator, actors.get(2), 1.0, () -> send(actors.get(2), a1, arrival));
+        at(simulator, actors.get(3), 1.0, () -> send(actors.get(3), a1, arrival));
+        run(simulator);
+        return policy.getEntries();
+    }
+
+    /**
+     * Schedule an event for an actor, in the partition of the actor when the simulator is partitioned.
+     * @param simulator SupplyChainSimulator; the simulator
+     * @param actor Actor; the actor
+     * @param hours double; the time of the event in hours
+     * @param executable Executable; the event
+     */
+    private void at(final SupplyChainSimulator simulator, final Actor actor, final double hours, final Executable executable)
+    {
+        if (simulator instanceof PartitionedSimulator)
+        {
+            ((PartitionedSimulator) simulator).setSetupActor(actor);
+        }
+        simulator.scheduleEventAbs(new Duration(hours, DurationUnit.HOUR), executable);
+    }
+
+    /**
+     * Send a message that arrives at a given time.
+     * @param sender Actor; the sender
+     * @param receiver Actor; the receiver
+     * @param arrival Duration; the time of arrival
+     */
+    private static void send(final Actor sender, final Actor receiver, final Duration arrival)
+    {
+        sender.sendMessage(new TestMessage(sender, receiver), arrival.minus(sender.getSimulator().getSimulatorTime()));
+    }
+
+    /**
+     * @param log List&lt;String&gt;; a log with the sender and the id of every message
+     * @return List&lt;String&gt;; the senders in the log, without the message ids
+     */
+    private static List<String> entries(final List<String> log)
+    {
+        List<String> entries = new ArrayList<>();
+        for (String entry : log)
+        {
+            entries.add(entry.split("#")[0]);
+        }
+        return entries;
+    }
+
+    /**
+     * Test that the partitions can use single-threaded indexed stores and lean stores on several threads, and that the
+     * time-outs of the lean stores are swept by the timeout wheels of the partitions.
+     * @throws Exception on error
+     */
+    @Test
+    public void testStores() throws Exception
+    {
+        Map<String, List<String>> sequential = runScenario(new SupplyChainSimulator("seq", Time.ZERO), TradeMessageStore::new);
+
+        PartitionedSimulator indexed = makeSimulator(4);
+        assertEquals(sequential,
+                runScenario(indexed, () -> new IndexedTradeMessageStore(MessageStoreMode.SINGLE_THREADED)));
+
+        PartitionedSimulator lean = makeSimulator(4);
+        assertEquals(sequential, runScenario(lean, () -> new LeanTradeMessageStore(lean)));
+        for (int i = 0; i < NR_ACTORS; i++)
+        {
+            SupplyChainActor actor = (SupplyChainActor) lean.getModel().getActor("A" + i);
+            assertEquals(0, lean.getTimeoutWheel(actor).size());
+            PingPolicy policy = (PingPolicy) actor.getRoles().iterator().next().getMessagePolicyMap().get(TestMessage.class);
+            assertFalse(policy.getDemands().isEmpty());
+            for (InternalDemand demand : policy.getDemands())
+            {
+                assertTrue(
+                        actor.getMessageStore().getMessageList(demand.getInternalDemandId(), InternalDemand.class).isEmpty());
+            }
+        }
+    }
+
+    /**
+     * Test that every partition has its own timeout wheel, and that a wheel cannot be shared between the partitions.
+     * @throws Exception on error
+     */
+    @Test
+    public void testTimeoutWheels() throws Exception
+    {
+        PartitionedSimulator simulator = makeSimulator(2);
+        TestModel model = new TestModel(simulator);
+        simulator.initialize(model,
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1.0, DurationUnit.DAY)));
+        StoreActor a0 = new StoreActor("A0", model, new LeanTradeMessageStore(simulator));
+        StoreActor a1 = new StoreActor("A1", model, new LeanTradeMessageStore(simulator));
+        StoreActor a2 = new StoreActor("A2", model, new LeanTradeMessageStore(simulator));
+        TimeoutWheel wheel0 = simulator.getTimeoutWheel(a0);
+        TimeoutWheel wheel1 = simulator.getTimeoutWheel(a1);
+        assertSame(wheel0, simulator.getTimeoutWheel(a2));
+        assertNotSame(wheel0, wheel1);
+        assertNotSame(model.getTimeoutWheel(), wheel0);
+        assertEquals(model.getTimeoutWheel().getBucketWidth(), wheel0.getBucketWidth());
+        Try.testFail(() -> new StoreActor("A3", model, new LeanTradeMessageStore(simulator, model.getTimeoutWheel())),
+                IllegalArgumentException.class);
+        new StoreActor("A5", model, new LeanTradeMessageStore(simulator, wheel1));
+
+        // a time-out that is registered before the run is swept by the partition of the store
+        InternalDemand demand = demand(a0, 2.5);
+        a0.getMessageStore().addMessage(demand, true);
+        assertEquals(1, wheel0.size());
+        assertEquals(1, simulator.getNumberOfPendingEvents(0));
+        assertEquals(0, simulator.getNumberOfPendingEvents(1));
+
+        // the wheel of a partition cannot be used by the events of another partition
+        List<Throwable> refused = new ArrayList<>();
+        simulator.setSetupActor(a1);
+        simulator.scheduleEventRel(new Duration(2.0, DurationUnit.HOUR), () ->
+        {
+            try
+            {
+                wheel0.register(new Time(5.0, TimeUnit.BASE_HOUR), demand(a1, 5.0), true, t -> refused.add(null));
+            }
+            catch (SimRuntimeException exception)
+            {
+                refused.add(exception);
+            }
+        });
+        run(simulator);
+        assertEquals(1, refused.size());
+        assertTrue(refused.get(0) instanceof SimRuntimeException);
+        assertEquals(0, wheel0.size());
+        assertTrue(a0.getMessageStore().getMessageList(demand.getInternalDemandId(), InternalDemand.class).isEmpty());
+    }
+
+    /**
+     * Create an internal demand with a latest delivery date.
+     * @param actor Actor; the actor with the demand
+     * @param hours double; the latest delivery date in hours
+     * @return InternalDemand; the internal demand
+     */
+    static InternalDemand demand(final Actor actor, final double hours)
+    {
+        return new InternalDemand(actor, null, 1.0, Time.ZERO, new Time(hours, TimeUnit.BASE_HOUR));
+    }
+
+    /**
+     * Test the checks of the arguments, and the refusal of a message that arrives within the lookahead.
+     * @throws Exception on error
+     */
+    @Test
+    public void testLookahead() throws Exception
+    {
+        Try.testFail(() -> new PartitionedSimulator("sim", Time.ZERO, 0, a -> 0, LOOKAHEAD, 1), IllegalArgumentException.class);
+        Try.testFail(() -> new PartitionedSimulator("sim", Time.ZERO, 2, a -> 0, Duration.ZERO, 1),
+                IllegalArgumentException.class);
+        Try.testFail(() -> new PartitionedSimulator("sim", Time.ZERO, 2, a -> 0, LOOKAHEAD, 0), IllegalArgumentException.class);
+
+        PartitionedSimulator simulator = makeSimulator(2);
+        TestModel model = new TestModel(simulator);
+        simulator.initialize(model,
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1.0, DurationUnit.DAY)));
+        TestActor a0 = new TestActor("A0", "A0", model, new OrientedPoint2d(0, 0), "A0");
+        TestActor a1 = new TestActor("A1", "A1", model, new OrientedPoint2d(10, 0), "A1");
+        assertEquals(0, simulator.getPartition(a0));
+        assertEquals(1, simulator.getPartition(a1));
+        List<Throwable> refused = new ArrayList<>();
+        simulator.setSetupActor(a0);
+        simulator.scheduleEventRel(new Duration(2.0, DurationUnit.HOUR), () ->
+        {
+            try
+            {
+                a0.sendMessage(new TestMessage(a0, a1), new Duration(10.0, DurationUnit.MINUTE));
+            }
+            catch (SimRuntimeException exception)
+            {
+                refused.add(exception);
+            }
+            a0.sendMessage(new TestMessage(a0, a1), LOOKAHEAD);
+        });
+        assertEquals(1, simulator.getNumberOfPendingEvents(0));
+        run(simulator);
+        assertEquals(1, refused.size());
+        assertEquals(1, simulator.getNumberOfExecutedEvents(0));
+        assertEquals(1, simulator.getNumberOfExecutedEvents(1));
+    }
+
+    /**
+     * @param numberOfThreads int; the number of threads
+     * @return PartitionedSimulator; a simulator with two partitions for actors A0 .. A3, with the even actors in partition 0
+     */
+    private PartitionedSimulator makeSimulator(final int numberOfThreads)
+    {
+        return new PartitionedSimulator("sim", Time.ZERO, 2, a -> Integer.parseInt(a.getId().substring(1)) % 2, LOOKAHEAD,
+                numberOfThreads);
+    }
+
+    /**
+     * Build the scenario, run it for ten days, and return what every actor has seen.
+     * @param simulator SupplyChainSimulator; the simulator to use
+     * @param stores Supplier&lt;TradeMessageStoreInterface&gt;; the supplier of the message stores of the actors
+     * @return Map&lt;String, List&lt;String&gt;&gt;; the log of every actor
+     * @throws Exception on error
+     */
+    private Map<String, List<String>> runScenario(final SupplyChainSimulator simulator,
+            final Supplier<TradeMessageStoreInterface> stores) throws Exception
+    {
+        TestModel model = new TestModel(simulator);
+        simulator.initialize(model,
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(10.0, DurationUnit.DAY)));
+        List<PingPolicy> policies = new ArrayList<>();
+        for (int i = 0; i < NR_ACTORS; i++)
+        {
+            StoreActor actor = new StoreActor("A" + i, model, stores.get());
+            PingPolicy policy = new PingPolicy(new Role("ping", actor, new MessageReceiverDirect())
+            {
+                /** */
+                private static final long serialVersionUID = 1L;
+            }, i);
+            policies.add(policy);
+            // events without a target go to the partition of the actor that was registered last
+            simulator.scheduleEventRel(new Duration(2.5 + i, DurationUnit.HOUR), () -> policy.log("timer"));
+        }
+        for (int i = 0; i < NR_ACTORS; i++)
+        {
+            Actor sender = policies.get(i).getRole().getActor();
+            Actor receiver = policies.get((i + 1) % NR_ACTORS).getRole().getActor();
+            sender.sendMessage(new TestMessage(sender, receiver), new Duration(1.0 + 0.1 * i, DurationUnit.HOUR));
+        }
+        run(simulator);
+        Map<String, List<String>> logs = new LinkedHashMap<>();
+        for (PingPolicy policy : policies)
+        {
+            logs.put(policy.getRole().getActor().getId(), policy.getEntries());
+        }
+        return logs;
+    }
+
+    /**
+     * Run the simulator until the end of the replication.
+     * @param simulator SupplyChainSimulator; the simulator
+     * @throws InterruptedException when the wait for the simulator is interrupted
+     */
+    private void run(final SupplyChainSimulator simulator) throws InterruptedException
+    {
+        TestSimulation.run(simulator);
+        assertFalse(simulator.isStartingOrRunning());
+    }
+
+    /** Actor with a given message store. */
+    static class StoreActor extends SupplyChainActor
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param id String; the id, which is also used as the name
+         * @param model SupplyChainModelInterface; the model
+         * @param messageStore TradeMessageStoreInterface; the message store
+         * @throws ActorAlreadyDefinedException on error
+         */
+        StoreActor(final String id, final SupplyChainModelInterface model, final TradeMessageStoreInterface messageStore)
+                throws ActorAlreadyDefinedException
+        {
+            super(id, id, model, new OrientedPoint2d(10 * Integer.parseInt(id.substring(1)), 0), id, messageStore);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void checkNecessaryRoles()
+        {
+            // no roles
+        }
+    }
+
+    /** Policy that logs the sender and the id of the messages. */
+    static class OrderPolicy extends MessagePolicy<TestMessage>
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the log of the actor. */
+        private final List<String> entries = new ArrayList<>();
+
+        /**
+         * @param role Role; the role
+         */
+        OrderPolicy(final Role role)
+        {
+            super("OrderPolicy", role, TestMessage.class);
+            role.setMessagePolicy(this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean handleMessage(final TestMessage message)
+        {
+            log(message.getSender().getId() + "#" + message.getUniqueId());
+            return true;
+        }
+
+        /**
+         * @param entry String; the entry to add to the log
+         */
+        void log(final String entry)
+        {
+            this.entries.add(entry);
+        }
+
+        /**
+         * @return List&lt;String&gt;; the log
+         */
+        List<String> getEntries()
+        {
+            return this.entries;
+        }
+    }
+
+    /** Policy that logs the messages and answers them, and sends some messages within its own partition. */
+    static class PingPolicy extends MessagePolicy<TestMessage>
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the number of the actor. */
+        private final int number;
+
+        /** the log of the actor. */
+        private final List<String> entries = new ArrayList<>();
+
+        /** the demands that the actor stored. */
+        private final List<InternalDemand> demands = new ArrayList<>();
+
+        /**
+         * @param role Role; the role
+         * @param number int; the number of the actor
+         */
+        PingPolicy(final Role role, final int number)
+        {
+            super("PingPolicy", role, TestMessage.class);
+            role.setMessagePolicy(this);
+            this.number = number;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean handleMessage(final TestMessage message)
+        {
+            log(message.getSender().getId());
+            // an unanswered demand that is removed after two hours by the lean store
+            Actor actor = getRole().getActor();
+            InternalDemand demand = new InternalDemand(actor, null, 1.0, actor.getSimulator().getAbsSimulatorTime(),
+                    Time.instantiateSI(actor.getSimulatorTime().si + 7200.0));
+            this.demands.add(demand);
+            ((SupplyChainActor) actor).getMessageStore().addMessage(demand, false);
+            int count = this.entries.size();
+            if (count < 40)
+            {
+                Duration delay = new Duration(60.0 + 7 * count + 3 * this.number, DurationUnit.MINUTE);
+                getRole().getActor().sendMessage(new TestMessage(getRole().getActor(), message.getSender()), delay);
+                if (count % 3 == 0)
+                {
+                    try
+                    {
+                        Actor neighbour = getRole().getActor().getModel().getActor("A" + ((this.number + 2) % NR_ACTORS));
+                        getRole().getActor().sendMessage(new TestMessage(getRole().getActor(), neighbour),
+                                new Duration(5.0 + this.number, DurationUnit.MINUTE));
+                    }
+                    catch (Exception exception)
+                    {
+                        throw new RuntimeException(exception);
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param entry String; the entry to add to the log, with the time of the actor
+         */
+        void log(final String entry)
+        {
+            this.entries.add(getRole().getActor().getSimulatorTime().si + ":" + entry);
+        }
+
+        /**
+         * @return List&lt;String&gt;; the log
+         */
+        List<String> getEntries()
+        {
+            return this.entries;
+        }
+
+        /**
+         * @return List&lt;InternalDemand&gt;; the demands that the actor stored
+         */
+        List<InternalDemand> getDemands()
+        {
+            return this.demands;
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package nl.tudelft.supplychain.dsol;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.CountDownLatch;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.event.Event;
+import org.djutils.event.EventListener;
+
+import nl.tudelft.simulation.dsol.experiment.Replication;
+import nl.tudelft.simulation.dsol.simulators.ReplicationState;
+import nl.tudelft.simulation.dsol.simulators.RunState;
+import nl.tudelft.simulation.dsol.simulators.SimulatorInterface;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+
+/**
+ * TestSimulation runs a simulator in its worker thread, and lets the test wait until the run has stopped, so the test can
+ * check the state of the model and run the simulator again. The test waits for the stop event or the end of the replication,
+ * as the ExperimentRunner does. The worker thread sets the run state to STOPPED just after it fires the stop event; a run
+ * that is started before that would be stopped right away, so the test also waits until the simulator has left STOPPING.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public final class TestSimulation
+{
+    /** */
+    private TestSimulation()
+    {
+        // utility class
+    }
+
+    /**
+     * Run the simulator to the end of the replication, and wait until the replication has ended, or the simulator has stopped
+     * before the end, e.g., after an error in the model.
+     * @param simulator SupplyChainSimulatorInterface; the simulator
+     * @throws InterruptedException when the thread is interrupted while waiting
+     */
+    public static void run(final SupplyChainSimulatorInterface simulator) throws InterruptedException
+    {
+        StopListener listener = new StopListener(simulator);
+        simulator.start();
+        listener.awaitStop();
+    }
+
+    /**
+     * Run the simulator up to a time, and wait until it has stopped.
+     * @param simulator SupplyChainSimulatorInterface; the simulator
+     * @param time Duration; the time to run to
+     * @throws InterruptedException when the thread is interrupted while waiting
+     */
+    public static void runUpTo(final SupplyChainSimulatorInterface simulator, final Duration time)
+            throws InterruptedException
+    {
+        StopListener listener = new StopListener(simulator);
+        simulator.runUpTo(time);
+        listener.awaitStop();
+    }
+
+    /**
+     * Listener that lets the test wait until the simulator stops, or until the replication ends. A stop at the end of the
+     * replication is followed by the end of the replication, so the listener waits for that event instead.
+     */
+    static class StopListener implements EventListener
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the simulator. */
+        private final SupplyChainSimulatorInterface simulator;
+
+        /** the latch that is released when the simulator stops or the replication ends. */
+        private final transient CountDownLatch stopped = new CountDownLatch(1);
+
+        /**
+         * Create a listener for the stop of a simulator, and register it with the simulator.
+         * @param simulator SupplyChainSimulatorInterface; the simulator
+         */
+        StopListener(final SupplyChainSimulatorInterface simulator)
+        {
+            this.simulator = simulator;
+            try
+            {
+                simulator.addListener(this, SimulatorInterface.STOP_EVENT);
+                simulator.addListener(this, Replication.END_REPLICATION_EVENT);
+            }
+            catch (RemoteException exception)
+            {
+                throw new AssertionError("cannot listen to the simulator", exception);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void notify(final Event event) throws RemoteException
+        {
+            if (event.getType().equals(Replication.END_REPLICATION_EVENT)
+                    || this.simulator.getReplicationState() != ReplicationState.ENDING)
+            {
+                this.stopped.countDown();
+            }
+        }
+
+        /**
+         * Wait until the simulator has stopped and has left STOPPING, or until the replication has ended, and remove the
+         * listener from the simulator.
+         * @throws InterruptedException when the thread is interrupted while waiting
+         */
+        void awaitStop() throws InterruptedException
+        {
+            this.stopped.await();
+            try
+            {
+                this.simulator.removeListener(this, SimulatorInterface.STOP_EVENT);
+                this.simulator.removeListener(this, Replication.END_REPLICATION_EVENT);
+            }
+            catch (RemoteException exception)
+            {
+                throw new AssertionError("cannot remove the listener from the simulator", exception);
+            }
+            // the worker thread sets STOPPED right after it has fired the stop event
+            while (this.simulator.getRunState() == RunState.STOPPING)
+            {
+                Thread.yield();
+            }
+        }
+    }
+
+}
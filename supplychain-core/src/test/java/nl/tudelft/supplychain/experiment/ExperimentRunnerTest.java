@@ -0,0 +1,290 @@
+package nl.tudelft.supplychain.experiment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.SimRuntimeException;
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.experiment.ActorKpis;
+import nl.tudelft.simulation.supplychain.experiment.ExperimentAggregator;
+import nl.tudelft.simulation.supplychain.experiment.ExperimentRunner;
+import nl.tudelft.simulation.supplychain.experiment.ReplicationResult;
+import nl.tudelft.simulation.supplychain.finance.Bank;
+import nl.tudelft.simulation.supplychain.finance.BankAccount;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.role.banking.BankingRole;
+import nl.tudelft.simulation.supplychain.role.financing.FinancingActor;
+import nl.tudelft.simulation.supplychain.role.financing.FinancingRole;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryActor;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryRole;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * ExperimentRunnerTest tests the parallel execution of independent replications, and the aggregation of their results.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ExperimentRunnerTest
+{
+    /**
+     * Test that parallel replications give the same results as serial replications with the same seeds, and that different
+     * seeds give different results.
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void testParallelReplications() throws InterruptedException
+    {
+        ExperimentRunner<DrawingModel> runner = makeRunner(false);
+        runner.setNumberOfThreads(4);
+        assertEquals(4, runner.getNumberOfThreads());
+        ExperimentAggregator parallel = runner.run(8, 100L);
+        assertEquals(8, parallel.getNumberOfReplications());
+        assertEquals(0, parallel.getNumberOfFailedReplications());
+        assertEquals(2, parallel.getKpiNames().size());
+        assertEquals(8, parallel.getTally("sum").getN());
+        assertEquals(240.0, parallel.getTally("draws").getSampleMean(), 1E-9);
+
+        runner.setNumberOfThreads(1);
+        ExperimentAggregator serial = runner.run(new long[] {100L, 101L, 102L, 103L, 104L, 105L, 106L, 107L});
+        List<ReplicationResult> parallelResults = parallel.getResults();
+        List<ReplicationResult> serialResults = serial.getResults();
+        for (int i = 0; i < 8; i++)
+        {
+            assertEquals(i, parallelResults.get(i).getReplicationNumber());
+            assertEquals(100L + i, parallelResults.get(i).getSeed());
+            assertTrue(parallelResults.get(i).isCompleted());
+            assertEquals(serialResults.get(i).getKpis(), parallelResults.get(i).getKpis());
+        }
+        assertNotEquals(parallelResults.get(0).getKpis().get("sum"), parallelResults.get(1).getKpis().get("sum"));
+    }
+
+    /**
+     * Test that an error in a replication is reported in its result, and does not stop the other replications.
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void testFailingReplication() throws InterruptedException
+    {
+        ExperimentRunner<DrawingModel> runner = makeRunner(true);
+        runner.setNumberOfThreads(2);
+        ExperimentAggregator aggregator = runner.run(4, 1L);
+        assertEquals(4, aggregator.getNumberOfReplications());
+        assertEquals(2, aggregator.getNumberOfFailedReplications());
+        assertEquals(2, aggregator.getTally("sum").getN());
+        for (ReplicationResult result : aggregator.getResults())
+        {
+            assertEquals(result.getSeed() % 2 == 0, result.isCompleted());
+            if (!result.isCompleted())
+            {
+                assertNotNull(result.getFailure());
+                assertTrue(result.getKpis().isEmpty());
+            }
+        }
+        assertFalse(aggregator.toString().isEmpty());
+    }
+
+    /**
+     * Test that no two (replication, stream) pairs of consecutive replication seeds get the same stream seed, and that the
+     * stream seeds are reproducible.
+     */
+    @Test
+    public void testStreamSeeds()
+    {
+        Set<Long> seeds = new HashSet<>();
+        for (long replicationSeed = 100L; replicationSeed < 1100L; replicationSeed++)
+        {
+            for (int stream = 0; stream < 32; stream++)
+            {
+                assertTrue(seeds.add(ExperimentRunner.streamSeed(replicationSeed, stream)));
+            }
+        }
+        assertEquals(ExperimentRunner.streamSeed(100L, 1), ExperimentRunner.streamSeed(100L, 1));
+        assertNotEquals(ExperimentRunner.streamSeed(100L, 1), ExperimentRunner.streamSeed(101L, 0));
+    }
+
+    /**
+     * Test the collection of the balance and inventory of the actors, and the CSV summary of the tallies.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws IOException on write error
+     */
+    @Test
+    public void testActorKpisAndSummary() throws ActorAlreadyDefinedException, IOException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        simulator.initialize(model,
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1.0, DurationUnit.DAY)));
+        Bank bank = new Bank("BANK", "Bank", model, new OrientedPoint2d(0, 0), "Dallas, TX", null);
+        bank.setBankingRole(new BankingRole("BR", bank));
+        Product product = new Product(model, "p1", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        KpiActor actor = new KpiActor("A1", model, bank);
+        actor.getInventoryRole().getInventory().addToInventory(product, 5.0, new Money(50.0, MoneyUnit.USD));
+
+        Map<String, Double> kpis = ActorKpis.collect(model);
+        assertEquals(1000.0, kpis.get("A1.balance"), 1E-9);
+        assertEquals(5.0, kpis.get("A1.inventory.p1"), 1E-9);
+
+        ExperimentAggregator aggregator = new ExperimentAggregator();
+        aggregator.register(new ReplicationResult(0, 1L, 0L, Map.of("a", 1.0, "b", 2.0), null));
+        aggregator.register(new ReplicationResult(1, 2L, 0L, Map.of("a", 3.0), null));
+        StringWriter out = new StringWriter();
+        aggregator.writeCsvSummary(out);
+        String[] lines = out.toString().split("\\R");
+        assertEquals(3, lines.length);
+        assertEquals("kpi,n,mean,stdev,min,max,ci95low,ci95high", lines[0]);
+        assertTrue(lines[1].startsWith("a,2,2.00000,1.41421,1.00000,3.00000,"));
+        assertEquals("b,1,2.00000,NaN,2.00000,2.00000,NaN,NaN", lines[2]);
+    }
+
+    /**
+     * Create a runner for 10 days, with a warmup of 1 day.
+     * @param failOddSeeds boolean; whether the models with an odd seed should fail halfway their replication
+     * @return ExperimentRunner&lt;DrawingModel&gt;; the runner
+     */
+    private ExperimentRunner<DrawingModel> makeRunner(final boolean failOddSeeds)
+    {
+        return new ExperimentRunner<DrawingModel>("test",
+                (simulator, seed) -> new DrawingModel(simulator, failOddSeeds && seed % 2 == 1),
+                model -> Map.of("sum", model.sum, "draws", (double) model.draws), new Duration(1.0, DurationUnit.DAY),
+                new Duration(10.0, DurationUnit.DAY));
+    }
+
+    /** Model that draws a number from its default stream every hour. */
+    static class DrawingModel extends TestModel
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** whether the model fails halfway the replication. */
+        private final boolean fail;
+
+        /** the sum of the draws. */
+        private double sum = 0.0;
+
+        /** the number of draws. */
+        private int draws = 0;
+
+        /**
+         * @param simulator SupplyChainSimulatorInterface; the simulator
+         * @param fail boolean; whether the model fails halfway the replication
+         */
+        DrawingModel(final SupplyChainSimulatorInterface simulator, final boolean fail)
+        {
+            super(simulator);
+            this.fail = fail;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void constructModel() throws SimRuntimeException
+        {
+            this.simulator.scheduleEventRel(new Duration(1.0, DurationUnit.HOUR), () -> draw());
+        }
+
+        /** Draw a number, and schedule the next draw. */
+        private void draw()
+        {
+            if (this.fail && this.draws == 120)
+            {
+                throw new IllegalStateException("model failure");
+            }
+            this.sum += getDefaultStream().nextDouble();
+            this.draws++;
+            this.simulator.scheduleEventRel(new Duration(1.0, DurationUnit.HOUR), () -> draw());
+        }
+    }
+
+    /** Actor with an inventory and a bank account. */
+    static class KpiActor extends TestActor implements InventoryActor, FinancingActor
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the inventory role. */
+        private InventoryRole inventoryRole;
+
+        /** the bank account. */
+        private final BankAccount bankAccount;
+
+        /**
+         * @param id String; the id
+         * @param model TestModel; the model
+         * @param bank Bank; the bank
+         * @throws ActorAlreadyDefinedException on error
+         */
+        KpiActor(final String id, final TestModel model, final Bank bank) throws ActorAlreadyDefinedException
+        {
+            super(id, id, model, new OrientedPoint2d(10, 10), "Dallas, TX");
+            this.inventoryRole = new InventoryRole(this)
+            {
+                /** */
+                private static final long serialVersionUID = 1L;
+            };
+            this.bankAccount = new BankAccount(this, bank, new Money(1000.0, MoneyUnit.USD));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public BankAccount getBankAccount()
+        {
+            return this.bankAccount;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public InventoryRole getInventoryRole()
+        {
+            return this.inventoryRole;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setInventoryRole(final InventoryRole inventoryRole)
+        {
+            this.inventoryRole = inventoryRole;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public FinancingRole getFinancingRole()
+        {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setFinancingRole(final FinancingRole financingRole)
+        {
+            // not used
+        }
+    }
+
+}
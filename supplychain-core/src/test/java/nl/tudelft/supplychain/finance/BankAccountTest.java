@@ -0,0 +1,79 @@
+package nl.tudelft.supplychain.finance;
+
+import static org.junit.Assert.assertEquals;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Bank;
+import nl.tudelft.simulation.supplychain.finance.BankAccount;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.role.banking.BankingRole;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * BankAccountTest tests the lazy accrual of interest on a BankAccount.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class BankAccountTest
+{
+    /**
+     * Test that the interest that is settled lazily is the same as the interest with daily compounding.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testInterest() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(100, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        simulator.getEventList().clear();
+        Bank bank = new Bank("BANK", "Bank", model, new OrientedPoint2d(0, 0), "Dallas, TX", null);
+        BankingRole bankingRole = new BankingRole("BR", bank);
+        bank.setBankingRole(bankingRole);
+        BankAccount account = new BankAccount(bank, bank, new Money(1000.0, MoneyUnit.USD));
+        assertEquals(1000.0, account.getBalance().getAmount(), 1E-9);
+
+        // no interest within the first day
+        simulator.scheduleEventRel(new Duration(0.5, DurationUnit.DAY), () -> {});
+        simulator.step();
+        assertEquals(1000.0, account.getBalance().getAmount(), 1E-9);
+        account.withdrawFromBalance(new Money(1500.0, MoneyUnit.USD));
+        assertEquals(-500.0, account.getBalance().getAmount(), 1E-9);
+
+        // compare with daily compounding, with the negative rate
+        simulator.scheduleEventRel(new Duration(10.0, DurationUnit.DAY), () -> {});
+        simulator.step();
+        account.addToBalance(new Money(1000.0, MoneyUnit.USD));
+        double expected = -500.0;
+        for (int day = 0; day < 10; day++)
+        {
+            expected *= 1.0 + bankingRole.getAnnualInterestRateNeg() / 365.0;
+        }
+        expected += 1000.0;
+        assertEquals(expected, account.getBalance().getAmount(), 0.01);
+
+        // and with the positive rate on a statement date
+        simulator.scheduleEventRel(new Duration(30.0, DurationUnit.DAY), () -> {});
+        simulator.step();
+        account.settleInterest();
+        for (int day = 0; day < 30; day++)
+        {
+            expected *= 1.0 + bankingRole.getAnnualInterestRatePos() / 365.0;
+        }
+        assertEquals(expected, account.getBalance().getAmount(), 0.01);
+    }
+}
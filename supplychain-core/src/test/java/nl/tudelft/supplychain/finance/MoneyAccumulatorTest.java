@@ -0,0 +1,60 @@
+package nl.tudelft.supplychain.finance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.djutils.exceptions.Try;
+import org.junit.Test;
+
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyAccumulator;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+
+/**
+ * MoneyAccumulatorTest tests the mutable money arithmetic of the MoneyAccumulator.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class MoneyAccumulatorTest
+{
+    /**
+     * Test the arithmetic and the money unit checks of the accumulator.
+     */
+    @Test
+    public void testAccumulator()
+    {
+        MoneyAccumulator acc = new MoneyAccumulator();
+        assertNull(acc.getMoneyUnit());
+        assertEquals(0.0, acc.getAmount(), 0.0);
+        Try.testFail(() -> acc.toMoney(), IllegalStateException.class);
+
+        acc.add(new Money(10.0, MoneyUnit.EUR));
+        assertEquals(MoneyUnit.EUR, acc.getMoneyUnit());
+        acc.addProduct(new Money(2.5, MoneyUnit.EUR), 4.0).subtract(new Money(1.0, MoneyUnit.EUR)).multiplyBy(0.5);
+        assertEquals(9.5, acc.getAmount(), 1E-9);
+        acc.add(0.004).roundToCents();
+        assertEquals(9.5, acc.getAmount(), 1E-9);
+        acc.subtract(0.5).add(1.0, MoneyUnit.EUR);
+        Money money = acc.toMoney();
+        assertEquals(10.0, money.getAmount(), 1E-9);
+        assertEquals(MoneyUnit.EUR, money.getMoneyUnit());
+
+        Try.testFail(() -> acc.add(new Money(1.0, MoneyUnit.USD)), IllegalArgumentException.class);
+        Try.testFail(() -> acc.subtract(new Money(1.0, MoneyUnit.USD)), IllegalArgumentException.class);
+        Try.testFail(() -> acc.addProduct(new Money(1.0, MoneyUnit.USD), 2.0), IllegalArgumentException.class);
+        Try.testFail(() -> acc.add(1.0, MoneyUnit.USD), IllegalArgumentException.class);
+
+        acc.set(new Money(3.0, MoneyUnit.USD));
+        assertEquals(MoneyUnit.USD, acc.getMoneyUnit());
+        assertEquals(3.0, acc.getAmount(), 0.0);
+        acc.setProduct(new Money(3.0, MoneyUnit.GBP), 2.0);
+        assertEquals(MoneyUnit.GBP, acc.getMoneyUnit());
+        assertEquals(6.0, acc.getAmount(), 0.0);
+        acc.clear();
+        assertNull(acc.getMoneyUnit());
+        assertEquals(0.0, acc.getAmount(), 0.0);
+    }
+}
@@ -0,0 +1,157 @@
+package nl.tudelft.supplychain.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.unit.TimeUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.event.Event;
+import org.djutils.event.LocalEventProducer;
+import org.djutils.exceptions.Try;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.inventory.ForecastLedger;
+import nl.tudelft.simulation.supplychain.inventory.ForecastUpdateData;
+import nl.tudelft.simulation.supplychain.inventory.Inventory;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.supplychain.actor.TestModel;
+import nl.tudelft.supplychain.dsol.TestSimulation;
+
+/**
+ * ForecastLedgerTest tests the projection of future inventory changes, the growth of the ring of time buckets, and the
+ * discarding of buckets that lie in the past.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ForecastLedgerTest
+{
+    /**
+     * Test the ledger at three moments in simulation time.
+     * @throws InterruptedException when the wait for the simulator is interrupted
+     */
+    @Test
+    public void testLedger() throws InterruptedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(100, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        Money price = new Money(10.0, MoneyUnit.USD);
+        Product p0 = new Product(model, "p0", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+        Product p1 = new Product(model, "p1", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+        LocalEventProducer producer = new LocalEventProducer();
+        List<ForecastUpdateData> updates = new ArrayList<>();
+        producer.addListener((final Event event) -> updates.add((ForecastUpdateData) event.getContent()),
+                Inventory.STOCK_FORECAST_UPDATE_EVENT);
+        ForecastLedger ledger = new ForecastLedger(producer, simulator, new Duration(1.0, DurationUnit.HOUR));
+        Try.testFail(() -> new ForecastLedger(producer, simulator, Duration.ZERO), IllegalArgumentException.class);
+
+        // at t = 0
+        ledger.addChange(p0, 10.0, hour(2.0));
+        ledger.addChange(p0, -4.0, hour(5.0));
+        ledger.addChange(p0, 1.0, hour(1000.0));
+        assertEquals(0.0, ledger.getProjectedChange(p0, hour(1.0)), 1E-9);
+        assertEquals(10.0, ledger.getProjectedChange(p0, hour(2.0)), 1E-9);
+        assertEquals(6.0, ledger.getProjectedChange(p0, hour(5.5)), 1E-9);
+        assertEquals(7.0, ledger.getProjectedChange(p0, hour(5000.0)), 1E-9);
+        assertEquals(7.0, ledger.getTotalChange(p0), 1E-9);
+        assertEquals(1001, ledger.getNumberOfBuckets(p0));
+        assertEquals(0.0, ledger.getTotalChange(p1), 0.0);
+        assertEquals(0, ledger.getNumberOfBuckets(p1));
+        assertEquals(3, updates.size());
+        assertEquals("p0", updates.get(1).getProductName());
+        assertEquals(-4.0, updates.get(1).getDelta(), 0.0);
+        assertEquals(6.0, updates.get(1).getTotalChange(), 1E-9);
+        assertEquals(hour(5.0), updates.get(1).getChangeTime());
+        assertFalse(ledger.isWithinHorizon(hour(ForecastLedger.MAX_BUCKETS + 1.0)));
+        assertFailure(() -> ledger.addChange(p0, 1.0, hour(ForecastLedger.MAX_BUCKETS + 1.0)), "too far in the future");
+
+        // at t = 3 h, the change at 2 h lies in the past; at t = 2000 h, all changes lie in the past
+        List<Throwable> errors = new ArrayList<>();
+        simulator.scheduleEventAbs(hour(3.0), () -> check(errors, () ->
+        {
+            assertFalse(ledger.isWithinHorizon(hour(1.0)));
+            assertFailure(() -> ledger.addChange(p0, 1.0, hour(1.0)), "before the current time");
+            assertFailure(() -> ledger.addChange(p0, 1.0, hour(2.9)), "before the current time");
+            assertEquals(0.0, ledger.getProjectedChange(p0, hour(3.0)), 1E-9);
+            assertEquals(-4.0, ledger.getProjectedChange(p0, hour(5.0)), 1E-9);
+            assertEquals(-3.0, ledger.getTotalChange(p0), 1E-9);
+            assertEquals(998, ledger.getNumberOfBuckets(p0));
+            ledger.addChange(p0, 2.0, hour(3.5));
+            assertEquals(2.0, ledger.getProjectedChange(p0, hour(3.0)), 1E-9);
+        }));
+        simulator.scheduleEventAbs(hour(2000.0), () -> check(errors, () ->
+        {
+            assertEquals(0.0, ledger.getTotalChange(p0), 1E-9);
+            assertEquals(0, ledger.getNumberOfBuckets(p0));
+            ledger.addChange(p0, 5.0, hour(2001.0));
+            assertEquals(5.0, ledger.getProjectedChange(p0, hour(2001.0)), 1E-9);
+        }));
+        TestSimulation.run(simulator);
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(5, updates.size());
+    }
+
+    /**
+     * Run checks in the simulator thread, and keep the errors for the test thread.
+     * @param errors List&lt;Throwable&gt;; the list to store the errors
+     * @param checks Runnable; the checks
+     */
+    private static void check(final List<Throwable> errors, final Runnable checks)
+    {
+        try
+        {
+            checks.run();
+        }
+        catch (Throwable throwable)
+        {
+            errors.add(throwable);
+        }
+    }
+
+    /**
+     * Check that an addition to the ledger fails with an IllegalArgumentException with a given fragment in its message.
+     * @param addition Runnable; the addition to the ledger
+     * @param fragment String; the expected fragment of the message
+     */
+    private static void assertFailure(final Runnable addition, final String fragment)
+    {
+        try
+        {
+            addition.run();
+            fail("addition should have failed with '" + fragment + "'");
+        }
+        catch (IllegalArgumentException exception)
+        {
+            assertTrue(exception.getMessage(), exception.getMessage().contains(fragment));
+        }
+    }
+
+    /**
+     * @param hours double; the number of hours
+     * @return Time; the time after the given number of hours
+     */
+    private static Time hour(final double hours)
+    {
+        return new Time(hours, TimeUnit.BASE_HOUR);
+    }
+
+}
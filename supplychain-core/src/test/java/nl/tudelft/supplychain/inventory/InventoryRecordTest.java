@@ -0,0 +1,82 @@
+package nl.tudelft.supplychain.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.inventory.InventoryRecord;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * InventoryRecordTest tests the closed-form depreciation of the costprice of an InventoryRecord.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class InventoryRecordTest
+{
+    /**
+     * Test that the lazy depreciation gives the same costprice and booked amount as a daily depreciation.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testDepreciation() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(100, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        simulator.getEventList().clear();
+        TestActor actor = new TestActor("TA1", "TestActor1", model, new OrientedPoint2d(10, 10), "Dallas, TX");
+        double d = 0.01;
+        Product product = new Product(model, "product", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, d);
+        InventoryRecord record = new InventoryRecord(actor, simulator, product);
+        record.setActualAmount(10.0, new Money(10.0, MoneyUnit.USD));
+        assertEquals(100.0, record.getCostprice().getAmount(), 1E-9);
+        assertTrue(record.isDepreciating());
+
+        // no depreciation within the first day
+        simulator.scheduleEventRel(new Duration(0.5, DurationUnit.DAY), () -> {});
+        simulator.step();
+        assertEquals(100.0, record.getCostprice().getAmount(), 1E-9);
+        assertEquals(0.0, record.takeUnbookedDepreciation().getAmount(), 1E-9);
+
+        // compare with the original daily depreciation: costprice *= (1-d); book costprice * d
+        simulator.scheduleEventRel(new Duration(6.75, DurationUnit.DAY), () -> {});
+        simulator.step();
+        double costprice = 100.0;
+        double booked = 0.0;
+        for (int day = 0; day < 7; day++)
+        {
+            costprice *= (1.0 - d);
+            booked += costprice * d;
+        }
+        assertEquals(costprice, record.getCostprice().getAmount(), 1E-9);
+        assertEquals(costprice / 10.0, record.getUnitPrice().getAmount(), 1E-9);
+        assertEquals(booked, record.takeUnbookedDepreciation().getAmount(), 1E-9);
+        assertEquals(0.0, record.takeUnbookedDepreciation().getAmount(), 1E-9);
+
+        // an empty record does not depreciate
+        record.removeActualAmount(10.0);
+        assertFalse(record.isDepreciating());
+    }
+}
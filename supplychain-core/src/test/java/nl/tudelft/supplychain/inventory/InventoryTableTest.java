@@ -0,0 +1,86 @@
+package nl.tudelft.supplychain.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.exceptions.Try;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.inventory.InventoryTable;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * InventoryTableTest tests the product index of the model, and the array-based storage of the InventoryTable.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class InventoryTableTest
+{
+    /**
+     * Test the dense product index and the slots of the table.
+     */
+    @Test
+    public void testInventoryTable()
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(100, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        simulator.getEventList().clear();
+        Money price = new Money(10.0, MoneyUnit.USD);
+        Product p0 = new Product(model, "p0", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+        Product p1 = new Product(model, "p1", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+        Product p0Copy = new Product(model, "p0", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+        assertEquals(0, p0.getIndex());
+        assertEquals(1, p1.getIndex());
+        assertEquals(0, p0Copy.getIndex());
+        assertEquals(2, model.getNumberOfProducts());
+
+        // a table that has to grow
+        InventoryTable table = new InventoryTable(simulator, 0);
+        assertFalse(table.contains(p1.getIndex()));
+        assertEquals(0.0, table.getActualAmount(p1.getIndex()), 0.0);
+        assertNull(table.getProduct(p1.getIndex()));
+        int slot1 = table.add(p1);
+        int slot0 = table.add(p0);
+        assertEquals(slot0, table.add(p0Copy));
+        assertEquals(2, table.size());
+        assertEquals(slot1, table.slotAt(0));
+        assertEquals(slot0, table.slotAt(1));
+        Try.testFail(() -> table.slotAt(2), IndexOutOfBoundsException.class);
+        assertTrue(table.contains(slot0));
+        assertEquals(p1, table.getProduct(slot1));
+
+        table.addActualAmount(slot1, 4.0, price);
+        table.addActualAmount(slot1, 6.0, new Money(20.0, MoneyUnit.USD));
+        assertEquals(10.0, table.getActualAmount(slot1), 0.0);
+        assertEquals(160.0, table.getCostprice(slot1).getAmount(), 1E-9);
+        assertEquals(16.0, table.getUnitPrice(slot1).getAmount(), 1E-9);
+        table.removeActualAmount(slot1, 5.0);
+        assertEquals(80.0, table.getCostpriceAmount(slot1), 1E-9);
+        table.changeClaimedAmount(slot1, 2.0);
+        table.changeOrderedAmount(slot1, 3.0);
+        assertEquals(2.0, table.getClaimedAmount(slot1), 0.0);
+        assertEquals(3.0, table.getOrderedAmount(slot1), 0.0);
+        assertEquals(0.0, table.getActualAmount(slot0), 0.0);
+        assertEquals(price, table.getUnitPrice(slot0));
+        Try.testFail(() -> table.addActualAmount(slot1, 1.0, new Money(1.0, MoneyUnit.EUR)), IllegalArgumentException.class);
+    }
+}
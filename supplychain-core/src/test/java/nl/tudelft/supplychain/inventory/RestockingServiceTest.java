@@ -0,0 +1,216 @@
+package nl.tudelft.supplychain.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.djutils.event.Event;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.SupplyChainActor;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.inventory.Inventory;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryActor;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryRole;
+import nl.tudelft.simulation.supplychain.role.inventory.RestockingModeEnum;
+import nl.tudelft.simulation.supplychain.role.inventory.RestockingServiceFixed;
+import nl.tudelft.simulation.supplychain.role.inventory.RestockingServiceSafety;
+import nl.tudelft.simulation.supplychain.util.DistConstantDuration;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+import nl.tudelft.supplychain.dsol.TestSimulation;
+
+/**
+ * RestockingServiceTest tests the reorder point mode of the restocking services, in which the services react to the changes
+ * that the inventory reports, instead of checking the inventory periodically.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class RestockingServiceTest
+{
+    /**
+     * Test that a service in the reorder point mode sends one internal demand per crossing of the reorder level.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws RemoteException on listener error
+     */
+    @Test
+    public void testReorderPoint() throws ActorAlreadyDefinedException, RemoteException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        simulator.getEventList().clear();
+        InventoryTestActor actor = new InventoryTestActor("TA1", model);
+        List<InternalDemand> demands = new ArrayList<>();
+        actor.addListener((final Event event) ->
+        {
+            Object message = ((Object[]) event.getContent())[0];
+            if (message instanceof InternalDemand)
+            {
+                demands.add((InternalDemand) message);
+            }
+        }, SupplyChainActor.SEND_MESSAGE_EVENT);
+        Money price = new Money(10.0, MoneyUnit.USD);
+        Product p0 = new Product(model, "p0", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+        Product p1 = new Product(model, "p1", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+        Inventory inventory = actor.getInventoryRole().getInventory();
+        inventory.addToInventory(p0, 20.0, price.multiplyBy(20.0));
+        inventory.addToInventory(p1, 20.0, price.multiplyBy(20.0));
+
+        RestockingServiceSafety safety = new RestockingServiceSafety(inventory, p0, RestockingModeEnum.REORDER_POINT, null,
+                true, 50.0, true, 10.0, new Duration(14.0, DurationUnit.DAY));
+        assertEquals(safety, actor.getInventoryRole().getRestockingService(p0));
+        safety.inventoryPositionChanged();
+        assertEquals(0, demands.size());
+
+        // position 15 and 7: the second change crosses the reorder level, and tops up to the ceiling
+        inventory.changeClaimedAmount(p0, 5.0);
+        assertEquals(0, demands.size());
+        inventory.changeClaimedAmount(p0, 8.0);
+        assertEquals(1, demands.size());
+        assertEquals(43.0, demands.get(0).getAmount(), 1E-9);
+
+        // as long as the demand has not been ordered, a further drop does not lead to a new demand
+        inventory.changeClaimedAmount(p0, 1.0);
+        assertEquals(1, demands.size());
+        inventory.changeOrderedAmount(p0, 43.0);
+        assertEquals(1, demands.size());
+
+        // a new crossing leads to a new demand
+        inventory.changeClaimedAmount(p0, 40.0);
+        assertEquals(2, demands.size());
+        assertEquals(41.0, demands.get(1).getAmount(), 1E-9);
+
+        // a periodic review does not react to changes, and is not added to the role
+        RestockingServiceFixed fixed = new RestockingServiceFixed(inventory, p1,
+                new DistConstantDuration(new Duration(1.0, DurationUnit.DAY)), true, 50.0, true, Duration.ZERO);
+        assertEquals(RestockingModeEnum.PERIODIC_REVIEW, fixed.getMode());
+        assertNull(actor.getInventoryRole().getRestockingService(p1));
+        inventory.changeClaimedAmount(p1, 30.0);
+        fixed.inventoryPositionChanged();
+        assertEquals(2, demands.size());
+    }
+
+    /**
+     * Test that a service in the reorder point mode stops waiting for the order of an internal demand that is not ordered
+     * within the maximum delivery duration, e.g., because no supplier answers, and sends a new internal demand.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws RemoteException on listener error
+     * @throws InterruptedException on sleep error
+     */
+    @Test
+    public void testDemandWithoutOrder() throws ActorAlreadyDefinedException, RemoteException, InterruptedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(40, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        InventoryTestActor actor = new InventoryTestActor("TA1", model);
+        List<InternalDemand> demands = new ArrayList<>();
+        actor.addListener((final Event event) ->
+        {
+            Object message = ((Object[]) event.getContent())[0];
+            if (message instanceof InternalDemand)
+            {
+                demands.add((InternalDemand) message);
+            }
+        }, SupplyChainActor.SEND_MESSAGE_EVENT);
+        Money price = new Money(10.0, MoneyUnit.USD);
+        Product p0 = new Product(model, "p0", Sku.PIECE, price, Mass.ONE, Volume.ONE, 0.0);
+        Inventory inventory = actor.getInventoryRole().getInventory();
+        inventory.addToInventory(p0, 20.0, price.multiplyBy(20.0));
+        new RestockingServiceSafety(inventory, p0, RestockingModeEnum.REORDER_POINT, null, true, 50.0, true, 10.0,
+                new Duration(14.0, DurationUnit.DAY));
+
+        // the crossing leads to a demand that is never ordered
+        inventory.changeClaimedAmount(p0, 13.0);
+        assertEquals(1, demands.size());
+        inventory.changeClaimedAmount(p0, 1.0);
+        assertEquals(1, demands.size());
+
+        // before the time-out, the service keeps waiting; at the time-out, it sends a new demand
+        runUpTo(simulator, 13.0);
+        assertEquals(1, demands.size());
+        runUpTo(simulator, 15.0);
+        assertEquals(2, demands.size());
+        assertEquals(44.0, demands.get(1).getAmount(), 1E-9);
+
+        // the new demand is ordered, so its time-out does not lead to another demand
+        inventory.changeOrderedAmount(p0, 44.0);
+        runUpTo(simulator, 35.0);
+        assertEquals(2, demands.size());
+    }
+
+    /**
+     * Run the simulator up to a time.
+     * @param simulator SupplyChainSimulator; the simulator
+     * @param days double; the time to run to in days
+     * @throws InterruptedException when the thread is interrupted while waiting
+     */
+    private void runUpTo(final SupplyChainSimulator simulator, final double days) throws InterruptedException
+    {
+        TestSimulation.runUpTo(simulator, new Duration(days, DurationUnit.DAY));
+    }
+
+    /** Actor with an inventory role. */
+    static class InventoryTestActor extends TestActor implements InventoryActor
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the inventory role. */
+        private InventoryRole inventoryRole;
+
+        /**
+         * @param id String; the id
+         * @param model TestModel; the model
+         * @throws ActorAlreadyDefinedException on error
+         */
+        InventoryTestActor(final String id, final TestModel model) throws ActorAlreadyDefinedException
+        {
+            super(id, id, model, new OrientedPoint2d(10, 10), "Dallas, TX");
+            this.inventoryRole = new InventoryRole(this)
+            {
+                /** */
+                private static final long serialVersionUID = 1L;
+            };
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public InventoryRole getInventoryRole()
+        {
+            return this.inventoryRole;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setInventoryRole(final InventoryRole inventoryRole)
+        {
+            this.inventoryRole = inventoryRole;
+        }
+    }
+
+}
@@ -1,8 +1,10 @@
 package nl.tudelft.supplychain.json;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.djunits.unit.DurationUnit;
 import org.djunits.unit.TimeUnit;
@@ -12,12 +14,14 @@ import org.djutils.draw.point.OrientedPoint2d;
 import org.junit.Test;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 
 import nl.tudelft.simulation.dsol.experiment.SingleReplication;
 import nl.tudelft.simulation.supplychain.actor.Actor;
 import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
 import nl.tudelft.simulation.supplychain.json.JsonMessageFactory;
+import nl.tudelft.simulation.supplychain.json.MessageAdapter;
 import nl.tudelft.simulation.supplychain.message.Message;
 import nl.tudelft.supplychain.actor.TestActor;
 import nl.tudelft.supplychain.actor.TestModel;
@@ -34,6 +38,8 @@ import nl.tudelft.supplychain.message.TestMessageFields;
  */
 public class JsonMessageFactoryTest
 {
+    /** whether the static initializer of NotAMessage has run. */
+    private static boolean notAMessageInitialized = false;
 
     /**
      * Test MessageAdapter.
@@ -76,4 +82,32 @@ public class JsonMessageFactoryTest
         assertEquals(tmf.isYesno(), tmf2.isYesno());
     }
 
+    /**
+     * Test that a type tag with the name of a class that is not a message is rejected, without initializing the class.
+     */
+    @Test
+    public void testTypeTag()
+    {
+        assertEquals(TestMessageFields.class, MessageAdapter.getMessageClass(TestMessageFields.class.getName()));
+        try
+        {
+            MessageAdapter.getMessageClass(NotAMessage.class.getName());
+            fail("class that is not a message should be rejected");
+        }
+        catch (JsonParseException exception)
+        {
+            assertTrue(exception.getMessage().contains("is not a message class"));
+        }
+        assertFalse(notAMessageInitialized);
+    }
+
+    /** Class that is not a message, with a static initializer that should not run. */
+    static class NotAMessage
+    {
+        static
+        {
+            notAMessageInitialized = true;
+        }
+    }
+
 }
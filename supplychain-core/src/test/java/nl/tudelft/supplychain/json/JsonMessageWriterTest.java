@@ -0,0 +1,195 @@
+package nl.tudelft.supplychain.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.json.JsonMessageFactory;
+import nl.tudelft.simulation.supplychain.json.JsonMessageWriter;
+import nl.tudelft.simulation.supplychain.message.Message;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
+import nl.tudelft.simulation.supplychain.trace.TraceReader;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * JsonMessageWriterTest tests the newline-delimited JSON export of the messages of a message store and of a trace. The time of
+ * the streaming export is compared with building a JsonElement tree per message in the JsonExportBenchmark of
+ * supplychain-bench.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class JsonMessageWriterTest
+{
+    /** the simulator. */
+    private SupplyChainSimulator simulator;
+
+    /** the model. */
+    private TestModel model;
+
+    /** the buyer. */
+    private TestActor buyer;
+
+    /** the supplier. */
+    private TestActor supplier;
+
+    /** the product. */
+    private Product product;
+
+    /**
+     * Create the model with a buyer, a supplier and a product.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    private void makeModel() throws ActorAlreadyDefinedException
+    {
+        this.simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        this.model = new TestModel(this.simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        this.simulator.initialize(this.model, replication);
+        this.simulator.getEventList().clear();
+        this.buyer = new TestActor("TA1", "TestActor 1", this.model, new OrientedPoint2d(10, 10), "Dallas, TX");
+        this.supplier = new TestActor("TA2", "TestActor 2", this.model, new OrientedPoint2d(20, 20), "Austin, TX");
+        this.product = new Product(this.model, "p1", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+    }
+
+    /**
+     * Test the export of the messages of a message store, and read the messages back.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws IOException on write error
+     */
+    @Test
+    public void testMessageStore() throws ActorAlreadyDefinedException, IOException
+    {
+        makeModel();
+        InternalDemand demand = new InternalDemand(this.buyer, this.product, 5.0, Time.ZERO, Time.ZERO);
+        RequestForQuote rfq = new RequestForQuote(this.buyer, this.supplier, demand, null, Duration.ZERO);
+        Quote quote = new Quote(this.supplier, this.buyer, rfq, this.product, 5.0, new Money(50.0, MoneyUnit.EUR), Time.ZERO,
+                null, Time.ZERO);
+        this.buyer.getMessageStore().addMessage(demand, true);
+        this.buyer.getMessageStore().addMessage(rfq, true);
+        this.supplier.getMessageStore().addMessage(rfq, false);
+        this.supplier.getMessageStore().addMessage(quote, true);
+
+        StringWriter out = new StringWriter();
+        try (JsonMessageWriter writer = new JsonMessageWriter(this.model, out))
+        {
+            assertEquals(2, writer.write(this.buyer.getMessageStore()));
+            assertEquals(2, writer.write(this.supplier.getMessageStore()));
+            assertEquals(4, writer.getNumberOfLines());
+        }
+        String[] lines = out.toString().split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("{\"messageType\":\"InternalDemand\",\"content\":{"));
+        assertTrue(lines[1].startsWith("{\"messageType\":\"RequestForQuote\""));
+        assertTrue(lines[3].startsWith("{\"messageType\":\"Quote\""));
+        // the request for quote in the quote has its own type tag, and the product is written as its name
+        assertTrue(lines[3].contains("\"requestForQuote\":{\"messageType\":\"RequestForQuote\""));
+        assertTrue(lines[3].contains("\"product\":\"p1\""));
+        assertFalse(lines[3].contains("billOfMaterials"));
+
+        Gson gson = JsonMessageFactory.instance(this.model);
+        InternalDemand demand2 = (InternalDemand) gson.fromJson(lines[0], Message.class);
+        assertEquals(demand.getUniqueId(), demand2.getUniqueId());
+        assertEquals(demand.getInternalDemandId(), demand2.getInternalDemandId());
+        assertSame(this.product, demand2.getProduct());
+        assertSame(this.buyer, demand2.getSender());
+        assertEquals(demand.getAmount(), demand2.getAmount(), 0.0);
+        Quote quote2 = (Quote) gson.fromJson(lines[3], Message.class);
+        assertEquals(quote.getUniqueId(), quote2.getUniqueId());
+        assertSame(this.supplier, quote2.getSender());
+        assertEquals(50.0, quote2.getPrice().getAmount(), 0.0);
+        assertEquals(rfq.getUniqueId(), quote2.getRequestForQuote().getUniqueId());
+        assertEquals(demand.getInternalDemandId(), quote2.getRequestForQuote().getInternalDemandId());
+
+        // a fully qualified class name and a type tag after the content can be read as well
+        String fullName = lines[0].replace("\"InternalDemand\"", "\"" + InternalDemand.class.getName() + "\"");
+        assertEquals(demand.getUniqueId(), gson.fromJson(fullName, Message.class).getUniqueId());
+        String content = lines[0].substring(lines[0].indexOf("\"content\":"), lines[0].length() - 1);
+        String reversed = "{" + content + ",\"messageType\":\"InternalDemand\"}";
+        assertEquals(demand.getUniqueId(), gson.fromJson(reversed, Message.class).getUniqueId());
+    }
+
+    /**
+     * Test the export of the records of a trace.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws IOException on trace error
+     */
+    @Test
+    public void testTrace() throws ActorAlreadyDefinedException, IOException
+    {
+        makeModel();
+        Path dir = Files.createTempDirectory("trace");
+        try
+        {
+            Path path = dir.resolve("run");
+            MessageTraceRecorder recorder = new MessageTraceRecorder(this.model, path, 16);
+            this.model.setMessageTraceRecorder(recorder);
+            InternalDemand demand = new InternalDemand(this.buyer, this.product, 5.0, Time.ZERO, Time.ZERO);
+            RequestForQuote rfq = new RequestForQuote(this.buyer, this.supplier, demand, null, Duration.ZERO);
+            this.buyer.sendMessage(rfq, Duration.ZERO);
+            Quote quote = new Quote(this.supplier, this.buyer, rfq, this.product, 5.0, new Money(50.0, MoneyUnit.EUR),
+                    Time.ZERO, null, Time.ZERO);
+            this.supplier.sendMessage(quote, Duration.ZERO);
+            this.model.setMessageTraceRecorder(null);
+            recorder.close();
+
+            StringWriter out = new StringWriter();
+            try (TraceReader reader = new TraceReader(path, false);
+                    JsonMessageWriter writer = new JsonMessageWriter(this.model, out))
+            {
+                assertEquals(2, writer.write(reader));
+            }
+            String[] lines = out.toString().split("\n");
+            assertEquals(2, lines.length);
+            assertEquals("{\"t\":0.0,\"kind\":\"SENT\",\"type\":\"REQUEST_FOR_QUOTE\",\"sender\":\"TA1\",\"receiver\":\"TA2\","
+                    + "\"product\":\"p1\",\"amount\":5.0,\"demand\":" + demand.getInternalDemandId() + ",\"id\":"
+                    + rfq.getUniqueId() + "}", lines[0]);
+            assertEquals("{\"t\":0.0,\"kind\":\"SENT\",\"type\":\"QUOTE\",\"sender\":\"TA2\",\"receiver\":\"TA1\","
+                    + "\"product\":\"p1\",\"amount\":5.0,\"price\":50.0,\"unit\":\"EUR\",\"demand\":"
+                    + demand.getInternalDemandId() + ",\"id\":" + quote.getUniqueId() + "}", lines[1]);
+        }
+        finally
+        {
+            try (Stream<Path> paths = Files.walk(dir))
+            {
+                for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+                {
+                    Files.deleteIfExists(p);
+                }
+            }
+        }
+    }
+
+}
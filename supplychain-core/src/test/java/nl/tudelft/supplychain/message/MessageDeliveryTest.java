@@ -0,0 +1,213 @@
+package nl.tudelft.supplychain.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEventInterface;
+import nl.tudelft.simulation.jstats.distributions.DistConstant;
+import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.message.MessageDeliveryEvent;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicy;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicyEvent;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiver;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiverDelay;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiverDirect;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+import nl.tudelft.supplychain.message.MessageTest.TestMessage;
+
+/**
+ * MessageDeliveryTest tests the typed delivery of messages to actors and policies. The throughput of the typed and the
+ * reflective delivery is measured in MessageBenchmark in the supplychain-bench module.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class MessageDeliveryTest
+{
+    /**
+     * Test the delivery of a message through a MessageDeliveryEvent and a MessagePolicyEvent.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testDelivery() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = makeSimulator();
+        TestModel model = (TestModel) simulator.getModel();
+        TestActor sender = new TestActor("TA1", "TestActor1", model, new OrientedPoint2d(10, 10), "Dallas, TX");
+        TestActor receiver = new TestActor("TA2", "TestActor2", model, new OrientedPoint2d(20, 20), "Austin, TX");
+        DistContinuousDuration delay =
+                new DistContinuousDuration(new DistConstant(new MersenneTwister(1L), 2.0), DurationUnit.HOUR);
+        CountingPolicy policy = new CountingPolicy(new TestRole("ROLE", receiver, new MessageReceiverDelay(delay)));
+
+        TestMessage message = new TestMessage(sender, receiver);
+        sender.sendMessage(message, new Duration(1.0, DurationUnit.HOUR));
+        SimEventInterface<Duration> event = simulator.getEventList().removeFirst();
+        assertTrue(event instanceof MessageDeliveryEvent);
+        assertEquals(receiver, ((MessageDeliveryEvent) event).getReceiver());
+        assertEquals(message, ((MessageDeliveryEvent) event).getMessage());
+        assertEquals(1.0, event.getAbsoluteExecutionTime().getInUnit(DurationUnit.HOUR), 1E-6);
+        assertEquals(0, policy.getCount());
+
+        event.execute();
+        assertEquals(0, policy.getCount());
+        SimEventInterface<Duration> policyEvent = simulator.getEventList().removeFirst();
+        assertTrue(policyEvent instanceof MessagePolicyEvent);
+        assertEquals(2.0, policyEvent.getAbsoluteExecutionTime().getInUnit(DurationUnit.HOUR), 1E-6);
+        policyEvent.execute();
+        assertEquals(1, policy.getCount());
+    }
+
+    /**
+     * Test the freezing of the actor, and the dispatch of messages through the dispatch table.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testDispatchTable() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = makeSimulator();
+        TestModel model = (TestModel) simulator.getModel();
+        TestActor sender = new TestActor("TA1", "TestActor1", model, new OrientedPoint2d(10, 10), "Dallas, TX");
+        TestActor receiver = new TestActor("TA2", "TestActor2", model, new OrientedPoint2d(20, 20), "Austin, TX");
+        assertFalse(receiver.isFrozen());
+        receiver.freeze();
+        assertTrue(receiver.isFrozen());
+
+        // a new role and a new policy unfreeze the actor
+        TestRole role1 = new TestRole("ROLE1", receiver, new MessageReceiverDirect());
+        assertFalse(receiver.isFrozen());
+        receiver.freeze();
+        CountingPolicy policy1 = new CountingPolicy(role1);
+        assertFalse(receiver.isFrozen());
+
+        // the first message freezes the actor again
+        receiver.receiveMessage(new TestMessage(sender, receiver));
+        assertTrue(receiver.isFrozen());
+        assertEquals(1, policy1.getCount());
+
+        // two roles that handle the same message class both get the message
+        CountingPolicy policy2 = new CountingPolicy(new TestRole("ROLE2", receiver, new MessageReceiverDirect()));
+        receiver.receiveMessage(new TestMessage(sender, receiver));
+        assertEquals(2, policy1.getCount());
+        assertEquals(1, policy2.getCount());
+
+        // a removed policy is not used anymore
+        role1.removeMessagePolicy(TestMessage.class);
+        assertFalse(receiver.isFrozen());
+        receiver.receiveMessage(new TestMessage(sender, receiver));
+        assertEquals(2, policy1.getCount());
+        assertEquals(2, policy2.getCount());
+
+        // a message for another actor is not handled
+        receiver.receiveMessage(new TestMessage(receiver, sender));
+        assertEquals(2, policy2.getCount());
+    }
+
+    /**
+     * Test that the typed delivery event and a reflective event that calls receiveMessage deliver the message to the policy in
+     * the same way.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testTypedAndReflectiveDelivery() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = makeSimulator();
+        TestModel model = (TestModel) simulator.getModel();
+        TestActor sender = new TestActor("TA1", "TestActor1", model, new OrientedPoint2d(10, 10), "Dallas, TX");
+        TestActor receiver = new TestActor("TA2", "TestActor2", model, new OrientedPoint2d(20, 20), "Austin, TX");
+        CountingPolicy policy = new CountingPolicy(new TestRole("ROLE", receiver, new MessageReceiverDirect()));
+        TestMessage message = new TestMessage(sender, receiver);
+        Duration delay = new Duration(1.0, DurationUnit.MINUTE);
+
+        simulator.scheduleEvent(new MessageDeliveryEvent(delay, message));
+        simulator.getEventList().removeFirst().execute();
+        assertEquals(1, policy.getCount());
+        simulator.scheduleEventRel(delay, receiver, "receiveMessage", new Object[] {message});
+        simulator.getEventList().removeFirst().execute();
+        assertEquals(2, policy.getCount());
+    }
+
+    /**
+     * Create and initialize a simulator with a TestModel. The events of the replication itself are removed from the event
+     * list, so the tests can execute the message events one by one.
+     * @return SupplyChainSimulator; the initialized simulator
+     */
+    private SupplyChainSimulator makeSimulator()
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        simulator.getEventList().clear();
+        return simulator;
+    }
+
+    /** Test role. */
+    static class TestRole extends Role
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param id String; the id
+         * @param actor Actor; the actor
+         * @param messageReceiver MessageReceiver; the message receiver
+         */
+        TestRole(final String id, final Actor actor, final MessageReceiver messageReceiver)
+        {
+            super(id, actor, messageReceiver);
+        }
+    }
+
+    /** Policy that counts the handled messages. */
+    static class CountingPolicy extends MessagePolicy<TestMessage>
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the number of handled messages. */
+        private int count = 0;
+
+        /**
+         * @param role Role; the role
+         */
+        CountingPolicy(final Role role)
+        {
+            super("CountingPolicy", role, TestMessage.class);
+            role.setMessagePolicy(this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean handleMessage(final TestMessage message)
+        {
+            this.count++;
+            return true;
+        }
+
+        /**
+         * @return int; the number of handled messages
+         */
+        int getCount()
+        {
+            return this.count;
+        }
+    }
+
+}
@@ -66,6 +66,12 @@ public class MessageTest
         /** */
         private static final long serialVersionUID = 1L;
 
+        /** constructor for the checkpoint. */
+        TestMessage()
+        {
+            super();
+        }
+
         /**
          * @param sender Actor
          * @param receiver Actor
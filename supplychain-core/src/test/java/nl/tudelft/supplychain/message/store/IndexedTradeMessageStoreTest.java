@@ -0,0 +1,228 @@
+package nl.tudelft.supplychain.message.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.store.MessageStoreMode;
+import nl.tudelft.simulation.supplychain.message.store.trade.IndexedTradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.store.trade.TradeMessageStoreInterface;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * IndexedTradeMessageStoreTest compares the IndexedTradeMessageStore with the TradeMessageStore. The cost per message for a
+ * growing number of open internal demands is measured in MessageStoreBenchmark in the supplychain-bench module.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class IndexedTradeMessageStoreTest
+{
+    /** the buyer that owns the stores. */
+    private TestActor buyer;
+
+    /** the supplier. */
+    private TestActor supplier;
+
+    /**
+     * Create the model with a buyer and a supplier.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    private void makeModel() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        this.buyer = new TestActor("TA1", "Buyer", model, new OrientedPoint2d(10, 10), "Dallas, TX");
+        this.supplier = new TestActor("TA2", "Supplier", model, new OrientedPoint2d(20, 20), "Austin, TX");
+    }
+
+    /**
+     * Test that the indexed store returns the same messages as the TradeMessageStore.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testSameContent() throws ActorAlreadyDefinedException
+    {
+        makeModel();
+        TradeMessageStore store = new TradeMessageStore();
+        store.setOwner(this.buyer);
+        IndexedTradeMessageStore indexedStore = new IndexedTradeMessageStore();
+        indexedStore.setOwner(this.buyer);
+
+        InternalDemand demand1 = new InternalDemand(this.buyer, null, 10.0, Time.ZERO, Time.ZERO);
+        InternalDemand demand2 = new InternalDemand(this.buyer, null, 20.0, Time.ZERO, Time.ZERO);
+        RequestForQuote rfq1 = new RequestForQuote(this.buyer, this.supplier, demand1, null, Duration.ZERO);
+        RequestForQuote rfq2 = new RequestForQuote(this.buyer, this.supplier, demand2, null, Duration.ZERO);
+        Quote quote1 = new Quote(this.supplier, this.buyer, rfq1, null, 10.0, new Money(100.0, MoneyUnit.USD), Time.ZERO,
+                null, Time.ZERO);
+        for (TradeMessageStoreInterface s : new TradeMessageStoreInterface[] {store, indexedStore})
+        {
+            s.addMessage(demand1, true);
+            s.addMessage(demand2, true);
+            s.addMessage(rfq1, true);
+            s.addMessage(rfq2, true);
+            assertEquals(1, s.getMessageList(demand1.getInternalDemandId(), RequestForQuote.class, true).size());
+            assertSame(rfq1, s.getMessageList(demand1.getInternalDemandId(), RequestForQuote.class, true).get(0));
+            assertEquals(0, s.getMessageList(demand1.getInternalDemandId(), RequestForQuote.class, false).size());
+
+            // the received quote removes the sent rfq from the state, but not from the message list
+            s.addMessage(quote1, false);
+            assertEquals(0, s.getMessageList(demand1.getInternalDemandId(), RequestForQuote.class, true).size());
+            assertEquals(1, s.getMessageList(demand2.getInternalDemandId(), RequestForQuote.class, true).size());
+            assertEquals(1, s.getMessageList(demand1.getInternalDemandId(), RequestForQuote.class).size());
+            assertSame(quote1, s.getMessageList(demand1.getInternalDemandId(), Quote.class, false).get(0));
+
+            s.removeMessage(quote1, false);
+            assertEquals(0, s.getMessageList(demand1.getInternalDemandId(), Quote.class, false).size());
+            assertEquals(0, s.getMessageList(demand1.getInternalDemandId(), Quote.class).size());
+
+            s.removeAllMessages(demand2.getInternalDemandId());
+            assertEquals(0, s.getMessageList(demand2.getInternalDemandId(), RequestForQuote.class, true).size());
+        }
+        assertEquals(1, indexedStore.getNumberOfInternalDemands());
+        assertEquals(0, indexedStore.getMessageList(demand2.getInternalDemandId(), RequestForQuote.class).size());
+    }
+
+    /**
+     * Test the selection of the store mode, and the check for single-threaded access.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void testSingleThreadedMode() throws ActorAlreadyDefinedException, InterruptedException
+    {
+        makeModel();
+        TestModel model = (TestModel) this.buyer.getModel();
+        assertEquals(MessageStoreMode.SYNCHRONIZED, model.getMessageStoreMode());
+        IndexedTradeMessageStore defaultStore = new IndexedTradeMessageStore();
+        assertNull(defaultStore.getMode());
+        defaultStore.setOwner(this.buyer);
+        assertEquals(MessageStoreMode.SYNCHRONIZED, defaultStore.getMode());
+
+        model.setMessageStoreMode(MessageStoreMode.SINGLE_THREADED);
+        IndexedTradeMessageStore modelStore = new IndexedTradeMessageStore();
+        modelStore.setOwner(this.buyer);
+        assertEquals(MessageStoreMode.SINGLE_THREADED, modelStore.getMode());
+        IndexedTradeMessageStore actorStore = new IndexedTradeMessageStore(MessageStoreMode.SYNCHRONIZED);
+        actorStore.setOwner(this.buyer);
+        assertEquals(MessageStoreMode.SYNCHRONIZED, actorStore.getMode());
+
+        // access from the construction thread is allowed while the simulator is not running
+        InternalDemand demand = new InternalDemand(this.buyer, null, 1.0, Time.ZERO, Time.ZERO);
+        modelStore.addMessage(demand, true);
+
+        // while running, the simulator thread owns the store, and access from another thread fails (with -ea)
+        AtomicReference<Throwable> otherThreadResult = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        SupplyChainSimulatorInterface simulator = model.getSimulator();
+        simulator.scheduleEventRel(new Duration(1.0, DurationUnit.HOUR),
+                () -> modelStore.getMessageList(demand.getInternalDemandId(), InternalDemand.class));
+        simulator.scheduleEventRel(new Duration(2.0, DurationUnit.HOUR), () ->
+        {
+            Thread other = new Thread(() ->
+            {
+                try
+                {
+                    modelStore.getMessageList(demand.getInternalDemandId(), InternalDemand.class);
+                }
+                catch (Throwable t)
+                {
+                    otherThreadResult.set(t);
+                }
+            });
+            other.start();
+            try
+            {
+                other.join();
+            }
+            catch (InterruptedException exception)
+            {
+                // ignore
+            }
+            done.countDown();
+        });
+        simulator.start();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        boolean assertionsEnabled = false;
+        assert assertionsEnabled = true;
+        if (assertionsEnabled)
+        {
+            assertTrue(otherThreadResult.get() instanceof IllegalStateException);
+        }
+    }
+
+    /**
+     * Fill both stores with many open demands, each with a sent RFQ, and check that a received quote for each demand replaces
+     * the RFQ of its own demand only.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testManyOpenDemands() throws ActorAlreadyDefinedException
+    {
+        makeModel();
+        fill(new IndexedTradeMessageStore(), 10_000);
+        fill(new TradeMessageStore(), 10_000);
+    }
+
+    /**
+     * Fill the store with open demands, each with a sent RFQ, add a received quote for each demand, and check the content.
+     * @param store TradeMessageStoreInterface; the store to fill
+     * @param openDemands int; the number of open internal demands
+     */
+    private void fill(final TradeMessageStoreInterface store, final int openDemands)
+    {
+        store.setOwner(this.buyer);
+        List<Quote> quotes = new ArrayList<>(openDemands);
+        for (int i = 0; i < openDemands; i++)
+        {
+            InternalDemand demand = new InternalDemand(this.buyer, null, 1.0, Time.ZERO, Time.ZERO);
+            RequestForQuote rfq = new RequestForQuote(this.buyer, this.supplier, demand, null, Duration.ZERO);
+            store.addMessage(demand, true);
+            store.addMessage(rfq, true);
+            quotes.add(new Quote(this.supplier, this.buyer, rfq, null, 1.0, new Money(1.0, MoneyUnit.USD), Time.ZERO, null,
+                    Time.ZERO));
+        }
+        for (int i = 0; i < openDemands - 1; i++)
+        {
+            store.addMessage(quotes.get(i), false);
+        }
+        Quote first = quotes.get(0);
+        Quote last = quotes.get(openDemands - 1);
+        assertTrue(store.getMessageList(first.getInternalDemandId(), RequestForQuote.class, true).isEmpty());
+        assertEquals(1, store.getMessageList(first.getInternalDemandId(), Quote.class, false).size());
+        assertEquals(1, store.getMessageList(last.getInternalDemandId(), RequestForQuote.class, true).size());
+        assertTrue(store.getMessageList(last.getInternalDemandId(), Quote.class, false).isEmpty());
+        store.addMessage(last, false);
+        assertTrue(store.getMessageList(last.getInternalDemandId(), RequestForQuote.class, true).isEmpty());
+    }
+
+}
@@ -0,0 +1,148 @@
+package nl.tudelft.supplychain.message.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.unit.TimeUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.djutils.exceptions.Try;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.dsol.formalisms.eventscheduling.SimEventInterface;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.message.store.trade.LeanTradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.store.trade.TimeoutWheel;
+import nl.tudelft.simulation.supplychain.message.store.trade.TimeoutWheel.Timeout;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * TimeoutWheelTest tests the bucketed time-outs, and their use in the LeanTradeMessageStore.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TimeoutWheelTest
+{
+    /** the simulator. */
+    private SupplyChainSimulator simulator;
+
+    /** the actor. */
+    private TestActor actor;
+
+    /**
+     * Create the model with an actor, and remove the replication events from the event list.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    private void makeModel() throws ActorAlreadyDefinedException
+    {
+        this.simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(this.simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(10, DurationUnit.DAY));
+        this.simulator.initialize(model, replication);
+        this.simulator.getEventList().clear();
+        this.actor = new TestActor("TA", "TestActor", model, new OrientedPoint2d(10, 10), "Dallas, TX");
+    }
+
+    /**
+     * Create an internal demand with a latest delivery date.
+     * @param hours double; the latest delivery date in hours
+     * @return InternalDemand; the internal demand
+     */
+    private InternalDemand demand(final double hours)
+    {
+        return new InternalDemand(this.actor, null, 1.0, Time.ZERO, new Time(hours, TimeUnit.BASE_HOUR));
+    }
+
+    /**
+     * Test the buckets, firing and cancellation of the TimeoutWheel.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testTimeoutWheel() throws ActorAlreadyDefinedException
+    {
+        makeModel();
+        Try.testFail(() -> new TimeoutWheel(this.simulator, Duration.ZERO), IllegalArgumentException.class);
+        TimeoutWheel wheel = new TimeoutWheel(this.simulator, new Duration(1.0, DurationUnit.HOUR));
+        List<Timeout> fired = new ArrayList<>();
+        Timeout t1 = wheel.register(new Time(0.5, TimeUnit.BASE_HOUR), demand(1.0), true, fired::add);
+        Timeout t2 = wheel.register(new Time(0.7, TimeUnit.BASE_HOUR), demand(1.0), true, fired::add);
+        Timeout t3 = wheel.register(new Time(1.0, TimeUnit.BASE_HOUR), demand(1.0), true, fired::add);
+        Timeout t4 = wheel.register(new Time(2.5, TimeUnit.BASE_HOUR), demand(1.0), true, fired::add);
+        assertEquals(4, wheel.size());
+        assertEquals(2, wheel.getNumberOfBuckets());
+        assertEquals(2, this.simulator.getEventList().size());
+
+        assertTrue(wheel.cancel(t2));
+        assertFalse(wheel.cancel(t2));
+        assertFalse(t2.isPending());
+        assertEquals(3, wheel.size());
+
+        // the first bucket fires at the end of the bucket, in order of registration, without the cancelled time-out
+        SimEventInterface<Duration> event = this.simulator.getEventList().removeFirst();
+        assertEquals(1.0, event.getAbsoluteExecutionTime().getInUnit(DurationUnit.HOUR), 1E-9);
+        event.execute();
+        assertEquals(2, fired.size());
+        assertEquals(t1, fired.get(0));
+        assertEquals(t3, fired.get(1));
+        assertFalse(t1.isPending());
+        assertTrue(t4.isPending());
+        assertEquals(1, wheel.size());
+
+        // an empty bucket still fires, but does not call anything
+        assertTrue(wheel.cancel(t4));
+        event = this.simulator.getEventList().removeFirst();
+        assertEquals(3.0, event.getAbsoluteExecutionTime().getInUnit(DurationUnit.HOUR), 1E-9);
+        event.execute();
+        assertEquals(2, fired.size());
+        assertEquals(0, wheel.size());
+        assertEquals(0, wheel.getNumberOfBuckets());
+    }
+
+    /**
+     * Test that the LeanTradeMessageStore removes unanswered messages with one event per bucket.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testLeanStore() throws ActorAlreadyDefinedException
+    {
+        makeModel();
+        LeanTradeMessageStore store = new LeanTradeMessageStore(this.simulator);
+        store.setOwner(this.actor);
+        TimeoutWheel wheel = this.actor.getModel().getTimeoutWheel();
+        List<InternalDemand> demands = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+        {
+            InternalDemand demand = demand(0.5 + i / 400.0);
+            demands.add(demand);
+            store.addMessage(demand, true);
+        }
+        assertEquals(100, wheel.size());
+        assertEquals(1, this.simulator.getEventList().size());
+
+        // removing a message cancels its time-out
+        store.removeMessage(demands.get(0), true);
+        assertEquals(99, wheel.size());
+
+        this.simulator.getEventList().removeFirst().execute();
+        assertEquals(0, wheel.size());
+        for (InternalDemand demand : demands)
+        {
+            assertEquals(0, store.getMessageList(demand.getInternalDemandId(), InternalDemand.class, true).size());
+        }
+    }
+
+}
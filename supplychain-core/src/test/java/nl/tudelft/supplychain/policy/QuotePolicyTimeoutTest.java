@@ -0,0 +1,315 @@
+package nl.tudelft.supplychain.policy;
+
+import static org.junit.Assert.assertEquals;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.unit.SpeedUnit;
+import org.djunits.unit.TimeUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Speed;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.djutils.event.Event;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.jstats.distributions.DistConstant;
+import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.actor.SupplyChainActor;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.MessageDeliveryEvent;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiverDirect;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.OrderBasedOnQuote;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.policy.quote.QuoteComparatorEnum;
+import nl.tudelft.simulation.supplychain.policy.quote.QuotePolicyTimeout;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.role.buying.BuyingActor;
+import nl.tudelft.simulation.supplychain.role.buying.BuyingRole;
+import nl.tudelft.simulation.supplychain.role.financing.FinancingRole;
+import nl.tudelft.simulation.supplychain.role.selling.SellingActor;
+import nl.tudelft.simulation.supplychain.role.selling.SellingRole;
+import nl.tudelft.simulation.supplychain.transport.TransportMode;
+import nl.tudelft.simulation.supplychain.transport.TransportOption;
+import nl.tudelft.simulation.supplychain.transport.TransportOptionStep;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+import nl.tudelft.supplychain.dsol.TestSimulation;
+
+/**
+ * QuotePolicyTimeoutTest tests that the QuotePolicyTimeout orders at the timeout when not all quotes come in, and that it stops
+ * tracking the quotes of a demand at the timeout, whether an order was placed or not. A first quote that comes in after the
+ * cutoff date still leads to an order.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class QuotePolicyTimeoutTest
+{
+    /** the simulator. */
+    private SupplyChainSimulator simulator;
+
+    /** the buyer. */
+    private TradingActor buyer;
+
+    /** the first supplier. */
+    private TradingActor supplier1;
+
+    /** the second supplier. */
+    private TradingActor supplier2;
+
+    /** the product. */
+    private Product product;
+
+    /** the quote policy of the buyer. */
+    private QuotePolicyTimeout policy;
+
+    /** the orders that the buyer sent. */
+    private List<OrderBasedOnQuote> orders;
+
+    /**
+     * Create the model with a buyer with a QuotePolicyTimeout, and two suppliers.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws RemoteException on listener error
+     */
+    private void makeModel() throws ActorAlreadyDefinedException, RemoteException
+    {
+        this.simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(this.simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(10.0, DurationUnit.DAY));
+        this.simulator.initialize(model, replication);
+        this.buyer = new TradingActor("buyer", model);
+        this.supplier1 = new TradingActor("supplier1", model);
+        this.supplier2 = new TradingActor("supplier2", model);
+        this.product = new Product(model, "p1", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        // the orders are sent with a handling time beyond the end of the run, so the suppliers do not receive them
+        Role role = new Role("buying", this.buyer, new MessageReceiverDirect())
+        {
+            /** */
+            private static final long serialVersionUID = 1L;
+        };
+        this.policy = new QuotePolicyTimeout(role, QuoteComparatorEnum.SORT_PRICE_DATE_DISTANCE,
+                new DistContinuousDuration(new DistConstant(new MersenneTwister(1L), 20.0), DurationUnit.DAY), 0.2, 0.1);
+        role.setMessagePolicy(this.policy);
+        this.orders = new ArrayList<>();
+        this.buyer.addListener((final Event event) ->
+        {
+            Object message = ((Object[]) event.getContent())[0];
+            if (message instanceof OrderBasedOnQuote)
+            {
+                this.orders.add((OrderBasedOnQuote) message);
+            }
+        }, SupplyChainActor.SEND_MESSAGE_EVENT);
+    }
+
+    /**
+     * Test a demand for which one of two quotes comes in, and a demand for which only an unacceptable quote comes in.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws InterruptedException when the thread is interrupted while waiting
+     * @throws RemoteException on listener error
+     */
+    @Test
+    public void testTimeout() throws ActorAlreadyDefinedException, InterruptedException, RemoteException
+    {
+        makeModel();
+
+        // demand 1: an acceptable quote of supplier 1 after 2 hours, and a quote of supplier 2 after the cutoff of 1 day
+        Duration cutoff = new Duration(1.0, DurationUnit.DAY);
+        InternalDemand demand1 = new InternalDemand(this.buyer, this.product, 5.0, Time.ZERO, new Time(8.0, TimeUnit.BASE_DAY));
+        RequestForQuote rfq11 = sendRfq(this.buyer, this.supplier1, demand1, cutoff);
+        RequestForQuote rfq12 = sendRfq(this.buyer, this.supplier2, demand1, cutoff);
+        deliverQuote(this.simulator, rfq11, 50.0, 2.0);
+        deliverQuote(this.simulator, rfq12, 40.0, 72.0);
+
+        // demand 2: only a quote of supplier 1 that is too expensive, supplier 2 never answers
+        InternalDemand demand2 = new InternalDemand(this.buyer, this.product, 5.0, Time.ZERO, new Time(8.0, TimeUnit.BASE_DAY));
+        RequestForQuote rfq21 = sendRfq(this.buyer, this.supplier1, demand2, cutoff);
+        sendRfq(this.buyer, this.supplier2, demand2, cutoff);
+        deliverQuote(this.simulator, rfq21, 100.0, 4.0);
+
+        runUpTo(this.simulator, 0.5);
+        assertEquals(2, this.policy.getNumberOfTrackedDemands());
+        assertEquals(0, this.orders.size());
+
+        // at the timeout, demand 1 is ordered at supplier 1, and both demands are no longer tracked
+        runUpTo(this.simulator, 2.0);
+        assertEquals(0, this.policy.getNumberOfTrackedDemands());
+        assertEquals(1, this.orders.size());
+        assertEquals(this.supplier1, this.orders.get(0).getReceiver());
+        assertEquals(demand1.getInternalDemandId(), this.orders.get(0).getInternalDemandId());
+
+        // the late quote of supplier 2 does not lead to a new order, and is not tracked
+        runUpTo(this.simulator, 5.0);
+        assertEquals(0, this.policy.getNumberOfTrackedDemands());
+        assertEquals(1, this.orders.size());
+    }
+
+    /**
+     * Test that a demand still gets an order when its first and only quote comes in after the cutoff date of the RFQs.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws InterruptedException when the thread is interrupted while waiting
+     * @throws RemoteException on listener error
+     */
+    @Test
+    public void testQuoteAfterCutoff() throws ActorAlreadyDefinedException, InterruptedException, RemoteException
+    {
+        makeModel();
+        Duration cutoff = new Duration(1.0, DurationUnit.DAY);
+
+        // demand 1: one RFQ, which is answered after the cutoff
+        InternalDemand demand1 =
+                new InternalDemand(this.buyer, this.product, 5.0, Time.ZERO, new Time(8.0, TimeUnit.BASE_DAY));
+        deliverQuote(this.simulator, sendRfq(this.buyer, this.supplier1, demand1, cutoff), 50.0, 30.0);
+
+        // demand 2: two RFQs, of which only one is answered after the cutoff, so the timeout fires right away
+        InternalDemand demand2 =
+                new InternalDemand(this.buyer, this.product, 5.0, Time.ZERO, new Time(8.0, TimeUnit.BASE_DAY));
+        sendRfq(this.buyer, this.supplier1, demand2, cutoff);
+        deliverQuote(this.simulator, sendRfq(this.buyer, this.supplier2, demand2, cutoff), 50.0, 40.0);
+
+        runUpTo(this.simulator, 3.0);
+        assertEquals(0, this.policy.getNumberOfTrackedDemands());
+        assertEquals(2, this.orders.size());
+        assertEquals(demand1.getInternalDemandId(), this.orders.get(0).getInternalDemandId());
+        assertEquals(this.supplier1, this.orders.get(0).getReceiver());
+        assertEquals(demand2.getInternalDemandId(), this.orders.get(1).getInternalDemandId());
+        assertEquals(this.supplier2, this.orders.get(1).getReceiver());
+    }
+
+    /**
+     * Store a request for quote as sent by the buyer; the supplier does not need to receive it.
+     * @param buyer TradingActor; the buyer
+     * @param supplier TradingActor; the supplier
+     * @param demand InternalDemand; the demand
+     * @param cutoff Duration; the time after which the RFQ stops collecting quotes
+     * @return RequestForQuote; the RFQ
+     */
+    private RequestForQuote sendRfq(final TradingActor buyer, final TradingActor supplier, final InternalDemand demand,
+            final Duration cutoff)
+    {
+        RequestForQuote rfq = new RequestForQuote(buyer, supplier, demand, makeTransportOption(supplier, buyer), cutoff);
+        buyer.getMessageStore().addMessage(rfq, true);
+        return rfq;
+    }
+
+    /**
+     * Schedule the delivery of a quote for the full amount of an RFQ to the buyer.
+     * @param simulator SupplyChainSimulator; the simulator
+     * @param rfq RequestForQuote; the RFQ to answer
+     * @param price double; the price in USD
+     * @param hours double; the time of delivery in hours
+     */
+    private void deliverQuote(final SupplyChainSimulator simulator, final RequestForQuote rfq, final double price,
+            final double hours)
+    {
+        Quote quote = new Quote(rfq.getReceiver(), rfq.getSender(), rfq, rfq.getProduct(), rfq.getAmount(),
+                new Money(price, MoneyUnit.USD), new Time(1.0, TimeUnit.BASE_DAY), rfq.getPreferredTransportOption(),
+                new Time(100.0, TimeUnit.BASE_DAY));
+        simulator.scheduleEvent(new MessageDeliveryEvent(new Duration(hours, DurationUnit.HOUR), quote));
+    }
+
+    /**
+     * @param supplier TradingActor; the supplier
+     * @param buyer TradingActor; the buyer
+     * @return TransportOption; a transport option by truck from the supplier to the buyer
+     */
+    private TransportOption makeTransportOption(final TradingActor supplier, final TradingActor buyer)
+    {
+        TransportOption transportOption = new TransportOption(supplier.getId() + "-" + buyer.getId());
+        TransportOptionStep step = new TransportOptionStep("truck", supplier, buyer,
+                new TransportMode("truck", new Speed(80.0, SpeedUnit.KM_PER_HOUR)));
+        step.setEstimatedLoadingTime(Sku.PIECE, new Duration(2.0, DurationUnit.HOUR));
+        step.setEstimatedUnloadingTime(Sku.PIECE, new Duration(2.0, DurationUnit.HOUR));
+        transportOption.addTransportStep(step);
+        return transportOption;
+    }
+
+    /**
+     * Run the simulator up to a time.
+     * @param simulator SupplyChainSimulator; the simulator
+     * @param days double; the time to run to in days
+     * @throws InterruptedException when the thread is interrupted while waiting
+     */
+    private void runUpTo(final SupplyChainSimulator simulator, final double days) throws InterruptedException
+    {
+        TestSimulation.runUpTo(simulator, new Duration(days, DurationUnit.DAY));
+    }
+
+    /** Actor that can buy and sell, without buying, selling, or financing roles. */
+    public static class TradingActor extends TestActor implements BuyingActor, SellingActor
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param id String; the id
+         * @param model SupplyChainModelInterface; the model
+         * @throws ActorAlreadyDefinedException on error
+         */
+        public TradingActor(final String id, final SupplyChainModelInterface model) throws ActorAlreadyDefinedException
+        {
+            super(id, id, model, new OrientedPoint2d(10, 10), "Dallas, TX");
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public BuyingRole getBuyingRole()
+        {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setBuyingRole(final BuyingRole buyingRole)
+        {
+            // not used
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public SellingRole getSellingRole()
+        {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setSellingRole(final SellingRole sellingRole)
+        {
+            // not used
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public FinancingRole getFinancingRole()
+        {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setFinancingRole(final FinancingRole financingRole)
+        {
+            // not used
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+package nl.tudelft.supplychain.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.unit.SpeedUnit;
+import org.djunits.unit.TimeUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Speed;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.jstats.distributions.DistConstant;
+import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiverDirect;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.policy.quote.QuoteComparator;
+import nl.tudelft.simulation.supplychain.policy.quote.QuoteComparatorEnum;
+import nl.tudelft.simulation.supplychain.policy.quote.QuotePolicyAll;
+import nl.tudelft.simulation.supplychain.policy.quote.QuoteSelection;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.transport.TransportMode;
+import nl.tudelft.simulation.supplychain.transport.TransportOption;
+import nl.tudelft.simulation.supplychain.transport.TransportOptionStep;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * QuoteSelectionTest compares the single-pass selection of the best quote with the selection of the first quote in a TreeSet
+ * that is sorted with the QuoteComparator, for all comparator types.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class QuoteSelectionTest
+{
+    /**
+     * Compare the selected quotes for random sets of quotes, with many equal prices, dates and distances.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testSelectBestQuote() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        TestActor buyer = new TestActor("buyer", "buyer", model, new OrientedPoint2d(0, 0), "loc");
+        Role role = new TestRole(buyer);
+        Product product =
+                new Product(model, "product", Sku.PIECE, new Money(100.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        TransportMode truck = new TransportMode("truck", new Speed(80.0, SpeedUnit.KM_PER_HOUR));
+        InternalDemand demand =
+                new InternalDemand(buyer, product, 10.0, Time.ZERO, new Time(8.0, TimeUnit.BASE_DAY));
+
+        Random random = new Random(3L);
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+        {
+            TestActor supplier = new TestActor("supplier" + i, "supplier" + i, model,
+                    new OrientedPoint2d(100.0 * random.nextInt(4), 0.0), "loc");
+            TransportOption transportOption = new TransportOption("option" + i);
+            TransportOptionStep step = new TransportOptionStep("step" + i, supplier, buyer, truck);
+            step.setEstimatedLoadingTime(Sku.PIECE, new Duration(2.0, DurationUnit.HOUR));
+            step.setEstimatedUnloadingTime(Sku.PIECE, new Duration(2.0, DurationUnit.HOUR));
+            step.setEstimatedLoadingCost(Sku.PIECE, new Money(10.0, MoneyUnit.USD));
+            step.setEstimatedUnloadingCost(Sku.PIECE, new Money(10.0, MoneyUnit.USD));
+            step.setEstimatedTransportCostPerKm(Sku.PIECE, new Money(1.0, MoneyUnit.USD));
+            transportOption.addTransportStep(step);
+            RequestForQuote rfq = new RequestForQuote(buyer, supplier, demand, transportOption, Duration.ZERO);
+            // some quotes are too expensive, some are too late, and some have expired
+            Money price = new Money(10.0 * (90.0 + 10.0 * random.nextInt(4)), MoneyUnit.USD);
+            Time deliveryDate = new Time(1 + random.nextInt(9), TimeUnit.BASE_DAY);
+            Time validity = new Time(random.nextInt(5) == 0 ? 0.0 : 100.0, TimeUnit.BASE_DAY);
+            quotes.add(new Quote(supplier, buyer, rfq, product, 10.0, price, deliveryDate, transportOption, validity));
+        }
+
+        for (QuoteComparatorEnum comparatorType : QuoteComparatorEnum.values())
+        {
+            SelectingQuotePolicy policy = new SelectingQuotePolicy(role, comparatorType);
+            QuoteComparator comparator = new QuoteComparator(role, comparatorType);
+            for (int n = 0; n <= quotes.size(); n += 10)
+            {
+                List<Quote> subList = quotes.subList(0, n);
+                SortedSet<Quote> sortedQuotes = new TreeSet<>(comparator);
+                for (Quote quote : subList)
+                {
+                    if (policy.acceptable(quote))
+                    {
+                        sortedQuotes.add(quote);
+                    }
+                }
+                Quote expected = sortedQuotes.isEmpty() ? null : sortedQuotes.first();
+                assertEquals(comparatorType + ", n=" + n, expected, policy.selectBest(subList));
+
+                // offering the quotes one by one, as QuotePolicyTimeout does, gives the same result
+                QuoteSelection selection = new QuoteSelection(comparator);
+                subList.stream().filter(policy::acceptable).forEach(selection::offer);
+                assertEquals(comparatorType + ", n=" + n, expected, selection.getBestQuote());
+            }
+
+            // a user defined comparator uses the same single pass
+            policy.useComparator(comparator);
+            SortedSet<Quote> sortedQuotes = new TreeSet<>(comparator);
+            quotes.stream().filter(policy::acceptable).forEach(sortedQuotes::add);
+            assertEquals(sortedQuotes.first(), policy.selectBest(quotes));
+        }
+        assertNull(new SelectingQuotePolicy(role, QuoteComparatorEnum.SORT_PRICE_DATE_DISTANCE).selectBest(new ArrayList<>()));
+
+        // a free quote for a product without a market price has a NaN price ratio, and is not acceptable
+        Product freeProduct =
+                new Product(model, "free", Sku.PIECE, new Money(0.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        Quote quote = quotes.get(0);
+        Quote freeQuote = new Quote(quote.getSender(), buyer, quote.getRequestForQuote(), freeProduct, 10.0,
+                new Money(0.0, MoneyUnit.USD), quote.getProposedShippingDate(), quote.getTransportOption(),
+                new Time(100.0, TimeUnit.BASE_DAY));
+        assertFalse(new SelectingQuotePolicy(role, QuoteComparatorEnum.SORT_PRICE_DATE_DISTANCE).acceptable(freeQuote));
+    }
+
+    /** Role of the buyer. */
+    static class TestRole extends Role
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param actor Actor; the actor
+         */
+        TestRole(final Actor actor)
+        {
+            super("buying", actor, new MessageReceiverDirect());
+        }
+    }
+
+    /** Quote policy that makes the selection of the best quote available to the test. */
+    static class SelectingQuotePolicy extends QuotePolicyAll
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param owner Role; the role of the buyer
+         * @param comparatorType QuoteComparatorEnum; the comparator to sort the quotes
+         */
+        SelectingQuotePolicy(final Role owner, final QuoteComparatorEnum comparatorType)
+        {
+            super(owner, comparatorType, new DistContinuousDuration(new DistConstant(new MersenneTwister(1L), 0.0),
+                    DurationUnit.HOUR), 0.2, 0.1);
+        }
+
+        /**
+         * @param quotes List&lt;Quote&gt;; the quotes to select from
+         * @return Quote; the best quote, or null when no quote is acceptable
+         */
+        Quote selectBest(final List<Quote> quotes)
+        {
+            return selectBestQuote(quotes);
+        }
+
+        /**
+         * @param quote Quote; the quote to test
+         * @return boolean; whether the quote passes the validity tests
+         */
+        boolean acceptable(final Quote quote)
+        {
+            return isAcceptable(quote, getSimulator().getAbsSimulatorTime());
+        }
+
+        /**
+         * Use a comparator that is not recognized as QuoteComparator.
+         * @param comparator QuoteComparator; the comparator to wrap
+         */
+        void useComparator(final QuoteComparator comparator)
+        {
+            setQuoteComparator((q1, q2) -> comparator.compare(q1, q2));
+        }
+    }
+
+}
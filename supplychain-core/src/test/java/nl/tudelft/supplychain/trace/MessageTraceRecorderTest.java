@@ -0,0 +1,306 @@
+package nl.tudelft.supplychain.trace;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.Role;
+import nl.tudelft.simulation.supplychain.actor.SupplyChainActor;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.message.policy.MessagePolicy;
+import nl.tudelft.simulation.supplychain.message.receiver.MessageReceiverDirect;
+import nl.tudelft.simulation.supplychain.message.store.trade.EmptyTradeMessageStore;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
+import nl.tudelft.simulation.supplychain.trace.TraceMessageType;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * MessageTraceRecorderTest checks the records that the MessageTraceRecorder writes for the sent and received trade messages.
+ * The overhead of the recording is measured in the MessageTraceRecorderBenchmark of supplychain-bench.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class MessageTraceRecorderTest
+{
+    /** the simulator. */
+    private SupplyChainSimulator simulator;
+
+    /** the model. */
+    private TestModel model;
+
+    /** the buyer. */
+    private TraceActor buyer;
+
+    /** the supplier. */
+    private TraceActor supplier;
+
+    /** the product. */
+    private Product product;
+
+    /**
+     * Create the model with a buyer, a supplier and a product.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    private void makeModel() throws ActorAlreadyDefinedException
+    {
+        this.simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        this.model = new TestModel(this.simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        this.simulator.initialize(this.model, replication);
+        this.simulator.getEventList().clear();
+        this.buyer = new TraceActor("TA1", this.model);
+        this.supplier = new TraceActor("TA2", this.model);
+        new QuotePolicy(new TestRole(this.buyer));
+        new RfqPolicy(new TestRole(this.supplier));
+        new Product(this.model, "dummy", Sku.PIECE, new Money(1.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        this.product = new Product(this.model, "p1", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+    }
+
+    /**
+     * Test the records of the sent and received messages, over more than one segment, and the index file.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws IOException on trace error
+     */
+    @Test
+    public void testRecords() throws ActorAlreadyDefinedException, IOException
+    {
+        makeModel();
+        Path dir = Files.createTempDirectory("trace");
+        try
+        {
+            Path path = dir.resolve("run");
+            MessageTraceRecorder recorder = new MessageTraceRecorder(this.model, path, 4);
+            this.model.setMessageTraceRecorder(recorder);
+
+            InternalDemand demand = new InternalDemand(this.buyer, this.product, 5.0, Time.ZERO, Time.ZERO);
+            this.buyer.sendMessage(demand, Duration.ZERO);
+            RequestForQuote rfq = new RequestForQuote(this.buyer, this.supplier, demand, null, Duration.ZERO);
+            this.buyer.sendMessage(rfq, new Duration(1.0, DurationUnit.HOUR));
+            Quote quote = new Quote(this.supplier, this.buyer, rfq, this.product, 5.0, new Money(50.0, MoneyUnit.EUR),
+                    Time.ZERO, null, Time.ZERO);
+            this.supplier.sendMessage(quote, new Duration(2.0, DurationUnit.HOUR));
+            for (int i = 0; i < 3; i++)
+            {
+                this.simulator.step();
+            }
+            this.model.setMessageTraceRecorder(null);
+            recorder.close();
+            assertEquals(6, recorder.getNumberOfRecords());
+            assertEquals(2, recorder.getNumberOfSegments());
+
+            // segment 0: 3 sent records, and the received demand; segment 1: the received rfq and quote
+            MappedByteBuffer s0 = map(MessageTraceRecorder.getSegmentPath(path, 0));
+            MappedByteBuffer s1 = map(MessageTraceRecorder.getSegmentPath(path, 1));
+            assertRecord(s0, 0, MessageTraceRecorder.KIND_SENT, TraceMessageType.INTERNAL_DEMAND, 0, 0, 5.0, Double.NaN, -1);
+            assertRecord(s0, 1, MessageTraceRecorder.KIND_SENT, TraceMessageType.REQUEST_FOR_QUOTE, 0, 1, 5.0, Double.NaN, -1);
+            assertRecord(s0, 2, MessageTraceRecorder.KIND_SENT, TraceMessageType.QUOTE, 1, 0, 5.0, 50.0, 0);
+            assertRecord(s0, 3, MessageTraceRecorder.KIND_RECEIVED, TraceMessageType.INTERNAL_DEMAND, 0, 0, 5.0, Double.NaN,
+                    -1);
+            assertRecord(s1, 0, MessageTraceRecorder.KIND_RECEIVED, TraceMessageType.REQUEST_FOR_QUOTE, 0, 1, 5.0,
+                    Double.NaN, -1);
+            assertRecord(s1, 1, MessageTraceRecorder.KIND_RECEIVED, TraceMessageType.QUOTE, 1, 0, 5.0, 50.0, 0);
+            assertEquals(0, s1.get(2 * MessageTraceRecorder.RECORD_SIZE + MessageTraceRecorder.OFFSET_KIND));
+            assertEquals(demand.getInternalDemandId(), s1.getLong(MessageTraceRecorder.OFFSET_INTERNAL_DEMAND_ID));
+            assertEquals(quote.getUniqueId(),
+                    s1.getLong(MessageTraceRecorder.RECORD_SIZE + MessageTraceRecorder.OFFSET_MESSAGE_ID));
+            assertEquals(2.0 * 3600.0, s1.getDouble(MessageTraceRecorder.RECORD_SIZE + MessageTraceRecorder.OFFSET_TIME),
+                    1E-6);
+
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(MessageTraceRecorder.getIndexPath(path))))
+            {
+                assertEquals(MessageTraceRecorder.MAGIC, in.readInt());
+                assertEquals(MessageTraceRecorder.VERSION, in.readInt());
+                assertEquals(MessageTraceRecorder.RECORD_SIZE, in.readInt());
+                assertEquals(4, in.readInt());
+                assertEquals(2, in.readInt());
+                assertEquals(6L, in.readLong());
+                assertEquals(0.0, in.readDouble(), 0.0);
+                assertEquals(2, in.readInt());
+                assertEquals("TA1", in.readUTF());
+                assertEquals("TA2", in.readUTF());
+                assertEquals(2, in.readInt());
+                assertEquals("dummy", in.readUTF());
+                assertEquals("p1", in.readUTF());
+                assertEquals(1, in.readInt());
+                assertEquals("EUR", in.readUTF());
+            }
+        }
+        finally
+        {
+            delete(dir);
+        }
+    }
+
+    /**
+     * Check a record.
+     * @param buffer MappedByteBuffer; the segment
+     * @param index int; the index of the record in the segment
+     * @param kind byte; the expected kind
+     * @param type TraceMessageType; the expected message type
+     * @param sender int; the expected index of the sender
+     * @param receiver int; the expected index of the receiver
+     * @param amount double; the expected amount
+     * @param price double; the expected price
+     * @param moneyUnit int; the expected index of the money unit
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    private void assertRecord(final MappedByteBuffer buffer, final int index, final byte kind, final TraceMessageType type,
+            final int sender, final int receiver, final double amount, final double price, final int moneyUnit)
+    {
+        int position = index * MessageTraceRecorder.RECORD_SIZE;
+        assertEquals(kind, buffer.get(position + MessageTraceRecorder.OFFSET_KIND));
+        assertEquals(type, TraceMessageType.ofCode(buffer.get(position + MessageTraceRecorder.OFFSET_TYPE)));
+        assertEquals(sender, buffer.getInt(position + MessageTraceRecorder.OFFSET_SENDER));
+        assertEquals(receiver, buffer.getInt(position + MessageTraceRecorder.OFFSET_RECEIVER));
+        assertEquals(this.product.getIndex(), buffer.getInt(position + MessageTraceRecorder.OFFSET_PRODUCT));
+        assertEquals(amount, buffer.getDouble(position + MessageTraceRecorder.OFFSET_AMOUNT), 0.0);
+        assertEquals(price, buffer.getDouble(position + MessageTraceRecorder.OFFSET_PRICE), 0.0);
+        assertEquals(moneyUnit, buffer.getShort(position + MessageTraceRecorder.OFFSET_MONEY_UNIT));
+    }
+
+    /**
+     * Map a segment file for reading.
+     * @param path Path; the segment file
+     * @return MappedByteBuffer; the mapped segment
+     * @throws IOException on read error
+     */
+    private MappedByteBuffer map(final Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Delete a directory with its files.
+     * @param dir Path; the directory
+     * @throws IOException on delete error
+     */
+    private void delete(final Path dir) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(dir))
+        {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /** Actor that does not store its messages. */
+    static class TraceActor extends SupplyChainActor
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param id String; the id
+         * @param model TestModel; the model
+         * @throws ActorAlreadyDefinedException on error
+         */
+        TraceActor(final String id, final TestModel model) throws ActorAlreadyDefinedException
+        {
+            super(id, id, model, new OrientedPoint2d(10, 10), "Dallas, TX", new EmptyTradeMessageStore());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void checkNecessaryRoles()
+        {
+            // roles are added by the test
+        }
+    }
+
+    /** Role that receives the messages directly. */
+    static class TestRole extends Role
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param owner Actor; the owner
+         */
+        TestRole(final Actor owner)
+        {
+            super("ROLE", owner, new MessageReceiverDirect());
+        }
+    }
+
+    /** Policy that accepts quotes. */
+    static class QuotePolicy extends MessagePolicy<Quote>
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param role Role; the role
+         */
+        QuotePolicy(final Role role)
+        {
+            super("QuotePolicy", role, Quote.class);
+            role.setMessagePolicy(this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean handleMessage(final Quote message)
+        {
+            return true;
+        }
+    }
+
+    /** Policy that accepts requests for quotes. */
+    static class RfqPolicy extends MessagePolicy<RequestForQuote>
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @param role Role; the role
+         */
+        RfqPolicy(final Role role)
+        {
+            super("RfqPolicy", role, RequestForQuote.class);
+            role.setMessagePolicy(this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean handleMessage(final RequestForQuote message)
+        {
+            return true;
+        }
+    }
+
+}
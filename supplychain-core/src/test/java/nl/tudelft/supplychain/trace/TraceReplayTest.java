@@ -0,0 +1,365 @@
+package nl.tudelft.supplychain.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Mass;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djunits.value.vdouble.scalar.Volume;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.djutils.event.Event;
+import org.djutils.event.EventListener;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.actor.ActorNotFoundException;
+import nl.tudelft.simulation.supplychain.actor.SupplyChainActor;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Bank;
+import nl.tudelft.simulation.supplychain.finance.BankAccount;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.inventory.Inventory;
+import nl.tudelft.simulation.supplychain.inventory.InventoryUpdateData;
+import nl.tudelft.simulation.supplychain.message.trade.InternalDemand;
+import nl.tudelft.simulation.supplychain.message.trade.Quote;
+import nl.tudelft.simulation.supplychain.message.trade.RequestForQuote;
+import nl.tudelft.simulation.supplychain.message.trade.TradeMessage;
+import nl.tudelft.simulation.supplychain.product.Product;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.role.banking.BankingRole;
+import nl.tudelft.simulation.supplychain.role.financing.FinancingActor;
+import nl.tudelft.simulation.supplychain.role.financing.FinancingRole;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryActor;
+import nl.tudelft.simulation.supplychain.role.inventory.InventoryRole;
+import nl.tudelft.simulation.supplychain.trace.MessageTraceRecorder;
+import nl.tudelft.simulation.supplychain.trace.TraceMessage;
+import nl.tudelft.simulation.supplychain.trace.TraceMessageType;
+import nl.tudelft.simulation.supplychain.trace.TraceReader;
+import nl.tudelft.simulation.supplychain.trace.TraceReplay;
+import nl.tudelft.supplychain.actor.TestModel;
+import nl.tudelft.supplychain.dsol.TestSimulation;
+
+/**
+ * TraceReplayTest records a run in which actors change their inventory and bank account and send quotes, and checks that the
+ * listeners of a fresh model get the same events when the trace is replayed, with mapped and with streamed segments. The
+ * time of the replay is measured in the TraceReplayBenchmark of supplychain-bench.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TraceReplayTest
+{
+    /** the number of ticks of each actor in the recorded run. */
+    private static final int NR_TICKS = 2000;
+
+    /**
+     * Record a run, and replay it in a fresh model with mapped and with streamed segments.
+     * @throws ActorAlreadyDefinedException on error
+     * @throws ActorNotFoundException on error
+     * @throws IOException on trace error
+     * @throws InterruptedException on sleep error
+     */
+    @Test
+    public void testReplay() throws ActorAlreadyDefinedException, ActorNotFoundException, IOException, InterruptedException
+    {
+        Path dir = Files.createTempDirectory("trace");
+        try
+        {
+            Path path = dir.resolve("run");
+            TestModel recorded = makeModel();
+            EventLog recordedLog = new EventLog(recorded);
+            MessageTraceRecorder recorder = new MessageTraceRecorder(recorded, path, 1000);
+            recorded.setMessageTraceRecorder(recorder);
+            ReplayActor a1 = (ReplayActor) recorded.getActor("A1");
+            ReplayActor a2 = (ReplayActor) recorded.getActor("A2");
+            a1.start(a2);
+            a2.start(a1);
+            run(recorded);
+            recorded.setMessageTraceRecorder(null);
+            recorder.close();
+
+            // per tick: two inventory records, a bank record, a sent and a received quote; plus the interest settlements
+            assertTrue(recorder.getNumberOfRecords() >= 2L * NR_TICKS * 5);
+            assertTrue(recorder.getNumberOfSegments() > 1);
+            assertEquals(recorder.getNumberOfRecords() - 2 * NR_TICKS, recordedLog.getEntries().size());
+
+            for (boolean mapped : new boolean[] {true, false})
+            {
+                TestModel replayed = makeModel();
+                EventLog replayedLog = new EventLog(replayed);
+                try (TraceReader reader = new TraceReader(path, mapped))
+                {
+                    assertEquals(recorder.getNumberOfRecords(), reader.getNumberOfRecords());
+                    TraceReplay replay = new TraceReplay(replayed, reader);
+                    replay.start();
+                    run(replayed);
+                    assertTrue(replay.isFinished());
+                    assertEquals(recorder.getNumberOfRecords(), replay.getNumberOfReplayedRecords());
+                    assertEquals(recordedLog.getEntries(), replayedLog.getEntries());
+                }
+            }
+        }
+        finally
+        {
+            delete(dir);
+        }
+    }
+
+    /**
+     * Create and initialize a model with a bank, two products, and two actors.
+     * @return TestModel; the model
+     * @throws ActorAlreadyDefinedException on error
+     */
+    private TestModel makeModel() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(NR_TICKS, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        Bank bank = new Bank("BANK", "Bank", model, new OrientedPoint2d(0, 0), "Dallas, TX", null);
+        bank.setBankingRole(new BankingRole("BR", bank));
+        new Product(model, "p0", Sku.PIECE, new Money(10.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        new Product(model, "p1", Sku.PIECE, new Money(20.0, MoneyUnit.USD), Mass.ONE, Volume.ONE, 0.0);
+        new ReplayActor("A1", model, bank);
+        new ReplayActor("A2", model, bank);
+        return model;
+    }
+
+    /**
+     * Run a model to the end of the replication.
+     * @param model TestModel; the model
+     * @throws InterruptedException when the thread is interrupted while waiting
+     */
+    private void run(final TestModel model) throws InterruptedException
+    {
+        TestSimulation.run(model.getSimulator());
+    }
+
+    /**
+     * Delete a directory with its files.
+     * @param dir Path; the directory
+     * @throws IOException on delete error
+     */
+    private void delete(final Path dir) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(dir))
+        {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /** Listener that logs the sent messages, inventory changes and bank account changes of the actors of a model. */
+    static class EventLog implements EventListener
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the model. */
+        private final TestModel model;
+
+        /** the logged events. */
+        private final List<String> entries = new ArrayList<>();
+
+        /**
+         * Listen to the events of the actors of a model.
+         * @param model TestModel; the model
+         * @throws ActorNotFoundException on error
+         * @throws RemoteException on network error
+         */
+        EventLog(final TestModel model) throws ActorNotFoundException, RemoteException
+        {
+            this.model = model;
+            for (String id : new String[] {"A1", "A2"})
+            {
+                ReplayActor actor = (ReplayActor) model.getActor(id);
+                actor.addListener(this, SupplyChainActor.SEND_MESSAGE_EVENT);
+                actor.getInventoryRole().getInventory().addListener(this, Inventory.INVENTORY_CHANGE_EVENT);
+                actor.getBankAccount().addListener(this, BankAccount.BANK_ACCOUNT_CHANGED_EVENT);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void notify(final Event event) throws RemoteException
+        {
+            String time = String.valueOf(this.model.getSimulator().getSimulatorTime().si);
+            if (event.getType().equals(SupplyChainActor.SEND_MESSAGE_EVENT))
+            {
+                TradeMessage message = (TradeMessage) ((Object[]) event.getContent())[0];
+                TraceMessageType type;
+                double amount;
+                Money price;
+                if (message instanceof TraceMessage)
+                {
+                    TraceMessage traceMessage = (TraceMessage) message;
+                    type = traceMessage.getType();
+                    amount = traceMessage.getAmount();
+                    price = traceMessage.getPrice();
+                }
+                else
+                {
+                    type = TraceMessageType.of(message.getClass());
+                    amount = type.getAmount(message);
+                    price = type.getPrice(message);
+                }
+                this.entries.add(time + " " + type + " " + message.getSender().getId() + " " + message.getReceiver().getId()
+                        + " " + message.getProduct().getName() + " " + amount + " " + money(price));
+            }
+            else if (event.getType().equals(Inventory.INVENTORY_CHANGE_EVENT))
+            {
+                InventoryUpdateData data = (InventoryUpdateData) event.getContent();
+                this.entries.add(time + " INVENTORY " + data.getProductName() + " " + data.getActualAmount() + " "
+                        + data.getClaimedAmount() + " " + data.getOrderedAmount());
+            }
+            else
+            {
+                this.entries.add(time + " BANK " + money((Money) event.getContent()));
+            }
+        }
+
+        /**
+         * @param money Money; the money, may be null
+         * @return String; the amount and money unit of the money
+         */
+        private String money(final Money money)
+        {
+            return money == null ? "-" : money.getAmount() + " " + money.getMoneyUnit().getName();
+        }
+
+        /**
+         * @return List&lt;String&gt;; the logged events
+         */
+        List<String> getEntries()
+        {
+            return this.entries;
+        }
+    }
+
+    /** Actor that changes its inventory and bank account, and sends a quote to its neighbor each tick. */
+    static class ReplayActor extends MessageTraceRecorderTest.TraceActor implements InventoryActor, FinancingActor
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the inventory role. */
+        private InventoryRole inventoryRole;
+
+        /** the bank account. */
+        private final BankAccount bankAccount;
+
+        /** the neighbor that receives the quotes. */
+        private ReplayActor neighbor;
+
+        /** the request for quote that the quotes answer. */
+        private RequestForQuote rfq;
+
+        /** the number of ticks. */
+        private int ticks = 0;
+
+        /**
+         * @param id String; the id
+         * @param model TestModel; the model
+         * @param bank Bank; the bank
+         * @throws ActorAlreadyDefinedException on error
+         */
+        ReplayActor(final String id, final TestModel model, final Bank bank) throws ActorAlreadyDefinedException
+        {
+            super(id, model);
+            this.inventoryRole = new InventoryRole(this)
+            {
+                /** */
+                private static final long serialVersionUID = 1L;
+            };
+            this.bankAccount = new BankAccount(this, bank, new Money(1.0E6, MoneyUnit.USD));
+            new MessageTraceRecorderTest.QuotePolicy(new MessageTraceRecorderTest.TestRole(this));
+        }
+
+        /**
+         * Schedule the first tick.
+         * @param newNeighbor ReplayActor; the neighbor that receives the quotes
+         */
+        void start(final ReplayActor newNeighbor)
+        {
+            this.neighbor = newNeighbor;
+            Product product = getModel().getProducts().get(0);
+            InternalDemand demand = new InternalDemand(this.neighbor, product, 1.0, Time.ZERO, Time.ZERO);
+            this.rfq = new RequestForQuote(this.neighbor, this, demand, null, Duration.ZERO);
+            getSimulator().scheduleEventRel(new Duration(0.5, DurationUnit.DAY), () -> tick());
+        }
+
+        /**
+         * Buy an amount of a product, use part of it, pay for it, and send a quote to the neighbor.
+         */
+        protected void tick()
+        {
+            this.ticks++;
+            Product product = getModel().getProducts().get(this.ticks % 2);
+            double amount = 1.0 + this.ticks % 7;
+            Money price = new Money(10.0 * amount, MoneyUnit.USD);
+            this.inventoryRole.getInventory().addToInventory(product, amount, price);
+            this.inventoryRole.getInventory().removeFromInventory(product, amount / 2.0);
+            this.bankAccount.withdrawFromBalance(price);
+            sendMessage(new Quote(this, this.neighbor, this.rfq, product, amount, price, Time.ZERO, null, Time.ZERO),
+                    new Duration(this.ticks % 5, DurationUnit.HOUR));
+            if (this.ticks < NR_TICKS)
+            {
+                getSimulator().scheduleEventRel(new Duration(0.5, DurationUnit.DAY), () -> tick());
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public BankAccount getBankAccount()
+        {
+            return this.bankAccount;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public InventoryRole getInventoryRole()
+        {
+            return this.inventoryRole;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setInventoryRole(final InventoryRole inventoryRole)
+        {
+            this.inventoryRole = inventoryRole;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public FinancingRole getFinancingRole()
+        {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setFinancingRole(final FinancingRole financingRole)
+        {
+            // not used
+        }
+    }
+
+}
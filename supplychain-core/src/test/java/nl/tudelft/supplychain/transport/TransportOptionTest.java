@@ -0,0 +1,98 @@
+package nl.tudelft.supplychain.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.unit.SpeedUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Speed;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.finance.Money;
+import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
+import nl.tudelft.simulation.supplychain.product.Sku;
+import nl.tudelft.simulation.supplychain.transport.TransportMode;
+import nl.tudelft.simulation.supplychain.transport.TransportOption;
+import nl.tudelft.simulation.supplychain.transport.TransportOptionStep;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * TransportOptionTest tests the estimates of a TransportOption, and the invalidation of the cached estimates.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TransportOptionTest
+{
+    /**
+     * Test the cached estimates, and their invalidation on changes of the steps, the speed and the distances.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testEstimates() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        TestActor origin = new TestActor("TA1", "TestActor1", model, new OrientedPoint2d(0, 0), "Dallas, TX");
+        TestActor destination =
+                new TestActor("TA2", "TestActor2", model, new OrientedPoint2d(60_000, 80_000), "Austin, TX");
+
+        TransportMode truck = new TransportMode("truck", new Speed(50.0, SpeedUnit.KM_PER_HOUR));
+        TransportOptionStep step = new TransportOptionStep("step", origin, destination, truck);
+        step.setEstimatedLoadingTime(Sku.PIECE, new Duration(1.0, DurationUnit.HOUR));
+        step.setEstimatedUnloadingTime(Sku.PIECE, new Duration(1.0, DurationUnit.HOUR));
+        step.setEstimatedLoadingCost(Sku.PIECE, new Money(10.0, MoneyUnit.USD));
+        step.setEstimatedUnloadingCost(Sku.PIECE, new Money(10.0, MoneyUnit.USD));
+        step.setEstimatedTransportCostPerKm(Sku.PIECE, new Money(1.0, MoneyUnit.USD));
+        TransportOption option = new TransportOption("option");
+        option.addTransportStep(step);
+
+        // 100 km at 50 km/h plus loading and unloading
+        Duration duration = option.estimatedTotalTransportDuration(Sku.PIECE);
+        assertEquals(4.0, duration.getInUnit(DurationUnit.HOUR), 1E-9);
+        Money cost = option.estimatedTotalTransportCost(Sku.PIECE);
+        assertEquals(120.0, cost.getAmount(), 1E-9);
+        assertSame(duration, option.estimatedTotalTransportDuration(Sku.PIECE));
+        assertSame(cost, option.estimatedTotalTransportCost(Sku.PIECE));
+
+        // a change of the speed changes the duration
+        truck.setAverageSpeed(new Speed(100.0, SpeedUnit.KM_PER_HOUR));
+        assertEquals(3.0, option.estimatedTotalTransportDuration(Sku.PIECE).getInUnit(DurationUnit.HOUR), 1E-9);
+        assertEquals(120.0, option.estimatedTotalTransportCost(Sku.PIECE).getAmount(), 1E-9);
+
+        // a change of an estimate of the step changes the cost
+        step.setEstimatedTransportCostPerKm(Sku.PIECE, new Money(2.0, MoneyUnit.USD));
+        assertEquals(220.0, option.estimatedTotalTransportCost(Sku.PIECE).getAmount(), 1E-9);
+
+        // an invalidation of the distances recalculates the estimates
+        duration = option.estimatedTotalTransportDuration(Sku.PIECE);
+        model.getDistanceMatrix().invalidate(origin);
+        assertNotSame(duration, option.estimatedTotalTransportDuration(Sku.PIECE));
+        assertEquals(duration, option.estimatedTotalTransportDuration(Sku.PIECE));
+
+        // an extra step changes both
+        TransportOptionStep back = new TransportOptionStep("back", destination, origin, truck);
+        back.setEstimatedLoadingTime(Sku.PIECE, Duration.ZERO);
+        back.setEstimatedUnloadingTime(Sku.PIECE, Duration.ZERO);
+        back.setEstimatedLoadingCost(Sku.PIECE, new Money(0.0, MoneyUnit.USD));
+        back.setEstimatedUnloadingCost(Sku.PIECE, new Money(0.0, MoneyUnit.USD));
+        back.setEstimatedTransportCostPerKm(Sku.PIECE, new Money(1.0, MoneyUnit.USD));
+        option.addTransportStep(back);
+        assertEquals(4.0, option.estimatedTotalTransportDuration(Sku.PIECE).getInUnit(DurationUnit.HOUR), 1E-9);
+        assertEquals(320.0, option.estimatedTotalTransportCost(Sku.PIECE).getAmount(), 1E-9);
+    }
+
+}
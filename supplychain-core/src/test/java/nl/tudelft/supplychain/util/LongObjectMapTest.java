@@ -0,0 +1,73 @@
+package nl.tudelft.supplychain.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.djutils.exceptions.Try;
+import org.junit.Test;
+
+import nl.tudelft.simulation.supplychain.util.LongObjectMap;
+
+/**
+ * LongObjectMapTest compares the LongObjectMap with a HashMap for random additions and removals.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class LongObjectMapTest
+{
+    /**
+     * Test the LongObjectMap against a HashMap.
+     */
+    @Test
+    public void testLongObjectMap()
+    {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> reference = new HashMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1L));
+        assertNull(map.remove(1L));
+        Try.testFail(() -> map.put(1L, null), NullPointerException.class);
+
+        Random random = new Random(17L);
+        for (int i = 0; i < 200_000; i++)
+        {
+            // a small key range gives many collisions, replacements and removals
+            long key = 1_000_000L + random.nextInt(5_000);
+            if (random.nextInt(3) == 0)
+            {
+                assertEquals(reference.remove(key), map.remove(key));
+            }
+            else
+            {
+                String value = "v" + i;
+                assertEquals(reference.put(key, value), map.put(key, value));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (long key = 1_000_000L; key < 1_005_000L; key++)
+        {
+            assertEquals(reference.get(key), map.get(key));
+            assertEquals(reference.containsKey(key), map.containsKey(key));
+        }
+        assertEquals(reference.size(), map.keys().length);
+        for (long key : map.keys())
+        {
+            assertEquals(reference.get(key), map.get(key));
+        }
+        assertEquals(reference.size(), map.values().size());
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(1_000_001L));
+    }
+
+}
@@ -0,0 +1,84 @@
+package nl.tudelft.supplychain.yellowpage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.DistanceMatrix;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.role.yellowpage.SupplierIndex;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * SupplierIndexTest compares the k-nearest-within-radius queries of the SupplierIndex with a linear search.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class SupplierIndexTest
+{
+    /**
+     * Compare the results of the index with a linear search for random actors and queries.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testNearest() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        DistanceMatrix matrix = model.getDistanceMatrix();
+
+        Random random = new Random(12L);
+        List<Actor> suppliers = new ArrayList<>();
+        for (int i = 0; i < 300; i++)
+        {
+            // a coarse grid, so there are suppliers at the same distance
+            suppliers.add(new TestActor("S" + i, "Supplier" + i, model,
+                    new OrientedPoint2d(10.0 * random.nextInt(50), 10.0 * random.nextInt(50)), "loc"));
+        }
+        SupplierIndex index = new SupplierIndex(matrix, suppliers);
+        assertEquals(300, index.size());
+        assertTrue(index.isValid());
+
+        for (int q = 0; q < 50; q++)
+        {
+            Actor buyer = new TestActor("B" + q, "Buyer" + q, model,
+                    new OrientedPoint2d(500.0 * random.nextDouble(), 500.0 * random.nextDouble()), "loc");
+            double maxDistance = q % 5 == 0 ? Double.MAX_VALUE : 300.0 * random.nextDouble();
+            int maxNumber = q % 7 == 0 ? Integer.MAX_VALUE : random.nextInt(20);
+            List<Actor> expected = suppliers.stream().filter(s -> matrix.getDistanceSi(s, buyer) <= maxDistance)
+                    .sorted(Comparator.comparingDouble((Actor s) -> matrix.getDistanceSi(s, buyer))
+                            .thenComparingInt(s -> suppliers.indexOf(s)))
+                    .limit(maxNumber).collect(Collectors.toList());
+            assertEquals(expected, index.findNearest(buyer, maxDistance, maxNumber));
+        }
+
+        assertTrue(index.findNearest(suppliers.get(0), 1000.0, 0).isEmpty());
+        assertEquals(suppliers.get(0), index.findNearest(suppliers.get(0), 0.0, 1).get(0));
+        matrix.invalidate(suppliers.get(0));
+        assertFalse(index.isValid());
+        assertTrue(new SupplierIndex(matrix, new ArrayList<>()).findNearest(suppliers.get(0), 10.0, 10).isEmpty());
+    }
+
+}
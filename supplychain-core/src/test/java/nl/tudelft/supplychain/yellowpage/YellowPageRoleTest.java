@@ -0,0 +1,131 @@
+package nl.tudelft.supplychain.yellowpage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djunits.value.vdouble.scalar.Time;
+import org.djutils.draw.point.OrientedPoint2d;
+import org.junit.Test;
+
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.supplychain.actor.Actor;
+import nl.tudelft.simulation.supplychain.actor.ActorAlreadyDefinedException;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModelInterface;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulator;
+import nl.tudelft.simulation.supplychain.role.yellowpage.Topic;
+import nl.tudelft.simulation.supplychain.role.yellowpage.YellowPageActor;
+import nl.tudelft.simulation.supplychain.role.yellowpage.YellowPageRole;
+import nl.tudelft.supplychain.actor.TestActor;
+import nl.tudelft.supplychain.actor.TestModel;
+
+/**
+ * YellowPageRoleTest tests the topic hierarchy, and the search for actors on topic and name in the YellowPageRole.
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class YellowPageRoleTest
+{
+    /**
+     * Test the ancestors of topics and the specialization check.
+     */
+    @Test
+    public void testTopic()
+    {
+        Topic electronics = new Topic("Electronics");
+        Topic computers = new Topic("Computers", electronics);
+        Topic laptops = new Topic("Laptops", computers);
+        Topic food = new Topic("Food");
+        assertEquals(Arrays.asList(laptops, computers, electronics), List.copyOf(laptops.getAncestors()));
+        assertEquals(computers, laptops.getParent());
+        assertTrue(Topic.specializationOf(laptops, electronics));
+        assertTrue(Topic.specializationOf(laptops, laptops));
+        assertFalse(Topic.specializationOf(electronics, laptops));
+        assertFalse(Topic.specializationOf(laptops, food));
+        assertFalse(Topic.specializationOf(null, food));
+        assertFalse(Topic.specializationOf(food, null));
+    }
+
+    /**
+     * Test the search for actors on topic and regex, including the cached queries.
+     * @throws ActorAlreadyDefinedException on error
+     */
+    @Test
+    public void testFindActor() throws ActorAlreadyDefinedException
+    {
+        SupplyChainSimulator simulator = new SupplyChainSimulator("sim", Time.ZERO);
+        TestModel model = new TestModel(simulator);
+        SingleReplication<Duration> replication =
+                new SingleReplication<Duration>("rep", Duration.ZERO, Duration.ZERO, new Duration(1, DurationUnit.DAY));
+        simulator.initialize(model, replication);
+        YellowPageRole yp = new TestYP(model).getYellowPageRole();
+
+        Topic electronics = new Topic("Electronics");
+        Topic computers = new Topic("Computers", electronics);
+        Topic food = new Topic("Food");
+        Actor dell = new TestActor("A1", "Dell", model, new OrientedPoint2d(0, 0), "loc");
+        Actor sony = new TestActor("A2", "Sony", model, new OrientedPoint2d(0, 0), "loc");
+        Actor deli = new TestActor("A3", "Deli", model, new OrientedPoint2d(0, 0), "loc");
+        yp.register(dell, computers);
+        yp.register(sony, electronics);
+
+        assertEquals(Arrays.asList(dell, sony), yp.findActor(electronics));
+        assertEquals(Arrays.asList(dell), yp.findActor(computers));
+        assertTrue(yp.findActor(food).isEmpty());
+        assertEquals(Arrays.asList(dell), yp.findActor("De.*"));
+        assertEquals(Arrays.asList(dell), yp.findActor("De.*", electronics));
+        assertTrue(yp.findActor("So.*", computers).isEmpty());
+        assertTrue(yp.findActor("De.*", food).isEmpty());
+
+        // a cached result cannot be changed by the caller, and a registration clears the cache
+        yp.findActor("De.*").clear();
+        assertEquals(Arrays.asList(dell), yp.findActor("De.*"));
+        yp.register(deli, food);
+        assertEquals(Arrays.asList(dell, deli), yp.findActor("De.*"));
+        assertEquals(Arrays.asList(deli), yp.findActor("De.*", food));
+        assertEquals(Arrays.asList(dell), yp.findActor("De.*", electronics));
+    }
+
+    /** YellowPage actor for the tests. */
+    static class TestYP extends TestActor implements YellowPageActor
+    {
+        /** */
+        private static final long serialVersionUID = 1L;
+
+        /** the yellow page role. */
+        private YellowPageRole yellowPageRole;
+
+        /**
+         * @param model SupplyChainModelInterface; the model
+         * @throws ActorAlreadyDefinedException on error
+         */
+        TestYP(final SupplyChainModelInterface model) throws ActorAlreadyDefinedException
+        {
+            super("YP", "YP", model, new OrientedPoint2d(0, 0), "loc");
+            this.yellowPageRole = new YellowPageRole(this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public YellowPageRole getYellowPageRole()
+        {
+            return this.yellowPageRole;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setYellowPageRole(final YellowPageRole yellowPageRole)
+        {
+            this.yellowPageRole = yellowPageRole;
+        }
+    }
+
+}
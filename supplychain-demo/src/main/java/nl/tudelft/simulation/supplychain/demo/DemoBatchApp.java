@@ -0,0 +1,146 @@
+package nl.tudelft.simulation.supplychain.demo;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.cli.CliUtil;
+import org.djutils.logger.CategoryLogger;
+import org.pmw.tinylog.Level;
+
+import nl.tudelft.simulation.supplychain.demo.bullwhip.BullwhipModel;
+import nl.tudelft.simulation.supplychain.demo.mtsmto.MTSMTOModel;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainModel;
+import nl.tudelft.simulation.supplychain.experiment.ActorKpis;
+import nl.tudelft.simulation.supplychain.experiment.ExperimentAggregator;
+import nl.tudelft.simulation.supplychain.experiment.ExperimentRunner;
+import nl.tudelft.simulation.supplychain.experiment.ReplicationModelFactory;
+import nl.tudelft.simulation.supplychain.experiment.ReplicationResult;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * DemoBatchApp runs the demo models headless, on the SupplyChainSimulator without animation, for a number of replications
+ * with different seeds. The replications run in parallel with the ExperimentRunner. At the end of each replication, the
+ * balance of the bank account of each actor and the inventory of each product of each actor are collected with ActorKpis;
+ * the summary of these key performance indicators over the replications is written as CSV to the console or to a file. The
+ * progress of the replications is logged. Example:
+ * 
+ * <pre>
+ * java nl.tudelft.simulation.supplychain.demo.DemoBatchApp --model=BULLWHIP --runLength=3000 --replications=20 --output=kpi.csv
+ * </pre>
+ * <p>
+ * Copyright (c) 2023-2023 Delft University of Technology, Delft, the Netherlands. All rights reserved. <br>
+ * The supply chain Java library uses a BSD-3 style license.
+ * </p>
+ * 
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@Command(description = "Runs the supply chain demo models headless for a number of replications, and writes a KPI summary",
+		name = "DemoBatchApp", mixinStandardHelpOptions = true, version = "1.0")
+public class DemoBatchApp {
+	/** The demo models that can be run. */
+	public enum DemoModel {
+		/** the bullwhip model. */
+		BULLWHIP,
+
+		/** the make-to-stock / make-to-order model. */
+		MTSMTO;
+	}
+
+	/** the model to run. */
+	@Option(names = { "-m", "--model" }, description = "Model to run: ${COMPLETION-CANDIDATES}", defaultValue = "BULLWHIP")
+	private DemoModel model;
+
+	/** the run length in hours. */
+	@Option(names = { "-l", "--runLength" }, description = "Run length of a replication in hours", defaultValue = "3000")
+	private double runLength;
+
+	/** the warmup period in hours. */
+	@Option(names = { "-w", "--warmup" }, description = "Warmup period of a replication in hours", defaultValue = "0")
+	private double warmupPeriod;
+
+	/** the number of replications. */
+	@Option(names = { "-r", "--replications" }, description = "Number of replications with consecutive seeds",
+			defaultValue = "10")
+	private int replications;
+
+	/** the seed of the first replication. */
+	@Option(names = { "-s", "--seed" }, description = "Seed of the first replication", defaultValue = "1")
+	private long baseSeed;
+
+	/** explicit seeds, one per replication. */
+	@Option(names = { "--seeds" }, split = ",", description = "Comma-separated seeds, one replication per seed; "
+			+ "overrides --replications and --seed")
+	private long[] seeds;
+
+	/** the maximum number of replications that run at the same time; 0 for the number of processors. */
+	@Option(names = { "-t", "--threads" }, description = "Number of parallel replications; 0 for the number of processors",
+			defaultValue = "0")
+	private int threads;
+
+	/** the file for the KPI summary, or null for the console. */
+	@Option(names = { "-o", "--output" }, description = "CSV file for the KPI summary; the console when omitted")
+	private String output;
+
+	/**
+	 * Run the replications of the model, and write the KPI summary.
+	 * 
+	 * @throws InterruptedException when the thread is interrupted while waiting for the replications
+	 * @throws IOException when the KPI summary cannot be written
+	 */
+	public void run() throws InterruptedException, IOException {
+		ReplicationModelFactory<SupplyChainModel> modelFactory = this.model == DemoModel.BULLWHIP
+				? (simulator, seed) -> new BullwhipModel(simulator)
+				: (simulator, seed) -> new MTSMTOModel(simulator);
+		ExperimentRunner<SupplyChainModel> runner = new ExperimentRunner<>(this.model.name(), modelFactory,
+				ActorKpis::collect, new Duration(this.warmupPeriod, DurationUnit.HOUR),
+				new Duration(this.runLength, DurationUnit.HOUR));
+		if (this.threads > 0) {
+			runner.setNumberOfThreads(this.threads);
+		}
+		long startMillis = System.currentTimeMillis();
+		ExperimentAggregator aggregator = this.seeds != null ? runner.run(this.seeds)
+				: runner.run(this.replications, this.baseSeed);
+		long wallClockMillis = System.currentTimeMillis() - startMillis;
+
+		for (ReplicationResult result : aggregator.getResults()) {
+			if (result.isCompleted()) {
+				CategoryLogger.always().info("replication {}, seed {}: completed in {} ms", result.getReplicationNumber(),
+						result.getSeed(), result.getWallClockMillis());
+			} else {
+				CategoryLogger.always().warn("replication {}, seed {}: failed ({}) after {} ms",
+						result.getReplicationNumber(), result.getSeed(), result.getFailure(), result.getWallClockMillis());
+			}
+		}
+		CategoryLogger.always().info("{} replications of {} ({} failed) in {} ms with {} threads",
+				aggregator.getNumberOfReplications(), this.model, aggregator.getNumberOfFailedReplications(),
+				wallClockMillis, runner.getNumberOfThreads());
+
+		if (this.output == null) {
+			Writer console = new OutputStreamWriter(System.out);
+			aggregator.writeCsvSummary(console);
+			console.flush();
+		} else {
+			try (Writer writer = new FileWriter(this.output)) {
+				aggregator.writeCsvSummary(writer);
+			}
+		}
+	}
+
+	/**
+	 * @param args the command line arguments; use --help for the options
+	 * @throws InterruptedException when the thread is interrupted while waiting for the replications
+	 * @throws IOException when the KPI summary cannot be written
+	 */
+	public static void main(final String[] args) throws InterruptedException, IOException {
+		CategoryLogger.setAllLogLevel(Level.INFO);
+		DemoBatchApp app = new DemoBatchApp();
+		CliUtil.execute(app, args);
+		app.run();
+	}
+
+}
@@ -68,6 +68,9 @@ public class BullwhipModel extends SupplyChainModel {
 	public BullwhipModel(final SupplyChainSimulatorInterface simulator) {
 		super(simulator);
 		// We don't do anything to prevent state-based replications.
+		// The streams are registered, so an experiment can seed them per replication.
+		getStreamInformation().addStream("mts", new MersenneTwister(2L));
+		getStreamInformation().addStream("mto", new MersenneTwister(4L));
 	}
 
 	/** {@inheritDoc} */
@@ -84,7 +87,7 @@ public class BullwhipModel extends SupplyChainModel {
 			}
 
 			// basics
-			StreamInterface stream = new MersenneTwister();
+			StreamInterface stream = getDefaultStream();
 
 			// Products and BOM
 			Product keyboard = new Product(this, "keyboard", Sku.PIECE, new Money(15.0, MoneyUnit.USD),
@@ -162,8 +165,8 @@ public class BullwhipModel extends SupplyChainModel {
 			// TODO: customer.setMaxDistanceSuppliers(6000.0);
 
 			// Retailers
-			StreamInterface streamMTS = new MersenneTwister(2L);
-			StreamInterface streamMTO = new MersenneTwister(4L);
+			StreamInterface streamMTS = getStream("mts");
+			StreamInterface streamMTO = getStream("mto");
 			DemoRetailer[] mtsRet = new DemoRetailer[5];
 			mtsRet[0] = new DemoRetailer("Seattle_MTS", getSimulator(), new OrientedPoint3d(-200, -270, 1), ing,
 					new Money(100000, MoneyUnit.USD), pc, 4.0, ypCustomerMTS, ypProductionMTS, streamMTS, true);
@@ -198,21 +201,23 @@ public class BullwhipModel extends SupplyChainModel {
 
 			// Suppliers
 
-			// Create the animation.
-			DemoContentAnimator contentAnimator = new DemoContentAnimator(getSimulator());
-
-			contentAnimator.subscribe(ypCustomerMTS);
-			contentAnimator.subscribe(ypCustomerMTO);
-			contentAnimator.subscribe(ypProductionMTS);
-			contentAnimator.subscribe(ypProductionMTO);
-			contentAnimator.subscribe(customer);
-			// contentAnimator.subscribe(marketMTO);
-			for (DemoRetailer r : mtsRet)
-				contentAnimator.subscribe(r);
-			for (DemoRetailer r : mtoRet)
-				contentAnimator.subscribe(r);
-			contentAnimator.subscribe(mtsMan);
-			contentAnimator.subscribe(mtoMan);
+			// Create the animation, only when the model runs in an animator.
+			if (getSimulator() instanceof AnimatorInterface) {
+				DemoContentAnimator contentAnimator = new DemoContentAnimator(getSimulator());
+
+				contentAnimator.subscribe(ypCustomerMTS);
+				contentAnimator.subscribe(ypCustomerMTO);
+				contentAnimator.subscribe(ypProductionMTS);
+				contentAnimator.subscribe(ypProductionMTO);
+				contentAnimator.subscribe(customer);
+				// contentAnimator.subscribe(marketMTO);
+				for (DemoRetailer r : mtsRet)
+					contentAnimator.subscribe(r);
+				for (DemoRetailer r : mtoRet)
+					contentAnimator.subscribe(r);
+				contentAnimator.subscribe(mtsMan);
+				contentAnimator.subscribe(mtoMan);
+			}
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
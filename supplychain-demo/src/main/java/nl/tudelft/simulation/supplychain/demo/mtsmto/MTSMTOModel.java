@@ -20,8 +20,8 @@ import nl.tudelft.simulation.supplychain.demo.reference.DemoManufacturer;
 import nl.tudelft.simulation.supplychain.demo.reference.DemoMarket;
 import nl.tudelft.simulation.supplychain.demo.reference.DemoRetailer;
 import nl.tudelft.simulation.supplychain.demo.reference.DemoYP;
-import nl.tudelft.simulation.supplychain.dsol.SupplyChainAnimator;
 import nl.tudelft.simulation.supplychain.dsol.SupplyChainModel;
+import nl.tudelft.simulation.supplychain.dsol.SupplyChainSimulatorInterface;
 import nl.tudelft.simulation.supplychain.finance.Bank;
 import nl.tudelft.simulation.supplychain.finance.Money;
 import nl.tudelft.simulation.supplychain.finance.MoneyUnit;
@@ -45,16 +45,19 @@ public class MTSMTOModel extends SupplyChainModel {
 	private static final long serialVersionUID = 20221201L;
 
 	/** the simulator. */
-	private SupplyChainAnimator devsSimulator;
+	private SupplyChainSimulatorInterface devsSimulator;
 
 	/**
 	 * constructs a new MTSMTOModel.
 	 * 
-	 * @param simulator the simulator
+	 * @param simulator the simulator, which can be an animator or a headless simulator
 	 */
-	public MTSMTOModel(final SupplyChainAnimator simulator) {
+	public MTSMTOModel(final SupplyChainSimulatorInterface simulator) {
 		super(simulator);
 		// We don't do anything to prevent state-based replications.
+		// The streams are registered, so an experiment can seed them per replication.
+		getStreamInformation().addStream("mts", new MersenneTwister(2L));
+		getStreamInformation().addStream("mto", new MersenneTwister(4L));
 	}
 
 	/** {@inheritDoc} */
@@ -71,8 +74,8 @@ public class MTSMTOModel extends SupplyChainModel {
 			}
 
 			// basics
-			StreamInterface streamMTS = new MersenneTwister();
-			StreamInterface streamMTO = new MersenneTwister();
+			StreamInterface streamMTS = getStream("mts");
+			StreamInterface streamMTO = getStream("mto");
 
 			// Products and BOM
 			Product keyboard = new Product(this, "keyboard", Sku.PIECE, new Money(15.0, MoneyUnit.USD),
@@ -150,21 +153,23 @@ public class MTSMTOModel extends SupplyChainModel {
 
 			// Suppliers
 
-			// Create the animation.
-			DemoContentAnimator contentAnimator = new DemoContentAnimator(getSimulator());
-
-			contentAnimator.subscribe(ypCustomerMTS);
-			contentAnimator.subscribe(ypCustomerMTO);
-			contentAnimator.subscribe(ypProductionMTS);
-			contentAnimator.subscribe(ypProductionMTO);
-			contentAnimator.subscribe(marketMTS);
-			contentAnimator.subscribe(marketMTO);
-			for (DemoRetailer r : mtsRet)
-				contentAnimator.subscribe(r);
-			for (DemoRetailer r : mtoRet)
-				contentAnimator.subscribe(r);
-			contentAnimator.subscribe(mtsMan);
-			contentAnimator.subscribe(mtoMan);
+			// Create the animation, only when the model runs in an animator.
+			if (getSimulator() instanceof AnimatorInterface) {
+				DemoContentAnimator contentAnimator = new DemoContentAnimator(getSimulator());
+
+				contentAnimator.subscribe(ypCustomerMTS);
+				contentAnimator.subscribe(ypCustomerMTO);
+				contentAnimator.subscribe(ypProductionMTS);
+				contentAnimator.subscribe(ypProductionMTO);
+				contentAnimator.subscribe(marketMTS);
+				contentAnimator.subscribe(marketMTO);
+				for (DemoRetailer r : mtsRet)
+					contentAnimator.subscribe(r);
+				for (DemoRetailer r : mtoRet)
+					contentAnimator.subscribe(r);
+				contentAnimator.subscribe(mtsMan);
+				contentAnimator.subscribe(mtoMan);
+			}
 		} catch (Exception e) {
 			e.printStackTrace();
 		}